@@ -87,6 +87,14 @@ public abstract class BaseNumberBuilder {
         return nb.charAt(nb.length() - 1) == MathType.EXPONENT;
     }
 
+    /**
+     * @return true if no number is being built and numeral base is not set explicitly, i.e. the text processed so far
+     * doesn't affect the processing of the rest of the text
+     */
+    public boolean isIdle() {
+        return numberBuilder == null && getNumeralBase() == engine.getMathEngine().getNumeralBase();
+    }
+
     public boolean isHexMode() {
         return getNumeralBase() == NumeralBase.hex;
     }
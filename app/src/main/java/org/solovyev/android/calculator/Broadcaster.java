@@ -1,6 +1,8 @@
 package org.solovyev.android.calculator;
 
 import android.app.Application;
+import android.appwidget.AppWidgetManager;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
@@ -9,6 +11,7 @@ import android.os.Handler;
 import com.squareup.otto.Bus;
 import com.squareup.otto.Subscribe;
 
+import org.solovyev.android.Check;
 import org.solovyev.android.calculator.widget.CalculatorWidget;
 
 import javax.annotation.Nonnull;
@@ -19,15 +22,31 @@ import javax.inject.Singleton;
 public class Broadcaster implements SharedPreferences.OnSharedPreferenceChangeListener {
 
     public static final String ACTION_INIT = "org.solovyev.android.calculator.INIT";
-    public static final String ACTION_EDITOR_STATE_CHANGED = "org.solovyev.android.calculator.EDITOR_STATE_CHANGED";
-    public static final String ACTION_DISPLAY_STATE_CHANGED = "org.solovyev.android.calculator.DISPLAY_STATE_CHANGED";
+    public static final String ACTION_STATE_CHANGED = "org.solovyev.android.calculator.STATE_CHANGED";
     public static final String ACTION_THEME_CHANGED = "org.solovyev.android.calculator.THEME_CHANGED";
+    /**
+     * Changes of the editor and of the display made within this interval are sent in one broadcast
+     */
+    static final long DELAY_MS = 32;
     @Nonnull
     private final Context context;
+    @Nonnull
+    private final Handler handler;
+    @Nonnull
+    private final Runnable flusher = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private boolean pending;
+    private int sent;
+    private int suppressed;
 
     @Inject
     public Broadcaster(@Nonnull Application application, @Nonnull SharedPreferences preferences, @Nonnull Bus bus, @Nonnull Handler handler) {
         this.context = application;
+        this.handler = handler;
         preferences.registerOnSharedPreferenceChangeListener(this);
         bus.register(this);
         handler.postDelayed(new Runnable() {
@@ -41,17 +60,35 @@ public class Broadcaster implements SharedPreferences.OnSharedPreferenceChangeLi
 
     @Subscribe
     public void onEditorChanged(@Nonnull Editor.ChangedEvent e) {
-        sendBroadcastIntent(ACTION_EDITOR_STATE_CHANGED);
+        onStateChanged();
     }
 
     @Subscribe
     public void onDisplayChanged(@Nonnull Display.ChangedEvent e) {
-        sendBroadcastIntent(ACTION_DISPLAY_STATE_CHANGED);
+        onStateChanged();
     }
 
     @Subscribe
     public void onCursorMoved(@Nonnull Editor.CursorMovedEvent e) {
-        sendBroadcastIntent(ACTION_EDITOR_STATE_CHANGED);
+        onStateChanged();
+    }
+
+    private void onStateChanged() {
+        Check.isMainThread();
+        if (pending) {
+            // will be sent with the broadcast which is already scheduled
+            suppressed++;
+            return;
+        }
+        pending = true;
+        handler.postDelayed(flusher, DELAY_MS);
+    }
+
+    private void flush() {
+        pending = false;
+        // the widget reads the current state of the editor and of the display when it receives the broadcast, i.e.
+        // one broadcast delivers all the changes
+        sendBroadcastIntent(ACTION_STATE_CHANGED);
     }
 
     public void sendInitIntent() {
@@ -59,11 +96,42 @@ public class Broadcaster implements SharedPreferences.OnSharedPreferenceChangeLi
     }
 
     public void sendBroadcastIntent(@Nonnull String action) {
+        if (!hasWidgets()) {
+            suppressed++;
+            return;
+        }
+        sent++;
         final Intent intent = new Intent(action);
         intent.setClass(context, CalculatorWidget.class);
         context.sendBroadcast(intent);
     }
 
+    private boolean hasWidgets() {
+        final AppWidgetManager manager = AppWidgetManager.getInstance(context);
+        if (manager == null) {
+            return false;
+        }
+        final int[] widgetIds = manager.getAppWidgetIds(new ComponentName(context, CalculatorWidget.class));
+        // the system sends APPWIDGET_UPDATE itself when a widget is added, i.e. nothing is lost if we don't send
+        // broadcasts now
+        return widgetIds != null && widgetIds.length > 0;
+    }
+
+    /**
+     * @return number of broadcasts sent to the widget
+     */
+    public int getSentCount() {
+        return sent;
+    }
+
+    /**
+     * @return number of broadcasts which were not sent, either because they were merged into another broadcast or
+     * because there is no widget to receive them
+     */
+    public int getSuppressedCount() {
+        return suppressed;
+    }
+
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
         if (Preferences.Gui.theme.isSameKey(key) || Preferences.Widget.theme.isSameKey(key)) {
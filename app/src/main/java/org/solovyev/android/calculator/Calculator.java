@@ -26,7 +26,6 @@ import android.content.SharedPreferences;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 import android.text.TextUtils;
-import android.util.Log;
 
 import com.squareup.otto.Bus;
 import com.squareup.otto.Subscribe;
@@ -60,10 +59,13 @@ import javax.measure.converter.ConversionException;
 
 import jscl.JsclArithmeticException;
 import jscl.MathEngine;
+import jscl.MathSettings;
 import jscl.NumeralBase;
+import jscl.math.Expression;
 import jscl.math.Generic;
 import jscl.math.function.Constants;
 import jscl.math.function.IConstant;
+import jscl.math.operator.Rand;
 import jscl.text.ParseInterruptedException;
 
 @Singleton
@@ -79,6 +81,8 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
     final Bus bus;
     @Nonnull
     private final TaskExecutor executor = new TaskExecutor();
+    @Nonnull
+    private final EvaluationCache cache = new EvaluationCache();
 
     private volatile boolean calculateOnFly = true;
 
@@ -123,16 +127,31 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
 
     public long evaluate(@Nonnull final JsclOperation operation, @Nonnull final String expression,
             final long sequence) {
+        return evaluate(operation, expression, sequence, TaskExecutor.Priority.high);
+    }
+
+    private long evaluate(@Nonnull final JsclOperation operation, @Nonnull final String expression,
+            final long sequence, @Nonnull TaskExecutor.Priority priority) {
         executor.execute(new Runnable() {
             @Override
             public void run() {
                 evaluateAsync(sequence, operation, expression);
             }
-        }, true);
+        }, priority, true);
 
         return sequence;
     }
 
+    @Nonnull
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    @Nonnull
+    TaskExecutor.Stats getExecutorStats() {
+        return executor.getStats();
+    }
+
     public void init(@Nonnull Executor init) {
         engine.init(init);
         setCalculateOnFly(Preferences.Calculations.calculateOnFly.getPreference(preferences));
@@ -159,6 +178,22 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
                                @Nonnull JsclOperation o,
                                @Nonnull String e,
                                @Nonnull MessageRegistry mr) {
+        final MathEngine mathEngine = engine.getMathEngine();
+        // evaluation and formatting of the result use the same settings even if they are changed in the meantime,
+        // messages are reported only to the registry of this evaluation
+        final MathSettings previous = mathEngine.setThreadSettings(mathEngine.getSettings().withMessageRegistry(mr));
+        try {
+            evaluate(sequence, o, e, mr, mathEngine);
+        } finally {
+            mathEngine.setThreadSettings(previous);
+        }
+    }
+
+    private void evaluate(long sequence,
+                          @Nonnull JsclOperation o,
+                          @Nonnull String e,
+                          @Nonnull MessageRegistry mr,
+                          @Nonnull MathEngine mathEngine) {
         e = e.trim();
         if (TextUtils.isEmpty(e)) {
             bus.post(new CalculationFinishedEvent(o, e, sequence));
@@ -170,17 +205,31 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
             pe = prepare(e);
 
             try {
-                final MathEngine mathEngine = engine.getMathEngine();
-                mathEngine.setMessageRegistry(mr);
-
-                final Generic result = o.evaluateGeneric(pe.value, mathEngine);
-
-                // NOTE: toString() method must be called here as ArithmeticOperationException may occur in it (just to avoid later check!)
-                //noinspection ResultOfMethodCallIgnored
-                result.toString();
+                final EvaluationCache.Key key = isCacheable(pe) ? cache.newKey(pe.value, o, mathEngine.getAngleUnits(), mathEngine.getNumeralBase()) : null;
+                final EvaluationCache.Value cached = key != null ? cache.get(key) : null;
+
+                final Generic result;
+                final List<Message> messages;
+                if (cached != null) {
+                    result = cached.result;
+                    messages = cached.messages;
+                } else {
+                    final Generic parsed = Expression.valueOf(pe.value);
+                    result = o.evaluateGeneric(pe.value, parsed, mathEngine);
+
+                    // NOTE: toString() method must be called here as ArithmeticOperationException may occur in it (just to avoid later check!)
+                    //noinspection ResultOfMethodCallIgnored
+                    result.toString();
+
+                    messages = collectMessages(mr);
+                    // functions might use "ans" or "rand" too => parsed expression is checked (only on cache misses)
+                    if (key != null && EvaluationCache.isCacheable(parsed)) {
+                        cache.put(key, new EvaluationCache.Value(result, messages));
+                    }
+                }
 
                 final String stringResult = o.getFromProcessor(engine).process(result);
-                bus.post(new CalculationFinishedEvent(o, e, sequence, result, stringResult, collectMessages(mr)));
+                bus.post(new CalculationFinishedEvent(o, e, sequence, result, stringResult, messages));
 
             } catch (JsclArithmeticException exception) {
                 bus.post(new CalculationFailedEvent(o, e, sequence, exception));
@@ -200,22 +249,23 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
         }
     }
 
+    private static boolean isCacheable(@Nonnull PreparedExpression pe) {
+        // value of "ans" is changed after every calculation (without notification) and "rand" gives different results
+        // each time
+        return !pe.value.contains(Constants.ANS) && !pe.value.contains(Rand.NAME);
+    }
+
     @Nonnull
     private List<Message> collectMessages(@Nonnull MessageRegistry mr) {
-        if (mr.hasMessage()) {
-            try {
-                final List<Message> messages = new ArrayList<>();
-                while (mr.hasMessage()) {
-                    messages.add(mr.getMessage());
-                }
-                return messages;
-            } catch (Throwable exception) {
-                // several threads might use the same instance of MessageRegistry, as no proper synchronization is done
-                // catch Throwable here
-                Log.e("Calculator", exception.getMessage(), exception);
-            }
+        if (!mr.hasMessage()) {
+            return Collections.emptyList();
+        }
+        // registry is used only by the current evaluation => no synchronization is needed
+        final List<Message> messages = new ArrayList<>();
+        while (mr.hasMessage()) {
+            messages.add(mr.getMessage());
         }
-        return Collections.emptyList();
+        return messages;
     }
 
     @Nonnull
@@ -256,7 +306,7 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
                     bus.post(new ConversionFailedEvent(state));
                 }
             }
-        }, false);
+        }, TaskExecutor.Priority.high, false);
     }
 
     public boolean canConvert(@Nonnull Generic generic, @NonNull NumeralBase from, @Nonnull NumeralBase to) {
@@ -279,7 +329,7 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
         if (!e.shouldEvaluate()) {
             return;
         }
-        evaluate(JsclOperation.numeric, e.newState.getTextString(), e.newState.sequence);
+        evaluate(JsclOperation.numeric, e.newState.getTextString(), e.newState.sequence, TaskExecutor.Priority.normal);
     }
 
     @Subscribe
@@ -309,32 +359,38 @@ public class Calculator implements SharedPreferences.OnSharedPreferenceChangeLis
 
     @Subscribe
     public void onFunctionAdded(@Nonnull FunctionsRegistry.AddedEvent event) {
+        cache.invalidate();
         evaluate();
     }
 
     @Subscribe
     public void onFunctionsChanged(@Nonnull FunctionsRegistry.ChangedEvent event) {
+        cache.invalidate();
         evaluate();
     }
 
     @Subscribe
     public void onFunctionsRemoved(@Nonnull FunctionsRegistry.RemovedEvent event) {
+        cache.invalidate();
         evaluate();
     }
 
     @Subscribe
     public void onVariableRemoved(@NonNull VariablesRegistry.RemovedEvent e) {
+        cache.invalidate();
         evaluate();
     }
 
     @Subscribe
     public void onVariableAdded(@NonNull VariablesRegistry.AddedEvent e) {
+        cache.invalidate();
         evaluate();
     }
 
     @Subscribe
     public void onVariableChanged(@NonNull VariablesRegistry.ChangedEvent e) {
         if (!e.newVariable.getName().equals(Constants.ANS)) {
+            cache.invalidate();
             evaluate();
         }
     }
@@ -103,6 +103,8 @@ public class Engine implements SharedPreferences.OnSharedPreferenceChangeListene
 
         this.mathEngine.setPrecision(5);
         this.mathEngine.setGroupingSeparator(JsclMathEngine.GROUPING_SEPARATOR_DEFAULT);
+        // big numbers, polynomials and vectors are processed on all cores
+        mathEngine.setThreads(Runtime.getRuntime().availableProcessors());
     }
 
     private static void migratePreference(@Nonnull SharedPreferences preferences, @Nonnull StringPreference<?> preference, @Nonnull String oldKey, @Nonnull SharedPreferences.Editor editor) {
@@ -270,14 +272,15 @@ public class Engine implements SharedPreferences.OnSharedPreferenceChangeListene
 
     private void applyPreferences() {
         Check.isMainThread();
-        mathEngine.setAngleUnits(Preferences.angleUnit.getPreference(preferences));
-        mathEngine.setNumeralBase(Preferences.numeralBase.getPreference(preferences));
+        // all settings are replaced at once => evaluations running in background never see a half-applied state
+        mathEngine.setSettings(mathEngine.getSettings()
+                .withAngleUnits(Preferences.angleUnit.getPreference(preferences))
+                .withNumeralBase(Preferences.numeralBase.getPreference(preferences))
+                .withPrecision(Preferences.Output.precision.getPreference(preferences))
+                .withNotation(Preferences.Output.notation.getPreference(preferences).id)
+                .withGroupingSeparator(Preferences.Output.separator.getPreference(preferences)));
         setMultiplicationSign(Preferences.multiplicationSign.getPreference(preferences));
 
-        mathEngine.setPrecision(Preferences.Output.precision.getPreference(preferences));
-        mathEngine.setNotation(Preferences.Output.notation.getPreference(preferences).id);
-        mathEngine.setGroupingSeparator(Preferences.Output.separator.getPreference(preferences));
-
         bus.post(ChangedEvent.INSTANCE);
     }
 
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2013 serso aka se.solovyev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Contact details
+ *
+ * Email: se.solovyev@gmail.com
+ * Site:  http://se.solovyev.org
+ */
+
+package org.solovyev.android.calculator;
+
+import org.solovyev.android.calculator.jscl.JsclOperation;
+import org.solovyev.common.msg.Message;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+import jscl.AngleUnit;
+import jscl.NumeralBase;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.GenericVariable;
+import jscl.math.Literal;
+import jscl.math.TimeDependent;
+import jscl.math.Variable;
+import jscl.math.function.Constant;
+import jscl.math.function.Constants;
+import jscl.math.function.CustomFunction;
+import jscl.math.operator.AbstractFunction;
+
+/**
+ * Bounded LRU cache of the results of {@link Calculator}. While typing, the same expression is often evaluated several
+ * times (e.g. when a character is typed and then erased), such expressions are not parsed again.
+ * <p/>
+ * Results depend on the functions and variables of the registries: any change in them must be followed by
+ * {@link #invalidate()}. As a new version is started by invalidation, results of the evaluations which were started
+ * before it are never put into the cache.
+ */
+public class EvaluationCache {
+
+    static final int MAX_SIZE = 50;
+
+    @GuardedBy("this")
+    @Nonnull
+    private final Map<Key, Value> values;
+    @GuardedBy("this")
+    private long version;
+    @GuardedBy("this")
+    private long hits;
+    @GuardedBy("this")
+    private long misses;
+
+    public EvaluationCache() {
+        this(MAX_SIZE);
+    }
+
+    EvaluationCache(final int maxSize) {
+        values = new LinkedHashMap<Key, Value>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Nonnull
+    public synchronized Key newKey(@Nonnull String expression, @Nonnull JsclOperation operation, @Nonnull AngleUnit angleUnits, @Nonnull NumeralBase numeralBase) {
+        return new Key(expression, operation, angleUnits, numeralBase, version);
+    }
+
+    @Nullable
+    public synchronized Value get(@Nonnull Key key) {
+        final Value value = values.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(@Nonnull Key key, @Nonnull Value value) {
+        if (key.version != version) {
+            // registries have been changed during the evaluation
+            return;
+        }
+        values.put(key, value);
+    }
+
+    /**
+     * @return false if the value of <var>expression</var> might change without any change in the registries, i.e. if it
+     * contains "ans" or "rand" (directly or in the body of some custom function)
+     */
+    public static boolean isCacheable(@Nonnull Generic expression) {
+        if (expression instanceof Expression) {
+            final Expression e = (Expression) expression;
+            for (int i = 0; i < e.size(); i++) {
+                final Literal literal = e.literal(i);
+                for (int j = 0; j < literal.size(); j++) {
+                    if (!isCacheable(literal.getVariable(j))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCacheable(@Nonnull Variable variable) {
+        if (variable instanceof TimeDependent) {
+            return false;
+        } else if (variable instanceof Constant) {
+            // value of "ans" is changed after every calculation without notification
+            return !Constants.ANS.equals(variable.getName());
+        } else if (variable instanceof GenericVariable) {
+            return isCacheable(GenericVariable.content(variable.expressionValue()));
+        } else if (variable instanceof AbstractFunction) {
+            if (variable instanceof CustomFunction && !isCacheable(((CustomFunction) variable).selfExpand())) {
+                return false;
+            }
+            for (Generic parameter : ((AbstractFunction) variable).getParameters()) {
+                if (parameter != null && !isCacheable(parameter)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        values.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    public static final class Key {
+        @Nonnull
+        private final String expression;
+        @Nonnull
+        private final JsclOperation operation;
+        @Nonnull
+        private final AngleUnit angleUnits;
+        @Nonnull
+        private final NumeralBase numeralBase;
+        private final long version;
+
+        private Key(@Nonnull String expression, @Nonnull JsclOperation operation, @Nonnull AngleUnit angleUnits, @Nonnull NumeralBase numeralBase, long version) {
+            this.expression = expression;
+            this.operation = operation;
+            this.angleUnits = angleUnits;
+            this.numeralBase = numeralBase;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Key that = (Key) o;
+            return version == that.version
+                    && expression.equals(that.expression)
+                    && operation == that.operation
+                    && angleUnits == that.angleUnits
+                    && numeralBase == that.numeralBase;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = expression.hashCode();
+            result = 31 * result + operation.hashCode();
+            result = 31 * result + angleUnits.hashCode();
+            result = 31 * result + numeralBase.hashCode();
+            result = 31 * result + (int) (version ^ (version >>> 32));
+            return result;
+        }
+    }
+
+    public static final class Value {
+        @Nonnull
+        public final Generic result;
+        @Nonnull
+        public final List<Message> messages;
+
+        public Value(@Nonnull Generic result, @Nonnull List<Message> messages) {
+            this.result = result;
+            this.messages = messages;
+        }
+    }
+}
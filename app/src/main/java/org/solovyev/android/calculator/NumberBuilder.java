@@ -25,8 +25,8 @@ package org.solovyev.android.calculator;
 import android.text.SpannableString;
 import android.text.SpannableStringBuilder;
 import android.text.Spanned;
-import jscl.MathContext;
 import jscl.MathEngine;
+import jscl.MathSettings;
 import jscl.NumeralBase;
 import jscl.text.DoubleParser;
 import jscl.text.JsclIntegerParser;
@@ -67,10 +67,10 @@ public class NumberBuilder extends BaseNumberBuilder {
     }
 
     @Nonnull
-    private static Double toDouble(@Nonnull String s, @Nonnull NumeralBase nb, @Nonnull final MathContext mc) throws NumberFormatException {
-        final NumeralBase defaultNb = mc.getNumeralBase();
+    private static Double toDouble(@Nonnull String s, @Nonnull NumeralBase nb, @Nonnull final MathEngine me) throws NumberFormatException {
+        // numeral base is changed only for the current thread
+        final MathSettings previous = me.setThreadSettings(me.getSettings().withNumeralBase(nb));
         try {
-            mc.setNumeralBase(nb);
 
             final Parser.Parameters p = Parser.Parameters.get(s);
             try {
@@ -87,7 +87,7 @@ public class NumberBuilder extends BaseNumberBuilder {
             }
 
         } finally {
-            mc.setNumeralBase(defaultNb);
+            me.setThreadSettings(previous);
         }
     }
 
@@ -1,121 +1,273 @@
 package org.solovyev.android.calculator;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.util.Log;
 
 import org.solovyev.android.Check;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 
+/**
+ * Executes calculations on a small fixed pool of threads. Tasks are ordered by their priority and then by the order of
+ * submission. The latest cancellable task always wins over the older cancellable tasks of the same or lower priority:
+ * once it is submitted they are dropped from the queue (if they haven't started yet) or interrupted (if they are
+ * running). Older tasks of higher priority (e.g. explicitly requested by the user) are kept and run first.
+ * <p>
+ * Non-cancellable tasks (e.g. conversions) can't be interrupted and might run for a long time, so they have their own
+ * thread and never delay cancellable tasks. As all older cancellable tasks of the same or lower priority are
+ * interrupted, the latest one waits at most until the tasks of higher priority finish and one of the interrupted tasks
+ * notices its interruption and frees the thread.
+ */
 class TaskExecutor {
 
-    private class Task implements Runnable {
+    enum Priority {
+        // on the fly calculations
+        normal,
+        // explicitly requested by the user
+        high
+    }
+
+    private class Task implements Runnable, Comparable<Task> {
 
         @NonNull
         private final Runnable runnable;
-        private final boolean cancellable;
         @NonNull
-        private final Future<?> future;
+        private final Priority priority;
+        private final boolean cancellable;
+        private final long order = counter.getAndIncrement();
+        private final long queuedTime = System.nanoTime();
+        // guarded by this
+        @Nullable
+        private Thread thread;
+        // guarded by this
+        private boolean cancelled;
 
-        private Task(@NonNull Runnable runnable, boolean cancellable) {
+        private Task(@NonNull Runnable runnable, @NonNull Priority priority, boolean cancellable) {
             this.runnable = runnable;
+            this.priority = priority;
             this.cancellable = cancellable;
-            this.future = executor.submit(this);
         }
 
         @Override
         public void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                thread = Thread.currentThread();
+            }
+            stats.onStarted(System.nanoTime() - queuedTime);
             Log.d(TAG, "Running task: " + System.identityHashCode(this) + " on "
                     + Thread.currentThread().getName());
             try {
                 runnable.run();
             } finally {
-                onTaskFinished(this);
+                final boolean interrupted;
+                synchronized (this) {
+                    thread = null;
+                    interrupted = cancelled;
+                    // clear interruption flag as the thread is reused by other tasks
+                    Thread.interrupted();
+                }
+                onTaskFinished(this, interrupted);
             }
         }
 
-        boolean isFinished() {
-            return future.isDone() || future.isCancelled();
-        }
-
         void cancel() {
             Log.d(TAG, "Task cancelled: " + System.identityHashCode(this));
             Check.isTrue(cancellable);
-            future.cancel(true);
+            final boolean running;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                running = thread != null;
+                if (running) {
+                    thread.interrupt();
+                }
+            }
+            if (!running) {
+                // task hasn't started yet => it will never run
+                executor.remove(this);
+            }
+            stats.onCancelled();
+        }
+
+        @Override
+        public int compareTo(@NonNull Task that) {
+            if (this.priority != that.priority) {
+                // higher priority goes first
+                return that.priority.compareTo(this.priority);
+            }
+            return Long.compare(this.order, that.order);
         }
     }
 
-    private static final int MAX_TASKS = 5;
+    /**
+     * Counters of the executed tasks, values are approximate as they are not updated atomically
+     */
+    static final class Stats {
+        @NonNull
+        private final AtomicLong queued = new AtomicLong();
+        @NonNull
+        private final AtomicLong cancelled = new AtomicLong();
+        @NonNull
+        private final AtomicLong completed = new AtomicLong();
+        @NonNull
+        private final AtomicLong started = new AtomicLong();
+        @NonNull
+        private final AtomicLong totalLatency = new AtomicLong();
+        @NonNull
+        private final AtomicLong maxLatency = new AtomicLong();
+
+        private void onStarted(long latency) {
+            started.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            while (true) {
+                final long max = maxLatency.get();
+                if (latency <= max || maxLatency.compareAndSet(max, latency)) {
+                    break;
+                }
+            }
+        }
+
+        private void onCancelled() {
+            cancelled.incrementAndGet();
+        }
+
+        public long getQueued() {
+            return queued.get();
+        }
+
+        public long getCancelled() {
+            return cancelled.get();
+        }
+
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        /**
+         * @return average time between submission and start of the task in milliseconds
+         */
+        public long getAverageLatency() {
+            final long count = started.get();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / count);
+        }
+
+        /**
+         * @return maximum time between submission and start of the task in milliseconds
+         */
+        public long getMaxLatency() {
+            return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{queued=" + getQueued() +
+                    ", cancelled=" + getCancelled() +
+                    ", completed=" + getCompleted() +
+                    ", averageLatency=" + getAverageLatency() +
+                    "ms, maxLatency=" + getMaxLatency() +
+                    "ms}";
+        }
+    }
+
+    // threads for cancellable tasks
+    private static final int THREADS = 2;
     @NonNull
     private static final String TAG = "TaskExecutor";
     @NonNull
+    private final AtomicLong counter = new AtomicLong();
+    // cancellable tasks which haven't finished yet, guarded by itself
+    @NonNull
     private final List<Task> tasks = new ArrayList<>();
     @NonNull
-    private final ExecutorService executor = makeExecutor();
+    private final Stats stats = new Stats();
+    @NonNull
+    private final ThreadPoolExecutor executor = makeExecutor(THREADS, "Task #");
+    // non-cancellable tasks
+    @NonNull
+    private final ThreadPoolExecutor backgroundExecutor = makeExecutor(1, "Background task #");
     private boolean synchronous = false;
 
     @NonNull
-    private static ExecutorService makeExecutor() {
-        return Executors.newCachedThreadPool(
+    private static ThreadPoolExecutor makeExecutor(int threads, @NonNull final String name) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(),
                 new ThreadFactory() {
                     @NonNull
                     private final AtomicInteger counter = new AtomicInteger();
 
                     @Override
                     public Thread newThread(@Nonnull Runnable r) {
-                        return new Thread(r, "Task #" + counter.getAndIncrement());
+                        return new Thread(r, name + counter.getAndIncrement());
                     }
                 });
     }
 
-    void execute(@NonNull Runnable runnable, boolean cancellable) {
+    void execute(@NonNull Runnable runnable, @NonNull Priority priority, boolean cancellable) {
         Check.isMainThread();
         if (synchronous) {
             runnable.run();
             return;
         }
-        synchronized (tasks) {
-            if (tasks.size() >= MAX_TASKS) {
-                for (int i = 0; i < tasks.size(); i++) {
-                    final Task task = tasks.get(i);
-                    if (task.cancellable) {
-                        tasks.remove(i);
-                        task.cancel();
-                        break;
+        final Task task = new Task(runnable, priority, cancellable);
+        if (cancellable) {
+            synchronized (tasks) {
+                // only the latest result is needed => older tasks can be dropped unless they are more important
+                final Iterator<Task> it = tasks.iterator();
+                while (it.hasNext()) {
+                    final Task oldTask = it.next();
+                    if (oldTask.priority.compareTo(priority) <= 0) {
+                        oldTask.cancel();
+                        it.remove();
                     }
                 }
+                Log.d(TAG, "Task added: " + System.identityHashCode(task));
+                tasks.add(task);
             }
         }
-        onTaskStarted(new Task(runnable, cancellable));
+        stats.queued.incrementAndGet();
+        if (cancellable) {
+            executor.execute(task);
+        } else {
+            backgroundExecutor.execute(task);
+        }
     }
 
-    private void onTaskStarted(@NonNull Task task) {
-        synchronized (tasks) {
-            if (!task.isFinished()) {
-                Log.d(TAG, "Task added: " + System.identityHashCode(task));
-                tasks.add(task);
+    private void onTaskFinished(@NonNull Task task, boolean cancelled) {
+        if (!cancelled) {
+            stats.completed.incrementAndGet();
+        }
+        if (task.cancellable) {
+            synchronized (tasks) {
+                Log.d(TAG, "Task removed: " + System.identityHashCode(task));
+                tasks.remove(task);
             }
         }
     }
 
-    private void onTaskFinished(@NonNull Task task) {
-        synchronized (tasks) {
-            Log.d(TAG, "Task removed: " + System.identityHashCode(task));
-            tasks.remove(task);
-        }
+    @NonNull
+    Stats getStats() {
+        return stats;
     }
 
     @VisibleForTesting
     void setSynchronous() {
         synchronous = true;
     }
-}
\ No newline at end of file
+}
@@ -82,7 +82,7 @@ public class ToJsclTextProcessor implements TextProcessor<PreparedExpression, St
 
             if (mathTypeBefore != null &&
                     (mathTypeBefore.type == MathType.function || mathTypeBefore.type == MathType.operator) &&
-                    App.find(MathType.groupSymbols, s, i) != null) {
+                    MathType.groupSymbolsTrie.find(s, i) != null) {
                 final String functionName = mathTypeBefore.match;
                 final Function function = engine.getFunctionsRegistry().get(functionName);
                 if (function == null || function.getMinParameters() > 0) {
@@ -106,11 +106,11 @@ public class ToJsclTextProcessor implements TextProcessor<PreparedExpression, St
         final StringBuilder result = new StringBuilder();
         for (int i = 0; i < s.length(); i++) {
             int offset = 0;
-            String functionName = App.find(MathType.function.getTokens(engine), s, i);
+            String functionName = MathType.function.find(s, i, engine);
             if (functionName == null) {
-                String operatorName = App.find(MathType.operator.getTokens(engine), s, i);
+                String operatorName = MathType.operator.find(s, i, engine);
                 if (operatorName == null) {
-                    String varName = App.find(engine.getVariablesRegistry().getNames(), s, i);
+                    String varName = MathType.constant.find(s, i, engine);
                     if (varName != null) {
                         final IConstant var = engine.getVariablesRegistry().get(varName);
                         if (var != null) {
@@ -0,0 +1,232 @@
+package org.solovyev.android.calculator.functions;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
+import jscl.math.function.CustomFunction;
+
+/**
+ * Loads functions which might depend on each other. Names of other functions are extracted from the body of each
+ * function and functions are created (i.e. their bodies are parsed) in topological order: functions of the same "level"
+ * (all dependencies of which are already loaded) are parsed in parallel and then added in the original order.
+ * Functions which failed or have cyclic dependencies are tried again one by one (as dependencies are only guessed from the
+ * body) until no more functions can be loaded, errors are reported only once after that.
+ */
+final class FunctionsLoader {
+
+    interface Callback {
+        void onLoaded(@NonNull CustomFunction function);
+
+        void onFailed(@NonNull Exception e);
+    }
+
+    // levels smaller than this are parsed on the calling thread
+    private static final int MIN_PARALLEL_SIZE = 8;
+    @NonNull
+    private static final Pattern NAME = Pattern.compile("[\\p{L}_√∛∜][\\p{L}\\p{N}_]*");
+
+    private final int threads;
+
+    FunctionsLoader() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    FunctionsLoader(int threads) {
+        this.threads = threads;
+    }
+
+    void load(@NonNull List<CustomFunction.Builder> functions, @NonNull Callback callback) {
+        final List<Node> nodes = makeGraph(functions);
+
+        List<Node> level = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.dependencies == 0) {
+                level.add(node);
+            }
+        }
+
+        final boolean parallel = threads > 1;
+        ExecutorService executor = null;
+        try {
+            final List<Node> failed = new ArrayList<>();
+            while (!level.isEmpty()) {
+                if (executor == null && parallel && level.size() >= MIN_PARALLEL_SIZE) {
+                    executor = makeExecutor(threads);
+                }
+                create(level, executor);
+
+                final List<Node> nextLevel = new ArrayList<>();
+                for (Node node : level) {
+                    if (node.function != null) {
+                        callback.onLoaded(node.function);
+                    } else {
+                        failed.add(node);
+                    }
+                    for (Node dependent : node.dependents) {
+                        dependent.dependencies--;
+                        if (dependent.dependencies == 0) {
+                            nextLevel.add(dependent);
+                        }
+                    }
+                }
+                level = nextLevel;
+            }
+            for (Node node : nodes) {
+                if (node.dependencies > 0) {
+                    // node is a part of a cycle or depends on a cycle
+                    failed.add(node);
+                }
+            }
+            if (!failed.isEmpty()) {
+                loadRemaining(failed, callback);
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @NonNull
+    private static List<Node> makeGraph(@NonNull List<CustomFunction.Builder> functions) {
+        final List<Node> nodes = new ArrayList<>(functions.size());
+        final Map<String, List<Node>> byName = new HashMap<>();
+        for (CustomFunction.Builder function : functions) {
+            final Node node = new Node(function);
+            nodes.add(node);
+            List<Node> sameName = byName.get(function.getName());
+            if (sameName == null) {
+                sameName = new ArrayList<>(1);
+                byName.put(function.getName(), sameName);
+            }
+            sameName.add(node);
+        }
+
+        for (Node node : nodes) {
+            final Set<Node> dependencies = new LinkedHashSet<>();
+            final Matcher matcher = NAME.matcher(node.builder.getContent());
+            while (matcher.find()) {
+                final List<Node> sameName = byName.get(matcher.group());
+                if (sameName != null) {
+                    dependencies.addAll(sameName);
+                }
+            }
+            for (Node dependency : dependencies) {
+                dependency.dependents.add(node);
+            }
+            node.dependencies = dependencies.size();
+        }
+        return nodes;
+    }
+
+    private static void create(@NonNull List<Node> level, @Nullable ExecutorService executor) {
+        if (executor == null || level.size() < MIN_PARALLEL_SIZE) {
+            for (Node node : level) {
+                node.create();
+            }
+            return;
+        }
+        final List<Future<?>> futures = new ArrayList<>(level.size());
+        for (final Node node : level) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    node.create();
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static void loadRemaining(@NonNull List<Node> remaining, @NonNull Callback callback) {
+        // dependencies are guessed from the names used in the bodies, some of them might be wrong => try to load
+        // remaining functions until no more functions can be loaded
+        while (!remaining.isEmpty()) {
+            final int sizeBefore = remaining.size();
+            for (Iterator<Node> it = remaining.iterator(); it.hasNext(); ) {
+                final Node node = it.next();
+                node.create();
+                if (node.function != null) {
+                    callback.onLoaded(node.function);
+                    it.remove();
+                }
+            }
+            if (sizeBefore == remaining.size()) {
+                break;
+            }
+        }
+        for (Node node : remaining) {
+            if (node.exception != null) {
+                callback.onFailed(node.exception);
+            }
+        }
+    }
+
+    @NonNull
+    private static ExecutorService makeExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @NonNull
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@Nonnull Runnable r) {
+                return new Thread(r, "Functions #" + counter.getAndIncrement());
+            }
+        });
+    }
+
+    private static final class Node {
+        @NonNull
+        final CustomFunction.Builder builder;
+        @NonNull
+        final List<Node> dependents = new ArrayList<>();
+        int dependencies;
+        @Nullable
+        CustomFunction function;
+        @Nullable
+        Exception exception;
+
+        Node(@NonNull CustomFunction.Builder builder) {
+            this.builder = builder;
+        }
+
+        void create() {
+            try {
+                function = builder.create();
+                exception = null;
+            } catch (Exception e) {
+                function = null;
+                exception = e;
+            }
+        }
+    }
+}
@@ -126,41 +126,21 @@ public class FunctionsRegistry extends BaseEntitiesRegistry<Function> {
     }
 
     /**
-     * As some functions might depend on not-yet-loaded functions we need to try to add all functions first and then
-     * re-run again if there are functions left. This process should continue until we can't add more functions
+     * As some functions might depend on other functions they are added in the order of their dependencies
      * @param functions functions to add
      */
     private void addSafely(@Nonnull List<CustomFunction.Builder> functions) {
-        final List<Exception> exceptions = new ArrayList<>();
-        while (functions.size() > 0) {
-            final int sizeBefore = functions.size();
-            // prepare exceptions list for new round
-            exceptions.clear();
-            addSafely(functions, exceptions);
-            final int sizeAfter = functions.size();
-            if (sizeBefore == sizeAfter) {
-                break;
+        new FunctionsLoader().load(functions, new FunctionsLoader.Callback() {
+            @Override
+            public void onLoaded(@NonNull CustomFunction function) {
+                addSafely(function);
             }
-        }
-
-        if (functions.size() > 0) {
-            // report exceptions
-            for (Exception exception : exceptions) {
-                errorReporter.onException(exception);
-            }
-        }
-    }
 
-    private void addSafely(@Nonnull List<CustomFunction.Builder> functions, @Nonnull List<Exception> exceptions) {
-        for (Iterator<CustomFunction.Builder> iterator = functions.iterator(); iterator.hasNext(); ) {
-            final CustomFunction.Builder function = iterator.next();
-            try {
-                addSafely(function.create());
-                iterator.remove();
-            } catch (Exception e) {
-                exceptions.add(e);
+            @Override
+            public void onFailed(@NonNull Exception e) {
+                errorReporter.onException(e);
             }
-        }
+        });
     }
 
     @Override
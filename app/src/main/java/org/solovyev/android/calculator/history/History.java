@@ -82,6 +82,8 @@ public class History {
     private final List<HistoryState> saved = new ArrayList<>();
     @Nonnull
     private final Runnables whenLoadedRunnables = new Runnables();
+    @Nullable
+    private HistoryJournal savedJournal;
     private boolean loaded;
     @Inject
     Application application;
@@ -195,6 +197,19 @@ public class History {
         return new File(filesDir.get(), "history-saved.json");
     }
 
+    @NonNull
+    File getSavedHistoryJournalFile() {
+        return new File(filesDir.get(), "history-saved.journal");
+    }
+
+    @NonNull
+    private synchronized HistoryJournal getSavedJournal() {
+        if (savedJournal == null) {
+            savedJournal = new HistoryJournal(getSavedHistoryFile(), getSavedHistoryJournalFile());
+        }
+        return savedJournal;
+    }
+
     @NonNull
     File getRecentHistoryFile() {
         return new File(filesDir.get(), "history-recent.json");
@@ -222,7 +237,7 @@ public class History {
         Check.isNotMainThread();
         migrateOldHistory();
         final List<HistoryState> recentStates = tryLoadStates(getRecentHistoryFile());
-        final List<HistoryState> savedStates = tryLoadStates(getSavedHistoryFile());
+        final List<HistoryState> savedStates = tryLoadSavedStates();
         handler.post(new Runnable() {
             @Override
             public void run() {
@@ -259,6 +274,16 @@ public class History {
         return Collections.emptyList();
     }
 
+    @Nonnull
+    private List<HistoryState> tryLoadSavedStates() {
+        try {
+            return getSavedJournal().load(fileSystem);
+        } catch (IOException | JSONException e) {
+            errorReporter.onException(e);
+        }
+        return Collections.emptyList();
+    }
+
     public void addRecent(@Nonnull HistoryState state) {
         Check.isMainThread();
         if (recent.isEmpty() && state.isEmpty()) {
@@ -275,9 +300,11 @@ public class History {
         final int i = saved.indexOf(state);
         if(i >= 0) {
             saved.set(i, state);
+            getSavedJournal().update(i, state);
             onSavedChanged(new UpdatedEvent(state, false));
         } else {
             saved.add(state);
+            getSavedJournal().add(state);
             onSavedChanged(new AddedEvent(state, false));
         }
     }
@@ -355,6 +382,7 @@ public class History {
     public void clearSaved() {
         Check.isMainThread();
         saved.clear();
+        getSavedJournal().compact(saved);
         onSavedChanged(CLEARED_EVENT_SAVED);
     }
 
@@ -381,7 +409,11 @@ public class History {
 
     public void removeSaved(@Nonnull HistoryState state) {
         Check.isMainThread();
-        saved.remove(state);
+        final int i = saved.indexOf(state);
+        if (i >= 0) {
+            saved.remove(i);
+            getSavedJournal().remove(i);
+        }
         onSavedChanged(new RemovedEvent(state, false));
     }
 
@@ -454,16 +486,41 @@ public class History {
             if (!loaded) {
                 return;
             }
+            if (recent) {
+                writeRecent();
+            } else {
+                writeSaved();
+            }
+        }
+
+        private void writeRecent() {
             // don't need to save intermediate states, thus {@link History#getRecent}
-            final List<HistoryState> states = recent ? getRecent(false) : getSaved();
+            final List<HistoryState> states = getRecent(false);
             backgroundThread.execute(new Runnable() {
                 @Override
                 public void run() {
-                    final File file = recent ? getRecentHistoryFile() : getSavedHistoryFile();
                     final JSONArray array = Json.toJson(states);
-                    fileSystem.writeSilently(file, array.toString());
+                    fileSystem.writeSilently(getRecentHistoryFile(), array.toString());
+                }
+            });
+        }
+
+        private void writeSaved() {
+            // saved history might be big: only the changes are written unless it's time to compact the journal
+            final HistoryJournal journal = getSavedJournal();
+            if (journal.shouldCompact(saved.size())) {
+                journal.compact(saved);
+            }
+            backgroundThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        journal.flush(fileSystem);
+                    } catch (IOException e) {
+                        errorReporter.onException(e);
+                    }
                 }
             });
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2013 serso aka se.solovyev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Contact details
+ *
+ * Email: se.solovyev@gmail.com
+ * Site:  http://se.solovyev.org
+ */
+
+package org.solovyev.android.calculator.history;
+
+import static android.text.TextUtils.isEmpty;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.solovyev.android.calculator.json.Json;
+import org.solovyev.android.io.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Persists a list of history states as a snapshot and a journal of changes made after the snapshot. Each change
+ * appends one line to the journal, once the journal becomes big enough the whole list is written to the snapshot and
+ * the journal is deleted (see {@link #shouldCompact(int)} and {@link #compact(List)}).
+ * <p/>
+ * Records are numbered: the snapshot contains the number of the last record it includes, so records which are left in
+ * the journal after the process has died during the compaction are not applied twice.
+ * <p/>
+ * Changes are registered on the main thread while {@link #flush(FileSystem)} is supposed to be called on a background
+ * thread. Records are written in the order of the changes, even if several flushes run concurrently.
+ */
+final class HistoryJournal {
+
+    static final int MIN_COMPACTION = 100;
+    @NonNull
+    private static final String TAG = "HistoryJournal";
+    private static final String JSON_SEQUENCE = "n";
+    private static final String JSON_STATES = "s";
+    private static final String JSON_OPERATION = "o";
+    private static final String JSON_INDEX = "i";
+    private static final String JSON_STATE = "s";
+    private static final String OPERATION_ADD = "a";
+    private static final String OPERATION_UPDATE = "u";
+    private static final String OPERATION_REMOVE = "r";
+
+    @NonNull
+    private final File snapshotFile;
+    @NonNull
+    private final File journalFile;
+    @NonNull
+    private final Object writeLock = new Object();
+    @GuardedBy("this")
+    private long sequence;
+    // number of records in the journal (including not yet written ones)
+    @GuardedBy("this")
+    private int records;
+    @GuardedBy("this")
+    @NonNull
+    private List<String> pending = new ArrayList<>();
+    @GuardedBy("this")
+    @Nullable
+    private Snapshot snapshot;
+    // journal doesn't reflect the changes (e.g. write has failed), snapshot must be written
+    @GuardedBy("this")
+    private boolean broken;
+
+    HistoryJournal(@NonNull File snapshotFile, @NonNull File journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    @NonNull
+    List<HistoryState> load(@NonNull FileSystem fileSystem) throws IOException, JSONException {
+        final List<HistoryState> states = new ArrayList<>();
+        long snapshotSequence = 0;
+        final CharSequence snapshot = fileSystem.read(snapshotFile);
+        if (!isEmpty(snapshot)) {
+            final String json = snapshot.toString().trim();
+            if (json.startsWith("[")) {
+                // snapshot was written before the journal had been introduced
+                states.addAll(Json.fromJson(new JSONArray(json), HistoryState.JSON_CREATOR));
+            } else {
+                final JSONObject object = new JSONObject(json);
+                snapshotSequence = object.getLong(JSON_SEQUENCE);
+                states.addAll(Json.fromJson(object.getJSONArray(JSON_STATES), HistoryState.JSON_CREATOR));
+            }
+        }
+
+        long sequence = snapshotSequence;
+        int records = 0;
+        boolean broken = false;
+        final CharSequence journal = fileSystem.read(journalFile);
+        if (!isEmpty(journal)) {
+            for (String line : journal.toString().split("\n")) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                final JSONObject record;
+                try {
+                    record = new JSONObject(line);
+                } catch (JSONException e) {
+                    // the last record might be written partially if the process has been killed. Records after a
+                    // broken one can't be applied (their indices might refer to the lost change) and new records can't
+                    // be appended to the unterminated line => the snapshot must be written before the next change
+                    Log.w(TAG, "Broken record: " + line, e);
+                    broken = true;
+                    break;
+                }
+                records++;
+                final long recordSequence = record.getLong(JSON_SEQUENCE);
+                if (recordSequence <= snapshotSequence) {
+                    // already in the snapshot
+                    continue;
+                }
+                apply(states, record);
+                sequence = recordSequence;
+            }
+        }
+
+        synchronized (this) {
+            this.sequence = sequence;
+            this.records = records;
+            this.broken = broken;
+        }
+        return states;
+    }
+
+    private static void apply(@NonNull List<HistoryState> states, @NonNull JSONObject record) throws JSONException {
+        final String operation = record.getString(JSON_OPERATION);
+        switch (operation) {
+            case OPERATION_ADD:
+                states.add(HistoryState.create(record.getJSONObject(JSON_STATE)));
+                break;
+            case OPERATION_UPDATE:
+                final int updated = record.getInt(JSON_INDEX);
+                if (updated < states.size()) {
+                    states.set(updated, HistoryState.create(record.getJSONObject(JSON_STATE)));
+                }
+                break;
+            case OPERATION_REMOVE:
+                final int removed = record.getInt(JSON_INDEX);
+                if (removed < states.size()) {
+                    states.remove(removed);
+                }
+                break;
+            default:
+                Log.w(TAG, "Unknown operation: " + operation);
+                break;
+        }
+    }
+
+    synchronized void add(@NonNull HistoryState state) {
+        append(OPERATION_ADD, -1, state);
+    }
+
+    synchronized void update(int index, @NonNull HistoryState state) {
+        append(OPERATION_UPDATE, index, state);
+    }
+
+    synchronized void remove(int index) {
+        append(OPERATION_REMOVE, index, null);
+    }
+
+    private void append(@NonNull String operation, int index, @Nullable HistoryState state) {
+        try {
+            final JSONObject record = new JSONObject();
+            record.put(JSON_SEQUENCE, sequence + 1);
+            record.put(JSON_OPERATION, operation);
+            if (index >= 0) {
+                record.put(JSON_INDEX, index);
+            }
+            if (state != null) {
+                record.put(JSON_STATE, state.toJson());
+            }
+            sequence++;
+            records++;
+            pending.add(record.toString());
+        } catch (JSONException e) {
+            Log.e(TAG, e.getMessage(), e);
+            broken = true;
+        }
+    }
+
+    synchronized boolean shouldCompact(int size) {
+        return broken || records >= Math.max(MIN_COMPACTION, size);
+    }
+
+    /**
+     * Schedules a write of the snapshot, all the changes registered so far must be reflected in <var>states</var>
+     *
+     * @param states current list of states
+     */
+    synchronized void compact(@NonNull List<HistoryState> states) {
+        snapshot = new Snapshot(new ArrayList<>(states), sequence);
+        pending.clear();
+        records = 0;
+        broken = false;
+    }
+
+    void flush(@NonNull FileSystem fileSystem) throws IOException {
+        synchronized (writeLock) {
+            final Snapshot snapshot;
+            final List<String> records;
+            synchronized (this) {
+                snapshot = this.snapshot;
+                records = pending;
+                this.snapshot = null;
+                this.pending = new ArrayList<>();
+            }
+            try {
+                if (snapshot != null) {
+                    fileSystem.writeAtomically(snapshotFile, snapshot.toJson().toString());
+                    fileSystem.delete(journalFile);
+                }
+                if (!records.isEmpty()) {
+                    final StringBuilder sb = new StringBuilder();
+                    for (String record : records) {
+                        sb.append(record).append('\n');
+                    }
+                    fileSystem.append(journalFile, sb.toString());
+                }
+            } catch (JSONException e) {
+                setBroken();
+                throw new IOException(e);
+            } catch (IOException e) {
+                setBroken();
+                throw e;
+            }
+        }
+    }
+
+    private synchronized void setBroken() {
+        broken = true;
+    }
+
+    private static final class Snapshot {
+        @NonNull
+        private final List<HistoryState> states;
+        private final long sequence;
+
+        private Snapshot(@NonNull List<HistoryState> states, long sequence) {
+            this.states = states;
+            this.sequence = sequence;
+        }
+
+        @NonNull
+        JSONObject toJson() throws JSONException {
+            final JSONObject json = new JSONObject();
+            json.put(JSON_SEQUENCE, sequence);
+            json.put(JSON_STATES, Json.toJson(states));
+            return json;
+        }
+    }
+}
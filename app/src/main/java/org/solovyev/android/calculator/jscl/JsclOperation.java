@@ -104,5 +104,24 @@ public enum JsclOperation {
         }
     }
 
+    /**
+     * Same as {@link #evaluateGeneric(String, MathEngine)} but doesn't parse <var>expression</var> again
+     *
+     * @param parsed <var>expression</var> parsed with {@link jscl.math.Expression#valueOf(String)}
+     */
+    @Nonnull
+    public final Generic evaluateGeneric(@Nonnull String expression, @Nonnull Generic parsed, @Nonnull MathEngine engine) {
+        switch (this) {
+            case simplify:
+                return engine.simplifyGeneric(expression, parsed);
+            case elementary:
+                return engine.elementaryGeneric(expression, parsed);
+            case numeric:
+                return engine.evaluateGeneric(expression, parsed);
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
 
 }
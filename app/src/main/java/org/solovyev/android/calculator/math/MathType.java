@@ -27,7 +27,6 @@ import jscl.JsclMathEngine;
 import jscl.NumeralBase;
 import jscl.math.function.Constants;
 import org.solovyev.android.Check;
-import org.solovyev.android.calculator.App;
 import org.solovyev.android.calculator.Engine;
 import org.solovyev.android.calculator.ParseException;
 
@@ -221,6 +220,7 @@ public enum MathType {
     };
 
     public static final List<String> groupSymbols = Arrays.asList("()", "[]", "{}");
+    public static final TokenTrie groupSymbolsTrie = new TokenTrie(groupSymbols);
     public final static Character EXPONENT = 'E';
     public static final String E = "e";
     public static final String C = "c";
@@ -236,6 +236,10 @@ public enum MathType {
     private final boolean needMultiplicationSignAfter;
     @Nonnull
     private final MathGroupType groupType;
+    // tokens of registries (functions, operators etc) change over time, so trie is rebuilt lazily when the list of
+    // tokens changes
+    @Nullable
+    private volatile TokenTrie trie;
     MathType(@Nonnull Integer priority,
              boolean needMultiplicationSignBefore,
              boolean needMultiplicationSignAfter,
@@ -282,7 +286,7 @@ public enum MathType {
         final List<MathType> mathTypes = getMathTypesByPriority();
         for (int j = 0; j < mathTypes.size(); j++) {
             final MathType mathType = mathTypes.get(j);
-            final String s = App.find(mathType.getTokens(engine), text, i);
+            final String s = mathType.find(text, i, engine);
             if (s == null) {
                 continue;
             }
@@ -292,7 +296,7 @@ public enum MathType {
                     final int nextToken = i + s.length();
                     if (nextToken < text.length()) {
                         // function must have an open group symbol after its name
-                        if (MathType.open_group_symbol.getTokens().contains(text.substring(nextToken, nextToken + 1))) {
+                        if (isOpenGroupSymbol(text.charAt(nextToken))) {
                             return result.set(function, s);
                         }
                     } else if (nextToken == text.length()) {
@@ -313,8 +317,8 @@ public enum MathType {
 
             if (mathType == MathType.grouping_separator) {
                 if (i + 1 < text.length() &&
-                        MathType.digit.getTokens().contains(text.substring(i + 1, i + 2)) &&
-                        i - 1 >= 0 && MathType.digit.getTokens().contains(text.substring(i - 1, i))) {
+                        isDigit(text, i + 1) &&
+                        i - 1 >= 0 && isDigit(text, i - 1)) {
                     return result.set(mathType, s);
                 }
                 continue;
@@ -326,6 +330,11 @@ public enum MathType {
         return result.set(MathType.text, text.substring(i));
     }
 
+    private static boolean isDigit(@Nonnull String text, int i) {
+        // all digits are one character long
+        return digit.find(text, i, null) != null;
+    }
+
     @Nonnull
     private static List<MathType> getMathTypesByPriority() {
         if (mathTypesByPriority == null) {
@@ -359,6 +368,24 @@ public enum MathType {
         return tokens;
     }
 
+    /**
+     * @param text     text to be searched in
+     * @param position position in the text
+     * @param engine   engine, may be null only for math types which tokens don't depend on the engine
+     * @return the longest token of this math type which starts at <var>position</var> or null if there is no such
+     * token
+     */
+    @Nullable
+    public String find(@Nonnull String text, int position, @Nullable Engine engine) {
+        final List<String> tokens = engine == null ? getTokens() : getTokens(engine);
+        TokenTrie trie = this.trie;
+        if (trie == null || !trie.isBuiltFrom(tokens)) {
+            trie = new TokenTrie(tokens);
+            this.trie = trie;
+        }
+        return trie.find(text, position);
+    }
+
     private boolean isNeedMultiplicationSignAfter() {
         return needMultiplicationSignAfter;
     }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 serso aka se.solovyev
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+ * Contact details
+ *
+ * Email: se.solovyev@gmail.com
+ * Site:  http://se.solovyev.org
+ */
+
+package org.solovyev.android.calculator.math;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Prefix tree of tokens. Finds the longest token which starts at a given position of a text in time proportional to
+ * the length of the token, i.e. independently of the number of tokens. Registries return their names sorted by length
+ * (longest first), so the result is the same as of {@link org.solovyev.android.calculator.App#find(List, String, int)}.
+ * <p/>
+ * Trie is immutable and is built from a list which is not supposed to be modified: registries create a new list of
+ * names after every change, see {@link #isBuiltFrom(List)}
+ */
+public final class TokenTrie {
+
+    @Nonnull
+    private final List<String> tokens;
+    @Nonnull
+    private final Node root = new Node();
+
+    public TokenTrie(@Nonnull List<String> tokens) {
+        this.tokens = tokens;
+        for (int i = 0; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if (token.length() > 0) {
+                add(token);
+            }
+        }
+    }
+
+    private void add(@Nonnull String token) {
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.getOrCreate(token.charAt(i));
+        }
+        if (node.token == null) {
+            node.token = token;
+        }
+    }
+
+    /**
+     * @param tokens list of tokens
+     * @return true if this trie was built from the same list
+     */
+    public boolean isBuiltFrom(@Nonnull List<String> tokens) {
+        return this.tokens == tokens;
+    }
+
+    /**
+     * @param text     text to be searched in
+     * @param position position in the text
+     * @return the longest token which starts at <var>position</var> or null if there is no such token
+     */
+    @Nullable
+    public String find(@Nonnull String text, int position) {
+        String result = null;
+        Node node = root;
+        for (int i = position; i < text.length(); i++) {
+            node = node.get(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.token != null) {
+                result = node.token;
+            }
+        }
+        return result;
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // sorted
+        @Nonnull
+        private char[] keys = NO_KEYS;
+        @Nonnull
+        private Node[] children = NO_CHILDREN;
+        @Nullable
+        private String token;
+
+        @Nullable
+        Node get(char key) {
+            final int i = Arrays.binarySearch(keys, key);
+            return i >= 0 ? children[i] : null;
+        }
+
+        @Nonnull
+        Node getOrCreate(char key) {
+            int i = Arrays.binarySearch(keys, key);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -(i + 1);
+
+            final char[] newKeys = new char[keys.length + 1];
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = key;
+            newChildren[i] = new Node();
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[i];
+        }
+    }
+}
@@ -47,6 +47,7 @@ public class OperatorsRegistry extends BaseEntitiesRegistry<Operator> {
         addDescription("∂", R.string.c_op_description_derivative);
         addDescription("∫ab", R.string.c_op_description_integral_ab);
         addDescription("∫", R.string.c_op_description_integral);
+        addDescription("solve", R.string.c_op_description_solve);
         addDescription("Σ", R.string.c_op_description_sum);
     }
 
@@ -5,6 +5,9 @@ import jscl.math.Expression;
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
 import jscl.math.NumericWrapper;
+import jscl.math.compiler.DoubleCompiler;
+import jscl.math.compiler.DoubleExpression;
+import jscl.math.compiler.NotCompilableException;
 import jscl.math.function.CustomFunction;
 import jscl.math.numeric.Complex;
 import jscl.math.numeric.Numeric;
@@ -12,18 +15,23 @@ import jscl.math.numeric.Real;
 import org.solovyev.android.plotter.Function;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class ExpressionFunction extends Function {
     @Nonnull
     public final jscl.math.function.Function function;
     public final int arity;
     private final Generic[] parameters;
+    private final double[] arguments;
+    // false if the function can't be compiled, it is not compiled again then
+    private boolean compilable = true;
 
     public ExpressionFunction(@Nonnull jscl.math.function.Function function) {
         super(makeFunctionName(function));
         this.function = function;
         this.arity = function.getMaxParameters();
         this.parameters = new Generic[this.arity];
+        this.arguments = new double[this.arity];
     }
 
     @Nonnull
@@ -56,8 +64,37 @@ public class ExpressionFunction extends Function {
         }
     }
 
+    /**
+     * Plots evaluate the same function thousands of times, so the function is compiled to primitive double
+     * arithmetic. Compiled functions are cached by {@link DoubleCompiler} until the angle units or the definitions of
+     * the constants and functions they use change, so the latest definitions are always plotted. Compiled function
+     * returns NaN if the value is not real, in which case (and if the function can't be compiled at all) we fall back
+     * to the slow path, {@link Generic#numeric()}
+     */
+    @Nullable
+    private DoubleExpression getCompiled() {
+        if (!compilable) {
+            return null;
+        }
+        try {
+            return DoubleCompiler.compile(function);
+        } catch (NotCompilableException e) {
+            // function contains constructs which can only be evaluated via Generic#numeric()
+            compilable = false;
+            return null;
+        }
+    }
+
     @Override
     public float evaluate(float x) {
+        final DoubleExpression compiled = getCompiled();
+        if (compiled != null) {
+            arguments[0] = x;
+            final double value = compiled.evaluate(arguments);
+            if (!Double.isNaN(value)) {
+                return (float) value;
+            }
+        }
         try {
             parameters[0] = Expression.valueOf((double) x);
             function.setParameters(parameters);
@@ -69,6 +106,15 @@ public class ExpressionFunction extends Function {
 
     @Override
     public float evaluate(float x, float y) {
+        final DoubleExpression compiled = getCompiled();
+        if (compiled != null) {
+            arguments[0] = x;
+            arguments[1] = y;
+            final double value = compiled.evaluate(arguments);
+            if (!Double.isNaN(value)) {
+                return (float) value;
+            }
+        }
         try {
             parameters[0] = Expression.valueOf((double) x);
             parameters[1] = Expression.valueOf((double) y);
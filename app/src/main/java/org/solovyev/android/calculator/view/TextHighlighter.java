@@ -40,9 +40,13 @@ import org.solovyev.android.calculator.text.TextProcessor;
 import org.solovyev.android.calculator.text.TextProcessorEditorResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import jscl.JsclMathEngine;
 
 public class TextHighlighter implements TextProcessor<TextProcessorEditorResult, String> {
 
@@ -53,6 +57,12 @@ public class TextHighlighter implements TextProcessor<TextProcessorEditorResult,
     private final int dark;
     @Nonnull
     private final Engine engine;
+    /**
+     * Result of the last call of {@link #process(String)}. Editor highlights its text after every change and usually
+     * the changes are local (a character is typed or erased), so only the changed part of the text is tokenized again
+     */
+    @Nullable
+    private volatile Highlighted last;
 
     public TextHighlighter(int color, boolean formatNumber, @Nonnull Engine engine) {
         this.formatNumber = formatNumber;
@@ -87,28 +97,90 @@ public class TextHighlighter implements TextProcessor<TextProcessorEditorResult,
     @Nonnull
     @Override
     public TextProcessorEditorResult process(@Nonnull String text) {
+        final List<Object> key = makeKey();
+        final Highlighted last = this.last;
+        final Highlighted highlighted = highlight(text, key, last != null && last.key.equals(key) ? last : null);
+        this.last = highlighted;
+
+        // highlighted text is reused by the next call and must not be changed
+        final SpannableStringBuilder sb = new SpannableStringBuilder(highlighted.text);
+        // all the tokens but numbers are copied as is
+        final int offset = sb.length() - text.length();
+        final int groupsCount = countGroups(sb);
+        if (groupsCount == 0) {
+            return new TextProcessorEditorResult(sb, offset);
+        }
+        final List<GroupSpan> groupSpans = new ArrayList<>(groupsCount);
+        fillGroupSpans(sb, 0, 0, groupsCount, groupSpans);
+        for (GroupSpan groupSpan : Lists.reverse(groupSpans)) {
+            makeColor(sb, groupSpan.start, groupSpan.end, getColor(groupSpan.group, groupsCount));
+        }
+        return new TextProcessorEditorResult(sb, offset);
+    }
+
+    /**
+     * Highlights tokens of the text (without groups). If the previous result is provided only the changed part of the
+     * text is tokenized: the tokens before and after it are copied together with their spans.
+     *
+     * @param text text to be highlighted
+     * @param key  state of the engine the tokens depend on, see {@link #makeKey()}
+     * @param last previous result obtained with the same <var>key</var>
+     * @return highlighted text
+     */
+    @Nonnull
+    private Highlighted highlight(@Nonnull String text, @Nonnull List<Object> key, @Nullable Highlighted last) {
+        if (last != null && last.input.equals(text)) {
+            return last;
+        }
         final SpannableStringBuilder sb = new SpannableStringBuilder();
         final BaseNumberBuilder nb = !formatNumber ? new LiteNumberBuilder(engine) : new NumberBuilder(engine);
         final MathType.Result result = new MathType.Result();
+        final int lookahead = last != null ? last.lookahead : maxTokenLength(key);
+        final Checkpoints checkpoints = new Checkpoints();
+
+        int start = 0;
+        int suffix = 0;
+        if (last != null) {
+            final int prefix = commonPrefix(last.input, text);
+            suffix = commonSuffix(last.input, text, prefix);
+            // a token is recognized by the text it starts with, i.e. the tokens ending close to the change must be
+            // tokenized again
+            final int checkpoint = last.checkpoints.before(prefix - lookahead);
+            if (checkpoint > 0) {
+                start = last.checkpoints.inputs[checkpoint];
+                sb.append(last.text, 0, last.checkpoints.outputs[checkpoint]);
+                // number span set by the first token tokenized again (if it has not ended a number)
+                removeEmptySpans(sb, sb.length());
+                checkpoints.add(last.checkpoints, 0, checkpoint, 0, 0);
+            }
+        }
 
-        int offset = 0;
-        int groupsCount = 0;
-        int openGroupsCount = 0;
+        for (int i = start; i < text.length(); i++) {
+            if (nb.isIdle()) {
+                // the rest of the text can be copied if it is not changed (including the character before it which
+                // may be checked by the token) and if it was also processed from the same state
+                if (last != null && i > text.length() - suffix) {
+                    final Checkpoints lastCheckpoints = last.checkpoints;
+                    final int checkpoint = lastCheckpoints.indexOf(i - text.length() + last.input.length());
+                    if (checkpoint >= 0) {
+                        final int output = lastCheckpoints.outputs[checkpoint];
+                        checkpoints.add(lastCheckpoints, checkpoint, lastCheckpoints.size,
+                                i - lastCheckpoints.inputs[checkpoint], sb.length() - output);
+                        sb.append(last.text, output, last.text.length());
+                        return new Highlighted(text, key, lookahead, sb, checkpoints);
+                    }
+                }
+                checkpoints.add(i, sb.length());
+            }
 
-        for (int i = 0; i < text.length(); i++) {
             MathType.getType(text, i, nb.isHexMode(), result, engine);
 
-            offset += nb.process(sb, result);
+            nb.process(sb, result);
 
             final String match = result.match;
             switch (result.type) {
                 case open_group_symbol:
-                    openGroupsCount++;
-                    groupsCount = Math.max(groupsCount, openGroupsCount);
-                    sb.append(text.charAt(i));
-                    break;
                 case close_group_symbol:
-                    openGroupsCount--;
                     sb.append(text.charAt(i));
                     break;
                 case operator:
@@ -116,12 +188,12 @@ public class TextHighlighter implements TextProcessor<TextProcessorEditorResult,
                     break;
                 case function:
                     i += append(sb, match);
-                    makeItalic(sb, i + 1 - match.length(), i + 1);
+                    makeItalic(sb, sb.length() - match.length(), sb.length());
                     break;
                 case constant:
                 case numeral_base:
                     i += append(sb, match);
-                    makeBold(sb, i + 1 - match.length(), i + 1);
+                    makeBold(sb, sb.length() - match.length(), sb.length());
                     break;
                 default:
                     if (result.type == MathType.text || match.length() <= 1) {
@@ -133,18 +205,77 @@ public class TextHighlighter implements TextProcessor<TextProcessorEditorResult,
         }
 
         if (nb instanceof NumberBuilder) {
-            offset += ((NumberBuilder) nb).processNumber(sb);
+            ((NumberBuilder) nb).processNumber(sb);
         }
+        return new Highlighted(text, key, lookahead, sb, checkpoints);
+    }
 
-        if (groupsCount == 0) {
-            return new TextProcessorEditorResult(sb, offset);
+    /**
+     * @return everything the tokenization depends on: settings of the engine and the tokens of all math types
+     */
+    @Nonnull
+    private List<Object> makeKey() {
+        final MathType[] types = MathType.values();
+        final List<Object> key = new ArrayList<>(types.length + 2);
+        key.add(engine.getMathEngine().getSettings());
+        key.add(JsclMathEngine.getInstance().getNumeralBase());
+        for (MathType type : types) {
+            key.add(type.getTokens(engine));
         }
-        final List<GroupSpan> groupSpans = new ArrayList<>(groupsCount);
-        fillGroupSpans(sb, 0, 0, groupsCount, groupSpans);
-        for (GroupSpan groupSpan : Lists.reverse(groupSpans)) {
-            makeColor(sb, groupSpan.start, groupSpan.end, getColor(groupSpan.group, groupsCount));
+        return key;
+    }
+
+    private static int maxTokenLength(@Nonnull List<Object> key) {
+        int result = 1;
+        for (Object tokens : key) {
+            if (tokens instanceof List) {
+                for (Object token : (List<?>) tokens) {
+                    result = Math.max(result, ((String) token).length());
+                }
+            }
         }
-        return new TextProcessorEditorResult(sb, offset);
+        return result;
+    }
+
+    private static int commonPrefix(@Nonnull String l, @Nonnull String r) {
+        final int length = Math.min(l.length(), r.length());
+        int i = 0;
+        while (i < length && l.charAt(i) == r.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int commonSuffix(@Nonnull String l, @Nonnull String r, int prefix) {
+        final int length = Math.min(l.length(), r.length()) - prefix;
+        int i = 0;
+        while (i < length && l.charAt(l.length() - 1 - i) == r.charAt(r.length() - 1 - i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void removeEmptySpans(@Nonnull SpannableStringBuilder sb, int position) {
+        for (Object span : sb.getSpans(position, position, Object.class)) {
+            if (sb.getSpanStart(span) == position && sb.getSpanEnd(span) == position) {
+                sb.removeSpan(span);
+            }
+        }
+    }
+
+    private static int countGroups(@Nonnull CharSequence text) {
+        int groupsCount = 0;
+        int openGroupsCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (MathType.isOpenGroupSymbol(c)) {
+                openGroupsCount++;
+                groupsCount = Math.max(groupsCount, openGroupsCount);
+            } else if (MathType.isCloseGroupSymbol(c)) {
+                openGroupsCount--;
+            }
+        }
+        return groupsCount;
     }
 
     private int append(SpannableStringBuilder t, String match) {
@@ -202,6 +333,74 @@ public class TextHighlighter implements TextProcessor<TextProcessorEditorResult,
         return (0xFF << 24) | ((red + offset) << 16) | ((green + offset) << 8) | (blue + offset);
     }
 
+    /**
+     * Text highlighted without groups
+     */
+    private static final class Highlighted {
+        @Nonnull
+        final String input;
+        @Nonnull
+        final List<Object> key;
+        final int lookahead;
+        @Nonnull
+        final SpannableStringBuilder text;
+        @Nonnull
+        final Checkpoints checkpoints;
+
+        private Highlighted(@Nonnull String input, @Nonnull List<Object> key, int lookahead,
+                            @Nonnull SpannableStringBuilder text, @Nonnull Checkpoints checkpoints) {
+            this.input = input;
+            this.key = key;
+            this.lookahead = lookahead;
+            this.text = text;
+            this.checkpoints = checkpoints;
+        }
+    }
+
+    /**
+     * Positions between the tokens from which the text can be processed independently from the text before them (no
+     * number is being built), sorted. Each position is kept both in the input and in the highlighted text
+     */
+    private static final class Checkpoints {
+        @Nonnull
+        int[] inputs = new int[16];
+        @Nonnull
+        int[] outputs = new int[16];
+        int size;
+
+        void add(int input, int output) {
+            if (size == inputs.length) {
+                inputs = Arrays.copyOf(inputs, 2 * size);
+                outputs = Arrays.copyOf(outputs, 2 * size);
+            }
+            inputs[size] = input;
+            outputs[size] = output;
+            size++;
+        }
+
+        void add(@Nonnull Checkpoints that, int from, int to, int inputOffset, int outputOffset) {
+            for (int i = from; i < to; i++) {
+                add(that.inputs[i] + inputOffset, that.outputs[i] + outputOffset);
+            }
+        }
+
+        /**
+         * @return index of the last checkpoint not after <var>input</var> or -1 if there is no such checkpoint
+         */
+        int before(int input) {
+            final int i = Arrays.binarySearch(inputs, 0, size, input);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        /**
+         * @return index of the checkpoint at <var>input</var> or -1 if there is no such checkpoint
+         */
+        int indexOf(int input) {
+            final int i = Arrays.binarySearch(inputs, 0, size, input);
+            return i >= 0 ? i : -1;
+        }
+    }
+
     private static class GroupSpan {
         final int start;
         final int end;
@@ -56,9 +56,8 @@ import javax.inject.Inject;
 
 import static android.content.Intent.ACTION_CONFIGURATION_CHANGED;
 import static org.solovyev.android.calculator.App.cast;
-import static org.solovyev.android.calculator.Broadcaster.ACTION_DISPLAY_STATE_CHANGED;
-import static org.solovyev.android.calculator.Broadcaster.ACTION_EDITOR_STATE_CHANGED;
 import static org.solovyev.android.calculator.Broadcaster.ACTION_INIT;
+import static org.solovyev.android.calculator.Broadcaster.ACTION_STATE_CHANGED;
 import static org.solovyev.android.calculator.Broadcaster.ACTION_THEME_CHANGED;
 import static org.solovyev.android.calculator.WidgetReceiver.newButtonClickedIntent;
 
@@ -207,8 +206,7 @@ public class CalculatorWidget extends AppWidgetProvider {
             return;
         }
         switch (action) {
-            case ACTION_EDITOR_STATE_CHANGED:
-            case ACTION_DISPLAY_STATE_CHANGED:
+            case ACTION_STATE_CHANGED:
                 updateWidget(context, true);
                 break;
             case ACTION_CONFIGURATION_CHANGED:
@@ -11,14 +11,21 @@ public class FileSaver extends BaseIoSaver {
 
     @NonNull
     private final File file;
+    private final boolean append;
 
-    private FileSaver(@NonNull File file, @NonNull CharSequence data) {
+    private FileSaver(@NonNull File file, @NonNull CharSequence data, boolean append) {
         super(data);
         this.file = file;
+        this.append = append;
     }
 
     public static void save(@NonNull File file, @NonNull CharSequence data) throws IOException {
-        final FileSaver fileSaver = new FileSaver(file, data);
+        final FileSaver fileSaver = new FileSaver(file, data, false);
+        fileSaver.save();
+    }
+
+    public static void append(@NonNull File file, @NonNull CharSequence data) throws IOException {
+        final FileSaver fileSaver = new FileSaver(file, data, true);
         fileSaver.save();
     }
 
@@ -28,6 +35,6 @@ public class FileSaver extends BaseIoSaver {
         if (dir != null && !dir.exists()) {
             dir.mkdirs();
         }
-        return new FileOutputStream(file);
+        return new FileOutputStream(file, append);
     }
 }
@@ -35,6 +35,29 @@ public class FileSystem {
         FileSaver.save(file, data);
     }
 
+    public void append(@NonNull File file, @NonNull String data) throws IOException {
+        FileSaver.append(file, data);
+    }
+
+    /**
+     * Writes data to a temporary file which then replaces the original file. If the process dies during the write the
+     * file contains either old or new data
+     */
+    public void writeAtomically(@NonNull File file, @NonNull String data) throws IOException {
+        final File tmp = new File(file.getPath() + ".tmp");
+        FileSaver.save(tmp, data);
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Can't rename " + tmp + " to " + file);
+        }
+    }
+
+    public void delete(@NonNull File file) throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Can't delete " + file);
+        }
+    }
+
     @Nullable
     public CharSequence read(File file) throws IOException {
         return FileLoader.load(file);
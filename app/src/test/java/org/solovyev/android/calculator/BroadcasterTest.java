@@ -0,0 +1,52 @@
+package org.solovyev.android.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.RuntimeEnvironment.application;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.squareup.otto.Bus;
+import com.squareup.otto.ThreadEnforcer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+@Config(constants = BuildConfig.class)
+@RunWith(RobolectricTestRunner.class)
+public class BroadcasterTest {
+
+    private Broadcaster broadcaster;
+
+    @Before
+    public void setUp() throws Exception {
+        broadcaster = new Broadcaster(application, Mockito.mock(SharedPreferences.class), new Bus(ThreadEnforcer.ANY), new Handler(Looper.getMainLooper()));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+    }
+
+    @Test
+    public void testShouldCoalesceChanges() throws Exception {
+        final int suppressed = broadcaster.getSuppressedCount();
+
+        broadcaster.onCursorMoved(new Editor.CursorMovedEvent(EditorState.empty()));
+        broadcaster.onDisplayChanged(new Display.ChangedEvent(DisplayState.empty(), DisplayState.empty()));
+        broadcaster.onCursorMoved(new Editor.CursorMovedEvent(EditorState.empty()));
+        // 2 changes are merged into the first one
+        assertEquals(suppressed + 2, broadcaster.getSuppressedCount());
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        // there are no widgets => nothing is sent
+        assertEquals(0, broadcaster.getSentCount());
+        assertEquals(suppressed + 3, broadcaster.getSuppressedCount());
+
+        broadcaster.onCursorMoved(new Editor.CursorMovedEvent(EditorState.empty()));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(suppressed + 4, broadcaster.getSuppressedCount());
+    }
+}
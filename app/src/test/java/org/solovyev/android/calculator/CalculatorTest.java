@@ -22,7 +22,10 @@
 
 package org.solovyev.android.calculator;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -32,6 +35,9 @@ import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.solovyev.android.calculator.calculations.CalculationFinishedEvent;
+import org.solovyev.android.calculator.variables.CppVariable;
+
+import jscl.math.function.IConstant;
 
 @Config(constants = BuildConfig.class)
 @RunWith(RobolectricTestRunner.class)
@@ -67,4 +73,33 @@ public class CalculatorTest extends BaseCalculatorTest {
         assertEval("81", "ans*ans");
     }
 
+    @Test
+    public void testShouldCacheResults() throws Exception {
+        calculator.editor = mock(Editor.class);
+        when(calculator.editor.getState()).thenReturn(EditorState.empty());
+        final EvaluationCache cache = calculator.getCache();
+        assertEval("4", "2+2");
+        assertEval("4", "2+2");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        assertEval("2", "2");
+        assertEval("2", "ans");
+        assertEval("2", "ans");
+        assertEquals(1, cache.getHits());
+
+        final IConstant x = CppVariable.builder("x").withValue("3").build().toJsclConstant();
+        engine.getVariablesRegistry().addOrUpdate(x, null);
+        calculator.onVariableAdded(new VariablesRegistry.AddedEvent(x));
+        assertEval("5", "x+2");
+        assertEval("5", "x+2");
+        assertEquals(2, cache.getHits());
+
+        final IConstant newX = CppVariable.builder(x).withValue("4").build().toJsclConstant();
+        engine.getVariablesRegistry().addOrUpdate(newX, x);
+        calculator.onVariableChanged(new VariablesRegistry.ChangedEvent(x, newX));
+        assertEval("6", "x+2");
+        assertEquals(2, cache.getHits());
+    }
+
 }
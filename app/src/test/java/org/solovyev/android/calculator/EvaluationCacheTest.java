@@ -0,0 +1,86 @@
+package org.solovyev.android.calculator;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.solovyev.android.calculator.jscl.JsclOperation.numeric;
+import static org.solovyev.android.calculator.jscl.JsclOperation.simplify;
+
+import org.junit.Test;
+import org.solovyev.common.msg.Message;
+
+import java.util.Collections;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import jscl.NumeralBase;
+import jscl.math.Expression;
+import jscl.math.function.CustomFunction;
+import jscl.math.function.Sqrt;
+import jscl.math.operator.Rand;
+
+public class EvaluationCacheTest {
+
+    @Test
+    public void testShouldRemoveLeastRecentlyUsed() throws Exception {
+        final EvaluationCache cache = new EvaluationCache(2);
+        cache.put(key(cache, "1"), value("1"));
+        cache.put(key(cache, "2"), value("2"));
+        assertNotNull(cache.get(key(cache, "1")));
+        cache.put(key(cache, "3"), value("3"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(key(cache, "1")));
+        assertNull(cache.get(key(cache, "2")));
+        assertNotNull(cache.get(key(cache, "3")));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testShouldDistinguishSettings() throws Exception {
+        final EvaluationCache cache = new EvaluationCache();
+        cache.put(key(cache, "sin(1)"), value("0.017"));
+        assertNull(cache.get(cache.newKey("sin(1)", simplify, AngleUnit.deg, NumeralBase.dec)));
+        assertNull(cache.get(cache.newKey("sin(1)", numeric, AngleUnit.rad, NumeralBase.dec)));
+        assertNull(cache.get(cache.newKey("sin(1)", numeric, AngleUnit.deg, NumeralBase.hex)));
+        assertNotNull(cache.get(key(cache, "sin(1)")));
+    }
+
+    @Test
+    public void testShouldNotPutStaleResults() throws Exception {
+        final EvaluationCache cache = new EvaluationCache();
+        final EvaluationCache.Key key = key(cache, "x");
+        cache.invalidate();
+        cache.put(key, value("1"));
+        assertEquals(0, cache.size());
+        assertNull(cache.get(key(cache, "x")));
+    }
+
+    @Test
+    public void testShouldNotCacheAnsAndRand() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        me.getFunctionsRegistry().addOrUpdate(new CustomFunction.Builder("cacheTest1", asList("a"), "a*ans").create());
+        me.getFunctionsRegistry().addOrUpdate(new CustomFunction.Builder("cacheTest2", asList("a"), "cacheTest1(a)+1").create());
+        me.getFunctionsRegistry().addOrUpdate(new CustomFunction.Builder("cacheTest3", asList("a"), "a^2").create());
+
+        assertTrue(EvaluationCache.isCacheable(Expression.valueOf("sin(2)+2^3")));
+        assertTrue(EvaluationCache.isCacheable(Expression.valueOf("cacheTest3(3)+1")));
+        assertFalse(EvaluationCache.isCacheable(Expression.valueOf("ans+1")));
+        assertFalse(EvaluationCache.isCacheable(Expression.valueOf("cacheTest2(2)")));
+        assertFalse(EvaluationCache.isCacheable(Expression.valueOf("√(cacheTest1(2))")));
+        assertFalse(EvaluationCache.isCacheable(Expression.valueOf("Σ(cacheTest1(n), n, 1, 3)")));
+        assertFalse(EvaluationCache.isCacheable(new Sqrt(new Rand().expressionValue()).expressionValue()));
+    }
+
+    private static EvaluationCache.Key key(EvaluationCache cache, String expression) {
+        return cache.newKey(expression, numeric, AngleUnit.deg, NumeralBase.dec);
+    }
+
+    private static EvaluationCache.Value value(String result) throws Exception {
+        return new EvaluationCache.Value(Expression.valueOf(result), Collections.<Message>emptyList());
+    }
+}
@@ -0,0 +1,172 @@
+package org.solovyev.android.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+@RunWith(value = RobolectricTestRunner.class)
+public class TaskExecutorTest {
+
+    private TaskExecutor executor;
+    private List<String> executed;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = new TaskExecutor();
+        executed = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    @Test
+    public void testShouldDropOlderTasksBeforeTheyStart() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        blockAllThreads(blocker);
+
+        executor.execute(record("1", null), TaskExecutor.Priority.normal, true);
+        executor.execute(record("2", null), TaskExecutor.Priority.normal, true);
+        final CountDownLatch finished = new CountDownLatch(1);
+        executor.execute(record("3", finished), TaskExecutor.Priority.normal, true);
+        blocker.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("3"), executed);
+        // 2 blocking tasks + "1" + "2"
+        assertEquals(4, executor.getStats().getCancelled());
+    }
+
+    @Test
+    public void testShouldNotDropOlderTasksWithHigherPriority() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        blockAllThreads(blocker);
+
+        final CountDownLatch finished = new CountDownLatch(2);
+        executor.execute(record("high", finished), TaskExecutor.Priority.high, true);
+        executor.execute(record("normal 1", finished), TaskExecutor.Priority.normal, true);
+        executor.execute(record("normal 2", finished), TaskExecutor.Priority.normal, true);
+        blocker.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(2, executed.size());
+        assertTrue(executed.contains("high"));
+        assertTrue(executed.contains("normal 2"));
+        // 2 blocking tasks + "normal 1"
+        assertEquals(3, executor.getStats().getCancelled());
+    }
+
+    @Test
+    public void testShouldInterruptRunningTask() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        }, TaskExecutor.Priority.normal, true);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch finished = new CountDownLatch(1);
+        executor.execute(record("2", finished), TaskExecutor.Priority.normal, true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("2"), executed);
+    }
+
+    @Test
+    public void testShouldRunTasksWithHigherPriorityFirst() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        // non-cancellable tasks have only one thread
+        executor.execute(block(blocker, null), TaskExecutor.Priority.normal, false);
+
+        final CountDownLatch finished = new CountDownLatch(3);
+        executor.execute(record("normal 1", finished), TaskExecutor.Priority.normal, false);
+        executor.execute(record("normal 2", finished), TaskExecutor.Priority.normal, false);
+        executor.execute(record("high", finished), TaskExecutor.Priority.high, false);
+        blocker.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(3, executed.size());
+        assertEquals("high", executed.get(0));
+        assertEquals("normal 1", executed.get(1));
+        assertEquals("normal 2", executed.get(2));
+    }
+
+    @Test
+    public void testShouldNotDelayCancellableTasksByOtherTasks() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(block(blocker, null), TaskExecutor.Priority.high, false);
+
+        final CountDownLatch finished = new CountDownLatch(1);
+        executor.execute(record("1", finished), TaskExecutor.Priority.normal, true);
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("1"), executed);
+        blocker.countDown();
+    }
+
+    private void blockAllThreads(@NonNull CountDownLatch blocker) throws InterruptedException {
+        // cancellable tasks which ignore interruption: each of them is cancelled by the next one but keeps its thread
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch started = new CountDownLatch(1);
+            executor.execute(block(blocker, started), TaskExecutor.Priority.normal, true);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @NonNull
+    private static Runnable block(@NonNull final CountDownLatch latch, @Nullable final CountDownLatch started) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                if (started != null) {
+                    started.countDown();
+                }
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        latch.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    @NonNull
+    private Runnable record(@NonNull final String name, final CountDownLatch finished) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+                if (finished != null) {
+                    finished.countDown();
+                }
+            }
+        };
+    }
+}
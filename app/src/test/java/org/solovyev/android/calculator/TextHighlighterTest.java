@@ -28,13 +28,16 @@ import static org.junit.Assert.assertTrue;
 
 import android.graphics.Color;
 import android.os.Build;
+import android.support.annotation.NonNull;
 
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.solovyev.android.calculator.text.TextProcessor;
+import org.solovyev.android.calculator.text.TextProcessorEditorResult;
 import org.solovyev.android.calculator.view.TextHighlighter;
 
 import java.util.Date;
@@ -183,6 +186,87 @@ public class TextHighlighterTest {
         System.out.println("Total time, ms: " + (endTime - startTime));
     }
 
+    @Test
+    public void testIncrementalProcess() throws Exception {
+        final TextProcessor<TextProcessorEditorResult, String> incremental = new TextHighlighter(Color.WHITE, true, engine);
+        final String[] tokens = {"sin", "cos", "ln", "(", ")", "1", "2", "0", "000", ".", "E", "-", "+", "*", "0x:", "FF", "π", "t", " ", "!", "√"};
+
+        final Random random = new Random(42);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            final int position = sb.length() == 0 ? 0 : random.nextInt(sb.length() + 1);
+            if (sb.length() > 0 && random.nextInt(3) == 0) {
+                sb.delete(position, Math.min(sb.length(), position + 1 + random.nextInt(3)));
+            } else {
+                sb.insert(position, tokens[random.nextInt(tokens.length)]);
+            }
+            final String text = sb.toString();
+            final TextProcessorEditorResult expected = new TextHighlighter(Color.WHITE, true, engine).process(text);
+            final TextProcessorEditorResult actual = incremental.process(text);
+            assertEquals(text, expected.toString(), actual.toString());
+            assertEquals(text, expected.getOffset(), actual.getOffset());
+        }
+    }
+
+    @Test
+    public void testIncrementalProcessOfLongText() throws Exception {
+        final StringBuilder sb = makeText(1000);
+        final TextHighlighter textHighlighter = new TextHighlighter(Color.WHITE, true, engine);
+        textHighlighter.process(sb.toString());
+        for (int i = 0; i < 20; i++) {
+            // type in the middle of the text
+            sb.insert(500 + i, i % 10);
+            final String text = sb.toString();
+            final TextProcessorEditorResult expected = new TextHighlighter(Color.WHITE, true, engine).process(text);
+            final TextProcessorEditorResult actual = textHighlighter.process(text);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getOffset(), actual.getOffset());
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkIncrementalVsFull() throws Exception {
+        final StringBuilder report = new StringBuilder();
+        long incremental = 0;
+        long full = 0;
+        for (int length : new int[]{100, 1000, 10000}) {
+            final StringBuilder sb = makeText(length);
+
+            final int keystrokes = 100;
+            final TextHighlighter textHighlighter = new TextHighlighter(Color.WHITE, true, engine);
+            textHighlighter.process(sb.toString());
+            long startTime = System.nanoTime();
+            for (int i = 0; i < keystrokes; i++) {
+                // type in the middle of the text
+                sb.insert(length / 2 + i, i % 10);
+                textHighlighter.process(sb.toString());
+            }
+            incremental = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < keystrokes; i++) {
+                sb.deleteCharAt(length / 2);
+                new TextHighlighter(Color.WHITE, true, engine).process(sb.toString());
+            }
+            full = System.nanoTime() - startTime;
+            report.append("Length: ").append(length).append(", time per keystroke, us: incremental=")
+                    .append(incremental / keystrokes / 1000).append(", full=").append(full / keystrokes / 1000).append('\n');
+        }
+        assertTrue(report.toString(), incremental < full);
+    }
+
+    @NonNull
+    private static StringBuilder makeText(int length) {
+        final String subExpression = "cos(acos(t8ln(t5t85tln(8ln(5t55tln(5))))))+tln(88cos(tln(t)))+t√(ln(t))+";
+        final StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(subExpression);
+        }
+        sb.setLength(length);
+        return sb;
+    }
+
     @Test
     public void testDarkColor() throws Exception {
         final TextProcessor<?, String> textHighlighter = new TextHighlighter(Color.BLACK, false, engine);
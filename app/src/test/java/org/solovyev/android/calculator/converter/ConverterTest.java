@@ -1,8 +1,17 @@
 package org.solovyev.android.calculator.converter;
 
+import org.junit.Ignore;
 import org.junit.Test;
 
+import javax.measure.converter.UnitConverter;
+import javax.measure.unit.Dimension;
+import javax.measure.unit.NonSI;
+import javax.measure.unit.SI;
+import javax.measure.unit.Unit;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class ConverterTest {
 
@@ -15,4 +24,61 @@ public class ConverterTest {
     public void testShouldParseValidHexNumber() throws Exception {
         assertEquals(26, Converter.parse("1A", 16).toLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShouldCacheFlattenedConverters() throws Exception {
+        final UnitConverter converter = SI.CELSIUS.getConverterTo(NonSI.FAHRENHEIT);
+        assertSame(converter, SI.CELSIUS.getConverterTo(NonSI.FAHRENHEIT));
+        assertEquals(212d, converter.convert(100d), 1e-12);
+        assertEquals(-40d, converter.convert(-40d), 1e-12);
+
+        final double[] values = {0d, 37d, 100d};
+        converter.convert(values, values);
+        assertEquals(32d, values[0], 1e-12);
+        assertEquals(98.6d, values[1], 1e-12);
+        assertEquals(212d, values[2], 1e-12);
+
+        assertEquals(1.609344d, NonSI.MILE.getConverterTo(SI.KILOMETER).convert(1d), 1e-12);
+        assertSame(UnitConverter.IDENTITY, SI.METER.getConverterTo(SI.METER));
+
+        final UnitConverter compound = NonSI.MILE.divide(NonSI.HOUR).getConverterTo(SI.KILOMETER.divide(SI.SECOND));
+        assertSame(compound, NonSI.MILE.divide(NonSI.HOUR).getConverterTo(SI.KILOMETER.divide(SI.SECOND)));
+        assertEquals(1.609344d / 3600d * 100d, compound.convert(100d), 1e-12);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkConversion() throws Exception {
+        final Unit<?> from = NonSI.MILE.divide(NonSI.HOUR);
+        final Unit<?> to = SI.KILOMETER.divide(SI.SECOND);
+        final int count = 1000000;
+        final double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = i;
+        }
+        final double[] converted = new double[count];
+
+        final Dimension.Model model = Dimension.getModel();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < count / 100; i++) {
+            // this is how every value was converted before: converter was computed on every call
+            Dimension.setModel(model);
+            converted[i] = from.getConverterTo(to).convert(values[i]);
+        }
+        final double uncachedTime = (System.nanoTime() - startTime) / (count / 100d);
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            converted[i] = from.getConverterTo(to).convert(values[i]);
+        }
+        final double cachedTime = (System.nanoTime() - startTime) / (double) count;
+
+        startTime = System.nanoTime();
+        from.getConverterTo(to).convert(values, converted);
+        final double bulkTime = (System.nanoTime() - startTime) / (double) count;
+        assertEquals(1.609344d / 3600d * (count - 1), converted[count - 1], 1e-12);
+
+        assertTrue("Conversion of " + count + " values, per value: first lookup: " + uncachedTime +
+                " ns, cached lookup: " + cachedTime + " ns, bulk: " + bulkTime + " ns", cachedTime < uncachedTime);
+    }
+}
@@ -0,0 +1,188 @@
+package org.solovyev.android.calculator.functions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.solovyev.common.math.MathRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import jscl.JsclMathEngine;
+import jscl.math.function.CustomFunction;
+import jscl.math.function.Function;
+
+public class FunctionsLoaderTest {
+
+    private MathRegistry<Function> registry;
+    private List<String> loaded;
+    private List<Exception> failed;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = JsclMathEngine.getInstance().getFunctionsRegistry();
+        registry.init();
+        loaded = new ArrayList<>();
+        failed = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (String name : loaded) {
+            final Function function = registry.get(name);
+            if (function != null) {
+                registry.remove(function);
+            }
+        }
+    }
+
+    @Test
+    public void testShouldLoadFunctionsInOrderOfDependencies() throws Exception {
+        final List<CustomFunction.Builder> functions = new ArrayList<>();
+        functions.add(builder("tf3", "tf2(x)+tf1(x)"));
+        functions.add(builder("tf2", "tf1(x)*2"));
+        functions.add(builder("tf1", "x+1"));
+        functions.add(builder("tf0", "x"));
+
+        new FunctionsLoader(2).load(functions, newCallback());
+
+        assertEquals(Arrays.asList("tf1", "tf0", "tf2", "tf3"), loaded);
+        assertTrue(failed.isEmpty());
+        assertEquals("9", JsclMathEngine.getInstance().evaluate("tf3(2)"));
+    }
+
+    @Test
+    public void testShouldReportCyclesOnce() throws Exception {
+        final List<CustomFunction.Builder> functions = new ArrayList<>();
+        functions.add(builder("tg", "th(x)"));
+        functions.add(builder("th", "tg(x)"));
+        functions.add(builder("tk", "tg(x)+1"));
+        functions.add(builder("tl", "x+2"));
+
+        new FunctionsLoader(2).load(functions, newCallback());
+
+        assertEquals(Collections.singletonList("tl"), loaded);
+        assertEquals(3, failed.size());
+    }
+
+    @Test
+    public void testShouldLoadFunctionsWithWronglyGuessedDependencies() throws Exception {
+        final List<CustomFunction.Builder> functions = new ArrayList<>();
+        // parameter has the same name as the other function
+        functions.add(new CustomFunction.Builder("tm", Collections.singletonList("tn"), "tn^2"));
+        functions.add(builder("tn", "tm(x)+1"));
+
+        new FunctionsLoader(2).load(functions, newCallback());
+
+        assertEquals(Arrays.asList("tm", "tn"), loaded);
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    public void testShouldLoadLongChains() throws Exception {
+        final int count = 50;
+        new FunctionsLoader().load(makeChain(count, "tq"), newCallback());
+        assertEquals(count, loaded.size());
+        assertTrue(failed.isEmpty());
+        // tq0(x) = x + 0 + 1 + ... + (count - 2)
+        assertEquals(String.valueOf(1 + (count - 1) * (count - 2) / 2), JsclMathEngine.getInstance().evaluate("tq0(1)"));
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkLoaderVsRetrying() throws Exception {
+        final int count = 500;
+
+        long startTime = System.currentTimeMillis();
+        final List<CustomFunction.Builder> functions = makeChain(count, "tr");
+        final List<Exception> exceptions = new ArrayList<>();
+        while (!functions.isEmpty()) {
+            // this is how functions were loaded before
+            final int sizeBefore = functions.size();
+            exceptions.clear();
+            for (Iterator<CustomFunction.Builder> it = functions.iterator(); it.hasNext(); ) {
+                try {
+                    final CustomFunction function = it.next().create();
+                    registry.addOrUpdate(function);
+                    loaded.add(function.getName());
+                    it.remove();
+                } catch (Exception e) {
+                    exceptions.add(e);
+                }
+            }
+            if (sizeBefore == functions.size()) {
+                break;
+            }
+        }
+        final long retryingTime = System.currentTimeMillis() - startTime;
+        assertEquals(count, loaded.size());
+
+        startTime = System.currentTimeMillis();
+        new FunctionsLoader().load(makeChain(count, "ts"), newCallback());
+        final long sequentialChainTime = System.currentTimeMillis() - startTime;
+        assertEquals(2 * count, loaded.size());
+
+        final List<CustomFunction.Builder> independent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            independent.add(builder("tu" + i, "sin(x)^2+cos(x)^2+" + i + "*x"));
+        }
+        startTime = System.currentTimeMillis();
+        new FunctionsLoader(1).load(independent, newCallback());
+        final long independentTime = System.currentTimeMillis() - startTime;
+
+        independent.clear();
+        for (int i = 0; i < count; i++) {
+            independent.add(builder("tv" + i, "sin(x)^2+cos(x)^2+" + i + "*x"));
+        }
+        startTime = System.currentTimeMillis();
+        new FunctionsLoader().load(independent, newCallback());
+        final long independentParallelTime = System.currentTimeMillis() - startTime;
+        assertEquals(4 * count, loaded.size());
+        assertTrue(failed.isEmpty());
+
+        assertTrue("Functions: " + count + ", chain retrying: " + retryingTime + " ms, chain loader: " +
+                sequentialChainTime + " ms, independent: " + independentTime + " ms, independent in parallel: " +
+                independentParallelTime + " ms", sequentialChainTime < retryingTime);
+    }
+
+    @NonNull
+    private static List<CustomFunction.Builder> makeChain(int count, @NonNull String prefix) {
+        // the worst case for retrying: each function depends on the next one
+        final List<CustomFunction.Builder> functions = new ArrayList<>();
+        for (int i = 0; i < count - 1; i++) {
+            functions.add(builder(prefix + i, prefix + (i + 1) + "(x)+" + i));
+        }
+        functions.add(builder(prefix + (count - 1), "x"));
+        return functions;
+    }
+
+    @NonNull
+    private static CustomFunction.Builder builder(@NonNull String name, @NonNull String body) {
+        return new CustomFunction.Builder(name, Collections.singletonList("x"), body);
+    }
+
+    @NonNull
+    private FunctionsLoader.Callback newCallback() {
+        return new FunctionsLoader.Callback() {
+            @Override
+            public void onLoaded(@NonNull CustomFunction function) {
+                registry.addOrUpdate(function);
+                loaded.add(function.getName());
+            }
+
+            @Override
+            public void onFailed(@NonNull Exception e) {
+                failed.add(e);
+            }
+        };
+    }
+}
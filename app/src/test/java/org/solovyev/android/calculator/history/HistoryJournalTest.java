@@ -0,0 +1,228 @@
+package org.solovyev.android.calculator.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.solovyev.android.calculator.jscl.JsclOperation.numeric;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.solovyev.android.calculator.BuildConfig;
+import org.solovyev.android.calculator.DisplayState;
+import org.solovyev.android.calculator.EditorState;
+import org.solovyev.android.calculator.json.Json;
+import org.solovyev.android.io.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Config(constants = BuildConfig.class, manifest = Config.NONE)
+@RunWith(value = RobolectricTestRunner.class)
+public class HistoryJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File snapshotFile;
+    private File journalFile;
+    private FileSystem fileSystem;
+
+    @Before
+    public void setUp() throws Exception {
+        snapshotFile = new File(folder.getRoot(), "history-saved.json");
+        journalFile = new File(folder.getRoot(), "history-saved.journal");
+        fileSystem = new FileSystem();
+    }
+
+    @Test
+    public void testShouldReplayJournal() throws Exception {
+        final HistoryJournal journal = newJournal();
+        journal.add(newState("1"));
+        journal.add(newState("2"));
+        journal.add(newState("3"));
+        journal.update(1, newState("22"));
+        journal.remove(0);
+        journal.flush(fileSystem);
+
+        assertTexts(newJournal().load(fileSystem), "22", "3");
+    }
+
+    @Test
+    public void testShouldReplayJournalAfterSnapshot() throws Exception {
+        final HistoryJournal journal = newJournal();
+        journal.add(newState("1"));
+        journal.add(newState("2"));
+        journal.compact(Arrays.asList(newState("1"), newState("2")));
+        journal.flush(fileSystem);
+        journal.add(newState("3"));
+        journal.flush(fileSystem);
+
+        final HistoryJournal loaded = newJournal();
+        assertTexts(loaded.load(fileSystem), "1", "2", "3");
+
+        // sequence must be restored
+        loaded.remove(0);
+        loaded.flush(fileSystem);
+        assertTexts(newJournal().load(fileSystem), "2", "3");
+    }
+
+    @Test
+    public void testShouldNotApplyRecordsTwiceIfJournalWasNotDeleted() throws Exception {
+        final HistoryJournal journal = newJournal();
+        journal.add(newState("1"));
+        journal.add(newState("2"));
+        journal.flush(fileSystem);
+        journal.compact(Arrays.asList(newState("1"), newState("2")));
+        // process dies after the snapshot has been written
+        journal.flush(new FileSystem() {
+            @Override
+            public void delete(@NonNull File file) {
+            }
+        });
+
+        assertTexts(newJournal().load(fileSystem), "1", "2");
+    }
+
+    @Test
+    public void testShouldSkipPartiallyWrittenRecord() throws Exception {
+        final HistoryJournal journal = newJournal();
+        journal.add(newState("1"));
+        journal.flush(fileSystem);
+        fileSystem.append(journalFile, "{\"n\":2,\"o\":\"a\",\"s\":{\"e\":");
+
+        assertTexts(newJournal().load(fileSystem), "1");
+    }
+
+    @Test
+    public void testShouldNotAppendToPartiallyWrittenRecord() throws Exception {
+        final HistoryJournal journal = newJournal();
+        journal.add(newState("1"));
+        journal.add(newState("2"));
+        journal.flush(fileSystem);
+        fileSystem.append(journalFile, "{\"n\":3,\"o\":\"a\",\"s\":{\"e\":");
+
+        final HistoryJournal loaded = newJournal();
+        final List<HistoryState> states = loaded.load(fileSystem);
+        assertTexts(states, "1", "2");
+        assertTrue(loaded.shouldCompact(states.size()));
+
+        // changes are made like in History: the journal is compacted if needed before the flush
+        states.add(newState("3"));
+        loaded.add(states.get(2));
+        if (loaded.shouldCompact(states.size())) {
+            loaded.compact(states);
+        }
+        loaded.flush(fileSystem);
+        states.remove(0);
+        loaded.remove(0);
+        if (loaded.shouldCompact(states.size())) {
+            loaded.compact(states);
+        }
+        loaded.flush(fileSystem);
+
+        assertTexts(newJournal().load(fileSystem), "2", "3");
+    }
+
+    @Test
+    public void testShouldLoadOldSnapshot() throws Exception {
+        fileSystem.write(snapshotFile, Json.toJson(Arrays.asList(newState("1"), newState("2"))).toString());
+        final HistoryJournal journal = newJournal();
+        assertTexts(journal.load(fileSystem), "1", "2");
+
+        journal.add(newState("3"));
+        journal.flush(fileSystem);
+        assertTexts(newJournal().load(fileSystem), "1", "2", "3");
+    }
+
+    @Test
+    public void testShouldLoadManyChanges() throws Exception {
+        final List<HistoryState> states = newStates(1000);
+        final HistoryJournal journal = newJournal();
+        journal.compact(states);
+        journal.flush(fileSystem);
+        updateAll(journal, states, 50);
+
+        final List<HistoryState> loaded = newJournal().load(fileSystem);
+        assertEquals(states.size(), loaded.size());
+        for (int i = 0; i < states.size(); i++) {
+            assertEquals(states.get(i).editor.getTextString(), loaded.get(i).editor.getTextString());
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkJournalVsRewrite() throws Exception {
+        final List<HistoryState> states = newStates(10000);
+        final int changes = 50;
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < changes; i++) {
+            states.set(i, newState("changed " + i));
+            fileSystem.write(snapshotFile, Json.toJson(states).toString());
+        }
+        final long rewriteTime = System.currentTimeMillis() - startTime;
+
+        final HistoryJournal journal = newJournal();
+        journal.compact(states);
+        journal.flush(fileSystem);
+        startTime = System.currentTimeMillis();
+        updateAll(journal, states, changes);
+        final long journalTime = System.currentTimeMillis() - startTime;
+
+        startTime = System.currentTimeMillis();
+        final List<HistoryState> loaded = newJournal().load(fileSystem);
+        final long loadTime = System.currentTimeMillis() - startTime;
+        assertEquals(states.size(), loaded.size());
+        assertEquals("changed again 0", loaded.get(0).editor.getTextString());
+
+        assertTrue("Saved states: " + states.size() + ", changes: " + changes + ", rewrite: " + rewriteTime
+                + " ms, journal: " + journalTime + " ms, load: " + loadTime + " ms", journalTime < rewriteTime);
+    }
+
+    private void updateAll(@NonNull HistoryJournal journal, @NonNull List<HistoryState> states, int changes) throws IOException {
+        for (int i = 0; i < changes; i++) {
+            final HistoryState state = newState("changed again " + i);
+            states.set(i, state);
+            journal.update(i, state);
+            if (journal.shouldCompact(states.size())) {
+                journal.compact(states);
+            }
+            journal.flush(fileSystem);
+        }
+    }
+
+    @NonNull
+    private static List<HistoryState> newStates(int size) {
+        final List<HistoryState> states = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            states.add(newState(String.valueOf(i)));
+        }
+        return states;
+    }
+
+    @NonNull
+    private HistoryJournal newJournal() {
+        return new HistoryJournal(snapshotFile, journalFile);
+    }
+
+    @NonNull
+    private static HistoryState newState(@NonNull String text) {
+        return HistoryState.builder(EditorState.create(text, 0), DisplayState.createValid(numeric, null, text, 0)).build();
+    }
+
+    private static void assertTexts(@NonNull List<HistoryState> states, @NonNull String... texts) {
+        assertEquals(texts.length, states.size());
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(texts[i], states.get(i).editor.getTextString());
+        }
+    }
+}
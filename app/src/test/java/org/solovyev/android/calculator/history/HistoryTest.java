@@ -101,6 +101,7 @@ public class HistoryTest {
     public void tearDown() throws Exception {
         history.getSavedHistoryFile().delete();
         history.getRecentHistoryFile().delete();
+        history.getSavedHistoryJournalFile().delete();
     }
 
     @Test
@@ -404,7 +405,8 @@ public class HistoryTest {
         Robolectric.flushForegroundThreadScheduler();
 
         assertTrue(history.getSaved().isEmpty());
-        verify(history.fileSystem).writeSilently(eq(history.getSavedHistoryFile()), eq("[]"));
+        verify(history.fileSystem).writeAtomically(eq(history.getSavedHistoryFile()), eq("{\"n\":1,\"s\":[]}"));
+        verify(history.fileSystem).delete(eq(history.getSavedHistoryJournalFile()));
     }
 
     @Test
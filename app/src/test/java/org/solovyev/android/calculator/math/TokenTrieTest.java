@@ -0,0 +1,114 @@
+package org.solovyev.android.calculator.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TokenTrieTest {
+
+    @Test
+    public void testShouldFindLongestToken() throws Exception {
+        final TokenTrie trie = new TokenTrie(Arrays.asList("asinh", "sinh", "asin", "sin", "s", "π"));
+        assertEquals("asinh", trie.find("asinh(x)", 0));
+        assertEquals("sinh", trie.find("asinh(x)", 1));
+        assertEquals("asin", trie.find("asin(x)", 0));
+        assertEquals("sin", trie.find("2sin(x)", 1));
+        assertEquals("s", trie.find("sx", 0));
+        assertEquals("π", trie.find("2π", 1));
+        assertNull(trie.find("asi", 0));
+        assertNull(trie.find("x", 0));
+        assertNull(trie.find("sin", 3));
+    }
+
+    @Test
+    public void testShouldBeSameAsLinearSearch() throws Exception {
+        final Random random = new Random(42);
+        final List<String> names = makeNames(random, 1000);
+        final TokenTrie trie = new TokenTrie(names);
+        final String text = makeText(random, names, 10000);
+        for (int i = 0; i < text.length(); i++) {
+            assertEquals(find(names, text, i), trie.find(text, i));
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkTrieVsLinearSearch() throws Exception {
+        final Random random = new Random(42);
+        final StringBuilder report = new StringBuilder();
+        long linearTime = 0;
+        long trieTime = 0;
+        for (int size : new int[]{10, 100, 1000}) {
+            final List<String> names = makeNames(random, size);
+            final String text = makeText(random, names, 10000);
+
+            long startTime = System.currentTimeMillis();
+            for (int i = 0; i < text.length(); i++) {
+                find(names, text, i);
+            }
+            linearTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final TokenTrie trie = new TokenTrie(names);
+            for (int i = 0; i < text.length(); i++) {
+                trie.find(text, i);
+            }
+            trieTime = System.currentTimeMillis() - startTime;
+            report.append("Tokens: ").append(size).append(", linear search: ").append(linearTime)
+                    .append(" ms, trie: ").append(trieTime).append(" ms\n");
+        }
+        assertTrue(report.toString(), trieTime < linearTime);
+    }
+
+    private static List<String> makeNames(Random random, int size) {
+        final List<String> names = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final StringBuilder name = new StringBuilder();
+            final int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                name.append((char) ('a' + random.nextInt(6)));
+            }
+            if (!names.contains(name.toString())) {
+                names.add(name.toString());
+            }
+        }
+        // same order as in registries: longest first
+        Collections.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String l, String r) {
+                final int result = r.length() - l.length();
+                return result == 0 ? l.compareTo(r) : result;
+            }
+        });
+        return names;
+    }
+
+    private static String makeText(Random random, List<String> names, int length) {
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            text.append(names.get(random.nextInt(names.size())));
+            text.append("+-*/()".charAt(random.nextInt(6)));
+        }
+        return text.toString();
+    }
+
+    private static String find(List<String> tokens, String text, int position) {
+        for (int i = 0; i < tokens.size(); i++) {
+            final String token = tokens.get(i);
+            if (text.startsWith(token, position)) {
+                return token;
+            }
+        }
+        return null;
+    }
+}
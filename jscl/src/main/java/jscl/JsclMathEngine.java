@@ -29,6 +29,13 @@ import jscl.math.operator.Rand;
 import jscl.math.operator.matrix.OperatorsRegistry;
 import jscl.text.ParseException;
 
+/**
+ * Settings of the engine ({@link MathSettings}) are replaced as a whole by the setters (e.g. {@link #setAngleUnits},
+ * {@link #setDigits}). A thread which has its own settings (see {@link #setThreadSettings(MathSettings)}) doesn't see
+ * these changes: it keeps using its snapshot until the previous settings are restored, i.e. an evaluation in progress
+ * is not affected by changes made in the meantime. Thread settings should therefore be set only for the duration of
+ * an evaluation and restored in a finally block, changes made after that apply to the next evaluation.
+ */
 public class JsclMathEngine implements MathEngine {
 
     public static final AngleUnit DEFAULT_ANGLE_UNITS = AngleUnit.deg;
@@ -43,15 +50,14 @@ public class JsclMathEngine implements MathEngine {
             return new NumberFormatter();
         }
     };
-    private char groupingSeparator = NumberFormatter.NO_GROUPING;
-    private int notation = FSE_NONE;
-    private int precision = NumberFormatter.MAX_PRECISION;
+    // settings of the engine, replaced as a whole on every change
     @Nonnull
-    private AngleUnit angleUnits = DEFAULT_ANGLE_UNITS;
+    private volatile MathSettings settings = new MathSettings(DEFAULT_ANGLE_UNITS, DEFAULT_NUMERAL_BASE,
+            NumberFormatter.MAX_PRECISION, FSE_NONE, NumberFormatter.NO_GROUPING,
+            Messages.synchronizedMessageRegistry(new FixedCapacityListMessageRegistry(10)), 0, 1);
+    // settings of the current thread, if set they take precedence over the settings of the engine
     @Nonnull
-    private NumeralBase numeralBase = DEFAULT_NUMERAL_BASE;
-    @Nonnull
-    private MessageRegistry messageRegistry = Messages.synchronizedMessageRegistry(new FixedCapacityListMessageRegistry(10));
+    private final ThreadLocal<MathSettings> threadSettings = new ThreadLocal<MathSettings>();
 
     public JsclMathEngine() {
     }
@@ -78,25 +84,103 @@ public class JsclMathEngine implements MathEngine {
 
     @Nonnull
     public Generic evaluateGeneric(@Nonnull String expression) throws ParseException {
+        return evaluateGeneric(expression, Expression.valueOf(expression));
+    }
+
+    @Nonnull
+    public Generic simplifyGeneric(@Nonnull String expression) throws ParseException {
+        return simplifyGeneric(expression, Expression.valueOf(expression));
+    }
+
+    @Nonnull
+    public Generic elementaryGeneric(@Nonnull String expression) throws ParseException {
+        return elementaryGeneric(expression, Expression.valueOf(expression));
+    }
+
+    @Nonnull
+    public Generic evaluateGeneric(@Nonnull String expression, @Nonnull Generic parsed) {
         if (expression.contains(Percent.NAME) || expression.contains(Rand.NAME)) {
-            return Expression.valueOf(expression).numeric();
+            return parsed.numeric();
         } else {
-            return Expression.valueOf(expression).expand().numeric();
+            return parsed.expand().numeric();
         }
     }
 
     @Nonnull
-    public Generic simplifyGeneric(@Nonnull String expression) throws ParseException {
+    public Generic simplifyGeneric(@Nonnull String expression, @Nonnull Generic parsed) {
         if (expression.contains(Percent.NAME) || expression.contains(Rand.NAME)) {
-            return Expression.valueOf(expression);
+            return parsed;
         } else {
-            return Expression.valueOf(expression).expand().simplify();
+            return parsed.expand().simplify();
         }
     }
 
     @Nonnull
-    public Generic elementaryGeneric(@Nonnull String expression) throws ParseException {
-        return Expression.valueOf(expression).elementary();
+    public Generic elementaryGeneric(@Nonnull String expression, @Nonnull Generic parsed) {
+        return parsed.elementary();
+    }
+
+    /**
+     * @return settings of the current thread if they are set, settings of the engine otherwise
+     */
+    @Nonnull
+    public MathSettings getSettings() {
+        final MathSettings settings = threadSettings.get();
+        return settings != null ? settings : this.settings;
+    }
+
+    /**
+     * Changes settings of the engine. Note that settings of the threads which have their own settings are not changed,
+     * the same applies to all other setters
+     */
+    public void setSettings(@Nonnull MathSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Changes settings for the current thread only. Code evaluating an expression with its own settings should look
+     * like this:
+     * <pre>
+     * final MathSettings previous = engine.setThreadSettings(settings);
+     * try {
+     *     // parse, evaluate and format the result
+     * } finally {
+     *     engine.setThreadSettings(previous);
+     * }
+     * </pre>
+     *
+     * @param settings settings to be used in the current thread, null to use the settings of the engine
+     * @return previous settings of the current thread
+     */
+    @Nullable
+    public MathSettings setThreadSettings(@Nullable MathSettings settings) {
+        final MathSettings previous = threadSettings.get();
+        if (settings == null) {
+            threadSettings.remove();
+        } else {
+            threadSettings.set(settings);
+        }
+        return previous;
+    }
+
+    @Nonnull
+    public String evaluate(@Nonnull String expression, @Nonnull MathSettings settings) throws ParseException {
+        final MathSettings previous = setThreadSettings(settings);
+        try {
+            return evaluate(expression);
+        } finally {
+            setThreadSettings(previous);
+        }
+    }
+
+    @Nonnull
+    public String simplify(@Nonnull String expression, @Nonnull MathSettings settings) throws ParseException {
+        final MathSettings previous = setThreadSettings(settings);
+        try {
+            return simplify(expression);
+        } finally {
+            setThreadSettings(previous);
+        }
     }
 
     @Nonnull
@@ -116,20 +200,20 @@ public class JsclMathEngine implements MathEngine {
 
     @Nonnull
     public AngleUnit getAngleUnits() {
-        return angleUnits;
+        return getSettings().getAngleUnits();
     }
 
-    public void setAngleUnits(@Nonnull AngleUnit angleUnits) {
-        this.angleUnits = angleUnits;
+    public synchronized void setAngleUnits(@Nonnull AngleUnit angleUnits) {
+        settings = settings.withAngleUnits(angleUnits);
     }
 
     @Nonnull
     public NumeralBase getNumeralBase() {
-        return numeralBase;
+        return getSettings().getNumeralBase();
     }
 
-    public void setNumeralBase(@Nonnull NumeralBase numeralBase) {
-        this.numeralBase = numeralBase;
+    public synchronized void setNumeralBase(@Nonnull NumeralBase numeralBase) {
+        settings = settings.withNumeralBase(numeralBase);
     }
 
     @Nonnull
@@ -139,7 +223,7 @@ public class JsclMathEngine implements MathEngine {
 
     @Nonnull
     public String format(double value) {
-        return format(value, numeralBase);
+        return format(value, getNumeralBase());
     }
 
     @Nonnull
@@ -165,10 +249,11 @@ public class JsclMathEngine implements MathEngine {
     }
 
     private NumberFormatter prepareNumberFormatter(@Nonnull NumeralBase nb) {
+        final MathSettings settings = getSettings();
         final NumberFormatter nf = numberFormatter.get();
-        nf.setGroupingSeparator(hasGroupingSeparator() ? getGroupingSeparator(nb) : NumberFormatter.NO_GROUPING);
-        nf.setPrecision(precision);
-        switch (notation) {
+        nf.setGroupingSeparator(settings.hasGroupingSeparator() ? getGroupingSeparator(settings, nb) : NumberFormatter.NO_GROUPING);
+        nf.setPrecision(settings.getPrecision());
+        switch (settings.getNotation()) {
             case FSE_ENG:
                 nf.useEngineeringFormat(NumberFormatter.DEFAULT_MAGNITUDE);
                 break;
@@ -184,7 +269,7 @@ public class JsclMathEngine implements MathEngine {
 
     @Override
     public String format(@Nonnull BigInteger value) {
-        return format(value, numeralBase);
+        return format(value, getNumeralBase());
     }
 
     @Nonnull
@@ -243,17 +328,17 @@ public class JsclMathEngine implements MathEngine {
 
     @Nonnull
     public MessageRegistry getMessageRegistry() {
-        return messageRegistry;
+        return getSettings().getMessageRegistry();
     }
 
-    public void setMessageRegistry(@Nonnull MessageRegistry messageRegistry) {
-        this.messageRegistry = messageRegistry;
+    public synchronized void setMessageRegistry(@Nonnull MessageRegistry messageRegistry) {
+        settings = settings.withMessageRegistry(messageRegistry);
     }
 
     @Nonnull
     @Override
     public String format(@Nonnull String value, @Nonnull NumeralBase nb) {
-        if (!hasGroupingSeparator()) {
+        if (!getSettings().hasGroupingSeparator()) {
             return value;
         }
         final int dot = value.indexOf('.');
@@ -271,7 +356,7 @@ public class JsclMathEngine implements MathEngine {
 
     @Nonnull
     public String insertSeparators(@Nonnull String value, @Nonnull NumeralBase nb) {
-        final char separator = getGroupingSeparator(nb);
+        final char separator = getGroupingSeparator(getSettings(), nb);
         final StringBuilder result = new StringBuilder(value.length() + nb.getGroupingSize());
         for (int i = value.length() - 1; i >= 0; i--) {
             result.append(value.charAt(i));
@@ -282,30 +367,47 @@ public class JsclMathEngine implements MathEngine {
         return result.reverse().toString();
     }
 
-    private boolean hasGroupingSeparator() {
-        return groupingSeparator != NumberFormatter.NO_GROUPING;
+    private static char getGroupingSeparator(@Nonnull MathSettings settings, @Nonnull NumeralBase nb) {
+        return nb == NumeralBase.dec ? settings.getGroupingSeparator() : ' ';
     }
 
-    private char getGroupingSeparator(@Nonnull NumeralBase nb) {
-        return nb == NumeralBase.dec ? groupingSeparator : ' ';
+    public synchronized void setPrecision(int precision) {
+        settings = settings.withPrecision(precision);
     }
 
-    public void setPrecision(int precision) {
-        this.precision = precision;
+    public int getDigits() {
+        return getSettings().getDigits();
     }
 
-    public void setNotation(int notation) {
-        if (notation != FSE_SCI && notation != FSE_ENG && notation != FSE_NONE) {
-            throw new IllegalArgumentException("Unsupported notation: " + notation);
-        }
-        this.notation = notation;
+    /**
+     * Sets number of significant digits of numeric evaluation: if <var>digits</var> is positive real numbers are kept
+     * as {@link jscl.math.numeric.BigReal}s with the given number of digits, if it is 0 they are kept as doubles
+     */
+    public synchronized void setDigits(int digits) {
+        settings = settings.withDigits(digits);
+    }
+
+    public int getThreads() {
+        return getSettings().getThreads();
+    }
+
+    /**
+     * Sets maximum number of threads used by the parallel algorithms (see {@link MathSettings#getThreads()}), by
+     * default everything is computed on the calling thread
+     */
+    public synchronized void setThreads(int threads) {
+        settings = settings.withThreads(threads);
+    }
+
+    public synchronized void setNotation(int notation) {
+        settings = settings.withNotation(notation);
     }
 
     public char getGroupingSeparator() {
-        return this.groupingSeparator;
+        return getSettings().getGroupingSeparator();
     }
 
-    public void setGroupingSeparator(char separator) {
-        this.groupingSeparator = separator;
+    public synchronized void setGroupingSeparator(char separator) {
+        settings = settings.withGroupingSeparator(separator);
     }
 }
@@ -5,6 +5,7 @@ import jscl.text.ParseException;
 import org.solovyev.common.msg.MessageRegistry;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public interface MathEngine extends MathContext {
 
@@ -26,8 +27,27 @@ public interface MathEngine extends MathContext {
     @Nonnull
     Generic elementaryGeneric(@Nonnull String expression) throws ParseException;
 
+    // same as above for the expressions which are already parsed from the text, see Expression#valueOf(String)
+
+    @Nonnull
+    Generic evaluateGeneric(@Nonnull String expression, @Nonnull Generic parsed);
+
+    @Nonnull
+    Generic simplifyGeneric(@Nonnull String expression, @Nonnull Generic parsed);
+
+    @Nonnull
+    Generic elementaryGeneric(@Nonnull String expression, @Nonnull Generic parsed);
+
     @Nonnull
     MessageRegistry getMessageRegistry();
 
     void setMessageRegistry(@Nonnull MessageRegistry messageRegistry);
+
+    @Nonnull
+    MathSettings getSettings();
+
+    void setSettings(@Nonnull MathSettings settings);
+
+    @Nullable
+    MathSettings setThreadSettings(@Nullable MathSettings settings);
 }
@@ -0,0 +1,147 @@
+package jscl;
+
+import static midpcalc.Real.NumberFormat.FSE_ENG;
+import static midpcalc.Real.NumberFormat.FSE_NONE;
+import static midpcalc.Real.NumberFormat.FSE_SCI;
+
+import org.solovyev.common.NumberFormatter;
+import org.solovyev.common.msg.MessageRegistry;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Immutable snapshot of the settings used in parsing, evaluation and formatting. Settings can be applied either to the
+ * whole engine (see {@link JsclMathEngine#setSettings(MathSettings)}) or only to the current thread (see
+ * {@link JsclMathEngine#setThreadSettings(MathSettings)}), the latter allows evaluations with different settings to run
+ * in parallel.
+ */
+public final class MathSettings {
+
+    @Nonnull
+    private final AngleUnit angleUnits;
+    @Nonnull
+    private final NumeralBase numeralBase;
+    private final int precision;
+    private final int notation;
+    private final char groupingSeparator;
+    @Nonnull
+    private final MessageRegistry messageRegistry;
+    // number of significant digits of numeric evaluation, 0 if evaluation is done in double precision
+    private final int digits;
+    // maximum number of threads used by the parallel algorithms, 1 if everything is computed on the calling thread
+    private final int threads;
+
+    MathSettings(@Nonnull AngleUnit angleUnits,
+                 @Nonnull NumeralBase numeralBase,
+                 int precision,
+                 int notation,
+                 char groupingSeparator,
+                 @Nonnull MessageRegistry messageRegistry,
+                 int digits,
+                 int threads) {
+        if (digits < 0) {
+            throw new IllegalArgumentException("Number of digits must not be negative: " + digits);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        if (notation != FSE_SCI && notation != FSE_ENG && notation != FSE_NONE) {
+            throw new IllegalArgumentException("Unsupported notation: " + notation);
+        }
+        this.angleUnits = angleUnits;
+        this.numeralBase = numeralBase;
+        this.precision = precision;
+        this.notation = notation;
+        this.groupingSeparator = groupingSeparator;
+        this.messageRegistry = messageRegistry;
+        this.digits = digits;
+        this.threads = threads;
+    }
+
+    @Nonnull
+    public AngleUnit getAngleUnits() {
+        return angleUnits;
+    }
+
+    @Nonnull
+    public NumeralBase getNumeralBase() {
+        return numeralBase;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getNotation() {
+        return notation;
+    }
+
+    public char getGroupingSeparator() {
+        return groupingSeparator;
+    }
+
+    public boolean hasGroupingSeparator() {
+        return groupingSeparator != NumberFormatter.NO_GROUPING;
+    }
+
+    @Nonnull
+    public MessageRegistry getMessageRegistry() {
+        return messageRegistry;
+    }
+
+    /**
+     * @return number of significant digits of numeric evaluation if it is done with arbitrary precision (see
+     * {@link jscl.math.numeric.BigReal}), 0 if it is done in double precision
+     */
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * @return maximum number of threads used by the parallel algorithms (factorization of big numbers, gcd of big
+     * polynomials, statistics of big vectors), 1 if they run only on the calling thread
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    @Nonnull
+    public MathSettings withAngleUnits(@Nonnull AngleUnit angleUnits) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withNumeralBase(@Nonnull NumeralBase numeralBase) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withPrecision(int precision) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withNotation(int notation) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withGroupingSeparator(char groupingSeparator) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withMessageRegistry(@Nonnull MessageRegistry messageRegistry) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withDigits(int digits) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+
+    @Nonnull
+    public MathSettings withThreads(int threads) {
+        return new MathSettings(angleUnits, numeralBase, precision, notation, groupingSeparator, messageRegistry, digits, threads);
+    }
+}
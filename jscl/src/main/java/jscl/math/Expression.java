@@ -1,10 +1,13 @@
 package jscl.math;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -22,6 +25,7 @@ import jscl.text.Parser;
 import jscl.text.ParserUtils;
 import jscl.text.msg.Messages;
 import jscl.util.ArrayUtils;
+import jscl.util.ProductHeap;
 
 public class Expression extends Generic {
 
@@ -49,6 +53,16 @@ public class Expression extends Generic {
             return variable.numeric();
         }
     };
+    private static final Comparator<Literal> LITERAL_COMPARATOR = new Comparator<Literal>() {
+        public int compare(Literal l, Literal r) {
+            return l.compareTo(r);
+        }
+    };
+    private static final Comparator<Long> EXPONENTS_COMPARATOR = new Comparator<Long>() {
+        public int compare(Long l, Long r) {
+            return l.compareTo(r);
+        }
+    };
     int size;
     private Literal literals[];
     private JsclInteger coefficients[];
@@ -104,9 +118,7 @@ public class Expression extends Generic {
 
     public static Expression valueOf(@Nonnull Constant constant) {
         final Expression expression = new Expression(1);
-        Literal literal = new Literal();
-        literal.init(constant, 1);
-        expression.init(literal, JsclInteger.ONE);
+        expression.init(Literal.valueOf(constant), JsclInteger.ONE);
         return expression;
     }
 
@@ -304,12 +316,183 @@ public class Expression extends Generic {
     }
 
     public Expression multiply(Expression expression) {
-        Expression result = newInstance(0);
+        if (size == 0 || expression.size == 0) {
+            return newInstance(0);
+        }
 
-        for (int i = 0; i < size; i++) {
-            result = result.multiplyAndAdd(literals[i], coefficients[i], expression);
+        // the smaller factor gives the rows of the product and thus the size of the heap
+        final Expression rows = size <= expression.size ? this : expression;
+        final Expression columns = rows == this ? expression : this;
+        if (rows.size == 1) {
+            return newInstance(0).multiplyAndAdd(rows.literals[0], rows.coefficients[0], columns);
+        }
+
+        final long[][] exponents = packExponents(rows, columns);
+        if (exponents != null) {
+            return multiply(rows, exponents[0], columns, exponents[1]);
+        } else {
+            return multiply(rows, columns);
+        }
+    }
+
+    /**
+     * Sparse multiplication (Johnson's algorithm, see {@link ProductHeap}) with exponents of the literals packed into
+     * longs: comparison and multiplication of the literals become comparison and addition of longs and only the
+     * literals of the result are actually multiplied.
+     */
+    @Nonnull
+    private Expression multiply(@Nonnull Expression rows, @Nonnull long[] rowExponents, @Nonnull Expression columns, @Nonnull long[] columnExponents) {
+        final ProductHeap<Long> heap = new ProductHeap<Long>(rows.size, EXPONENTS_COMPARATOR);
+        final int lastColumn = columns.size - 1;
+        for (int i = 0; i < rows.size; i++) {
+            heap.add(i, lastColumn, rowExponents[i] + columnExponents[lastColumn]);
+        }
+
+        // terms are produced in descending order
+        Literal[] literals = new Literal[rows.size + columns.size];
+        JsclInteger[] coefficients = new JsclInteger[literals.length];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            final long exponents = heap.key();
+            final int firstRow = heap.row();
+            final int firstColumn = heap.column();
+            JsclInteger coefficient = JsclInteger.ZERO;
+            do {
+                final int row = heap.row();
+                final int column = heap.column();
+                coefficient = coefficient.add(rows.coefficients[row].multiply(columns.coefficients[column]));
+                if (column > 0) {
+                    heap.replace(column - 1, rowExponents[row] + columnExponents[column - 1]);
+                } else {
+                    heap.remove();
+                }
+            } while (!heap.isEmpty() && heap.key() == exponents);
+
+            if (coefficient.signum() != 0) {
+                if (n == literals.length) {
+                    literals = Arrays.copyOf(literals, 2 * n);
+                    coefficients = Arrays.copyOf(coefficients, 2 * n);
+                }
+                literals[n] = rows.literals[firstRow].multiply(columns.literals[firstColumn]);
+                coefficients[n] = coefficient;
+                n++;
+            }
+        }
+        return newInstance(literals, coefficients, n);
+    }
+
+    /**
+     * Same as {@link #multiply(Expression, long[], Expression, long[])} but with the literals in the heap, used if the
+     * exponents can't be packed
+     */
+    @Nonnull
+    private Expression multiply(@Nonnull Expression rows, @Nonnull Expression columns) {
+        final ProductHeap<Literal> heap = new ProductHeap<Literal>(rows.size, LITERAL_COMPARATOR);
+        final int lastColumn = columns.size - 1;
+        for (int i = 0; i < rows.size; i++) {
+            heap.add(i, lastColumn, rows.literals[i].multiply(columns.literals[lastColumn]));
+        }
+
+        Literal[] literals = new Literal[rows.size + columns.size];
+        JsclInteger[] coefficients = new JsclInteger[literals.length];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            final Literal literal = heap.key();
+            JsclInteger coefficient = JsclInteger.ZERO;
+            do {
+                final int row = heap.row();
+                final int column = heap.column();
+                coefficient = coefficient.add(rows.coefficients[row].multiply(columns.coefficients[column]));
+                if (column > 0) {
+                    heap.replace(column - 1, rows.literals[row].multiply(columns.literals[column - 1]));
+                } else {
+                    heap.remove();
+                }
+            } while (!heap.isEmpty() && heap.key().compareTo(literal) == 0);
+
+            if (coefficient.signum() != 0) {
+                if (n == literals.length) {
+                    literals = Arrays.copyOf(literals, 2 * n);
+                    coefficients = Arrays.copyOf(coefficients, 2 * n);
+                }
+                literals[n] = literal;
+                coefficients[n] = coefficient;
+                n++;
+            }
         }
+        return newInstance(literals, coefficients, n);
+    }
 
+    /**
+     * @return new expression with first <var>n</var> terms of the arrays given in descending order
+     */
+    @Nonnull
+    private Expression newInstance(@Nonnull Literal[] literals, @Nonnull JsclInteger[] coefficients, int n) {
+        final Expression result = newInstance(n);
+        for (int i = 0; i < n; i++) {
+            result.literals[n - 1 - i] = literals[i];
+            result.coefficients[n - 1 - i] = coefficients[i];
+        }
+        return result;
+    }
+
+    /**
+     * Packs the exponents of the literals of both factors into longs: each variable gets enough bits to hold its
+     * exponent in the product, bigger variables take the higher bits. Packed exponents compare the same way as the
+     * literals (see {@link Literal#compareTo(Literal)}) and the packed exponents of the product of two literals is the
+     * sum of their packed exponents.
+     *
+     * @return packed exponents of the literals of both factors or null if they don't fit into 63 bits
+     */
+    @Nullable
+    private static long[][] packExponents(@Nonnull Expression l, @Nonnull Expression r) {
+        // variable -> {max power in l, max power in r, shift}
+        final Map<Variable, int[]> variables = new TreeMap<Variable, int[]>();
+        if (!collectPowers(l, 0, variables) || !collectPowers(r, 1, variables)) {
+            return null;
+        }
+        int shift = 0;
+        for (int[] powers : variables.values()) {
+            powers[2] = shift;
+            shift += 64 - Long.numberOfLeadingZeros((long) powers[0] + powers[1]);
+            if (shift > 63) {
+                return null;
+            }
+        }
+        return new long[][]{packExponents(l, variables), packExponents(r, variables)};
+    }
+
+    private static boolean collectPowers(@Nonnull Expression e, int index, @Nonnull Map<Variable, int[]> variables) {
+        for (int i = 0; i < e.size; i++) {
+            final Literal literal = e.literals[i];
+            for (int j = 0; j < literal.size(); j++) {
+                final int power = literal.getPower(j);
+                if (power <= 0) {
+                    return false;
+                }
+                final Variable variable = literal.getVariable(j);
+                int[] powers = variables.get(variable);
+                if (powers == null) {
+                    powers = new int[3];
+                    variables.put(variable, powers);
+                }
+                powers[index] = Math.max(powers[index], power);
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    private static long[] packExponents(@Nonnull Expression e, @Nonnull Map<Variable, int[]> variables) {
+        final long[] result = new long[e.size];
+        for (int i = 0; i < e.size; i++) {
+            final Literal literal = e.literals[i];
+            long exponents = 0;
+            for (int j = 0; j < literal.size(); j++) {
+                exponents += (long) literal.getPower(j) << variables.get(literal.getVariable(j))[2];
+            }
+            result[i] = exponents;
+        }
         return result;
     }
 
@@ -324,6 +507,155 @@ public class Expression extends Generic {
         }
     }
 
+    /**
+     * Sums are raised to integer powers by the multinomial theorem (see {@link Multinomial}): each term of the result is
+     * computed directly, without intermediate products. If many of these terms coincide (e.g. in (1 + x + ... + x^9)^n)
+     * the sum is multiplied by itself repeatedly instead: for sparse polynomials it is cheaper than squaring as one of
+     * the factors always stays small.
+     */
+    @Override
+    public Generic pow(int exponent) {
+        assert exponent >= 0;
+
+        if (exponent == 0) {
+            return JsclInteger.valueOf(1);
+        } else if (exponent == 1 || size == 0) {
+            return this;
+        } else if (size == 1) {
+            return valueOf(literals[0].pow(exponent), (JsclInteger) coefficients[0].pow(exponent));
+        } else if (isMultinomialCheaper(exponent)) {
+            return new Multinomial(this, exponent).expand();
+        }
+
+        Expression result = this;
+        for (int i = 1; i < exponent; i++) {
+            ParserUtils.checkInterruption();
+            result = result.multiply(this);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the number of the terms in the multinomial expansion, C(n + m - 1, m - 1) for m terms, doesn't
+     * exceed the number of the terms a polynomial with the degrees of the result might have
+     */
+    private boolean isMultinomialCheaper(int exponent) {
+        double terms = 1;
+        for (int i = 1; i < size; i++) {
+            terms = terms * (exponent + i) / i;
+        }
+
+        final Map<Variable, Integer> degrees = new TreeMap<Variable, Integer>();
+        for (int i = 0; i < size; i++) {
+            final Literal literal = literals[i];
+            for (int j = 0; j < literal.size(); j++) {
+                final Integer degree = degrees.get(literal.getVariable(j));
+                final int power = Math.abs(literal.getPower(j));
+                if (degree == null || degree < power) {
+                    degrees.put(literal.getVariable(j), power);
+                }
+            }
+        }
+        double bound = 1;
+        for (Integer degree : degrees.values()) {
+            bound *= (double) degree * exponent + 1;
+        }
+        return terms <= bound;
+    }
+
+    /**
+     * Terms of (t[0] + ... + t[m - 1])^n: n! / (k[0]! ... k[m - 1]!) t[0]^k[0] ... t[m - 1]^k[m - 1] for all
+     * k[0] + ... + k[m - 1] = n. Powers of the terms are computed once, multinomial coefficients are built up as products
+     * of binomial coefficients C(n, k[0]) C(n - k[0], k[1]) ...
+     */
+    private static final class Multinomial {
+
+        // literals[i][k] and coefficients[i][k] is t[i]^k
+        @Nonnull
+        private final Literal[][] literals;
+        @Nonnull
+        private final JsclInteger[][] coefficients;
+        private final int exponent;
+        @Nonnull
+        private Literal[] resultLiterals;
+        @Nonnull
+        private JsclInteger[] resultCoefficients;
+        private int resultSize;
+
+        Multinomial(@Nonnull Expression base, int exponent) {
+            this.exponent = exponent;
+            literals = new Literal[base.size][exponent + 1];
+            coefficients = new JsclInteger[base.size][exponent + 1];
+            for (int i = 0; i < base.size; i++) {
+                literals[i][0] = Literal.newInstance();
+                coefficients[i][0] = JsclInteger.ONE;
+                for (int k = 1; k <= exponent; k++) {
+                    literals[i][k] = literals[i][k - 1].multiply(base.literals[i]);
+                    coefficients[i][k] = coefficients[i][k - 1].multiply(base.coefficients[i]);
+                }
+            }
+            resultLiterals = new Literal[16];
+            resultCoefficients = new JsclInteger[resultLiterals.length];
+        }
+
+        @Nonnull
+        Expression expand() {
+            expand(0, exponent, Literal.newInstance(), JsclInteger.ONE);
+
+            // terms in descending order, equal literals are added up
+            final Integer[] order = new Integer[resultSize];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer l, Integer r) {
+                    return resultLiterals[r].compareTo(resultLiterals[l]);
+                }
+            });
+            final Literal[] literals = new Literal[resultSize];
+            final JsclInteger[] coefficients = new JsclInteger[resultSize];
+            int n = 0;
+            for (int i = 0; i < order.length; ) {
+                final Literal literal = resultLiterals[order[i]];
+                JsclInteger coefficient = resultCoefficients[order[i]];
+                for (i++; i < order.length && resultLiterals[order[i]].compareTo(literal) == 0; i++) {
+                    coefficient = coefficient.add(resultCoefficients[order[i]]);
+                }
+                if (coefficient.signum() != 0) {
+                    literals[n] = literal;
+                    coefficients[n] = coefficient;
+                    n++;
+                }
+            }
+            return new Expression().newInstance(literals, coefficients, n);
+        }
+
+        private void expand(int i, int remaining, @Nonnull Literal literal, @Nonnull JsclInteger coefficient) {
+            if (i == literals.length - 1) {
+                add(literal.multiply(literals[i][remaining]), coefficient.multiply(coefficients[i][remaining]));
+                return;
+            }
+
+            ParserUtils.checkInterruption();
+
+            JsclInteger binomial = JsclInteger.ONE;
+            for (int k = 0; k <= remaining; k++) {
+                expand(i + 1, remaining - k, literal.multiply(literals[i][k]), coefficient.multiply(binomial).multiply(coefficients[i][k]));
+                binomial = binomial.multiply(JsclInteger.valueOf(remaining - k)).divide(JsclInteger.valueOf(k + 1));
+            }
+        }
+
+        private void add(@Nonnull Literal literal, @Nonnull JsclInteger coefficient) {
+            if (resultSize == resultLiterals.length) {
+                resultLiterals = Arrays.copyOf(resultLiterals, 2 * resultSize);
+                resultCoefficients = Arrays.copyOf(resultCoefficients, 2 * resultSize);
+            }
+            resultLiterals[resultSize] = literal;
+            resultCoefficients[resultSize] = coefficient;
+            resultSize++;
+        }
+    }
+
     @Nonnull
     public Generic divide(@Nonnull Generic that) throws NotDivisibleException {
         Generic a[] = divideAndRemainder(that);
@@ -732,6 +1064,7 @@ public class Expression extends Generic {
     }
 
     public int compareTo(Expression expression) {
+        if (this == expression) return 0;
         int i1 = size;
         int i2 = expression.size;
         Literal l1 = i1 == 0 ? null : literals[--i1];
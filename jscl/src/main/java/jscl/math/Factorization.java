@@ -7,9 +7,11 @@ import jscl.math.polynomial.Polynomial;
 import jscl.util.ArrayComparator;
 import jscl.util.ArrayUtils;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 public class Factorization {
     private static final String ter = "t";
@@ -32,19 +34,14 @@ public class Factorization {
 
     static Generic factorize(JsclInteger integer) {
         Generic n[] = integer.gcdAndNormalize();
-        Generic s = n[1];
         Generic a = JsclInteger.valueOf(1);
-        Generic p = JsclInteger.valueOf(2);
-        while (s.compareTo(JsclInteger.valueOf(1)) > 0) {
-            Generic q[] = s.divideAndRemainder(p);
-            if (q[0].compareTo(p) < 0) {
-                p = s;
-                q = s.divideAndRemainder(p);
+        if (n[1].signum() > 0) {
+            for (Map.Entry<BigInteger, Integer> factor : Primes.factorize(n[1].integerValue().content()).entrySet()) {
+                Generic p = expression(new JsclInteger(factor.getKey()), true);
+                for (int i = 0; i < factor.getValue(); i++) {
+                    a = a.multiply(p);
+                }
             }
-            if (q[1].signum() == 0) {
-                a = a.multiply(expression(p, true));
-                s = q[0];
-            } else p = p.add(JsclInteger.valueOf(1));
         }
         return a.multiply(n[0]);
     }
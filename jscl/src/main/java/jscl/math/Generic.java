@@ -111,16 +111,22 @@ public abstract class Generic implements Arithmetic<Generic>, Comparable {
     public Generic pow(int exponent) {
         assert exponent >= 0;
 
-        Generic result = JsclInteger.valueOf(1);
-
-        for (int i = 0; i < exponent; i++) {
+        // exponentiation by squaring: O(log(exponent)) multiplications
+        Generic result = null;
+        Generic square = this;
+        for (int e = exponent; e > 0; e >>= 1) {
 
             ParserUtils.checkInterruption();
 
-            result = result.multiply(this);
+            if ((e & 1) != 0) {
+                result = result == null ? square : result.multiply(square);
+            }
+            if (e > 1) {
+                square = square.multiply(square);
+            }
         }
 
-        return result;
+        return result == null ? JsclInteger.valueOf(1) : result;
     }
 
     public Generic abs() {
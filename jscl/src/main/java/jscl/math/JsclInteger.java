@@ -3,45 +3,100 @@ package jscl.math;
 import jscl.JsclMathEngine;
 import jscl.math.function.Constant;
 import jscl.mathml.MathML;
+import jscl.text.ParserUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Integer of arbitrary size. Values which fit into long are kept as longs and arithmetic on them is done without
+ * allocation of {@link BigInteger}s, a result is promoted to {@link BigInteger} only on overflow.
+ */
 public final class JsclInteger extends Generic {
 
-    public static final JsclInteger factory = new JsclInteger(BigInteger.valueOf(0));
-    public static final JsclInteger ZERO = new JsclInteger(BigInteger.valueOf(0));
-    public static final JsclInteger ONE = new JsclInteger(BigInteger.valueOf(1));
+    private static final int CACHE_MIN = -128;
+    private static final int CACHE_MAX = 1024;
+    @Nonnull
+    private static final JsclInteger[] cache = new JsclInteger[CACHE_MAX - CACHE_MIN + 1];
+
+    static {
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new JsclInteger(i + CACHE_MIN);
+        }
+    }
+
+    public static final JsclInteger factory = new JsclInteger(0);
+    public static final JsclInteger ZERO = valueOf(0);
+    public static final JsclInteger ONE = valueOf(1);
+
+    // value of the integer if it fits into long
+    private final long value;
+    // value of the integer if it doesn't fit into long, null otherwise
+    @Nullable
     private final BigInteger content;
 
     public JsclInteger(BigInteger content) {
-        this.content = content;
+        if (content.bitLength() < 64) {
+            this.value = content.longValue();
+            this.content = null;
+        } else {
+            this.value = 0;
+            this.content = content;
+        }
+    }
+
+    private JsclInteger(long value) {
+        this.value = value;
+        this.content = null;
     }
 
     public static JsclInteger valueOf(long val) {
-        switch ((int) val) {
-            case 0:
-                return ZERO;
-            case 1:
-                return ONE;
-            default:
-                return new JsclInteger(BigInteger.valueOf(val));
+        if (val >= CACHE_MIN && val <= CACHE_MAX) {
+            return cache[(int) val - CACHE_MIN];
+        }
+        return new JsclInteger(val);
+    }
+
+    @Nonnull
+    private static JsclInteger valueOf(@Nonnull BigInteger content) {
+        if (content.bitLength() < 64) {
+            return valueOf(content.longValue());
         }
+        return new JsclInteger(content);
     }
 
     public static JsclInteger valueOf(String str) {
-        return new JsclInteger(new BigInteger(str));
+        // 18 digits always fit into long
+        if (str.length() <= 18) {
+            return valueOf(Long.parseLong(str));
+        }
+        return valueOf(new BigInteger(str));
+    }
+
+    private boolean isSmall() {
+        return content == null;
     }
 
     public BigInteger content() {
-        return content;
+        return content == null ? BigInteger.valueOf(value) : content;
     }
 
     public JsclInteger add(JsclInteger integer) {
-        return new JsclInteger(content.add(integer.content));
+        if (isSmall() && integer.isSmall()) {
+            final long a = value;
+            final long b = integer.value;
+            final long r = a + b;
+            // overflow iff both arguments have the sign different from the sign of the result
+            if (((a ^ r) & (b ^ r)) >= 0) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(content().add(integer.content()));
     }
 
     @Nonnull
@@ -57,14 +112,23 @@ public final class JsclInteger extends Generic {
     }
 
     private boolean isZero() {
-        return content.equals(ZERO.content);
+        return isSmall() && value == 0;
     }
 
     public JsclInteger subtract(JsclInteger that) {
         if(isZero()) {
             return that.negate();
         }
-        return new JsclInteger(content.subtract(that.content));
+        if (isSmall() && that.isSmall()) {
+            final long a = value;
+            final long b = that.value;
+            final long r = a - b;
+            // overflow iff the arguments have different signs and the sign of the result differs from the first one
+            if (((a ^ b) & (a ^ r)) >= 0) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(content().subtract(that.content()));
     }
 
     @Nonnull
@@ -77,7 +141,19 @@ public final class JsclInteger extends Generic {
     }
 
     public JsclInteger multiply(JsclInteger integer) {
-        return new JsclInteger(content.multiply(integer.content));
+        if (isSmall() && integer.isSmall()) {
+            final long a = value;
+            final long b = integer.value;
+            if (((Math.abs(a) | Math.abs(b)) >>> 31) == 0) {
+                // both values are less than 2^31 in absolute value => product fits into long
+                return valueOf(a * b);
+            }
+            final long r = a * b;
+            if (a == 0 || (r / a == b && !(a == -1 && b == Long.MIN_VALUE))) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(content().multiply(integer.content()));
     }
 
     @Nonnull
@@ -93,7 +169,7 @@ public final class JsclInteger extends Generic {
     }
 
     private boolean isOne() {
-        return content.equals(ONE.content);
+        return isSmall() && value == 1;
     }
 
     public JsclInteger divide(@Nonnull JsclInteger that) {
@@ -119,9 +195,12 @@ public final class JsclInteger extends Generic {
 
     @Nonnull
     private JsclInteger[] divideAndRemainder(@Nonnull JsclInteger that) {
+        if (isSmall() && that.isSmall() && that.value != 0 && !(value == Long.MIN_VALUE && that.value == -1)) {
+            return new JsclInteger[]{valueOf(value / that.value), valueOf(value % that.value)};
+        }
         try {
-            final BigInteger result[] = content.divideAndRemainder(that.content);
-            return new JsclInteger[]{new JsclInteger(result[0]), new JsclInteger(result[1])};
+            final BigInteger result[] = content().divideAndRemainder(that.content());
+            return new JsclInteger[]{valueOf(result[0]), valueOf(result[1])};
         } catch (ArithmeticException e) {
             throw new NotDivisibleException();
         }
@@ -136,7 +215,11 @@ public final class JsclInteger extends Generic {
     }
 
     public JsclInteger remainder(JsclInteger integer) throws ArithmeticException {
-        return new JsclInteger(content.remainder(integer.content));
+        if (isSmall() && integer.isSmall() && integer.value != 0) {
+            // Long.MIN_VALUE % -1 is 0, no overflow
+            return valueOf(value % integer.value);
+        }
+        return valueOf(content().remainder(integer.content()));
     }
 
     public Generic remainder(Generic generic) throws ArithmeticException {
@@ -149,7 +232,17 @@ public final class JsclInteger extends Generic {
 
     @Nonnull
     public JsclInteger gcd(@Nonnull JsclInteger integer) {
-        return new JsclInteger(content.gcd(integer.content));
+        if (isSmall() && integer.isSmall() && value != Long.MIN_VALUE && integer.value != Long.MIN_VALUE) {
+            long a = Math.abs(value);
+            long b = Math.abs(integer.value);
+            while (b != 0) {
+                final long r = a % b;
+                a = b;
+                b = r;
+            }
+            return valueOf(a);
+        }
+        return valueOf(content().gcd(integer.content()));
     }
 
     public Generic gcd(@Nonnull Generic generic) {
@@ -162,19 +255,22 @@ public final class JsclInteger extends Generic {
 
     @Nonnull
     public Generic gcd() {
-        return new JsclInteger(BigInteger.valueOf(signum()));
+        return valueOf(signum());
     }
 
     public Generic pow(int exponent) {
-        return new JsclInteger(content.pow(exponent));
+        return valueOf(content().pow(exponent));
     }
 
     public JsclInteger negate() {
-        return new JsclInteger(content.negate());
+        if (isSmall() && value != Long.MIN_VALUE) {
+            return valueOf(-value);
+        }
+        return valueOf(content().negate());
     }
 
     public int signum() {
-        return content.signum();
+        return isSmall() ? Long.signum(value) : content.signum();
     }
 
     public int degree() {
@@ -182,52 +278,47 @@ public final class JsclInteger extends Generic {
     }
 
     public JsclInteger mod(JsclInteger that) {
-        return new JsclInteger(content.mod(that.content));
+        if (isSmall() && that.isSmall() && that.value > 0) {
+            final long r = value % that.value;
+            return valueOf(r < 0 ? r + that.value : r);
+        }
+        return valueOf(content().mod(that.content()));
     }
 
     public JsclInteger modPow(JsclInteger exponent, JsclInteger integer) {
-        return new JsclInteger(content.modPow(exponent.content, integer.content));
+        return valueOf(content().modPow(exponent.content(), integer.content()));
     }
 
     public JsclInteger modInverse(JsclInteger integer) {
-        return new JsclInteger(content.modInverse(integer.content));
+        return valueOf(content().modInverse(integer.content()));
     }
 
     public JsclInteger phi() {
         if (signum() == 0) return this;
-        Generic a = factorize();
-        Generic p[] = a.productValue();
-        Generic s = JsclInteger.valueOf(1);
-        for (int i = 0; i < p.length; i++) {
-            Power o = p[i].powerValue();
-            Generic q = o.value(true);
-            int c = o.exponent();
-            s = s.multiply(q.subtract(JsclInteger.valueOf(1)).multiply(q.pow(c - 1)));
-        }
-        return s.integerValue();
+        return valueOf(Primes.phi(content().abs()));
     }
 
     public JsclInteger[] primitiveRoots() {
-        JsclInteger phi = phi();
-        Generic a = phi.factorize();
-        Generic p[] = a.productValue();
-        JsclInteger d[] = new JsclInteger[p.length];
-        for (int i = 0; i < p.length; i++) {
-            d[i] = phi.divide(p[i].powerValue().value(true).integerValue());
-        }
-        int k = 0;
-        JsclInteger n = this;
-        JsclInteger m = JsclInteger.valueOf(1);
-        JsclInteger r[] = new JsclInteger[phi.phi().intValue()];
-        while (m.compareTo(n) < 0) {
-            boolean b = m.gcd(n).compareTo(JsclInteger.valueOf(1)) == 0;
-            for (int i = 0; i < d.length; i++) {
-                b = b && m.modPow(d[i], n).compareTo(JsclInteger.valueOf(1)) > 0;
+        if (signum() <= 0) return new JsclInteger[0];
+        final BigInteger content = content();
+        final BigInteger phi = Primes.phi(content);
+        // m is a primitive root if m^(phi/p) != 1 for every prime factor p of phi
+        final Set<BigInteger> factors = Primes.factorize(phi).keySet();
+        final BigInteger d[] = new BigInteger[factors.size()];
+        int i = 0;
+        for (BigInteger p : factors) {
+            d[i++] = phi.divide(p);
+        }
+        final List<JsclInteger> r = new ArrayList<JsclInteger>();
+        for (BigInteger m = BigInteger.ONE; m.compareTo(content) < 0; m = m.add(BigInteger.ONE)) {
+            ParserUtils.checkInterruption();
+            boolean b = m.gcd(content).equals(BigInteger.ONE);
+            for (int j = 0; j < d.length && b; j++) {
+                b = m.modPow(d[j], content).compareTo(BigInteger.ONE) > 0;
             }
-            if (b) r[k++] = m;
-            m = m.add(JsclInteger.valueOf(1));
+            if (b) r.add(valueOf(m));
         }
-        return k > 0 ? r : new JsclInteger[0];
+        return r.toArray(new JsclInteger[r.size()]);
     }
 
     public JsclInteger sqrt() {
@@ -288,21 +379,22 @@ public final class JsclInteger extends Generic {
     }
 
     public Generic valueOf(Generic generic) {
-        return new JsclInteger(((JsclInteger) generic).content);
+        // integers are immutable
+        return (JsclInteger) generic;
     }
 
     public Generic[] sumValue() {
-        if (content.signum() == 0) return new Generic[0];
+        if (signum() == 0) return new Generic[0];
         else return new Generic[]{this};
     }
 
     public Generic[] productValue() throws NotProductException {
-        if (content.compareTo(BigInteger.valueOf(1)) == 0) return new Generic[0];
+        if (isOne()) return new Generic[0];
         else return new Generic[]{this};
     }
 
     public Power powerValue() throws NotPowerException {
-        if (content.signum() < 0) throw new NotPowerException();
+        if (signum() < 0) throw new NotPowerException();
         else return new Power(this, 1);
     }
 
@@ -336,11 +428,14 @@ public final class JsclInteger extends Generic {
     }
 
     public int intValue() {
-        return content.intValue();
+        return isSmall() ? (int) value : content.intValue();
     }
 
     public int compareTo(JsclInteger integer) {
-        return content.compareTo(integer.content);
+        if (isSmall() && integer.isSmall()) {
+            return value < integer.value ? -1 : (value == integer.value ? 0 : 1);
+        }
+        return content().compareTo(integer.content());
     }
 
     public int compareTo(Generic generic) {
@@ -352,11 +447,11 @@ public final class JsclInteger extends Generic {
     }
 
     public String toString() {
-        return JsclMathEngine.getInstance().format(content);
+        return JsclMathEngine.getInstance().format(content());
     }
 
     public String toJava() {
-        return "JsclDouble.valueOf(" + content + ")";
+        return "JsclDouble.valueOf(" + content() + ")";
     }
 
     public void toMathML(MathML element, @Nullable Object data) {
@@ -380,17 +475,17 @@ public final class JsclInteger extends Generic {
 
     void bodyToMathML(MathML element) {
         MathML e1 = element.element("mn");
-        e1.appendChild(element.text(String.valueOf(content)));
+        e1.appendChild(element.text(String.valueOf(content())));
         element.appendChild(e1);
     }
 
     @Override
     public BigInteger toBigInteger() {
-        return content;
+        return content();
     }
 
     @Override
     public double doubleValue() throws NotDoubleException {
-        return content.doubleValue();
+        return isSmall() ? (double) value : content.doubleValue();
     }
 }
@@ -1,6 +1,9 @@
 package jscl.math;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import jscl.math.function.Constant;
 import jscl.math.function.Fraction;
 import jscl.math.function.Pow;
 import jscl.math.polynomial.Monomial;
@@ -14,10 +17,23 @@ import java.util.TreeMap;
 
 public class Literal implements Comparable {
 
+    private static final Literal EMPTY = new Literal(0);
+    /**
+     * Literals of constants (the most common literals in symbolic calculations) are interned: structurally equal
+     * literals created via {@link #valueOf(Variable, int)} are the same instance and their comparison is trivial
+     */
+    private static final Interner<Literal> literals = Interners.newWeakInterner();
+    /**
+     * Constants are interned too: the same constant in different powers is the same instance
+     */
+    private static final Interner<Variable> constants = Interners.newWeakInterner();
+
     private Variable variables[];
     private int powers[];
     private int degree;
     private int size;
+    // literal is immutable, computed once
+    private int hash;
 
     Literal() {
     }
@@ -27,7 +43,7 @@ public class Literal implements Comparable {
     }
 
     public static Literal newInstance() {
-        return new Literal(0);
+        return EMPTY;
     }
 
     public static Literal valueOf(Variable variable) {
@@ -35,9 +51,18 @@ public class Literal implements Comparable {
     }
 
     public static Literal valueOf(Variable variable, int power) {
+        if (power == 0) {
+            return EMPTY;
+        }
+        final boolean intern = isInternable(variable);
         Literal l = new Literal();
-        l.init(variable, power);
-        return l;
+        l.init(intern ? constants.intern(variable) : variable, power);
+        return intern ? literals.intern(l) : l;
+    }
+
+    private static boolean isInternable(@Nonnull Variable variable) {
+        // constants with ids are registered (e.g. user defined constants) and might change, they are not interned
+        return variable instanceof Constant && !variable.isIdDefined();
     }
 
     public static Literal valueOf(Monomial monomial) {
@@ -78,6 +103,12 @@ public class Literal implements Comparable {
     }
 
     public Literal multiply(@Nonnull Literal that) {
+        if (that.size == 0) {
+            return this;
+        } else if (size == 0) {
+            return that;
+        }
+
         final Literal result = newInstance(size + that.size);
         int i = 0;
 
@@ -127,6 +158,23 @@ public class Literal implements Comparable {
         return result;
     }
 
+    @Nonnull
+    public Literal pow(int exponent) {
+        if (exponent == 0) {
+            return EMPTY;
+        } else if (exponent == 1 || size == 0) {
+            return this;
+        }
+
+        final Literal result = newInstance(size);
+        for (int i = 0; i < size; i++) {
+            result.variables[i] = variables[i];
+            result.powers[i] = powers[i] * exponent;
+        }
+        result.degree = degree * exponent;
+        return result;
+    }
+
     public Literal divide(Literal literal) throws ArithmeticException {
         Literal l = newInstance(size + literal.size);
         int i = 0;
@@ -312,6 +360,10 @@ public class Literal implements Comparable {
     }
 
     public int compareTo(@Nonnull Literal that) {
+        if (this == that) {
+            return 0;
+        }
+
         int thisI = this.size;
         int thatI = that.size;
 
@@ -324,6 +376,8 @@ public class Literal implements Comparable {
                 c = -1;
             } else if (thatVariable == null) {
                 c = 1;
+            } else if (thisVariable == thatVariable) {
+                c = 0;
             } else {
                 c = thisVariable.compareTo(thatVariable);
             }
@@ -353,6 +407,32 @@ public class Literal implements Comparable {
         return compareTo((Literal) o);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Literal)) {
+            return false;
+        }
+        final Literal that = (Literal) o;
+        return size == that.size && degree == that.degree && hashCode() == that.hashCode() && compareTo(that) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (int i = 0; i < size; i++) {
+                result = 31 * result + variables[i].hashCode();
+                result = 31 * result + powers[i];
+            }
+            hash = result;
+        }
+        return result;
+    }
+
     void init(Variable var, int pow) {
         if (pow != 0) {
             init(1);
@@ -5,15 +5,23 @@ import jscl.math.function.Constant;
 import jscl.math.function.Fraction;
 import jscl.math.function.trigonometric.Cos;
 import jscl.math.function.trigonometric.Sin;
+import jscl.math.numeric.Numeric;
 import jscl.mathml.MathML;
 import jscl.util.ArrayComparator;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.HashSet;
 import java.util.Set;
 
 public class Matrix extends Generic {
 
+    /**
+     * Minimal size of a square matrix for which determinant and inverse are computed by elimination rather than by
+     * cofactor expansion
+     */
+    static final int ELIMINATION_THRESHOLD = 4;
+
     protected final Generic elements[][];
     protected final int rows, cols;
 
@@ -402,13 +410,35 @@ public class Matrix extends Generic {
     }
 
     public Generic inverse() {
+        if (rows >= ELIMINATION_THRESHOLD) {
+            if (isNumeric()) {
+                final Numeric inverse[][] = ((jscl.math.numeric.Matrix) ((NumericWrapper) numeric()).content().inverse()).elements();
+                final Matrix m = (Matrix) newInstance();
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < cols; j++) {
+                        m.elements[i][j] = new NumericWrapper(inverse[i][j]);
+                    }
+                }
+                return m;
+            } else if (isExact()) {
+                final Generic result = bareissInverse();
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return cofactorInverse();
+    }
+
+    @Nonnull
+    Generic cofactorInverse() {
         Matrix m = (Matrix) newInstance();
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < rows; j++) {
                 m.elements[i][j] = inverseElement(i, j);
             }
         }
-        return m.transpose().divide(determinant());
+        return m.transpose().divide(cofactorDeterminant());
     }
 
     Generic inverseElement(int k, int l) {
@@ -418,10 +448,27 @@ public class Matrix extends Generic {
                 m.elements[i][j] = i == k ? JsclInteger.valueOf(j == l ? 1 : 0) : elements[i][j];
             }
         }
-        return m.determinant();
+        return m.cofactorDeterminant();
     }
 
     public Generic determinant() {
+        if (rows >= ELIMINATION_THRESHOLD) {
+            if (isNumeric()) {
+                return new NumericWrapper(((jscl.math.numeric.Matrix) ((NumericWrapper) numeric()).content()).determinant());
+            } else if (isExact()) {
+                final Generic result = bareissDeterminant();
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return cofactorDeterminant();
+    }
+
+    /**
+     * Laplace (cofactor) expansion along the first column: O(n!) but division free, so it works for any kind of elements.
+     */
+    Generic cofactorDeterminant() {
         if (rows > 1) {
             Generic a = JsclInteger.valueOf(0);
             for (int i = 0; i < rows; i++) {
@@ -431,8 +478,8 @@ public class Matrix extends Generic {
                     for (int j = 0; j < rows - 1; j++) {
                         for (int k = 0; k < rows - 1; k++) m.elements[j][k] = elements[j < i ? j : j + 1][k + 1];
                     }
-                    if (i % 2 == 0) a = a.add(elements[i][0].multiply(m.determinant()));
-                    else a = a.subtract(elements[i][0].multiply(m.determinant()));
+                    if (i % 2 == 0) a = a.add(elements[i][0].multiply(m.cofactorDeterminant()));
+                    else a = a.subtract(elements[i][0].multiply(m.cofactorDeterminant()));
                 }
             }
             return a;
@@ -440,6 +487,146 @@ public class Matrix extends Generic {
         else return JsclInteger.valueOf(0);
     }
 
+    /**
+     * Fraction-free (Bareiss) elimination: every intermediate value is a minor of the original matrix so all the
+     * divisions are exact and the size of the elements stays bounded, O(n^3) ring operations.
+     *
+     * @return determinant or null if elements don't behave as an integral domain (some division was not exact)
+     */
+    @Nullable
+    Generic bareissDeterminant() {
+        final Generic a[][] = copyOf(elements, rows, rows);
+        Generic previous = JsclInteger.valueOf(1);
+        boolean negate = false;
+        try {
+            for (int k = 0; k < rows - 1; k++) {
+                if (a[k][k].signum() == 0) {
+                    final int pivot = findPivot(a, k);
+                    if (pivot < 0) {
+                        return JsclInteger.valueOf(0);
+                    }
+                    swapRows(a, k, pivot);
+                    negate = !negate;
+                }
+                for (int i = k + 1; i < rows; i++) {
+                    for (int j = k + 1; j < rows; j++) {
+                        a[i][j] = a[k][k].multiply(a[i][j]).subtract(a[i][k].multiply(a[k][j])).divide(previous);
+                    }
+                }
+                previous = a[k][k];
+            }
+        } catch (NotDivisibleException e) {
+            return null;
+        }
+        final Generic result = a[rows - 1][rows - 1];
+        return negate ? result.negate() : result;
+    }
+
+    /**
+     * Fraction-free Gauss-Jordan elimination of [A | I]: in the end the left block is d * I and the right block is
+     * d * A^(-1) where d = +/- det(A), so only the final step introduces fractions.
+     *
+     * @return inverse matrix or null if matrix is singular or elements don't behave as an integral domain
+     */
+    @Nullable
+    private Generic bareissInverse() {
+        final int n = rows;
+        final Generic a[][] = new Generic[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(elements[i], 0, a[i], 0, n);
+            for (int j = 0; j < n; j++) {
+                a[i][n + j] = JsclInteger.valueOf(i == j ? 1 : 0);
+            }
+        }
+        Generic previous = JsclInteger.valueOf(1);
+        try {
+            for (int k = 0; k < n; k++) {
+                if (a[k][k].signum() == 0) {
+                    final int pivot = findPivot(a, k);
+                    if (pivot < 0) {
+                        return null;
+                    }
+                    swapRows(a, k, pivot);
+                }
+                for (int i = 0; i < n; i++) {
+                    if (i != k) {
+                        for (int j = 0; j < 2 * n; j++) {
+                            if (j != k) {
+                                a[i][j] = a[k][k].multiply(a[i][j]).subtract(a[i][k].multiply(a[k][j])).divide(previous);
+                            }
+                        }
+                        a[i][k] = JsclInteger.valueOf(0);
+                    }
+                }
+                previous = a[k][k];
+            }
+        } catch (NotDivisibleException e) {
+            return null;
+        }
+        final Matrix m = (Matrix) newInstance();
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], n, m.elements[i], 0, n);
+        }
+        return m.divide(previous);
+    }
+
+    private static int findPivot(@Nonnull Generic a[][], int k) {
+        for (int i = k + 1; i < a.length; i++) {
+            if (a[i][k].signum() != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void swapRows(@Nonnull Generic a[][], int i, int j) {
+        final Generic row[] = a[i];
+        a[i] = a[j];
+        a[j] = row;
+    }
+
+    @Nonnull
+    private static Generic[][] copyOf(@Nonnull Generic elements[][], int rows, int cols) {
+        final Generic result[][] = new Generic[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(elements[i], 0, result[i], 0, cols);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if all elements are exact elements of an integral domain (integers, rationals or polynomials),
+     * i.e. Bareiss elimination can be applied
+     */
+    private boolean isExact() {
+        for (Generic[] row : elements) {
+            for (Generic element : row) {
+                if (!(element instanceof JsclInteger || element instanceof Rational || element instanceof Expression)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if matrix contains numeric elements and all other elements can be converted to numbers,
+     * i.e. LU decomposition with partial pivoting can be applied
+     */
+    private boolean isNumeric() {
+        boolean numeric = false;
+        for (Generic[] row : elements) {
+            for (Generic element : row) {
+                if (element instanceof NumericWrapper) {
+                    numeric = true;
+                } else if (!(element instanceof JsclInteger || element instanceof Rational)) {
+                    return false;
+                }
+            }
+        }
+        return numeric;
+    }
+
     public Generic conjugate() {
         Matrix m = (Matrix) newInstance();
         for (int i = 0; i < rows; i++) {
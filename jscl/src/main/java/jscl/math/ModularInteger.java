@@ -76,7 +76,7 @@ public class ModularInteger extends Generic implements Field {
     }
 
     public Generic pow(int exponent) {
-        throw new UnsupportedOperationException();
+        return newinstance(BigInteger.valueOf(content).modPow(BigInteger.valueOf(exponent), BigInteger.valueOf(modulo)).longValue());
     }
 
     public Generic negate() {
@@ -6,10 +6,12 @@ import java.util.Set;
 
 import javax.annotation.Nonnull;
 
+import jscl.JsclMathEngine;
 import jscl.math.function.Constant;
 import jscl.math.function.Constants;
 import jscl.math.function.ConstantsRegistry;
 import jscl.math.function.IConstant;
+import jscl.math.numeric.BigReal;
 import jscl.math.numeric.Complex;
 import jscl.math.numeric.INumeric;
 import jscl.math.numeric.Numeric;
@@ -23,11 +25,19 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
     private final Numeric content;
 
     public NumericWrapper(@Nonnull JsclInteger integer) {
-        content = Real.valueOf(integer.content().doubleValue());
+        if (isArbitraryPrecision()) {
+            content = BigReal.valueOf(integer.content());
+        } else {
+            content = Real.valueOf(integer.doubleValue());
+        }
     }
 
     public NumericWrapper(@Nonnull Rational rational) {
-        content = Real.valueOf(rational.numerator().doubleValue() / rational.denominator().doubleValue());
+        if (isArbitraryPrecision()) {
+            content = BigReal.valueOf(rational.numerator(), rational.denominator());
+        } else {
+            content = Real.valueOf(rational.numerator().doubleValue() / rational.denominator().doubleValue());
+        }
     }
 
     public NumericWrapper(@Nonnull JsclVector vector) {
@@ -56,15 +66,22 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
         final IConstant constantFromRegistry = ConstantsRegistry.getInstance().get(constant.getName());
 
         if (constantFromRegistry != null) {
-            if (constantFromRegistry.getName().equals(Constants.I.getName())) {
+            final String name = constantFromRegistry.getName();
+            if (name.equals(Constants.I.getName())) {
                 content = Complex.I;
+            } else if (isArbitraryPrecision() && name.equals(Constants.PI.getName())) {
+                content = BigReal.piInAngleUnits();
+            } else if (isArbitraryPrecision() && name.equals(Constants.PI_INV.getName())) {
+                content = BigReal.pi();
+            } else if (isArbitraryPrecision() && name.equals(ConstantsRegistry.E)) {
+                content = BigReal.e();
             } else {
                 if (constantFromRegistry.getValue() != null) {
                     final Double value = constantFromRegistry.getDoubleValue();
                     if (value == null) {
                         throw new ArithmeticException("Constant " + constant.getName() + " has invalid definition: " + constantFromRegistry.getValue());
                     } else {
-                        content = Real.valueOf(value);
+                        content = newReal(value);
                     }
                 } else {
                     throw new ArithmeticException("Could not create numeric wrapper: constant in registry doesn't have specified value: " + constant.getName());
@@ -79,6 +96,22 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
         content = numeric;
     }
 
+    private static boolean isArbitraryPrecision() {
+        return JsclMathEngine.getInstance().getDigits() > 0;
+    }
+
+    /**
+     * @return real number in the precision the engine evaluates with: {@link BigReal} if arbitrary precision is on
+     * (see {@link JsclMathEngine#setDigits(int)}), {@link Real} otherwise
+     */
+    @Nonnull
+    public static Numeric newReal(double value) {
+        if (isArbitraryPrecision() && !Double.isNaN(value) && !Double.isInfinite(value)) {
+            return BigReal.valueOf(value);
+        }
+        return Real.valueOf(value);
+    }
+
     public static Generic root(int subscript, Generic parameter[]) {
         Numeric param[] = new Numeric[parameter.length];
         for (int i = 0; i < param.length; i++) param[i] = ((NumericWrapper) parameter[i]).content;
@@ -239,7 +272,14 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
     }
 
     public JsclInteger integerValue() throws NotIntegerException {
-        if (content instanceof Real) {
+        if (content instanceof BigReal) {
+            final BigInteger integer = content.toBigInteger();
+            if (integer != null) {
+                return new JsclInteger(integer);
+            } else {
+                throw NotIntegerException.get();
+            }
+        } else if (content instanceof Real) {
             double doubleValue = content.doubleValue();
             if (Math.floor(doubleValue) == doubleValue) {
                 return JsclInteger.valueOf((int) doubleValue);
@@ -258,7 +298,9 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
 
     @Override
     public boolean isInteger() {
-        if (content instanceof Real) {
+        if (content instanceof BigReal) {
+            return content.toBigInteger() != null;
+        } else if (content instanceof Real) {
             double value = ((Real) content).doubleValue();
             return Math.floor(value) == value;
         }
@@ -426,7 +468,7 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
     }
 
     public String toJava() {
-        return "JsclDouble.valueOf(" + ((Real) content).doubleValue() + ")";
+        return "JsclDouble.valueOf(" + content.doubleValue() + ")";
     }
 
     public void toMathML(MathML element, Object data) {
@@ -450,7 +492,7 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
 
     void bodyToMathML(MathML element) {
         MathML e1 = element.element("mn");
-        e1.appendChild(element.text(String.valueOf(new Double(((Real) content).doubleValue()))));
+        e1.appendChild(element.text(String.valueOf(content.doubleValue())));
         element.appendChild(e1);
     }
 
@@ -466,6 +508,6 @@ public final class NumericWrapper extends Generic implements INumeric<NumericWra
 
     @Nonnull
     public static Generic valueOf(double value) {
-        return new NumericWrapper(Real.valueOf(value));
+        return new NumericWrapper(newReal(value));
     }
 }
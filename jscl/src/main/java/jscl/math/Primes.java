@@ -0,0 +1,644 @@
+package jscl.math;
+
+import jscl.JsclMathEngine;
+import jscl.text.ParserUtils;
+import jscl.util.Workers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Primality test and factorization of big integers. A number is factorized in several steps:
+ * <ol>
+ * <li>trial division by the primes below {@link #SIEVE_LIMIT} (taken from a sieve table)</li>
+ * <li>Miller-Rabin primality test of the cofactor</li>
+ * <li>Pollard-Brent rho method which quickly finds factors of up to ~12 digits</li>
+ * <li>Lenstra elliptic curve method (Montgomery curves, two stages) for bigger factors. Curves are independent from
+ * each other and might be tried in parallel</li>
+ * </ol>
+ */
+public final class Primes {
+
+    private static final int SIEVE_LIMIT = 1 << 16;
+    // all primes below SIEVE_LIMIT
+    @Nonnull
+    private static final int[] SMALL_PRIMES = sieve(SIEVE_LIMIT);
+    // numbers below this value are prime if they have no factors below SIEVE_LIMIT
+    @Nonnull
+    private static final BigInteger SIEVE_LIMIT_SQUARED = BigInteger.valueOf((long) SIEVE_LIMIT * SIEVE_LIMIT);
+    // Miller-Rabin test with the first 13 prime bases is deterministic below this value
+    @Nonnull
+    private static final BigInteger DETERMINISTIC_LIMIT = new BigInteger("3317044064679887385961981");
+    private static final int DETERMINISTIC_BASES = 13;
+    // other numbers are tested with more bases, probability of error is less than 4^-BASES
+    private static final int BASES = 24;
+    // iterations of rho method before switching to ECM
+    private static final int MAX_RHO_ITERATIONS = 1 << 16;
+    // curves are tried with these stage 1 bounds (stage 2 bound is 100 times bigger), number of curves is doubled for
+    // the last bound on every pass
+    @Nonnull
+    private static final int[] ECM_BOUNDS = {2000, 11000, 50000, 250000, 1000000};
+    @Nonnull
+    private static final int[] ECM_CURVES = {25, 90, 300, 700, 1800};
+    // the difference between primes in ECM stage 2 is limited by 2 * ECM_D
+    private static final int ECM_D = 64;
+    // numbers smaller than this are factorized only on the calling thread
+    private static final int MIN_PARALLEL_BITS = 80;
+
+    @Nonnull
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
+    private Primes() {
+        throw new AssertionError();
+    }
+
+    public static boolean isPrime(@Nonnull BigInteger n) {
+        if (n.compareTo(BigInteger.valueOf(SIEVE_LIMIT)) < 0) {
+            final int i = n.intValue();
+            return i >= 2 && Arrays.binarySearch(SMALL_PRIMES, i) >= 0;
+        }
+        if (!n.testBit(0)) {
+            return false;
+        }
+        final int bases = n.compareTo(DETERMINISTIC_LIMIT) < 0 ? DETERMINISTIC_BASES : BASES;
+        final BigInteger m = n.subtract(BigInteger.ONE);
+        final int s = m.getLowestSetBit();
+        final BigInteger d = m.shiftRight(s);
+        for (int i = 0; i < bases; i++) {
+            if (!isStrongProbablePrime(n, m, d, s, BigInteger.valueOf(SMALL_PRIMES[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStrongProbablePrime(@Nonnull BigInteger n, @Nonnull BigInteger m, @Nonnull BigInteger d,
+                                                 int s, @Nonnull BigInteger base) {
+        BigInteger x = base.modPow(d, n);
+        if (x.equals(BigInteger.ONE) || x.equals(m)) {
+            return true;
+        }
+        for (int r = 1; r < s; r++) {
+            x = x.multiply(x).mod(n);
+            if (x.equals(m)) {
+                return true;
+            }
+            if (x.equals(BigInteger.ONE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param n positive integer
+     * @return prime factors of <var>n</var> (in ascending order) with their multiplicities, empty map for 1
+     */
+    @Nonnull
+    public static SortedMap<BigInteger, Integer> factorize(@Nonnull BigInteger n) {
+        if (n.signum() <= 0) {
+            throw new ArithmeticException("Only positive integers can be factorized: " + n);
+        }
+        final SortedMap<BigInteger, Integer> factors = new TreeMap<BigInteger, Integer>();
+        n = divideBySmallPrimes(n, factors);
+
+        final List<BigInteger> composites = new ArrayList<BigInteger>();
+        if (!n.equals(BigInteger.ONE)) {
+            composites.add(n);
+        }
+        while (!composites.isEmpty()) {
+            ParserUtils.checkInterruption();
+            final BigInteger m = composites.remove(composites.size() - 1);
+            if (m.compareTo(SIEVE_LIMIT_SQUARED) < 0 || isPrime(m)) {
+                add(factors, m, 1);
+                continue;
+            }
+            final BigInteger[] power = perfectPower(m);
+            if (power != null) {
+                for (int i = 0; i < power[1].intValue(); i++) {
+                    composites.add(power[0]);
+                }
+                continue;
+            }
+            BigInteger d = rho(m, MAX_RHO_ITERATIONS);
+            if (d == null) {
+                d = ecm(m);
+            }
+            composites.add(d);
+            composites.add(m.divide(d));
+        }
+        return factors;
+    }
+
+    /**
+     * @param n positive integer
+     * @return number of integers from 1 to <var>n</var> which are coprime to <var>n</var>
+     */
+    @Nonnull
+    public static BigInteger phi(@Nonnull BigInteger n) {
+        BigInteger result = BigInteger.ONE;
+        for (Map.Entry<BigInteger, Integer> factor : factorize(n).entrySet()) {
+            final BigInteger p = factor.getKey();
+            result = result.multiply(p.subtract(BigInteger.ONE)).multiply(p.pow(factor.getValue() - 1));
+        }
+        return result;
+    }
+
+    private static void add(@Nonnull Map<BigInteger, Integer> factors, @Nonnull BigInteger p, int exponent) {
+        final Integer old = factors.get(p);
+        factors.put(p, old == null ? exponent : old + exponent);
+    }
+
+    @Nonnull
+    private static int[] sieve(int limit) {
+        final boolean[] composite = new boolean[limit];
+        int count = 0;
+        for (int i = 2; i < limit; i++) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j < limit; j += i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+        final int[] primes = new int[count];
+        for (int i = 2, j = 0; i < limit; i++) {
+            if (!composite[i]) {
+                primes[j++] = i;
+            }
+        }
+        return primes;
+    }
+
+    @Nonnull
+    private static BigInteger divideBySmallPrimes(@Nonnull BigInteger n, @Nonnull Map<BigInteger, Integer> factors) {
+        final int twos = n.getLowestSetBit();
+        if (twos > 0) {
+            add(factors, TWO, twos);
+            n = n.shiftRight(twos);
+        }
+        int i = 1;
+        while (i < SMALL_PRIMES.length) {
+            if (n.bitLength() < 63) {
+                return BigInteger.valueOf(divideBySmallPrimes(n.longValue(), i, factors));
+            }
+            // instead of dividing the big number by each prime it is divided by a product of several primes which
+            // fits into long, the remainder is then checked against each prime
+            long product = 1;
+            final int first = i;
+            while (i < SMALL_PRIMES.length && product <= Long.MAX_VALUE / SMALL_PRIMES[i]) {
+                product *= SMALL_PRIMES[i++];
+            }
+            final long remainder = n.mod(BigInteger.valueOf(product)).longValue();
+            for (int j = first; j < i; j++) {
+                final int p = SMALL_PRIMES[j];
+                if (remainder % p == 0) {
+                    final BigInteger bp = BigInteger.valueOf(p);
+                    int exponent = 0;
+                    BigInteger[] qr = n.divideAndRemainder(bp);
+                    while (qr[1].signum() == 0) {
+                        n = qr[0];
+                        exponent++;
+                        qr = n.divideAndRemainder(bp);
+                    }
+                    add(factors, bp, exponent);
+                }
+            }
+            if (first % 256 == 0) {
+                ParserUtils.checkInterruption();
+            }
+        }
+        return n;
+    }
+
+    private static long divideBySmallPrimes(long n, int from, @Nonnull Map<BigInteger, Integer> factors) {
+        for (int i = from; i < SMALL_PRIMES.length; i++) {
+            final int p = SMALL_PRIMES[i];
+            if ((long) p * p > n) {
+                break;
+            }
+            if (n % p == 0) {
+                int exponent = 0;
+                do {
+                    n /= p;
+                    exponent++;
+                } while (n % p == 0);
+                add(factors, BigInteger.valueOf(p), exponent);
+            }
+        }
+        if (n > 1 && n < (long) SIEVE_LIMIT * SIEVE_LIMIT) {
+            // n has no factors below its square root => n is prime
+            add(factors, BigInteger.valueOf(n), 1);
+            return 1;
+        }
+        return n;
+    }
+
+    /**
+     * @return {root, exponent} if <var>n</var> = root^exponent for some exponent > 1, null otherwise
+     */
+    @Nullable
+    private static BigInteger[] perfectPower(@Nonnull BigInteger n) {
+        // n has no factors below SIEVE_LIMIT => exponent is limited by log(n) / log(SIEVE_LIMIT)
+        final int maxExponent = n.bitLength() / 16;
+        for (int k = 2; k <= maxExponent; k++) {
+            final BigInteger root = root(n, k);
+            if (root.pow(k).equals(n)) {
+                return new BigInteger[]{root, BigInteger.valueOf(k)};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return floor of k-th root of positive <var>n</var>
+     */
+    @Nonnull
+    private static BigInteger root(@Nonnull BigInteger n, int k) {
+        final BigInteger bk = BigInteger.valueOf(k);
+        final BigInteger bk1 = BigInteger.valueOf(k - 1);
+        // initial value is bigger than the root
+        BigInteger x = BigInteger.ONE.shiftLeft(n.bitLength() / k + 1);
+        while (true) {
+            final BigInteger y = bk1.multiply(x).add(n.divide(x.pow(k - 1))).divide(bk);
+            if (y.compareTo(x) >= 0) {
+                return x;
+            }
+            x = y;
+        }
+    }
+
+    /**
+     * Pollard-Brent rho method: sequence x -> x^2 + c (mod n) is iterated until it cycles modulo an unknown factor of
+     * <var>n</var>. Differences are multiplied in batches so only one gcd is computed per batch.
+     *
+     * @return non-trivial factor of odd composite <var>n</var> or null if it was not found in the given number of
+     * iterations
+     */
+    @Nullable
+    static BigInteger rho(@Nonnull BigInteger n, int maxIterations) {
+        final int batch = 128;
+        int iterations = 0;
+        for (int c = 1; iterations < maxIterations; c++) {
+            final BigInteger bc = BigInteger.valueOf(c);
+            BigInteger y = TWO;
+            BigInteger x = y;
+            BigInteger ys = y;
+            BigInteger q = BigInteger.ONE;
+            BigInteger g = BigInteger.ONE;
+            for (int r = 1; g.equals(BigInteger.ONE) && iterations < maxIterations; r <<= 1) {
+                x = y;
+                for (int i = 0; i < r; i++) {
+                    y = y.multiply(y).add(bc).mod(n);
+                }
+                for (int k = 0; k < r && g.equals(BigInteger.ONE); k += batch) {
+                    ys = y;
+                    final int steps = Math.min(batch, r - k);
+                    for (int i = 0; i < steps; i++) {
+                        y = y.multiply(y).add(bc).mod(n);
+                        q = q.multiply(x.subtract(y)).mod(n);
+                    }
+                    g = q.gcd(n);
+                    iterations += steps;
+                }
+                ParserUtils.checkInterruption();
+            }
+            if (g.equals(n)) {
+                // the batch contains the cycle of all factors => go back and check differences one by one
+                do {
+                    ys = ys.multiply(ys).add(bc).mod(n);
+                    g = x.subtract(ys).gcd(n);
+                } while (g.equals(BigInteger.ONE));
+            }
+            if (!g.equals(n) && !g.equals(BigInteger.ONE)) {
+                return g;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lenstra elliptic curve method, see R. Crandall, C. Pomerance "Prime Numbers: A Computational Perspective",
+     * algorithm 7.4.4
+     *
+     * @return non-trivial factor of composite <var>n</var> which is not a perfect power
+     */
+    @Nonnull
+    static BigInteger ecm(@Nonnull BigInteger n) {
+        final int threads = n.bitLength() < MIN_PARALLEL_BITS ? 1 : Math.min(JsclMathEngine.getInstance().getThreads(), Runtime.getRuntime().availableProcessors());
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<BigInteger> factor = new AtomicReference<BigInteger>();
+        if (threads == 1) {
+            new Curves(n, 0, 1, stop, factor).run();
+            return factor.get();
+        }
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        try {
+            for (int i = 1; i < threads; i++) {
+                futures.add(Workers.executor().submit(new Curves(n, i, threads, stop, factor)));
+            }
+            // the calling thread tries curves too, it stops (or is interrupted) once a factor is found
+            new Curves(n, 0, threads, stop, factor).run();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(1, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (TimeoutException e) {
+                    // factor is already found, curve in this thread is still in progress
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ParserUtils.checkInterruption();
+                }
+            }
+            return factor.get();
+        } finally {
+            stop.set(true);
+            Workers.cancel(futures);
+        }
+    }
+
+    /**
+     * Tries curves with increasing bounds until a factor is found. Each of <var>step</var> instances tries every
+     * <var>step</var>-th curve.
+     */
+    private static final class Curves implements Runnable {
+        @Nonnull
+        private final BigInteger n;
+        private final int offset;
+        private final int step;
+        @Nonnull
+        private final AtomicBoolean stop;
+        @Nonnull
+        private final AtomicReference<BigInteger> factor;
+
+        private Curves(@Nonnull BigInteger n, int offset, int step, @Nonnull AtomicBoolean stop,
+                       @Nonnull AtomicReference<BigInteger> factor) {
+            this.n = n;
+            this.offset = offset;
+            this.step = step;
+            this.stop = stop;
+            this.factor = factor;
+        }
+
+        @Override
+        public void run() {
+            final Random random = new Random(n.hashCode() + 31L * offset);
+            try {
+                for (int pass = 0; ; pass++) {
+                    for (int b = 0; b < ECM_BOUNDS.length; b++) {
+                        final boolean last = b == ECM_BOUNDS.length - 1;
+                        final int curves = last ? ECM_CURVES[b] << pass : pass == 0 ? ECM_CURVES[b] : 0;
+                        for (int c = offset; c < curves; c += step) {
+                            if (stop.get()) {
+                                return;
+                            }
+                            final BigInteger f = new Curve(n, random).factor(ECM_BOUNDS[b], stop);
+                            if (f != null) {
+                                factor.compareAndSet(null, f);
+                                stop.set(true);
+                                return;
+                            }
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // other threads should not continue if this thread has failed (e.g. was interrupted)
+                stop.set(true);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Segmented sieve of Eratosthenes for numbers below SIEVE_LIMIT^2, numbers are expected to be checked in
+     * ascending order
+     */
+    private static final class Sieve {
+        @Nonnull
+        private final boolean[] composite = new boolean[SIEVE_LIMIT];
+        private long from = -1;
+
+        boolean isPrime(long q) {
+            if (q < SIEVE_LIMIT) {
+                return Arrays.binarySearch(SMALL_PRIMES, (int) q) >= 0;
+            }
+            if (from < 0 || q < from || q >= from + SIEVE_LIMIT) {
+                sieve(q);
+            }
+            return !composite[(int) (q - from)];
+        }
+
+        private void sieve(long from) {
+            this.from = from;
+            final long to = from + SIEVE_LIMIT;
+            Arrays.fill(composite, false);
+            for (int p : SMALL_PRIMES) {
+                if ((long) p * p >= to) {
+                    break;
+                }
+                final long first = Math.max((long) p * p, (from + p - 1) / p * p);
+                for (long j = first; j < to; j += p) {
+                    composite[(int) (j - from)] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Montgomery curve By^2 = x^3 + Ax^2 + x with Suyama's parametrization, points are kept in projective
+     * coordinates (X : Z) without Y.
+     */
+    private static final class Curve {
+        @Nonnull
+        private final BigInteger n;
+        // (A + 2) / 4
+        @Nullable
+        private BigInteger a24;
+        @Nonnull
+        private BigInteger x;
+        @Nonnull
+        private BigInteger z;
+        @Nullable
+        private BigInteger factor;
+
+        private Curve(@Nonnull BigInteger n, @Nonnull Random random) {
+            this.n = n;
+            // sigma from [6, n - 1]
+            final BigInteger sigma = new BigInteger(Math.min(n.bitLength() - 1, 62), random).add(BigInteger.valueOf(6));
+            final BigInteger u = sigma.multiply(sigma).subtract(BigInteger.valueOf(5)).mod(n);
+            final BigInteger v = sigma.shiftLeft(2).mod(n);
+            final BigInteger u3 = u.pow(3).mod(n);
+            x = u3;
+            z = v.pow(3).mod(n);
+            final BigInteger numerator = v.subtract(u).pow(3).multiply(u.multiply(BigInteger.valueOf(3)).add(v)).mod(n);
+            final BigInteger denominator = u3.multiply(v).shiftLeft(4).mod(n);
+            final BigInteger g = denominator.gcd(n);
+            if (g.equals(BigInteger.ONE)) {
+                a24 = numerator.multiply(denominator.modInverse(n)).mod(n);
+            } else if (!g.equals(n)) {
+                factor = g;
+            }
+        }
+
+        @Nullable
+        BigInteger factor(int b1, @Nonnull AtomicBoolean stop) {
+            if (factor != null || a24 == null) {
+                return factor;
+            }
+
+            // stage 1: Q = [k]P where k is the product of all prime powers below b1
+            for (int i = 0; i < SMALL_PRIMES.length && SMALL_PRIMES[i] <= b1; i++) {
+                final long p = SMALL_PRIMES[i];
+                long q = p;
+                while (q * p <= b1) {
+                    q *= p;
+                }
+                multiply(BigInteger.valueOf(q));
+                if (i % 64 == 0) {
+                    if (stop.get()) {
+                        return null;
+                    }
+                    ParserUtils.checkInterruption();
+                }
+            }
+            final Sieve sieve = new Sieve();
+            if (b1 >= SIEVE_LIMIT) {
+                for (long p = SIEVE_LIMIT + 1; p <= b1; p += 2) {
+                    if (sieve.isPrime(p)) {
+                        multiply(BigInteger.valueOf(p));
+                    }
+                    if (p % 1024 == 1) {
+                        if (stop.get()) {
+                            return null;
+                        }
+                        ParserUtils.checkInterruption();
+                    }
+                }
+            }
+            BigInteger g = z.gcd(n);
+            if (!g.equals(BigInteger.ONE)) {
+                return g.equals(n) ? null : g;
+            }
+
+            // stage 2: a prime q from (b1, b2] is found if Q has order q modulo the factor, i.e. [q]Q = O. Points
+            // R = [r]Q are stepped by 2D and differences with S_d = [2d]Q are accumulated in one product
+            final long b2 = 100L * b1;
+            final BigInteger[] sx = new BigInteger[ECM_D + 1];
+            final BigInteger[] sz = new BigInteger[ECM_D + 1];
+            final BigInteger[] beta = new BigInteger[ECM_D + 1];
+            final BigInteger qx = x;
+            final BigInteger qz = z;
+            BigInteger[] s = dbl(qx, qz);
+            sx[1] = s[0];
+            sz[1] = s[1];
+            s = dbl(sx[1], sz[1]);
+            sx[2] = s[0];
+            sz[2] = s[1];
+            for (int d = 3; d <= ECM_D; d++) {
+                s = add(sx[d - 1], sz[d - 1], sx[1], sz[1], sx[d - 2], sz[d - 2]);
+                sx[d] = s[0];
+                sz[d] = s[1];
+            }
+            for (int d = 1; d <= ECM_D; d++) {
+                beta[d] = sx[d].multiply(sz[d]).mod(n);
+            }
+
+            long r = b1 % 2 == 0 ? b1 - 1 : b1;
+            final BigInteger[] rp = ladder(qx, qz, BigInteger.valueOf(r));
+            final BigInteger[] tp = ladder(qx, qz, BigInteger.valueOf(r - 2 * ECM_D));
+            BigInteger rx = rp[0];
+            BigInteger rz = rp[1];
+            BigInteger tx = tp[0];
+            BigInteger tz = tp[1];
+            BigInteger product = BigInteger.ONE;
+            for (int iteration = 0; r < b2; r += 2 * ECM_D, iteration++) {
+                final BigInteger alpha = rx.multiply(rz).mod(n);
+                for (int d = 1; d <= ECM_D; d++) {
+                    final long q = r + 2 * d;
+                    if (q <= b2 && sieve.isPrime(q)) {
+                        product = product.multiply(rx.subtract(sx[d]).multiply(rz.add(sz[d])).subtract(alpha).add(beta[d])).mod(n);
+                    }
+                }
+                final BigInteger[] next = add(rx, rz, sx[ECM_D], sz[ECM_D], tx, tz);
+                tx = rx;
+                tz = rz;
+                rx = next[0];
+                rz = next[1];
+                if (iteration % 16 == 0) {
+                    if (stop.get()) {
+                        return null;
+                    }
+                    ParserUtils.checkInterruption();
+                }
+            }
+            g = product.gcd(n);
+            return g.equals(BigInteger.ONE) || g.equals(n) ? null : g;
+        }
+
+        private void multiply(@Nonnull BigInteger k) {
+            final BigInteger[] p = ladder(x, z, k);
+            x = p[0];
+            z = p[1];
+        }
+
+        /**
+         * Montgomery ladder
+         *
+         * @return [k](x : z)
+         */
+        @Nonnull
+        private BigInteger[] ladder(@Nonnull BigInteger x, @Nonnull BigInteger z, @Nonnull BigInteger k) {
+            BigInteger[] r0 = {x, z};
+            BigInteger[] r1 = dbl(x, z);
+            for (int i = k.bitLength() - 2; i >= 0; i--) {
+                if (k.testBit(i)) {
+                    r0 = add(r0[0], r0[1], r1[0], r1[1], x, z);
+                    r1 = dbl(r1[0], r1[1]);
+                } else {
+                    r1 = add(r0[0], r0[1], r1[0], r1[1], x, z);
+                    r0 = dbl(r0[0], r0[1]);
+                }
+            }
+            return r0;
+        }
+
+        @Nonnull
+        private BigInteger[] dbl(@Nonnull BigInteger x, @Nonnull BigInteger z) {
+            final BigInteger sum = x.add(z);
+            final BigInteger difference = x.subtract(z);
+            final BigInteger t1 = sum.multiply(sum).mod(n);
+            final BigInteger t2 = difference.multiply(difference).mod(n);
+            final BigInteger t3 = t1.subtract(t2);
+            return new BigInteger[]{t1.multiply(t2).mod(n), t3.multiply(t2.add(a24.multiply(t3))).mod(n)};
+        }
+
+        /**
+         * @return P + Q where (dx : dz) = P - Q
+         */
+        @Nonnull
+        private BigInteger[] add(@Nonnull BigInteger px, @Nonnull BigInteger pz, @Nonnull BigInteger qx,
+                                 @Nonnull BigInteger qz, @Nonnull BigInteger dx, @Nonnull BigInteger dz) {
+            final BigInteger u = px.subtract(pz).multiply(qx.add(qz));
+            final BigInteger v = px.add(pz).multiply(qx.subtract(qz));
+            final BigInteger sum = u.add(v);
+            final BigInteger difference = u.subtract(v);
+            return new BigInteger[]{dz.multiply(sum.multiply(sum)).mod(n), dx.multiply(difference.multiply(difference)).mod(n)};
+        }
+    }
+}
@@ -112,7 +112,10 @@ public final class Rational extends Generic implements Field {
     }
 
     public Generic pow(int exponent) {
-        return null;
+        if (exponent == 0) {
+            return JsclInteger.valueOf(1);
+        }
+        return new Rational(numerator.pow(exponent), denominator.pow(exponent));
     }
 
     public Generic negate() {
@@ -9,13 +9,13 @@ import jscl.math.polynomial.UnivariatePolynomial;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 public final class Simplification {
 
-    private final Map<Variable, Generic> cache = new TreeMap<Variable, Generic>();
+    private final Map<Variable, Generic> cache = new HashMap<Variable, Generic>();
     private final List<Constraint> constraints = new ArrayList<Constraint>();
     Generic result;
     boolean linear;
@@ -202,6 +202,15 @@ public abstract class Variable implements Comparable, MathEntity {
         return obj instanceof Variable && compareTo((Variable) obj) == 0;
     }
 
+    /**
+     * Equal variables are of the same kind and have the same name (see {@link #compareTo(Variable)} implementations),
+     * subclasses may refine the hash code
+     */
+    @Override
+    public int hashCode() {
+        return 31 * VariableComparator.value(this) + name.hashCode();
+    }
+
     public String toString() {
         return name;
     }
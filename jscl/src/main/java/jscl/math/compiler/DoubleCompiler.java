@@ -0,0 +1,931 @@
+package jscl.math.compiler;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.GenericVariable;
+import jscl.math.JsclInteger;
+import jscl.math.Literal;
+import jscl.math.NumericWrapper;
+import jscl.math.Rational;
+import jscl.math.Variable;
+import jscl.math.function.*;
+import jscl.math.function.hyperbolic.*;
+import jscl.math.function.trigonometric.*;
+import jscl.math.numeric.Real;
+import jscl.math.operator.AbstractFunction;
+import jscl.math.operator.Integral;
+import jscl.math.operator.Operator;
+import jscl.text.ParserUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lowers {@link Generic} expressions to a tree of {@link DoubleExpression}s which is evaluated with primitive doubles,
+ * i.e. "compile once, evaluate many". Results of evaluation are the same as of {@link Generic#numeric()} as long as
+ * the latter is real, otherwise NaN is returned.
+ * <p/>
+ * Values of constants and angle units are captured during the compilation, so compiled expression should be
+ * recompiled if they change. Recently compiled expressions are cached: the key is the expression itself, the definitions
+ * of the custom functions and the values of the constants it uses, the parameters and the angle units, so the cached
+ * expression is recompiled as soon as any of them changes (changes of other entities, e.g. of the previous answer, don't
+ * affect it). Expressions must not be modified after the compilation.
+ */
+public final class DoubleCompiler {
+
+    private static final int CACHE_SIZE = 64;
+    // interruption is checked once per this number of iterations of sums and products
+    private static final int CHUNK_SIZE = 4096;
+
+    @Nonnull
+    private static final Map<Key, DoubleExpression> cache = new LinkedHashMap<Key, DoubleExpression>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, DoubleExpression> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    @Nonnull
+    private final Variable[] parameters;
+
+    // parameters starting from this one are the indices of sums and products (integers)
+    private final int firstIndex;
+
+    @Nonnull
+    private final AngleUnit angleUnits;
+
+    // coefficient to convert angle in default units to radians
+    private final double toRad;
+
+    // coefficient to convert angle in radians to default units
+    private final double fromRad;
+
+    private DoubleCompiler(@Nonnull Variable[] parameters, int firstIndex, @Nonnull AngleUnit angleUnits) {
+        this.parameters = parameters;
+        this.firstIndex = firstIndex;
+        this.angleUnits = angleUnits;
+        this.toRad = angleUnits.transform(AngleUnit.rad, 1d);
+        this.fromRad = AngleUnit.rad.transform(angleUnits, 1d);
+    }
+
+    /**
+     * @param generic    expression to be compiled
+     * @param parameters variables which values are passed to {@link DoubleExpression#evaluate(double[])}
+     * @return compiled expression
+     * @throws NotCompilableException if expression can't be compiled
+     */
+    @Nonnull
+    public static DoubleExpression compile(@Nonnull Generic generic, @Nonnull Variable... parameters) throws NotCompilableException {
+        final AngleUnit angleUnits = JsclMathEngine.getInstance().getAngleUnits();
+        try {
+            // definitions are read before the compilation: if they change in the meantime the key becomes stale
+            final Key key = new Key(generic, parameters, angleUnits);
+            synchronized (cache) {
+                final DoubleExpression cached = cache.get(key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            final DoubleExpression result = new DoubleCompiler(parameters, parameters.length, angleUnits).compileGeneric(generic);
+            synchronized (cache) {
+                cache.put(key, result);
+            }
+            return result;
+        } catch (NotCompilableException e) {
+            throw e;
+        } catch (ArithmeticException e) {
+            // numeric evaluation of some constant part has failed
+            throw new NotCompilableException(e.getMessage() == null ? generic.toString() : e.getMessage());
+        }
+    }
+
+    /**
+     * @param function function to be compiled, its parameters (if any) are ignored
+     * @return compiled function, i-th element of array passed to {@link DoubleExpression#evaluate(double[])} is the
+     * value of i-th parameter of the function
+     * @throws NotCompilableException if function can't be compiled
+     */
+    @Nonnull
+    public static DoubleExpression compile(@Nonnull Function function) throws NotCompilableException {
+        final int arity = function.getMaxParameters();
+        if (arity == Integer.MAX_VALUE) {
+            throw new NotCompilableException("Function with variable number of parameters: " + function.getName());
+        }
+
+        final Constant[] parameters = new Constant[arity];
+        final Generic[] values = new Generic[arity];
+        for (int i = 0; i < arity; i++) {
+            parameters[i] = new Constant("#" + i);
+            values[i] = Expression.valueOf(parameters[i]);
+        }
+
+        final Function copy = (Function) function.newInstance();
+        copy.setParameters(values);
+        return compile(Expression.valueOf(copy), parameters);
+    }
+
+    @Nonnull
+    private DoubleExpression compileGeneric(@Nonnull Generic generic) {
+        if (generic instanceof Expression) {
+            return compileExpression((Expression) generic);
+        } else if (generic instanceof JsclInteger) {
+            return new Value(generic.doubleValue());
+        } else if (generic instanceof Rational || generic instanceof NumericWrapper) {
+            return new Value(realValue(generic.numeric()));
+        }
+        throw new NotCompilableException(generic.toString());
+    }
+
+    @Nonnull
+    private DoubleExpression compileExpression(@Nonnull Expression expression) {
+        final int size = expression.size();
+        final double[] coefficients = new double[size];
+        final DoubleExpression[] terms = new DoubleExpression[size];
+        for (int i = 0; i < size; i++) {
+            coefficients[i] = expression.coef(i).doubleValue();
+            terms[i] = compileLiteral(expression.literal(i));
+        }
+        return optimize(size == 1 && coefficients[0] == 1d ? terms[0] : new Sum(coefficients, terms));
+    }
+
+    @Nonnull
+    private DoubleExpression compileLiteral(@Nonnull Literal literal) {
+        final int size = literal.size();
+        final DoubleExpression[] factors = new DoubleExpression[size];
+        final int[] powers = new int[size];
+        for (int i = 0; i < size; i++) {
+            factors[i] = compileVariable(literal.getVariable(i));
+            powers[i] = literal.getPower(i);
+        }
+        return optimize(size == 1 && powers[0] == 1 ? factors[0] : new Product(factors, powers));
+    }
+
+    @Nonnull
+    private DoubleExpression compileVariable(@Nonnull Variable variable) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isIdentity(variable)) {
+                return new Argument(i);
+            }
+        }
+
+        if (variable instanceof Constant) {
+            return new Value(realValue(variable.numeric()));
+        } else if (variable instanceof GenericVariable) {
+            return compileGeneric(GenericVariable.content(variable.expressionValue()));
+        } else if (variable instanceof CustomFunction) {
+            // numeric value of custom function is the numeric value of its expanded body
+            return compileGeneric(((CustomFunction) variable).selfExpand());
+        } else if (variable instanceof Function) {
+            return optimize(compileFunction((Function) variable));
+        } else if (variable instanceof jscl.math.operator.Sum || variable instanceof jscl.math.operator.Product
+                || variable instanceof Integral) {
+            return compileOperator((Operator) variable);
+        }
+        throw new NotCompilableException(variable.getName());
+    }
+
+    /**
+     * Operator which doesn't depend on the parameters is replaced with its numeric value. Otherwise sums and products
+     * are compiled to loops over the compiled terms (like in {@link jscl.math.operator.Sum#numeric()}) while integrals
+     * are not compiled
+     */
+    @Nonnull
+    private DoubleExpression compileOperator(@Nonnull Operator operator) {
+        final Generic[] p = operator.getParameters();
+        if (isConstant(p[0]) && isConstant(p[2]) && isConstant(p[3])) {
+            return new Value(realValue(operator.numeric()));
+        }
+        if (operator instanceof Integral) {
+            throw new NotCompilableException(operator.getName());
+        }
+
+        final Variable[] parameters = Arrays.copyOf(this.parameters, this.parameters.length + 1);
+        parameters[this.parameters.length] = p[1].variableValue();
+        final DoubleExpression term = new DoubleCompiler(parameters, firstIndex, angleUnits).compileGeneric(p[0]);
+        return new Series(operator instanceof jscl.math.operator.Product, term, compileGeneric(p[2]), compileGeneric(p[3]));
+    }
+
+    /**
+     * @return true if <var>generic</var> is a polynomial of the indices of sums and products with integer
+     * coefficients, i.e. its numeric value is an exact integer (e.g. x^n is real for negative x)
+     */
+    private boolean isIndexPolynomial(@Nonnull Generic generic) {
+        if (generic instanceof JsclInteger) {
+            return true;
+        } else if (!(generic instanceof Expression)) {
+            return false;
+        }
+        final Expression expression = (Expression) generic;
+        for (int i = 0; i < expression.size(); i++) {
+            final Literal literal = expression.literal(i);
+            for (int j = 0; j < literal.size(); j++) {
+                if (!isIndex(literal.getVariable(j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isIndex(@Nonnull Variable variable) {
+        for (int i = firstIndex; i < parameters.length; i++) {
+            if (parameters[i].isIdentity(variable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unlike {@link Generic#isConstant(Variable)} looks into the parameters of operators
+     */
+    private boolean isConstant(@Nonnull Generic generic) {
+        if (generic instanceof Expression) {
+            final Expression expression = (Expression) generic;
+            for (int i = 0; i < expression.size(); i++) {
+                final Literal literal = expression.literal(i);
+                for (int j = 0; j < literal.size(); j++) {
+                    if (!isConstant(literal.getVariable(j))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        for (Variable parameter : parameters) {
+            if (!generic.isConstant(parameter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isConstant(@Nonnull Variable variable) {
+        for (Variable parameter : parameters) {
+            if (parameter.isIdentity(variable)) {
+                return false;
+            }
+        }
+        if (variable instanceof AbstractFunction) {
+            for (Generic parameter : ((AbstractFunction) variable).getParameters()) {
+                if (parameter != null && !isConstant(parameter)) {
+                    return false;
+                }
+            }
+        } else if (variable instanceof GenericVariable) {
+            return isConstant(GenericVariable.content(variable.expressionValue()));
+        }
+        return true;
+    }
+
+    @Nonnull
+    private DoubleExpression compileFunction(@Nonnull Function function) {
+        final Generic[] p = function.getParameters();
+
+        // order matters: Inverse extends Fraction, Rad and Dms extend AbstractDms
+        if (function instanceof Fraction) {
+            return new Divide(compileGeneric(p[0]), compileGeneric(p[1]));
+        } else if (function instanceof Pow) {
+            return new Power(compileGeneric(p[0]), compileGeneric(p[1]), isIndexPolynomial(p[1]));
+        } else if (function instanceof AbstractDms) {
+            final DoubleExpression degrees = new Degrees(compileGeneric(p[0]),
+                    p.length > 1 && p[1] != null ? compileGeneric(p[1]) : null,
+                    p.length > 2 && p[2] != null ? compileGeneric(p[2]) : null);
+            return function instanceof Rad ? new Multiply(degrees, AngleUnit.deg.transform(AngleUnit.rad, 1d)) : degrees;
+        } else if (function instanceof Deg) {
+            return new Multiply(compileGeneric(p[0]), AngleUnit.rad.transform(AngleUnit.deg, 1d));
+        }
+
+        if (p.length != 1) {
+            throw new NotCompilableException(function.getName());
+        }
+        final DoubleExpression argument = compileGeneric(p[0]);
+        final int operation = getOperation(function);
+        if (operation < 0) {
+            throw new NotCompilableException(function.getName());
+        }
+        return new Unary(operation, argument, toRad, fromRad);
+    }
+
+    private static int getOperation(@Nonnull Function function) {
+        if (function instanceof Sin) {
+            return Unary.SIN;
+        } else if (function instanceof Cos) {
+            return Unary.COS;
+        } else if (function instanceof Tan) {
+            return Unary.TAN;
+        } else if (function instanceof Cot) {
+            return Unary.COT;
+        } else if (function instanceof Asin) {
+            return Unary.ASIN;
+        } else if (function instanceof Acos) {
+            return Unary.ACOS;
+        } else if (function instanceof Atan) {
+            return Unary.ATAN;
+        } else if (function instanceof Acot) {
+            return Unary.ACOT;
+        } else if (function instanceof Sinh) {
+            return Unary.SINH;
+        } else if (function instanceof Cosh) {
+            return Unary.COSH;
+        } else if (function instanceof Tanh) {
+            return Unary.TANH;
+        } else if (function instanceof Coth) {
+            return Unary.COTH;
+        } else if (function instanceof Asinh) {
+            return Unary.ASINH;
+        } else if (function instanceof Acosh) {
+            return Unary.ACOSH;
+        } else if (function instanceof Atanh) {
+            return Unary.ATANH;
+        } else if (function instanceof Acoth) {
+            return Unary.ACOTH;
+        } else if (function instanceof Exp) {
+            return Unary.EXP;
+        } else if (function instanceof Ln) {
+            return Unary.LN;
+        } else if (function instanceof Lg) {
+            return Unary.LG;
+        } else if (function instanceof Sqrt) {
+            return Unary.SQRT;
+        } else if (function instanceof Cubic) {
+            return Unary.CUBIC;
+        } else if (function instanceof Abs) {
+            return Unary.ABS;
+        } else if (function instanceof Sgn) {
+            return Unary.SGN;
+        } else if (function instanceof Conjugate) {
+            return Unary.CONJUGATE;
+        }
+        return -1;
+    }
+
+    private static double realValue(@Nonnull Generic numeric) {
+        if (numeric instanceof NumericWrapper) {
+            final jscl.math.numeric.Numeric content = ((NumericWrapper) numeric).content();
+            if (content instanceof Real) {
+                return content.doubleValue();
+            }
+        } else if (numeric instanceof JsclInteger) {
+            return numeric.doubleValue();
+        }
+        throw new NotCompilableException(numeric.toString());
+    }
+
+    /**
+     * Replaces expression which doesn't depend on parameters with its value
+     */
+    @Nonnull
+    private static DoubleExpression optimize(@Nonnull DoubleExpression expression) {
+        if (expression instanceof Value || !expression.isConstant()) {
+            return expression;
+        }
+        final double value = expression.evaluate(new double[0]);
+        if (Double.isNaN(value)) {
+            // constant part is not real (e.g. sqrt(-1)) => there is no point in compiling such expression
+            throw new NotCompilableException("Constant subexpression is not real");
+        }
+        return new Value(value);
+    }
+
+    private static boolean all(@Nonnull DoubleExpression[] expressions) {
+        for (DoubleExpression expression : expressions) {
+            if (!expression.isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link jscl.math.numeric.Numeric#pow(int)}
+     */
+    static double pow(double value, int exponent) {
+        double result = 1d;
+        double square = value;
+        for (int e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result *= square;
+            }
+            if (e > 1) {
+                square *= square;
+            }
+        }
+        return result;
+    }
+
+    private static final class Value extends DoubleExpression {
+
+        private final double value;
+
+        Value(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Argument extends DoubleExpression {
+
+        private final int index;
+
+        Argument(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            return arguments[index];
+        }
+    }
+
+    private static final class Sum extends DoubleExpression {
+
+        @Nonnull
+        private final double[] coefficients;
+        @Nonnull
+        private final DoubleExpression[] terms;
+
+        Sum(@Nonnull double[] coefficients, @Nonnull DoubleExpression[] terms) {
+            this.coefficients = coefficients;
+            this.terms = terms;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            double result = 0d;
+            for (int i = 0; i < terms.length; i++) {
+                result += coefficients[i] * terms[i].evaluate(arguments);
+            }
+            return result;
+        }
+
+        @Override
+        boolean isConstant() {
+            return all(terms);
+        }
+    }
+
+    private static final class Product extends DoubleExpression {
+
+        @Nonnull
+        private final DoubleExpression[] factors;
+        @Nonnull
+        private final int[] powers;
+
+        Product(@Nonnull DoubleExpression[] factors, @Nonnull int[] powers) {
+            this.factors = factors;
+            this.powers = powers;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            double result = 1d;
+            for (int i = 0; i < factors.length; i++) {
+                result *= pow(factors[i].evaluate(arguments), powers[i]);
+            }
+            return result;
+        }
+
+        @Override
+        boolean isConstant() {
+            return all(factors);
+        }
+    }
+
+    private static final class Multiply extends DoubleExpression {
+
+        @Nonnull
+        private final DoubleExpression argument;
+        private final double coefficient;
+
+        Multiply(@Nonnull DoubleExpression argument, double coefficient) {
+            this.argument = argument;
+            this.coefficient = coefficient;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            return argument.evaluate(arguments) * coefficient;
+        }
+
+        @Override
+        boolean isConstant() {
+            return argument.isConstant();
+        }
+    }
+
+    private static final class Divide extends DoubleExpression {
+
+        @Nonnull
+        private final DoubleExpression numerator;
+        @Nonnull
+        private final DoubleExpression denominator;
+
+        Divide(@Nonnull DoubleExpression numerator, @Nonnull DoubleExpression denominator) {
+            this.numerator = numerator;
+            this.denominator = denominator;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            return numerator.evaluate(arguments) / denominator.evaluate(arguments);
+        }
+
+        @Override
+        boolean isConstant() {
+            return numerator.isConstant() && denominator.isConstant();
+        }
+    }
+
+    private static final class Power extends DoubleExpression {
+
+        @Nonnull
+        private final DoubleExpression base;
+        @Nonnull
+        private final DoubleExpression exponent;
+
+        // exponent is an exact integer if its value is integral
+        private final boolean integer;
+
+        Power(@Nonnull DoubleExpression base, @Nonnull DoubleExpression exponent, boolean integer) {
+            this.base = base;
+            this.exponent = exponent;
+            this.integer = integer;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            final double base = this.base.evaluate(arguments);
+            final double exponent = this.exponent.evaluate(arguments);
+            if (base < 0) {
+                if (integer && exponent == Math.rint(exponent) && Math.abs(exponent) <= Integer.MAX_VALUE) {
+                    final double power = pow(base, (int) Math.abs(exponent));
+                    return exponent < 0 ? 1 / power : power;
+                }
+                // result is complex
+                return Double.NaN;
+            }
+            return Math.pow(base, exponent);
+        }
+
+        @Override
+        boolean isConstant() {
+            return base.isConstant() && exponent.isConstant();
+        }
+    }
+
+    /**
+     * Sum (with Neumaier's compensation) or product of the terms over the range of the index which is passed to the
+     * term as the last argument
+     */
+    private static final class Series extends DoubleExpression {
+
+        private final boolean product;
+        @Nonnull
+        private final DoubleExpression term;
+        @Nonnull
+        private final DoubleExpression from;
+        @Nonnull
+        private final DoubleExpression to;
+        // arguments of the term, reused by the evaluations as compiled expressions are evaluated many times (e.g. in
+        // plots). Compiled expressions are shared between threads (see cache) => each thread has its own array
+        @Nonnull
+        private final ThreadLocal<double[]> termArguments = new ThreadLocal<double[]>();
+
+        Series(boolean product, @Nonnull DoubleExpression term, @Nonnull DoubleExpression from, @Nonnull DoubleExpression to) {
+            this.product = product;
+            this.term = term;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            final double from = this.from.evaluate(arguments);
+            final double to = this.to.evaluate(arguments);
+            if (!isInt(from) || !isInt(to)) {
+                return Double.NaN;
+            }
+
+            double[] termArguments = this.termArguments.get();
+            if (termArguments == null || termArguments.length != arguments.length + 1) {
+                termArguments = new double[arguments.length + 1];
+                this.termArguments.set(termArguments);
+            }
+            System.arraycopy(arguments, 0, termArguments, 0, arguments.length);
+            double result = product ? 1d : 0d;
+            double compensation = 0d;
+            for (long i = (long) from; i <= (long) to; i++) {
+                if ((i - (long) from) % CHUNK_SIZE == 0) {
+                    ParserUtils.checkInterruption();
+                }
+                termArguments[arguments.length] = i;
+                final double value = term.evaluate(termArguments);
+                if (product) {
+                    result *= value;
+                } else {
+                    final double t = result + value;
+                    if (Double.isInfinite(t)) {
+                        // overflow: compensation would be Inf - Inf = NaN
+                        return t;
+                    }
+                    if (Math.abs(result) >= Math.abs(value)) {
+                        compensation += (result - t) + value;
+                    } else {
+                        compensation += (value - t) + result;
+                    }
+                    result = t;
+                }
+            }
+            return result + compensation;
+        }
+
+        private static boolean isInt(double value) {
+            return value == Math.rint(value) && Math.abs(value) <= Integer.MAX_VALUE;
+        }
+    }
+
+    private static final class Degrees extends DoubleExpression {
+
+        @Nonnull
+        private final DoubleExpression degrees;
+        @Nullable
+        private final DoubleExpression minutes;
+        @Nullable
+        private final DoubleExpression seconds;
+
+        Degrees(@Nonnull DoubleExpression degrees, @Nullable DoubleExpression minutes, @Nullable DoubleExpression seconds) {
+            this.degrees = degrees;
+            this.minutes = minutes;
+            this.seconds = seconds;
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            double result = degrees.evaluate(arguments);
+            if (minutes != null) {
+                result += minutes.evaluate(arguments) / 60;
+            }
+            if (seconds != null) {
+                result += seconds.evaluate(arguments) / (60 * 60);
+            }
+            return result;
+        }
+
+        @Override
+        boolean isConstant() {
+            return degrees.isConstant() && (minutes == null || minutes.isConstant()) && (seconds == null || seconds.isConstant());
+        }
+    }
+
+    /**
+     * Real counterparts of the functions from {@link jscl.math.numeric.Real} and {@link jscl.math.numeric.Numeric}:
+     * formulas are kept the same so the results are the same
+     */
+    private static final class Unary extends DoubleExpression {
+
+        static final int SIN = 0;
+        static final int COS = 1;
+        static final int TAN = 2;
+        static final int COT = 3;
+        static final int ASIN = 4;
+        static final int ACOS = 5;
+        static final int ATAN = 6;
+        static final int ACOT = 7;
+        static final int SINH = 8;
+        static final int COSH = 9;
+        static final int TANH = 10;
+        static final int COTH = 11;
+        static final int ASINH = 12;
+        static final int ACOSH = 13;
+        static final int ATANH = 14;
+        static final int ACOTH = 15;
+        static final int EXP = 16;
+        static final int LN = 17;
+        static final int LG = 18;
+        static final int SQRT = 19;
+        static final int CUBIC = 20;
+        static final int ABS = 21;
+        static final int SGN = 22;
+        static final int CONJUGATE = 23;
+
+        private final int operation;
+        @Nonnull
+        private final DoubleExpression argument;
+        private final double toRad;
+        private final double fromRad;
+
+        Unary(int operation, @Nonnull DoubleExpression argument, double toRad, double fromRad) {
+            this.operation = operation;
+            this.argument = argument;
+            this.toRad = toRad;
+            this.fromRad = fromRad;
+        }
+
+        private static double tan(double value) {
+            if (value > Math.PI || value < Math.PI) {
+                value = value % Math.PI;
+            }
+            if (value == Math.PI / 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (value == Math.PI) {
+                return 0;
+            }
+            if (value == -Math.PI / 2) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (value == -Math.PI) {
+                return 0;
+            }
+            return Math.tan(value);
+        }
+
+        private static double ln(double value) {
+            // logarithm of negative number is complex
+            return value < 0 ? Double.NaN : Math.log(value);
+        }
+
+        private static double sqrt(double value) {
+            return value < 0 ? Double.NaN : Math.sqrt(value);
+        }
+
+        @Override
+        public double evaluate(@Nonnull double[] arguments) {
+            final double x = argument.evaluate(arguments);
+            final double e;
+            switch (operation) {
+                case SIN:
+                    return Math.sin(x * toRad);
+                case COS:
+                    return Math.cos(x * toRad);
+                case TAN:
+                    return tan(x * toRad);
+                case COT:
+                    return 1. / tan(x * toRad);
+                case ASIN:
+                    return Math.asin(x) * fromRad;
+                case ACOS:
+                    return Math.acos(x) * fromRad;
+                case ATAN:
+                    return Math.atan(x) * fromRad;
+                case ACOT:
+                    return (Math.PI / 2 - Math.atan(x)) * fromRad;
+                case SINH:
+                    e = pow(Math.exp(x * toRad), 2);
+                    return -((1 - e) / (2 * Math.exp(x * toRad)));
+                case COSH:
+                    e = Math.exp(x * toRad);
+                    return (1 + pow(e, 2)) / (2 * e);
+                case TANH:
+                    e = pow(Math.exp(x * toRad), 2);
+                    return -((1 - e) / (1 + e));
+                case COTH:
+                    e = pow(Math.exp(x * toRad), 2);
+                    return -((1 + e) / (1 - e));
+                case ASINH:
+                    return ln(x + sqrt(1 + pow(x, 2))) * fromRad;
+                case ACOSH:
+                    return ln(x + sqrt(-1 + pow(x, 2))) * fromRad;
+                case ATANH:
+                    return ln((1 + x) / (1 - x)) / 2 * fromRad;
+                case ACOTH:
+                    return ln(-((1 + x) / (1 - x))) / 2 * fromRad;
+                case EXP:
+                    return Math.exp(x);
+                case LN:
+                    return ln(x);
+                case LG:
+                    return x < 0 ? Double.NaN : Math.log10(x);
+                case SQRT:
+                    return sqrt(x);
+                case CUBIC:
+                    return x < 0 ? -Math.pow(-x, 1. / 3) : Math.pow(x, 1. / 3);
+                case ABS:
+                    return x < 0 ? -x : x;
+                case SGN:
+                    return x / (x < 0 ? -x : x);
+                case CONJUGATE:
+                    return x;
+            }
+            throw new AssertionError();
+        }
+
+        @Override
+        boolean isConstant() {
+            return argument.isConstant();
+        }
+    }
+
+    private static final class Key {
+
+        @Nonnull
+        private final Generic generic;
+        @Nonnull
+        private final Variable[] parameters;
+        // definitions of the custom functions (bodies and parameter names) and values of the constants the expression
+        // depends on: expressions are equal even if these definitions differ
+        @Nonnull
+        private final List<Object> definitions = new ArrayList<Object>();
+        @Nonnull
+        private final AngleUnit angleUnits;
+        private final int hashCode;
+
+        Key(@Nonnull Generic generic, @Nonnull Variable[] parameters, @Nonnull AngleUnit angleUnits) {
+            this.generic = generic;
+            this.parameters = parameters.clone();
+            this.angleUnits = angleUnits;
+            final int hash = addDefinitions(generic);
+            this.hashCode = 31 * (31 * hash + Arrays.hashCode(parameters)) + angleUnits.hashCode();
+        }
+
+        /**
+         * @return hash code of <var>generic</var> consistent with {@link Generic#equals(Object)}: equal expressions
+         * consist of equal literals
+         */
+        private int addDefinitions(@Nonnull Generic generic) {
+            if (!(generic instanceof Expression)) {
+                return generic.getClass().hashCode();
+            }
+            final Expression expression = (Expression) generic;
+            int hash = 1;
+            for (int i = 0; i < expression.size(); i++) {
+                final Literal literal = expression.literal(i);
+                hash = 31 * hash + literal.hashCode();
+                for (int j = 0; j < literal.size(); j++) {
+                    addDefinitions(literal.getVariable(j));
+                }
+            }
+            return hash;
+        }
+
+        private void addDefinitions(@Nonnull Variable variable) {
+            if (variable instanceof Constant) {
+                for (Variable parameter : parameters) {
+                    if (parameter.isIdentity(variable)) {
+                        // value of the parameter is not captured
+                        return;
+                    }
+                }
+                final IConstant constant = JsclMathEngine.getInstance().getConstantsRegistry().get(variable.getName());
+                definitions.add(variable.getName());
+                definitions.add(constant == null ? null : constant.getValue());
+            } else if (variable instanceof CustomFunction) {
+                final CustomFunction function = (CustomFunction) variable;
+                definitions.add(function.getParameterNames());
+                definitions.add(function.getBody());
+                addDefinitions(function.getBody());
+                addParameterDefinitions(function);
+            } else if (variable instanceof AbstractFunction) {
+                addParameterDefinitions((AbstractFunction) variable);
+            } else if (variable instanceof GenericVariable) {
+                addDefinitions(GenericVariable.content(variable.expressionValue()));
+            }
+        }
+
+        private void addParameterDefinitions(@Nonnull AbstractFunction function) {
+            for (Generic parameter : function.getParameters()) {
+                if (parameter != null) {
+                    addDefinitions(parameter);
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return hashCode == that.hashCode
+                    && angleUnits == that.angleUnits
+                    && Arrays.equals(parameters, that.parameters)
+                    && generic.equals(that.generic)
+                    && definitions.equals(that.definitions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
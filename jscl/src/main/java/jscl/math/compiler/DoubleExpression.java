@@ -0,0 +1,23 @@
+package jscl.math.compiler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Expression lowered to primitive double arithmetic (see {@link DoubleCompiler}). Evaluation doesn't allocate any
+ * objects (except for the arguments of the terms of sums and products) and doesn't touch {@link jscl.math.Generic}
+ * tree. Instances are immutable and thread safe.
+ */
+public abstract class DoubleExpression {
+
+    /**
+     * @param arguments values of the parameters in the same order as they were passed to the compiler
+     * @return value of the expression or NaN if it is undefined or not real. Note that NaN is also returned in cases
+     * where numeric evaluation produces complex number: callers which need such results should fall back to
+     * {@link jscl.math.Generic#numeric()}
+     */
+    public abstract double evaluate(@Nonnull double[] arguments);
+
+    boolean isConstant() {
+        return false;
+    }
+}
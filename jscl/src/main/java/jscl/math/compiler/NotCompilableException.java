@@ -0,0 +1,16 @@
+package jscl.math.compiler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown if expression contains constructs which can't be lowered to primitive double arithmetic (complex constants,
+ * operators, matrices etc). In such case the expression should be evaluated via {@link jscl.math.Generic#numeric()}.
+ */
+public class NotCompilableException extends ArithmeticException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotCompilableException(@Nonnull String message) {
+        super(message);
+    }
+}
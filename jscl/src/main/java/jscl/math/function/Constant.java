@@ -1,6 +1,5 @@
 package jscl.math.function;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -19,7 +18,6 @@ public class Constant extends Variable {
     public static final int PRIME_CHARS = 3;
     private final int prime;
     private final Generic subscripts[];
-    private Object[] hashArray;
 
     public Constant(String name) {
         this(name, 0, new Generic[0]);
@@ -153,20 +151,8 @@ public class Constant extends Variable {
 
     @Override
     public int hashCode() {
-        final Object[] hashArray = getHashArray();
-        hashArray[0] = Constant.class;
-        hashArray[1] = name;
-        hashArray[2] = subscripts;
-        hashArray[3] = prime;
-        return Arrays.deepHashCode(this.hashArray);
-    }
-
-    @Nonnull
-    private Object[] getHashArray() {
-        if(hashArray == null) {
-            hashArray = new Object[4];
-        }
-        return hashArray;
+        // subscripts are compared by value and have no consistent hash code, only their number is used
+        return 31 * (31 * name.hashCode() + subscripts.length) + prime;
     }
 
     public String toString() {
@@ -3,6 +3,7 @@ package jscl.math.function;
 import com.google.common.collect.Lists;
 import jscl.CustomFunctionCalculationException;
 import jscl.JsclMathEngine;
+import jscl.MathSettings;
 import jscl.NumeralBase;
 import jscl.math.*;
 import jscl.text.ParseException;
@@ -61,19 +62,18 @@ public class CustomFunction extends Function implements IFunction {
         super(name, new Generic[parameterNames.size()]);
         this.parameterNames = parameterNames;
         final JsclMathEngine engine = JsclMathEngine.getInstance();
-        final NumeralBase nb = engine.getNumeralBase();
-        if (nb != NumeralBase.dec) {
-            // numbers in functions are only supported in decimal base
-            engine.setNumeralBase(NumeralBase.dec);
-        }
+        final MathSettings settings = engine.getSettings();
+        final MathSettings previous = settings.getNumeralBase() == NumeralBase.dec ? null :
+                // numbers in functions are only supported in decimal base, only the current thread is affected
+                engine.setThreadSettings(settings.withNumeralBase(NumeralBase.dec));
         try {
             this.content = Expression.valueOf(content);
             ensureNoImplicitFunctions();
         } catch (ParseException e) {
             throw new CustomFunctionCalculationException(this, e);
         } finally {
-            if (nb != NumeralBase.dec) {
-                engine.setNumeralBase(nb);
+            if (settings.getNumeralBase() != NumeralBase.dec) {
+                engine.setThreadSettings(previous);
             }
         }
         this.description = description;
@@ -220,6 +220,15 @@ public class CustomFunction extends Function implements IFunction {
         return this.content.toString();
     }
 
+    /**
+     * @return body of the function in terms of its parameters (see {@link #getParameterNames()}), unlike
+     * {@link #getContent()} doesn't need to be formatted
+     */
+    @Nonnull
+    public Expression getBody() {
+        return this.content;
+    }
+
     @Nullable
     public String getDescription() {
         return this.description;
@@ -325,6 +334,16 @@ public class CustomFunction extends Function implements IFunction {
             return result.toString();
         }
 
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        @Nonnull
+        public String getContent() {
+            return content;
+        }
+
         @Nonnull
         public Builder setDescription(@Nullable String description) {
             this.description = description;
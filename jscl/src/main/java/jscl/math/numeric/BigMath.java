@@ -0,0 +1,453 @@
+package jscl.math.numeric;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+
+import jscl.text.ParserUtils;
+
+/**
+ * Elementary functions of {@link BigDecimal} arguments computed to the precision of the given {@link MathContext}.
+ * The results are computed with a few guard digits and then rounded, i.e. the last digit might be off by one ulp.
+ * Constants (π, e, ln(2), ln(10)) are computed by binary splitting of their series and cached at the highest precision
+ * requested so far.
+ */
+final class BigMath {
+
+    static final int GUARD_DIGITS = 5;
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+    // |x - 1| below this value => ln(x) is computed by its series directly
+    private static final BigDecimal LN_SERIES_THRESHOLD = new BigDecimal("0.5");
+
+    @Nonnull
+    private static final Constant pi = new Constant() {
+        @Nonnull
+        @Override
+        BigDecimal compute(@Nonnull MathContext mc) {
+            // Chudnovsky: π = 426880√10005 / Σ (-1)^n (6n)! (13591409 + 545140134n) / ((3n)! (n!)^3 640320^(3n)),
+            // every term adds 14 digits
+            final BigInteger c3 = BigInteger.valueOf(640320).pow(3);
+            final Series series = new Series() {
+                @Nonnull
+                @Override
+                BigInteger a(int n) {
+                    return BigInteger.valueOf(13591409L + 545140134L * n);
+                }
+
+                @Nonnull
+                @Override
+                BigInteger p(int n) {
+                    if (n == 0) {
+                        return BigInteger.ONE;
+                    }
+                    return BigInteger.valueOf(-24L * (6 * n - 5) * (2 * n - 1) * (6 * n - 1));
+                }
+
+                @Nonnull
+                @Override
+                BigInteger q(int n) {
+                    if (n == 0) {
+                        return BigInteger.ONE;
+                    }
+                    final BigInteger bn = BigInteger.valueOf(n);
+                    return bn.multiply(bn).multiply(bn).multiply(c3);
+                }
+            };
+            final BigDecimal sum = series.sum(mc.getPrecision() / 14 + 2, mc);
+            return BigDecimal.valueOf(426880).multiply(sqrt(BigDecimal.valueOf(10005), mc), mc).divide(sum, mc);
+        }
+    };
+
+    @Nonnull
+    private static final Constant e = new Constant() {
+        @Nonnull
+        @Override
+        BigDecimal compute(@Nonnull MathContext mc) {
+            // e = Σ 1/n!
+            final Series series = new Series() {
+                @Nonnull
+                @Override
+                BigInteger q(int n) {
+                    return n == 0 ? BigInteger.ONE : BigInteger.valueOf(n);
+                }
+            };
+            return series.sum(factorialTerms(mc.getPrecision()), mc);
+        }
+    };
+
+    @Nonnull
+    private static final Constant ln2 = new Constant() {
+        @Nonnull
+        @Override
+        BigDecimal compute(@Nonnull MathContext mc) {
+            // ln(2) = 2 atanh(1/3)
+            return atanhInverse(3, mc).multiply(TWO, mc);
+        }
+    };
+
+    @Nonnull
+    private static final Constant ln10 = new Constant() {
+        @Nonnull
+        @Override
+        BigDecimal compute(@Nonnull MathContext mc) {
+            // ln(10) = 3 ln(2) + ln(5/4) = 3 ln(2) + 2 atanh(1/9)
+            final MathContext wmc = extend(mc, 2);
+            return ln2(wmc).multiply(BigDecimal.valueOf(3), wmc).add(atanhInverse(9, wmc).multiply(TWO, wmc), mc);
+        }
+    };
+
+    private BigMath() {
+        throw new AssertionError();
+    }
+
+    @Nonnull
+    static BigDecimal pi(@Nonnull MathContext mc) {
+        return pi.get(mc);
+    }
+
+    @Nonnull
+    static BigDecimal e(@Nonnull MathContext mc) {
+        return e.get(mc);
+    }
+
+    @Nonnull
+    static BigDecimal ln2(@Nonnull MathContext mc) {
+        return ln2.get(mc);
+    }
+
+    @Nonnull
+    static BigDecimal ln10(@Nonnull MathContext mc) {
+        return ln10.get(mc);
+    }
+
+    @Nonnull
+    static MathContext extend(@Nonnull MathContext mc, int digits) {
+        return new MathContext(mc.getPrecision() + digits, mc.getRoundingMode());
+    }
+
+    /**
+     * @return number of terms of Σ x^n/n! (|x| <= 1) needed to reach the given precision
+     */
+    private static int factorialTerms(int precision) {
+        // log10(n!) > precision
+        double log = 0;
+        int n = 1;
+        while (log <= precision) {
+            n++;
+            log += Math.log10(n);
+        }
+        return n + 1;
+    }
+
+    /**
+     * @return atanh(1/m) = Σ 1/((2n+1) m^(2n+1))
+     */
+    @Nonnull
+    private static BigDecimal atanhInverse(final int m, @Nonnull MathContext mc) {
+        final BigInteger bm = BigInteger.valueOf(m);
+        final BigInteger m2 = bm.multiply(bm);
+        final Series series = new Series() {
+            @Nonnull
+            @Override
+            BigInteger b(int n) {
+                return BigInteger.valueOf(2 * n + 1);
+            }
+
+            @Nonnull
+            @Override
+            BigInteger q(int n) {
+                return n == 0 ? bm : m2;
+            }
+        };
+        final int terms = (int) (mc.getPrecision() / (2 * Math.log10(m))) + 2;
+        return series.sum(terms, mc);
+    }
+
+    @Nonnull
+    static BigDecimal sqrt(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        final int signum = x.signum();
+        if (signum < 0) {
+            throw new ArithmeticException("Square root of negative number: " + x);
+        } else if (signum == 0) {
+            return BigDecimal.ZERO;
+        }
+        final int precision = mc.getPrecision() + GUARD_DIGITS;
+        // x = m 10^(2k) => √x = √m 10^k, m fits into double
+        final int k = (x.precision() - x.scale()) / 2;
+        final BigDecimal m = x.scaleByPowerOfTen(-2 * k);
+        BigDecimal y = new BigDecimal(Math.sqrt(m.doubleValue()));
+        // Newton's method doubles the number of correct digits with every iteration
+        int digits = 15;
+        while (true) {
+            digits = Math.min(2 * digits, precision);
+            final MathContext wmc = new MathContext(digits + 2);
+            y = y.add(m.divide(y, wmc), wmc).multiply(HALF, wmc);
+            if (digits == precision) {
+                break;
+            }
+        }
+        return y.scaleByPowerOfTen(k).round(mc);
+    }
+
+    @Nonnull
+    static BigDecimal exp(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        // x = k ln(2) + r, |r| <= ln(2)/2 => exp(x) = 2^k exp(r)
+        final BigDecimal k = x.divide(ln2(MathContext.DECIMAL64), MathContext.DECIMAL64).setScale(0, RoundingMode.HALF_EVEN);
+        if (k.abs().compareTo(BigDecimal.valueOf(Integer.MAX_VALUE / 4)) > 0) {
+            throw new ArithmeticException("Exponent is too large: " + x);
+        }
+        final int extra = k.precision() + 2;
+        final MathContext wmc = extend(mc, GUARD_DIGITS + extra);
+        final BigDecimal r = x.subtract(ln2(wmc).multiply(k, wmc), wmc);
+
+        // exp(r) = exp(r / 2^s)^(2^s), the series converges faster for small arguments
+        final int s = Math.max(0, (int) Math.sqrt(mc.getPrecision()) / 2);
+        final MathContext smc = extend(wmc, s / 3 + 1);
+        final BigDecimal t = r.divide(TWO.pow(s), smc);
+        BigDecimal y = BigDecimal.ONE;
+        BigDecimal term = BigDecimal.ONE;
+        final BigDecimal epsilon = BigDecimal.ONE.movePointLeft(smc.getPrecision());
+        for (int n = 1; term.abs().compareTo(epsilon) > 0; n++) {
+            ParserUtils.checkInterruption();
+            term = term.multiply(t, smc).divide(BigDecimal.valueOf(n), smc);
+            y = y.add(term, smc);
+        }
+        for (int i = 0; i < s; i++) {
+            y = y.multiply(y, smc);
+        }
+        final int exponent = k.intValue();
+        final BigDecimal power = exponent >= 0 ? TWO.pow(exponent, smc) : BigDecimal.ONE.divide(TWO.pow(-exponent, smc), smc);
+        return y.multiply(power, mc);
+    }
+
+    @Nonnull
+    static BigDecimal ln(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of non-positive number: " + x);
+        }
+        if (x.subtract(BigDecimal.ONE).abs().compareTo(LN_SERIES_THRESHOLD) < 0) {
+            // ln(x) = 2 atanh((x - 1)/(x + 1)), argument is small and the series converges fast. Newton's method
+            // below can't be used here as exp(y) - x suffers from cancellation
+            final MathContext wmc = extend(mc, GUARD_DIGITS);
+            final BigDecimal z = x.subtract(BigDecimal.ONE).divide(x.add(BigDecimal.ONE), wmc);
+            return atanh(z, wmc).multiply(TWO, mc);
+        }
+        // x = m 10^k => ln(x) = ln(m) + k ln(10)
+        final int k = x.precision() - x.scale() - 1;
+        final BigDecimal m = x.scaleByPowerOfTen(-k);
+        final MathContext wmc = extend(mc, GUARD_DIGITS + String.valueOf(Math.abs(k)).length());
+        BigDecimal y = new BigDecimal(Math.log(m.doubleValue()));
+        // Halley's method: y = y + 2 (m - exp(y)) / (m + exp(y)) triples the number of correct digits with every
+        // iteration
+        int digits = 15;
+        while (true) {
+            digits = Math.min(3 * digits, wmc.getPrecision());
+            final MathContext imc = new MathContext(digits + 2);
+            final BigDecimal exp = exp(y, imc);
+            y = y.add(TWO.multiply(m.subtract(exp, imc)).divide(m.add(exp, imc), imc), imc);
+            if (digits == wmc.getPrecision()) {
+                break;
+            }
+        }
+        if (k == 0) {
+            return y.round(mc);
+        }
+        return y.add(ln10(wmc).multiply(BigDecimal.valueOf(k), wmc), mc);
+    }
+
+    /**
+     * @return atanh(z) = Σ z^(2n+1)/(2n+1) for |z| < 1
+     */
+    @Nonnull
+    private static BigDecimal atanh(@Nonnull BigDecimal z, @Nonnull MathContext mc) {
+        final BigDecimal z2 = z.multiply(z, mc);
+        final BigDecimal epsilon = BigDecimal.ONE.movePointLeft(mc.getPrecision() + 1);
+        BigDecimal power = z;
+        BigDecimal result = z;
+        for (int n = 1; ; n++) {
+            ParserUtils.checkInterruption();
+            power = power.multiply(z2, mc);
+            final BigDecimal term = power.divide(BigDecimal.valueOf(2 * n + 1), mc);
+            if (term.abs().compareTo(epsilon) <= 0) {
+                break;
+            }
+            result = result.add(term, mc);
+        }
+        return result;
+    }
+
+    /**
+     * @return sin(x) if <var>cos</var> is false, cos(x) otherwise
+     */
+    @Nonnull
+    static BigDecimal sinOrCos(@Nonnull BigDecimal x, boolean cos, @Nonnull MathContext mc) {
+        // x = k π/2 + r, |r| <= π/4. Precision of π/2 must cover the integer digits of x
+        final int extra = Math.max(0, x.precision() - x.scale());
+        final MathContext wmc = extend(mc, GUARD_DIGITS + extra);
+        final BigDecimal halfPi = pi(wmc).multiply(HALF);
+        final BigDecimal k = x.divide(halfPi, wmc).setScale(0, RoundingMode.HALF_EVEN);
+        final BigDecimal r = x.subtract(halfPi.multiply(k, wmc), wmc);
+        // sin(x) = cos(x - π/2)
+        final int quadrant = k.add(cos ? BigDecimal.ZERO : BigDecimal.valueOf(3)).remainder(BigDecimal.valueOf(4)).intValue();
+        final MathContext smc = extend(mc, GUARD_DIGITS);
+        switch ((quadrant + 4) % 4) {
+            case 0:
+                return taylorCos(r, smc).round(mc);
+            case 1:
+                return taylorSin(r, smc).negate(mc);
+            case 2:
+                return taylorCos(r, smc).negate(mc);
+            default:
+                return taylorSin(r, smc).round(mc);
+        }
+    }
+
+    @Nonnull
+    private static BigDecimal taylorSin(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        return taylor(x, x, 1, mc);
+    }
+
+    @Nonnull
+    private static BigDecimal taylorCos(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        return taylor(x, BigDecimal.ONE, 0, mc);
+    }
+
+    /**
+     * @return Σ (-1)^n x^(2n+k)/(2n+k)!
+     */
+    @Nonnull
+    private static BigDecimal taylor(@Nonnull BigDecimal x, @Nonnull BigDecimal first, int k, @Nonnull MathContext mc) {
+        final BigDecimal x2 = x.multiply(x, mc).negate();
+        final BigDecimal epsilon = BigDecimal.ONE.movePointLeft(mc.getPrecision() + 1);
+        BigDecimal term = first;
+        BigDecimal result = first;
+        for (int n = k + 2; ; n += 2) {
+            ParserUtils.checkInterruption();
+            term = term.multiply(x2, mc).divide(BigDecimal.valueOf((long) n * (n - 1)), mc);
+            if (term.abs().compareTo(epsilon) <= 0) {
+                break;
+            }
+            result = result.add(term, mc);
+        }
+        return result;
+    }
+
+    @Nonnull
+    static BigDecimal atan(@Nonnull BigDecimal x, @Nonnull MathContext mc) {
+        final int signum = x.signum();
+        if (signum == 0) {
+            return BigDecimal.ZERO;
+        }
+        final MathContext wmc = extend(mc, GUARD_DIGITS);
+        if (x.abs().compareTo(BigDecimal.ONE) > 0) {
+            // atan(x) = ±π/2 - atan(1/x)
+            final BigDecimal halfPi = pi(wmc).multiply(HALF);
+            final BigDecimal result = atan(BigDecimal.ONE.divide(x, wmc), wmc);
+            return (signum > 0 ? halfPi : halfPi.negate()).subtract(result, mc);
+        }
+        // atan(x) = 2 atan(x / (1 + √(1 + x^2))), the series converges faster for small arguments
+        BigDecimal y = x;
+        int doublings = 0;
+        final BigDecimal threshold = new BigDecimal("0.1");
+        while (y.abs().compareTo(threshold) > 0) {
+            y = y.divide(BigDecimal.ONE.add(sqrt(BigDecimal.ONE.add(y.multiply(y, wmc)), wmc)), wmc);
+            doublings++;
+        }
+        final BigDecimal y2 = y.multiply(y, wmc).negate();
+        final BigDecimal epsilon = BigDecimal.ONE.movePointLeft(wmc.getPrecision() + 1);
+        BigDecimal power = y;
+        BigDecimal result = y;
+        for (int n = 1; ; n++) {
+            ParserUtils.checkInterruption();
+            power = power.multiply(y2, wmc);
+            final BigDecimal term = power.divide(BigDecimal.valueOf(2 * n + 1), wmc);
+            if (term.abs().compareTo(epsilon) <= 0) {
+                break;
+            }
+            result = result.add(term, wmc);
+        }
+        return result.multiply(TWO.pow(doublings), mc);
+    }
+
+    /**
+     * Constant computed on demand, the most precise value computed so far is kept
+     */
+    private abstract static class Constant {
+        @GuardedBy("this")
+        @Nonnull
+        private BigDecimal value = BigDecimal.ZERO;
+        @GuardedBy("this")
+        private int precision;
+
+        @Nonnull
+        synchronized BigDecimal get(@Nonnull MathContext mc) {
+            if (precision < mc.getPrecision()) {
+                final MathContext wmc = extend(mc, GUARD_DIGITS);
+                value = compute(wmc);
+                precision = wmc.getPrecision();
+            }
+            return value.round(mc);
+        }
+
+        @Nonnull
+        abstract BigDecimal compute(@Nonnull MathContext mc);
+    }
+
+    /**
+     * Series Σ a(n)/b(n) p(0)...p(n)/(q(0)...q(n)) with integer terms summed by binary splitting: the partial sums
+     * are kept as exact fractions so only a single division is done at the end and most of the multiplications are
+     * done on numbers of similar sizes
+     */
+    private abstract static class Series {
+
+        @Nonnull
+        BigInteger a(int n) {
+            return BigInteger.ONE;
+        }
+
+        @Nonnull
+        BigInteger b(int n) {
+            return BigInteger.ONE;
+        }
+
+        @Nonnull
+        BigInteger p(int n) {
+            return BigInteger.ONE;
+        }
+
+        @Nonnull
+        abstract BigInteger q(int n);
+
+        @Nonnull
+        BigDecimal sum(int terms, @Nonnull MathContext mc) {
+            final BigInteger[] r = split(0, terms);
+            // r = {P, Q, B, T}, sum = T / (B Q)
+            return new BigDecimal(r[3]).divide(new BigDecimal(r[2].multiply(r[1])), mc);
+        }
+
+        @Nonnull
+        private BigInteger[] split(int from, int to) {
+            if (to - from == 1) {
+                final BigInteger p = p(from);
+                return new BigInteger[]{p, q(from), b(from), a(from).multiply(p)};
+            }
+            ParserUtils.checkInterruption();
+            final int middle = (from + to) >>> 1;
+            final BigInteger[] l = split(from, middle);
+            final BigInteger[] r = split(middle, to);
+            final BigInteger p = l[0].multiply(r[0]);
+            final BigInteger q = l[1].multiply(r[1]);
+            final BigInteger b = l[2].multiply(r[2]);
+            final BigInteger t = r[2].multiply(r[1]).multiply(l[3]).add(l[2].multiply(l[0]).multiply(r[3]));
+            return new BigInteger[]{p, q, b, t};
+        }
+    }
+}
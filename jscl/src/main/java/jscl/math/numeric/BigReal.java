@@ -0,0 +1,578 @@
+package jscl.math.numeric;
+
+import static midpcalc.Real.NumberFormat.FSE_ENG;
+import static midpcalc.Real.NumberFormat.FSE_SCI;
+
+import org.solovyev.common.NumberFormatter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+import javax.annotation.Nonnull;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import jscl.MathSettings;
+import jscl.NumeralBase;
+import jscl.math.NotDivisibleException;
+
+/**
+ * Real number with arbitrary precision. The number of significant digits is taken from the settings of the engine
+ * (see {@link MathSettings#getDigits()}) when an operation is done, the results are kept with a few guard digits and
+ * rounded to the requested number of digits when they are shown. Operations which lead out of the real numbers
+ * (e.g. logarithm of a negative number) are done by {@link Complex}, i.e. in double precision.
+ */
+public final class BigReal extends Numeric {
+
+    public static final BigReal ZERO = new BigReal(BigDecimal.ZERO);
+    public static final BigReal ONE = new BigReal(BigDecimal.ONE);
+    // precision used if engine doesn't evaluate with arbitrary precision
+    private static final int DEFAULT_DIGITS = NumberFormatter.MAX_PRECISION + 1;
+
+    @Nonnull
+    private final BigDecimal content;
+
+    BigReal(@Nonnull BigDecimal content) {
+        this.content = content;
+    }
+
+    @Nonnull
+    public static BigReal valueOf(@Nonnull BigDecimal value) {
+        if (value.signum() == 0) {
+            return ZERO;
+        } else if (value.compareTo(BigDecimal.ONE) == 0) {
+            return ONE;
+        }
+        return new BigReal(value);
+    }
+
+    @Nonnull
+    public static BigReal valueOf(@Nonnull BigInteger value) {
+        return valueOf(new BigDecimal(value));
+    }
+
+    @Nonnull
+    public static BigReal valueOf(@Nonnull BigInteger numerator, @Nonnull BigInteger denominator) {
+        return valueOf(new BigDecimal(numerator).divide(new BigDecimal(denominator), mc()));
+    }
+
+    /**
+     * Converts double to arbitrary precision number. The shortest decimal representation of the double is used, i.e.
+     * 0.1 becomes exactly 0.1 and not 0.1000000000000000055511151231257827...
+     *
+     * @param value finite double
+     * @return arbitrary precision number
+     */
+    @Nonnull
+    public static BigReal valueOf(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new ArithmeticException("Value can't be represented with arbitrary precision: " + value);
+        }
+        return valueOf(new BigDecimal(Double.toString(value)));
+    }
+
+    /**
+     * @return π with the precision of the engine
+     */
+    @Nonnull
+    public static BigReal pi() {
+        return new BigReal(BigMath.pi(mc()));
+    }
+
+    /**
+     * @return e with the precision of the engine
+     */
+    @Nonnull
+    public static BigReal e() {
+        return new BigReal(BigMath.e(mc()));
+    }
+
+    private static int digits() {
+        final int digits = JsclMathEngine.getInstance().getSettings().getDigits();
+        return digits > 0 ? digits : DEFAULT_DIGITS;
+    }
+
+    /**
+     * @return context of the intermediate computations
+     */
+    @Nonnull
+    private static MathContext mc() {
+        return new MathContext(digits() + BigMath.GUARD_DIGITS);
+    }
+
+    private static boolean isFinite(@Nonnull Real real) {
+        final double value = real.doubleValue();
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    @Nonnull
+    public BigDecimal content() {
+        return content;
+    }
+
+    public BigReal add(@Nonnull BigReal that) {
+        return valueOf(content.add(that.content, mc()));
+    }
+
+    @Nonnull
+    public Numeric add(@Nonnull Numeric that) {
+        if (that instanceof BigReal) {
+            return add((BigReal) that);
+        } else if (that instanceof Real) {
+            return isFinite((Real) that) ? add(valueOf(that.doubleValue())) : toReal().add(that);
+        } else {
+            return that.valueOf(this).add(that);
+        }
+    }
+
+    public BigReal subtract(@Nonnull BigReal that) {
+        return valueOf(content.subtract(that.content, mc()));
+    }
+
+    @Nonnull
+    public Numeric subtract(@Nonnull Numeric that) {
+        if (that instanceof BigReal) {
+            return subtract((BigReal) that);
+        } else if (that instanceof Real) {
+            return isFinite((Real) that) ? subtract(valueOf(that.doubleValue())) : toReal().subtract(that);
+        } else {
+            return that.valueOf(this).subtract(that);
+        }
+    }
+
+    public BigReal multiply(@Nonnull BigReal that) {
+        return valueOf(content.multiply(that.content, mc()));
+    }
+
+    @Nonnull
+    public Numeric multiply(@Nonnull Numeric that) {
+        if (that instanceof BigReal) {
+            return multiply((BigReal) that);
+        } else if (that instanceof Real) {
+            return isFinite((Real) that) ? multiply(valueOf(that.doubleValue())) : toReal().multiply(that);
+        } else {
+            return that.multiply(this);
+        }
+    }
+
+    @Nonnull
+    public Numeric divide(@Nonnull BigReal that) {
+        if (that.signum() == 0) {
+            // same as in double precision: ±∞ or NaN
+            return toReal().divide(that.toReal());
+        }
+        return valueOf(content.divide(that.content, mc()));
+    }
+
+    @Nonnull
+    public Numeric divide(@Nonnull Numeric that) throws NotDivisibleException {
+        if (that instanceof BigReal) {
+            return divide((BigReal) that);
+        } else if (that instanceof Real) {
+            return isFinite((Real) that) ? divide(valueOf(that.doubleValue())) : toReal().divide(that);
+        } else {
+            return that.valueOf(this).divide(that);
+        }
+    }
+
+    @Nonnull
+    public Numeric negate() {
+        return valueOf(content.negate());
+    }
+
+    public int signum() {
+        return content.signum();
+    }
+
+    @Nonnull
+    @Override
+    public Numeric pow(int exponent) {
+        if (exponent < 0 && signum() == 0) {
+            return toReal().pow(exponent);
+        }
+        return valueOf(content.pow(exponent, mc()));
+    }
+
+    @Override
+    public Numeric pow(@Nonnull Numeric numeric) {
+        if (numeric instanceof Real && !isFinite((Real) numeric)) {
+            return toReal().pow(numeric);
+        } else if (numeric instanceof Real || numeric instanceof BigReal) {
+            final BigReal that = numeric instanceof BigReal ? (BigReal) numeric : valueOf(numeric.doubleValue());
+            final BigInteger integer = that.toBigInteger();
+            if (integer != null && integer.bitLength() < 31) {
+                return pow(integer.intValue());
+            }
+            if (signum() <= 0) {
+                // 0 or complex result
+                return toReal().pow(that.toReal());
+            }
+            final MathContext mc = mc();
+            return exp(BigMath.ln(content, BigMath.extend(mc, BigMath.GUARD_DIGITS)).multiply(that.content, mc));
+        } else {
+            return numeric.valueOf(this).pow(numeric);
+        }
+    }
+
+    @Nonnull
+    private Numeric exp(@Nonnull BigDecimal value) {
+        try {
+            return valueOf(BigMath.exp(value, mc()));
+        } catch (ArithmeticException e) {
+            // out of the range of BigDecimal, double gives 0 or ∞
+            return Real.valueOf(Math.exp(value.doubleValue()));
+        }
+    }
+
+    @Nonnull
+    public Numeric exp() {
+        return exp(content);
+    }
+
+    @Nonnull
+    public Numeric ln() {
+        if (signum() > 0) {
+            return valueOf(BigMath.ln(content, mc()));
+        }
+        return toReal().ln();
+    }
+
+    @Nonnull
+    public Numeric lg() {
+        if (signum() > 0) {
+            final MathContext mc = mc();
+            return valueOf(BigMath.ln(content, mc).divide(BigMath.ln10(mc), mc));
+        }
+        return toReal().lg();
+    }
+
+    @Nonnull
+    public Numeric sqrt() {
+        if (signum() < 0) {
+            return Complex.I.multiply(negate().sqrt());
+        }
+        return valueOf(BigMath.sqrt(content, mc()));
+    }
+
+    @Nonnull
+    public Numeric nThRoot(int n) {
+        if (signum() < 0) {
+            return n % 2 == 0 ? sqrt().nThRoot(n / 2) : negate().nThRoot(n).negate();
+        } else if (signum() == 0) {
+            return ZERO;
+        }
+        final MathContext mc = mc();
+        return exp(BigMath.ln(content, mc).divide(BigDecimal.valueOf(n), mc));
+    }
+
+    public Numeric conjugate() {
+        return this;
+    }
+
+    /*
+     * ******************************************************************************************
+     * <p/>
+     * TRIGONOMETRIC FUNCTIONS
+     * <p/>
+     * Angles are converted with π of the requested precision (conversions in Numeric use double coefficients)
+     * <p/>
+     * *******************************************************************************************
+     */
+
+    @Nonnull
+    private static BigDecimal fromRadCoefficient(@Nonnull AngleUnit to, @Nonnull MathContext mc) {
+        switch (to) {
+            case deg:
+                return BigDecimal.valueOf(180).divide(BigMath.pi(mc), mc);
+            case grad:
+                return BigDecimal.valueOf(200).divide(BigMath.pi(mc), mc);
+            case turns:
+                return BigDecimal.ONE.divide(BigMath.pi(mc).multiply(BigDecimal.valueOf(2)), mc);
+            default:
+                return BigDecimal.ONE;
+        }
+    }
+
+    @Nonnull
+    private static BigDecimal toRad(@Nonnull BigDecimal value, @Nonnull MathContext mc) {
+        final AngleUnit angleUnits = JsclMathEngine.getInstance().getAngleUnits();
+        if (angleUnits == AngleUnit.rad) {
+            return value;
+        }
+        return value.divide(fromRadCoefficient(angleUnits, mc), mc);
+    }
+
+    @Nonnull
+    private static BigReal fromRad(@Nonnull BigDecimal value, @Nonnull MathContext mc) {
+        final AngleUnit angleUnits = JsclMathEngine.getInstance().getAngleUnits();
+        if (angleUnits == AngleUnit.rad) {
+            return valueOf(value);
+        }
+        return valueOf(value.multiply(fromRadCoefficient(angleUnits, mc), mc));
+    }
+
+    /**
+     * @return π in the angle units of the engine
+     */
+    @Nonnull
+    public static BigReal piInAngleUnits() {
+        final MathContext mc = mc();
+        return fromRad(BigMath.pi(mc), mc);
+    }
+
+    @Nonnull
+    public Numeric sin() {
+        final MathContext mc = mc();
+        return valueOf(BigMath.sinOrCos(toRad(content, mc), false, mc));
+    }
+
+    @Nonnull
+    public Numeric cos() {
+        final MathContext mc = mc();
+        return valueOf(BigMath.sinOrCos(toRad(content, mc), true, mc));
+    }
+
+    @Nonnull
+    public Numeric tan() {
+        final MathContext mc = mc();
+        final BigDecimal rad = toRad(content, mc);
+        final BigDecimal cos = BigMath.sinOrCos(rad, true, mc);
+        if (cos.signum() == 0) {
+            return Real.valueOf(Double.POSITIVE_INFINITY);
+        }
+        return valueOf(BigMath.sinOrCos(rad, false, mc).divide(cos, mc));
+    }
+
+    @Nonnull
+    public Numeric cot() {
+        final MathContext mc = mc();
+        final BigDecimal rad = toRad(content, mc);
+        final BigDecimal sin = BigMath.sinOrCos(rad, false, mc);
+        if (sin.signum() == 0) {
+            return Real.valueOf(Double.POSITIVE_INFINITY);
+        }
+        return valueOf(BigMath.sinOrCos(rad, true, mc).divide(sin, mc));
+    }
+
+    @Nonnull
+    public Numeric asin() {
+        final int c = content.abs().compareTo(BigDecimal.ONE);
+        if (c > 0) {
+            return super.asin();
+        }
+        final MathContext mc = mc();
+        if (c == 0) {
+            final BigDecimal halfPi = BigMath.pi(mc).divide(BigDecimal.valueOf(2), mc);
+            return fromRad(signum() > 0 ? halfPi : halfPi.negate(), mc);
+        }
+        return fromRad(asinRad(mc), mc);
+    }
+
+    @Nonnull
+    private BigDecimal asinRad(@Nonnull MathContext mc) {
+        // asin(x) = atan(x / √(1 - x^2))
+        final BigDecimal root = BigMath.sqrt(BigDecimal.ONE.subtract(content.multiply(content, mc), mc), mc);
+        return BigMath.atan(content.divide(root, mc), mc);
+    }
+
+    @Nonnull
+    public Numeric acos() {
+        final int c = content.abs().compareTo(BigDecimal.ONE);
+        if (c > 0) {
+            return super.acos();
+        }
+        // acos(x) = π/2 - asin(x)
+        final MathContext mc = mc();
+        final BigDecimal halfPi = BigMath.pi(mc).divide(BigDecimal.valueOf(2), mc);
+        if (c == 0) {
+            return fromRad(signum() > 0 ? BigDecimal.ZERO : halfPi.add(halfPi), mc);
+        }
+        return fromRad(halfPi.subtract(asinRad(mc), mc), mc);
+    }
+
+    @Nonnull
+    public Numeric atan() {
+        final MathContext mc = mc();
+        return fromRad(BigMath.atan(content, mc), mc);
+    }
+
+    @Nonnull
+    public Numeric acot() {
+        // acot(x) = π/2 - atan(x)
+        final MathContext mc = mc();
+        final BigDecimal halfPi = BigMath.pi(mc).divide(BigDecimal.valueOf(2), mc);
+        return fromRad(halfPi.subtract(BigMath.atan(content, mc), mc), mc);
+    }
+
+    /*
+     * ******************************************************************************************
+     * <p/>
+     * HYPERBOLIC TRIGONOMETRIC FUNCTIONS
+     * <p/>
+     * *******************************************************************************************
+     */
+
+    @Nonnull
+    private Numeric expOfRad() {
+        return exp(toRad(content, mc()));
+    }
+
+    @Nonnull
+    public Numeric sinh() {
+        // (exp(x) - exp(-x)) / 2
+        final Numeric e = expOfRad();
+        return e.subtract(e.inverse()).divide(Real.TWO);
+    }
+
+    @Nonnull
+    public Numeric cosh() {
+        // (exp(x) + exp(-x)) / 2
+        final Numeric e = expOfRad();
+        return e.add(e.inverse()).divide(Real.TWO);
+    }
+
+    @Nonnull
+    public Numeric tanh() {
+        // (exp(2x) - 1) / (exp(2x) + 1)
+        final Numeric e = expOfRad().pow(2);
+        return e.subtract(ONE).divide(e.add(ONE));
+    }
+
+    @Nonnull
+    public Numeric coth() {
+        // (exp(2x) + 1) / (exp(2x) - 1)
+        final Numeric e = expOfRad().pow(2);
+        return e.add(ONE).divide(e.subtract(ONE));
+    }
+
+    @Nonnull
+    public Numeric asinh() {
+        // ln(x + √(x^2 + 1))
+        final MathContext mc = mc();
+        final BigDecimal root = BigMath.sqrt(content.multiply(content, mc).add(BigDecimal.ONE, mc), mc);
+        if (signum() < 0) {
+            // asinh(x) = -asinh(-x), avoids cancellation in x + √(x^2 + 1)
+            return fromRad(BigMath.ln(root.subtract(content, mc), mc).negate(), mc);
+        }
+        return fromRad(BigMath.ln(content.add(root, mc), mc), mc);
+    }
+
+    @Nonnull
+    public Numeric acosh() {
+        if (content.compareTo(BigDecimal.ONE) < 0) {
+            return super.acosh();
+        }
+        // ln(x + √(x^2 - 1))
+        final MathContext mc = mc();
+        final BigDecimal root = BigMath.sqrt(content.multiply(content, mc).subtract(BigDecimal.ONE, mc), mc);
+        return fromRad(BigMath.ln(content.add(root, mc), mc), mc);
+    }
+
+    @Nonnull
+    public Numeric atanh() {
+        if (content.abs().compareTo(BigDecimal.ONE) >= 0) {
+            return super.atanh();
+        }
+        // ln((1 + x) / (1 - x)) / 2
+        final MathContext mc = mc();
+        final BigDecimal ratio = BigDecimal.ONE.add(content).divide(BigDecimal.ONE.subtract(content), mc);
+        return fromRad(BigMath.ln(ratio, mc).divide(BigDecimal.valueOf(2), mc), mc);
+    }
+
+    @Nonnull
+    public Numeric acoth() {
+        if (content.abs().compareTo(BigDecimal.ONE) <= 0) {
+            return super.acoth();
+        }
+        // ln((x + 1) / (x - 1)) / 2
+        final MathContext mc = mc();
+        final BigDecimal ratio = content.add(BigDecimal.ONE).divide(content.subtract(BigDecimal.ONE), mc);
+        return fromRad(BigMath.ln(ratio, mc).divide(BigDecimal.valueOf(2), mc), mc);
+    }
+
+    @Nonnull
+    public Numeric valueOf(@Nonnull Numeric numeric) {
+        if (numeric instanceof BigReal) {
+            return numeric;
+        } else if (numeric instanceof Real) {
+            return valueOf(numeric.doubleValue());
+        } else {
+            throw new ArithmeticException();
+        }
+    }
+
+    public int compareTo(@Nonnull BigReal that) {
+        return content.compareTo(that.content);
+    }
+
+    public int compareTo(Numeric numeric) {
+        if (numeric instanceof BigReal) {
+            return compareTo((BigReal) numeric);
+        } else if (numeric instanceof Real) {
+            return isFinite((Real) numeric) ? compareTo(valueOf(numeric.doubleValue())) : toReal().compareTo(numeric);
+        } else {
+            return numeric.valueOf(this).compareTo(numeric);
+        }
+    }
+
+    @Nonnull
+    public Real toReal() {
+        return Real.valueOf(content.doubleValue());
+    }
+
+    @Nonnull
+    public Complex toComplex() {
+        return Complex.valueOf(content.doubleValue(), 0.);
+    }
+
+    @Override
+    public BigInteger toBigInteger() {
+        if (content.signum() == 0) {
+            return BigInteger.ZERO;
+        }
+        final BigDecimal stripped = content.stripTrailingZeros();
+        return stripped.scale() <= 0 ? stripped.toBigIntegerExact() : null;
+    }
+
+    @Override
+    public double doubleValue() {
+        return content.doubleValue();
+    }
+
+    public String toString() {
+        final JsclMathEngine engine = JsclMathEngine.getInstance();
+        final MathSettings settings = engine.getSettings();
+        if (settings.getNumeralBase() != NumeralBase.dec) {
+            return toString(doubleValue());
+        }
+        final BigDecimal value = content.round(new MathContext(digits())).stripTrailingZeros();
+        if (value.signum() == 0) {
+            return "0";
+        }
+        final String abs = format(value.abs(), settings.getNotation(), engine);
+        return value.signum() < 0 ? "-" + abs : abs;
+    }
+
+    @Nonnull
+    private static String format(@Nonnull BigDecimal value, int notation, @Nonnull JsclMathEngine engine) {
+        // value = d.ddd * 10^exponent
+        final int exponent = value.precision() - value.scale() - 1;
+        final int magnitude = NumberFormatter.DEFAULT_MAGNITUDE;
+        final boolean simple;
+        if (notation == FSE_SCI || notation == FSE_ENG) {
+            simple = -magnitude <= exponent && exponent < magnitude;
+        } else {
+            simple = -magnitude <= exponent && exponent < Math.max(magnitude, digits());
+        }
+        if (simple) {
+            return engine.format(value.toPlainString(), NumeralBase.dec);
+        }
+        int e = exponent;
+        if (notation == FSE_ENG) {
+            e = exponent - ((exponent % 3) + 3) % 3;
+        }
+        final String mantissa = value.scaleByPowerOfTen(-e).toPlainString();
+        return engine.format(mantissa, NumeralBase.dec) + "E" + e;
+    }
+}
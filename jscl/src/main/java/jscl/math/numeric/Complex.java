@@ -42,7 +42,7 @@ public final class Complex extends Numeric {
     public Numeric add(@Nonnull Numeric that) {
         if (that instanceof Complex) {
             return add((Complex) that);
-        } else if (that instanceof Real) {
+        } else if (that instanceof Real || that instanceof BigReal) {
             return add(valueOf(that));
         } else {
             return that.valueOf(this).add(that);
@@ -57,7 +57,7 @@ public final class Complex extends Numeric {
     public Numeric subtract(@Nonnull Numeric that) {
         if (that instanceof Complex) {
             return subtract((Complex) that);
-        } else if (that instanceof Real) {
+        } else if (that instanceof Real || that instanceof BigReal) {
             return subtract(valueOf(that));
         } else {
             return that.valueOf(this).subtract(that);
@@ -72,7 +72,7 @@ public final class Complex extends Numeric {
     public Numeric multiply(@Nonnull Numeric that) {
         if (that instanceof Complex) {
             return multiply((Complex) that);
-        } else if (that instanceof Real) {
+        } else if (that instanceof Real || that instanceof BigReal) {
             return multiply(valueOf(that));
         } else {
             return that.multiply(this);
@@ -87,7 +87,7 @@ public final class Complex extends Numeric {
     public Numeric divide(@Nonnull Numeric that) throws NotDivisibleException {
         if (that instanceof Complex) {
             return divide((Complex) that);
-        } else if (that instanceof Real) {
+        } else if (that instanceof Real || that instanceof BigReal) {
             return divide(valueOf(that));
         } else {
             return that.valueOf(this).divide(that);
@@ -201,7 +201,7 @@ public final class Complex extends Numeric {
     public int compareTo(Numeric that) {
         if (that instanceof Complex) {
             return compareTo((Complex) that);
-        } else if (that instanceof Real) {
+        } else if (that instanceof Real || that instanceof BigReal) {
             return compareTo(valueOf(that));
         } else {
             return that.valueOf(this).compareTo(that);
@@ -224,6 +224,8 @@ public final class Complex extends Numeric {
         } else if (numeric instanceof Real) {
             Real d = (Real) numeric;
             return d.toComplex();
+        } else if (numeric instanceof BigReal) {
+            return ((BigReal) numeric).toComplex();
         } else throw new ArithmeticException();
     }
 
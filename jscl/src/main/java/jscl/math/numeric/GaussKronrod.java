@@ -0,0 +1,260 @@
+package jscl.math.numeric;
+
+import jscl.math.compiler.DoubleExpression;
+import jscl.text.ParserUtils;
+
+import javax.annotation.Nonnull;
+import java.util.PriorityQueue;
+
+/**
+ * Adaptive numeric integration based on 7-point Gauss and 15-point Kronrod rules (G7-K15, see QUADPACK's QAG). On each
+ * step the segment with the biggest error estimate is bisected until the total error estimate is small enough or the
+ * maximum number of segments is reached. Infinite bounds are supported through a change of variable.
+ */
+public final class GaussKronrod {
+
+    static final int MAX_SEGMENTS = 500;
+    static final double RELATIVE_TOLERANCE = 1e-12;
+    static final double ABSOLUTE_TOLERANCE = 1e-14;
+
+    // abscissae of 15-point Kronrod rule, xgk[1], xgk[3], ... are abscissae of 7-point Gauss rule
+    private static final double[] xgk = {
+            0.991455371120812639206854697526329,
+            0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926,
+            0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013,
+            0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245,
+            0.000000000000000000000000000000000
+    };
+    // weights of 15-point Kronrod rule
+    private static final double[] wgk = {
+            0.022935322010529224963732008058970,
+            0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518,
+            0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550,
+            0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649,
+            0.209482141084727828012999174891714
+    };
+    // weights of 7-point Gauss rule
+    private static final double[] wg = {
+            0.129484966168869693270611432679082,
+            0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975,
+            0.417959183673469387755102040816327
+    };
+
+    private static final double EPSILON = Math.ulp(1d);
+
+    @Nonnull
+    private final DoubleExpression function;
+    @Nonnull
+    private final double[] arguments = new double[1];
+    @Nonnull
+    private final double[] values1 = new double[7];
+    @Nonnull
+    private final double[] values2 = new double[7];
+    // change of variable for infinite bounds
+    private final Mapping mapping;
+    private final double bound;
+
+    private GaussKronrod(@Nonnull DoubleExpression function, @Nonnull Mapping mapping, double bound) {
+        this.function = function;
+        this.mapping = mapping;
+        this.bound = bound;
+    }
+
+    /**
+     * @param function function of one argument
+     * @param a        lower bound, might be infinite
+     * @param b        upper bound, might be infinite
+     * @return value of the integral of <var>function</var> from <var>a</var> to <var>b</var> and its error estimate
+     * @throws ArithmeticException if the function is undefined (i.e. NaN) in some point of the interval
+     */
+    @Nonnull
+    public static Result integrate(@Nonnull DoubleExpression function, double a, double b) throws ArithmeticException {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            throw new ArithmeticException("Bounds of integration are undefined");
+        }
+        if (a == b) {
+            return new Result(0d, 0d, true);
+        }
+        if (a > b) {
+            final Result result = integrate(function, b, a);
+            return new Result(-result.value, result.error, result.accurate);
+        }
+
+        if (Double.isInfinite(a) && Double.isInfinite(b)) {
+            // x = t / (1 - t^2), t in (-1, 1)
+            return new GaussKronrod(function, Mapping.both, 0d).integrate(-1d, 1d);
+        } else if (Double.isInfinite(b)) {
+            // x = a + t / (1 - t), t in [0, 1)
+            return new GaussKronrod(function, Mapping.upper, a).integrate(0d, 1d);
+        } else if (Double.isInfinite(a)) {
+            // x = b - t / (1 - t), t in [0, 1)
+            return new GaussKronrod(function, Mapping.lower, b).integrate(0d, 1d);
+        } else {
+            return new GaussKronrod(function, Mapping.none, 0d).integrate(a, b);
+        }
+    }
+
+    @Nonnull
+    private Result integrate(double a, double b) {
+        final PriorityQueue<Segment> segments = new PriorityQueue<Segment>();
+        final Segment first = evaluate(a, b);
+        segments.add(first);
+
+        double value = first.value;
+        double error = first.error;
+        while (error > tolerance(value) && segments.size() < MAX_SEGMENTS) {
+            ParserUtils.checkInterruption();
+
+            final Segment worst = segments.poll();
+            final double middle = 0.5 * (worst.a + worst.b);
+            if (middle <= worst.a || middle >= worst.b) {
+                // segment can't be divided anymore
+                segments.add(worst);
+                break;
+            }
+            final Segment left = evaluate(worst.a, middle);
+            final Segment right = evaluate(middle, worst.b);
+            segments.add(left);
+            segments.add(right);
+
+            value += left.value + right.value - worst.value;
+            error += left.error + right.error - worst.error;
+        }
+
+        // sum up once more to avoid accumulated rounding errors
+        value = 0d;
+        error = 0d;
+        for (Segment segment : segments) {
+            value += segment.value;
+            error += segment.error;
+        }
+        return new Result(value, error, error <= tolerance(value));
+    }
+
+    private static double tolerance(double value) {
+        return Math.max(ABSOLUTE_TOLERANCE, RELATIVE_TOLERANCE * Math.abs(value));
+    }
+
+    @Nonnull
+    private Segment evaluate(double a, double b) {
+        final double center = 0.5 * (a + b);
+        final double halfLength = 0.5 * (b - a);
+
+        final double fc = f(center);
+        double resultGauss = fc * wg[3];
+        double resultKronrod = fc * wgk[7];
+        double resultAbs = Math.abs(resultKronrod);
+
+        for (int j = 0; j < 7; j++) {
+            final double abscissa = halfLength * xgk[j];
+            final double f1 = f(center - abscissa);
+            final double f2 = f(center + abscissa);
+            values1[j] = f1;
+            values2[j] = f2;
+            resultKronrod += wgk[j] * (f1 + f2);
+            resultAbs += wgk[j] * (Math.abs(f1) + Math.abs(f2));
+            if (j % 2 == 1) {
+                resultGauss += wg[j / 2] * (f1 + f2);
+            }
+        }
+
+        final double mean = resultKronrod * 0.5;
+        double resultAsc = wgk[7] * Math.abs(fc - mean);
+        for (int j = 0; j < 7; j++) {
+            resultAsc += wgk[j] * (Math.abs(values1[j] - mean) + Math.abs(values2[j] - mean));
+        }
+
+        final double value = resultKronrod * halfLength;
+        resultAbs *= halfLength;
+        resultAsc *= halfLength;
+
+        // error estimate as in QUADPACK
+        double error = Math.abs((resultKronrod - resultGauss) * halfLength);
+        if (resultAsc != 0d && error != 0d) {
+            error = resultAsc * Math.min(1d, Math.pow(200d * error / resultAsc, 1.5));
+        }
+        if (resultAbs > Double.MIN_NORMAL / (50d * EPSILON)) {
+            error = Math.max(50d * EPSILON * resultAbs, error);
+        }
+        return new Segment(a, b, value, error);
+    }
+
+    private double f(double t) {
+        final double x;
+        final double weight;
+        switch (mapping) {
+            case both:
+                final double d = 1d / (1d - t * t);
+                x = t * d;
+                weight = (1d + t * t) * d * d;
+                break;
+            case upper:
+                final double u = 1d / (1d - t);
+                x = bound + t * u;
+                weight = u * u;
+                break;
+            case lower:
+                final double l = 1d / (1d - t);
+                x = bound - t * l;
+                weight = l * l;
+                break;
+            default:
+                x = t;
+                weight = 1d;
+                break;
+        }
+        arguments[0] = x;
+        final double value = function.evaluate(arguments);
+        if (Double.isNaN(value)) {
+            throw new ArithmeticException("Function is undefined for x = " + x);
+        }
+        return weight == 1d ? value : value * weight;
+    }
+
+    private enum Mapping {
+        none,
+        both,
+        upper,
+        lower
+    }
+
+    private static final class Segment implements Comparable<Segment> {
+        private final double a;
+        private final double b;
+        private final double value;
+        private final double error;
+
+        private Segment(double a, double b, double value, double error) {
+            this.a = a;
+            this.b = b;
+            this.value = value;
+            this.error = error;
+        }
+
+        @Override
+        public int compareTo(@Nonnull Segment that) {
+            // the biggest error goes first
+            return Double.compare(that.error, this.error);
+        }
+    }
+
+    public static final class Result {
+        public final double value;
+        public final double error;
+        // true if error is within the tolerance
+        public final boolean accurate;
+
+        private Result(double value, double error, boolean accurate) {
+            this.value = value;
+            this.error = error;
+            this.accurate = accurate;
+        }
+    }
+}
@@ -5,9 +5,16 @@ import jscl.math.NotDoubleException;
 import jscl.util.ArrayComparator;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class Matrix extends Numeric {
 
+    /**
+     * Minimal size of a square matrix for which determinant and inverse are computed via LU decomposition rather than
+     * by cofactor expansion
+     */
+    static final int ELIMINATION_THRESHOLD = 4;
+
     @Nonnull
     private final Numeric m[][];
 
@@ -205,13 +212,24 @@ public class Matrix extends Numeric {
 
     @Nonnull
     public Numeric inverse() {
+        if (rows >= ELIMINATION_THRESHOLD) {
+            final Numeric result = luInverse();
+            if (result != null) {
+                return result;
+            }
+        }
+        return cofactorInverse();
+    }
+
+    @Nonnull
+    Numeric cofactorInverse() {
         Matrix m = newInstance();
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < rows; j++) {
                 m.m[i][j] = inverseElement(i, j);
             }
         }
-        return m.transpose().divide(determinant());
+        return m.transpose().divide(cofactorDeterminant());
     }
 
     Numeric inverseElement(int k, int l) {
@@ -227,10 +245,17 @@ public class Matrix extends Numeric {
             }
         }
 
-        return result.determinant();
+        return result.cofactorDeterminant();
     }
 
     public Numeric determinant() {
+        if (rows >= ELIMINATION_THRESHOLD) {
+            return luDeterminant();
+        }
+        return cofactorDeterminant();
+    }
+
+    Numeric cofactorDeterminant() {
         if (rows > 1) {
             Numeric a = Real.ZERO;
             for (int i = 0; i < rows; i++) {
@@ -240,9 +265,9 @@ public class Matrix extends Numeric {
                         for (int k = 0; k < rows - 1; k++) m.m[j][k] = this.m[j < i ? j : j + 1][k + 1];
                     }
                     if (i % 2 == 0) {
-                        a = a.add(this.m[i][0].multiply(m.determinant()));
+                        a = a.add(this.m[i][0].multiply(m.cofactorDeterminant()));
                     } else {
-                        a = a.subtract(this.m[i][0].multiply(m.determinant()));
+                        a = a.subtract(this.m[i][0].multiply(m.cofactorDeterminant()));
                     }
                 }
             }
@@ -251,6 +276,127 @@ public class Matrix extends Numeric {
         else return Real.ZERO;
     }
 
+    @Nonnull
+    private Numeric luDeterminant() {
+        final Numeric lu[][] = copyOf(m);
+        final int permutation[] = new int[rows];
+        final int swaps = decompose(lu, permutation);
+        if (swaps < 0) {
+            return Real.ZERO;
+        }
+        Numeric result = lu[0][0];
+        for (int i = 1; i < rows; i++) {
+            result = result.multiply(lu[i][i]);
+        }
+        return swaps % 2 == 0 ? result : result.negate();
+    }
+
+    /**
+     * @return inverse matrix computed from LU decomposition or null if matrix is singular
+     */
+    @Nullable
+    private Numeric luInverse() {
+        final Numeric lu[][] = copyOf(m);
+        final int permutation[] = new int[rows];
+        if (decompose(lu, permutation) < 0) {
+            return null;
+        }
+
+        final Matrix result = newInstance();
+        final Numeric x[] = new Numeric[rows];
+        for (int column = 0; column < rows; column++) {
+            // forward substitution: L * y = P * e(column), L has unit diagonal
+            for (int i = 0; i < rows; i++) {
+                Numeric sum = permutation[i] == column ? Real.ONE : Real.ZERO;
+                for (int k = 0; k < i; k++) {
+                    sum = sum.subtract(lu[i][k].multiply(x[k]));
+                }
+                x[i] = sum;
+            }
+            // back substitution: U * x = y
+            for (int i = rows - 1; i >= 0; i--) {
+                Numeric sum = x[i];
+                for (int k = i + 1; k < rows; k++) {
+                    sum = sum.subtract(lu[i][k].multiply(x[k]));
+                }
+                x[i] = sum.divide(lu[i][i]);
+            }
+            for (int i = 0; i < rows; i++) {
+                result.m[i][column] = x[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * In-place Doolittle LU decomposition with partial pivoting: after the call lower triangle of <var>a</var> (without
+     * diagonal) contains L and upper triangle contains U such that P * A = L * U.
+     *
+     * @param a           square matrix to be decomposed
+     * @param permutation row permutation P: i-th row of P * A is permutation[i]-th row of A
+     * @return number of row swaps or -1 if matrix is singular
+     */
+    private static int decompose(@Nonnull Numeric a[][], @Nonnull int permutation[]) {
+        final int n = a.length;
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+
+        int swaps = 0;
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            double max = magnitude(a[k][k]);
+            for (int i = k + 1; i < n; i++) {
+                final double magnitude = magnitude(a[i][k]);
+                if (magnitude > max) {
+                    max = magnitude;
+                    pivot = i;
+                }
+            }
+            if (max == 0d) {
+                return -1;
+            }
+            if (pivot != k) {
+                final Numeric row[] = a[k];
+                a[k] = a[pivot];
+                a[pivot] = row;
+                final int index = permutation[k];
+                permutation[k] = permutation[pivot];
+                permutation[pivot] = index;
+                swaps++;
+            }
+            for (int i = k + 1; i < n; i++) {
+                final Numeric factor = a[i][k].divide(a[k][k]);
+                a[i][k] = factor;
+                if (factor.signum() != 0) {
+                    for (int j = k + 1; j < n; j++) {
+                        a[i][j] = a[i][j].subtract(factor.multiply(a[k][j]));
+                    }
+                }
+            }
+        }
+        return swaps;
+    }
+
+    private static double magnitude(@Nonnull Numeric numeric) {
+        if (numeric instanceof Real) {
+            return Math.abs(numeric.doubleValue());
+        } else if (numeric instanceof Complex) {
+            return ((Complex) numeric).magnitude();
+        } else {
+            return numeric.abs().doubleValue();
+        }
+    }
+
+    @Nonnull
+    private static Numeric[][] copyOf(@Nonnull Numeric m[][]) {
+        final Numeric result[][] = new Numeric[m.length][];
+        for (int i = 0; i < m.length; i++) {
+            result[i] = m[i].clone();
+        }
+        return result;
+    }
+
     @Nonnull
     public Numeric ln() {
         throw new ArithmeticException();
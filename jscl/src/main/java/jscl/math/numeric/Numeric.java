@@ -19,7 +19,7 @@ public abstract class Numeric implements Arithmetic<Numeric>, INumeric<Numeric>,
      }*/
 
     public static Numeric root(int subscript, Numeric parameter[]) {
-        throw new ArithmeticException();
+        return PolynomialRoots.root(subscript, parameter);
     }
 
     protected static double defaultToRad(double value) {
@@ -61,13 +61,19 @@ public abstract class Numeric implements Arithmetic<Numeric>, INumeric<Numeric>,
     @Override
     @Nonnull
     public Numeric pow(int exponent) {
-        Numeric result = ONE;
-
-        for (int i = 0; i < exponent; i++) {
-            result = result.multiply(this);
+        // exponentiation by squaring: O(log(exponent)) multiplications
+        Numeric result = null;
+        Numeric square = this;
+        for (int e = exponent; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result = result == null ? square : result.multiply(square);
+            }
+            if (e > 1) {
+                square = square.multiply(square);
+            }
         }
 
-        return result;
+        return result == null ? ONE : result;
     }
 
     /*
@@ -0,0 +1,478 @@
+package jscl.math.numeric;
+
+import jscl.text.ParserUtils;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Numeric roots of polynomials with real or complex coefficients. All roots are found simultaneously by the
+ * Aberth-Ehrlich iteration (a Newton step corrected by the "repulsion" of the other approximations) starting from
+ * points on circles whose radii are taken from the Newton polygon of the coefficients (see D. A. Bini, "Numerical
+ * computation of polynomial zeros by means of Aberth's method", 1996) and polished by Newton's method afterwards.
+ * <p/>
+ * Roots are ordered by real part and then by imaginary part, both descending: for quadratic equations this is the
+ * order of the symbolic solutions of {@link jscl.math.function.Root}. Root sets of the last solved polynomials are
+ * cached so evaluating all roots of one polynomial one by one solves it only once.
+ */
+public final class PolynomialRoots {
+
+    static final int MAX_ITERATIONS = 500;
+    static final int MAX_POLISHING_STEPS = 3;
+    static final int CACHE_SIZE = 16;
+
+    private static final double EPSILON = Math.ulp(1d);
+    // rotation of the initial approximations, breaks the symmetry of the problem (see Bini)
+    private static final double SIGMA = 0.7;
+
+    @Nonnull
+    private static final Map<Coefficients, double[][]> cache = new LinkedHashMap<Coefficients, double[][]>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Coefficients, double[][]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final int degree;
+    // coefficients, lowest degree first, a[0] != 0 and a[degree] != 0
+    @Nonnull
+    private final double[] re;
+    @Nonnull
+    private final double[] im;
+    @Nonnull
+    private final double[] abs;
+    // approximations of the roots
+    @Nonnull
+    private final double[] zr;
+    @Nonnull
+    private final double[] zi;
+
+    // p'(z) / p(z) and relative residual |p(z)| / s(|z|) computed by the last call of evaluate()
+    private double qr;
+    private double qi;
+    private double residual;
+
+    private PolynomialRoots(@Nonnull double[] re, @Nonnull double[] im) {
+        this.degree = re.length - 1;
+        this.re = re;
+        this.im = im;
+        this.abs = new double[re.length];
+        for (int k = 0; k < re.length; k++) {
+            abs[k] = Math.hypot(re[k], im[k]);
+        }
+        this.zr = new double[degree];
+        this.zi = new double[degree];
+    }
+
+    /**
+     * @param subscript  index of the root in the ordered root set
+     * @param parameters coefficients of the polynomial, lowest degree first
+     * @return root of the polynomial with given index
+     * @throws ArithmeticException if coefficients are not real or complex numbers, if the polynomial is constant or if
+     *                             the subscript is out of range
+     */
+    @Nonnull
+    public static Numeric root(int subscript, @Nonnull Numeric[] parameters) throws ArithmeticException {
+        final double[] re = new double[parameters.length];
+        final double[] im = new double[parameters.length];
+        for (int k = 0; k < parameters.length; k++) {
+            final Numeric parameter = parameters[k];
+            if (parameter instanceof Complex) {
+                re[k] = ((Complex) parameter).realPart();
+                im[k] = ((Complex) parameter).imaginaryPart();
+            } else {
+                re[k] = parameter.doubleValue();
+            }
+        }
+
+        final double[][] roots = roots(re, im);
+        if (subscript < 0 || subscript >= roots[0].length) {
+            throw new ArithmeticException("Root subscript is out of range: " + subscript);
+        }
+        final double real = roots[0][subscript];
+        final double imaginary = roots[1][subscript];
+        return imaginary == 0d ? Real.valueOf(real) : Complex.valueOf(real, imaginary);
+    }
+
+    /**
+     * Same as {@link #solve(double[], double[])} but the result is taken from the cache if the same polynomial has been
+     * solved recently. Returned arrays must not be modified.
+     */
+    @Nonnull
+    static double[][] roots(@Nonnull double[] re, @Nonnull double[] im) {
+        final Coefficients key = new Coefficients(re, im);
+        synchronized (cache) {
+            final double[][] roots = cache.get(key);
+            if (roots != null) {
+                return roots;
+            }
+        }
+        final double[][] roots = solve(re, im);
+        synchronized (cache) {
+            cache.put(key, roots);
+        }
+        return roots;
+    }
+
+    /**
+     * @param re real parts of the coefficients, lowest degree first
+     * @param im imaginary parts of the coefficients, lowest degree first
+     * @return real (first array) and imaginary (second array) parts of the roots
+     */
+    @Nonnull
+    static double[][] solve(@Nonnull double[] re, @Nonnull double[] im) throws ArithmeticException {
+        for (int k = 0; k < re.length; k++) {
+            if (Double.isNaN(re[k]) || Double.isInfinite(re[k]) || Double.isNaN(im[k]) || Double.isInfinite(im[k])) {
+                throw new ArithmeticException("Coefficients of polynomial must be finite");
+            }
+        }
+
+        int high = re.length - 1;
+        while (high >= 0 && re[high] == 0d && im[high] == 0d) {
+            high--;
+        }
+        if (high <= 0) {
+            throw new ArithmeticException("Polynomial has no roots");
+        }
+        // x^low divides the polynomial => low roots are exactly zero
+        int low = 0;
+        while (re[low] == 0d && im[low] == 0d) {
+            low++;
+        }
+
+        final double[][] roots = new double[2][high];
+        if (low < high) {
+            final PolynomialRoots solver = new PolynomialRoots(Arrays.copyOfRange(re, low, high + 1), Arrays.copyOfRange(im, low, high + 1));
+            solver.solve();
+            System.arraycopy(solver.zr, 0, roots[0], 0, solver.degree);
+            System.arraycopy(solver.zi, 0, roots[1], 0, solver.degree);
+        }
+        sort(roots[0], roots[1]);
+        return roots;
+    }
+
+    private void solve() {
+        if (degree == 1) {
+            // z = -a[0] / a[1]
+            divide(-re[0], -im[0], re[1], im[1]);
+            zr[0] = qr;
+            zi[0] = qi;
+        } else {
+            initialApproximations();
+            iterate();
+            polish();
+            if (isReal()) {
+                makeReal();
+                pairConjugates();
+            }
+        }
+        removeRoundingErrors();
+    }
+
+    /**
+     * Places m initial approximations on the circle of radius u = (|a[i]| / |a[i + m]|)^(1 / m) for each edge (i, i + m)
+     * of the upper convex hull of points (k, log|a[k]|)
+     */
+    private void initialApproximations() {
+        final double[] logs = new double[degree + 1];
+        final int[] hull = new int[degree + 1];
+        int size = 0;
+        for (int k = 0; k <= degree; k++) {
+            if (abs[k] == 0d) {
+                continue;
+            }
+            logs[k] = Math.log(abs[k]);
+            while (size >= 2 && !turnsRight(hull[size - 2], hull[size - 1], k, logs)) {
+                size--;
+            }
+            hull[size++] = k;
+        }
+
+        for (int edge = 0; edge < size - 1; edge++) {
+            final int from = hull[edge];
+            final int m = hull[edge + 1] - from;
+            final double radius = Math.exp((logs[from] - logs[from + m]) / m);
+            for (int j = 0; j < m; j++) {
+                final double angle = 2 * Math.PI * j / m + 2 * Math.PI * from / degree + SIGMA;
+                zr[from + j] = radius * Math.cos(angle);
+                zi[from + j] = radius * Math.sin(angle);
+            }
+        }
+    }
+
+    private static boolean turnsRight(int i, int j, int k, @Nonnull double[] logs) {
+        return (j - i) * (logs[k] - logs[i]) - (logs[j] - logs[i]) * (k - i) < 0d;
+    }
+
+    private void iterate() {
+        final boolean[] converged = new boolean[degree];
+        int remaining = degree;
+        for (int iteration = 0; iteration < MAX_ITERATIONS && remaining > 0; iteration++) {
+            ParserUtils.checkInterruption();
+
+            for (int i = 0; i < degree; i++) {
+                if (converged[i]) {
+                    continue;
+                }
+
+                evaluate(zr[i], zi[i]);
+                if (residual <= EPSILON) {
+                    converged[i] = true;
+                    remaining--;
+                    continue;
+                }
+
+                // s = sum(1 / (z[i] - z[j])), j != i
+                double sr = 0d;
+                double si = 0d;
+                for (int j = 0; j < degree; j++) {
+                    if (j != i) {
+                        final double dr = zr[i] - zr[j];
+                        final double di = zi[i] - zi[j];
+                        final double m = dr * dr + di * di;
+                        if (m != 0d) {
+                            sr += dr / m;
+                            si -= di / m;
+                        }
+                    }
+                }
+
+                // z[i] = z[i] - 1 / (p'(z[i]) / p(z[i]) - s)
+                final double vr = qr - sr;
+                final double vi = qi - si;
+                final double m = vr * vr + vi * vi;
+                if (m != 0d && !Double.isInfinite(m)) {
+                    zr[i] -= vr / m;
+                    zi[i] += vi / m;
+                }
+            }
+        }
+    }
+
+    private void polish() {
+        for (int i = 0; i < degree; i++) {
+            final double distance = distanceToNearest(i);
+            for (int step = 0; step < MAX_POLISHING_STEPS; step++) {
+                evaluate(zr[i], zi[i]);
+                final double previous = residual;
+                final double m = qr * qr + qi * qi;
+                if (previous == 0d || m == 0d) {
+                    break;
+                }
+                // Newton step: z = z - p(z) / p'(z), should not jump to another root
+                final double nr = zr[i] - qr / m;
+                final double ni = zi[i] + qi / m;
+                if (Math.hypot(nr - zr[i], ni - zi[i]) >= distance / 2) {
+                    break;
+                }
+                evaluate(nr, ni);
+                if (residual >= previous) {
+                    break;
+                }
+                zr[i] = nr;
+                zi[i] = ni;
+            }
+        }
+    }
+
+    private double distanceToNearest(int i) {
+        double result = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < degree; j++) {
+            if (j != i) {
+                result = Math.min(result, Math.hypot(zr[i] - zr[j], zi[i] - zi[j]));
+            }
+        }
+        return result;
+    }
+
+    private boolean isReal() {
+        for (double value : im) {
+            if (value != 0d) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Roots of a polynomial with real coefficients which are real within rounding errors become exactly real
+     */
+    private void makeReal() {
+        for (int i = 0; i < degree; i++) {
+            if (zi[i] != 0d) {
+                evaluate(zr[i], 0d);
+                if (residual <= EPSILON) {
+                    zi[i] = 0d;
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-real roots of a polynomial with real coefficients come in conjugate pairs: make them exactly conjugate
+     */
+    private void pairConjugates() {
+        final boolean[] paired = new boolean[degree];
+        for (int i = 0; i < degree; i++) {
+            if (zi[i] <= 0d || paired[i]) {
+                continue;
+            }
+            int conjugate = -1;
+            double distance = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < degree; j++) {
+                if (zi[j] < 0d && !paired[j]) {
+                    final double d = Math.hypot(zr[i] - zr[j], zi[i] + zi[j]);
+                    if (d < distance) {
+                        distance = d;
+                        conjugate = j;
+                    }
+                }
+            }
+            if (conjugate < 0) {
+                return;
+            }
+            paired[i] = true;
+            paired[conjugate] = true;
+            final double real = (zr[i] + zr[conjugate]) / 2;
+            final double imaginary = (zi[i] - zi[conjugate]) / 2;
+            zr[i] = real;
+            zi[i] = imaginary;
+            zr[conjugate] = real;
+            zi[conjugate] = -imaginary;
+        }
+    }
+
+    /**
+     * Parts of the roots which are smaller than the rounding errors of the roots themselves are set to zero, e.g. roots
+     * of x^2 + 1 are exactly i and -i
+     */
+    private void removeRoundingErrors() {
+        final double tolerance = 8 * degree * EPSILON;
+        for (int i = 0; i < degree; i++) {
+            final double modulus = Math.hypot(zr[i], zi[i]);
+            if (Math.abs(zr[i]) <= tolerance * modulus) {
+                zr[i] = 0d;
+            }
+            if (Math.abs(zi[i]) <= tolerance * modulus) {
+                zi[i] = 0d;
+            }
+        }
+    }
+
+    /**
+     * Computes p'(z) / p(z) and the relative residual |p(z)| / s(|z|) where s(x) = sum((4k + 1) |a[k]| x^k) is the
+     * bound of rounding errors of Horner's scheme (z is a root within rounding errors if the residual is less than the
+     * machine epsilon). If |z| > 1 the reversed polynomial x^n p(1 / x) is evaluated in 1 / z to avoid overflows.
+     */
+    private void evaluate(double x, double y) {
+        final double modulus = Math.hypot(x, y);
+        double pr;
+        double pi;
+        double dr = 0d;
+        double di = 0d;
+        double s;
+        if (modulus <= 1d) {
+            pr = re[degree];
+            pi = im[degree];
+            s = (4 * degree + 1) * abs[degree];
+            for (int k = degree - 1; k >= 0; k--) {
+                final double tr = dr * x - di * y + pr;
+                di = dr * y + di * x + pi;
+                dr = tr;
+                final double ur = pr * x - pi * y + re[k];
+                pi = pr * y + pi * x + im[k];
+                pr = ur;
+                s = s * modulus + (4 * k + 1) * abs[k];
+            }
+            residual = Math.hypot(pr, pi) / s;
+            if (residual != 0d) {
+                divide(dr, di, pr, pi);
+            }
+        } else {
+            // w = 1 / z
+            final double m = x * x + y * y;
+            final double wr = x / m;
+            final double wi = -y / m;
+            final double wm = 1d / modulus;
+            pr = re[0];
+            pi = im[0];
+            s = (4 * degree + 1) * abs[0];
+            for (int k = 1; k <= degree; k++) {
+                final double tr = dr * wr - di * wi + pr;
+                di = dr * wi + di * wr + pi;
+                dr = tr;
+                final double ur = pr * wr - pi * wi + re[k];
+                pi = pr * wi + pi * wr + im[k];
+                pr = ur;
+                s = s * wm + (4 * (degree - k) + 1) * abs[k];
+            }
+            residual = Math.hypot(pr, pi) / s;
+            if (residual != 0d) {
+                // p'(z) / p(z) = w (n - w r'(w) / r(w)) where r is the reversed polynomial
+                divide(dr, di, pr, pi);
+                final double tr = degree - (wr * qr - wi * qi);
+                final double ti = -(wr * qi + wi * qr);
+                qr = wr * tr - wi * ti;
+                qi = wr * ti + wi * tr;
+            }
+        }
+    }
+
+    /**
+     * Smith's algorithm: q = a / b
+     */
+    private void divide(double ar, double ai, double br, double bi) {
+        if (Math.abs(br) >= Math.abs(bi)) {
+            final double r = bi / br;
+            final double d = br + bi * r;
+            qr = (ar + ai * r) / d;
+            qi = (ai - ar * r) / d;
+        } else {
+            final double r = br / bi;
+            final double d = bi + br * r;
+            qr = (ar * r + ai) / d;
+            qi = (ai * r - ar) / d;
+        }
+    }
+
+    private static void sort(@Nonnull double[] zr, @Nonnull double[] zi) {
+        for (int i = 1; i < zr.length; i++) {
+            final double real = zr[i];
+            final double imaginary = zi[i];
+            int j = i - 1;
+            while (j >= 0 && (zr[j] < real || (zr[j] == real && zi[j] < imaginary))) {
+                zr[j + 1] = zr[j];
+                zi[j + 1] = zi[j];
+                j--;
+            }
+            zr[j + 1] = real;
+            zi[j + 1] = imaginary;
+        }
+    }
+
+    private static final class Coefficients {
+
+        @Nonnull
+        private final double[] values;
+        private final int hashCode;
+
+        Coefficients(@Nonnull double[] re, @Nonnull double[] im) {
+            values = new double[2 * re.length];
+            System.arraycopy(re, 0, values, 0, re.length);
+            System.arraycopy(im, 0, values, re.length, im.length);
+            hashCode = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Coefficients && Arrays.equals(values, ((Coefficients) o).values));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
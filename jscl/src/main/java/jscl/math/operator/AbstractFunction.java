@@ -19,7 +19,8 @@ import java.util.Set;
  */
 public abstract class AbstractFunction extends Variable {
 
-    protected static final Generic UNDEFINED_PARAMETER = JsclInteger.valueOf(Long.MIN_VALUE + 1);
+    // percent without the previous sum element is a percent of 1
+    protected static final Generic UNDEFINED_PARAMETER = JsclInteger.ONE;
     private static final String DEFAULT_PARAMETER_NAMES = "xyzabcdefghijklmnopqrstuvw";
     protected Generic parameters[];
 
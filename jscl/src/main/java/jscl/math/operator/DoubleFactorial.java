@@ -37,38 +37,8 @@ public class DoubleFactorial extends PostfixFunction {
     public Generic selfNumeric() {
         final Generic parameter = parameters[0];
         if (parameter.isInteger()) {
-            int n = parameter.integerValue().intValue();
-            if (n < 0) {
-                //return expressionValue();
-                throw new ArithmeticException("Cannot take factorial from negative integer!");
-            }
-
-            Generic result;
-            if (n == 0) {
-                result = JsclInteger.valueOf(1);
-            } else {
-                int i;
-                if (n % 2 != 0) {
-                    // odd
-                    i = 1;
-                } else {
-                    // even
-                    i = 2;
-                }
-
-                result = JsclInteger.valueOf(i);
-                for (; i < n; i += 2) {
-                    ParserUtils.checkInterruption();
-                    result = result.multiply(JsclInteger.valueOf(i + 2));
-                }
-            }
-
-            if (result instanceof JsclInteger) {
-                return new NumericWrapper(((JsclInteger) result));
-            } else {
-                throw NotIntegerException.get();
-            }
-
+            final int n = parameter.integerValue().intValue();
+            return new NumericWrapper(new JsclInteger(Factorials.doubleFactorial(n)));
         } else {
             throw NotIntegerException.get();
         }
@@ -0,0 +1,128 @@
+package jscl.math.operator;
+
+import jscl.text.ParserUtils;
+
+import javax.annotation.Nonnull;
+import java.math.BigInteger;
+
+/**
+ * Factorials of big integers. Instead of multiplying an ever growing product by small numbers one by one, numbers are
+ * multiplied with binary splitting (product tree), so big integers of similar sizes are multiplied and fast
+ * multiplication algorithms of {@link BigInteger} come into play.
+ * <p/>
+ * n! is computed as a product of odd numbers shifted by the power of two ("split recursive" algorithm of P. Luschny):
+ * n! = 2^(n - bitCount(n)) * ∏ (∏ odd numbers from (n >> (i + 1), n >> i])^(i + 1).
+ */
+public final class Factorials {
+
+    // products of the numbers below this size are computed with longs
+    private static final int LEAF_SIZE = 16;
+
+    private Factorials() {
+        throw new AssertionError();
+    }
+
+    @Nonnull
+    public static BigInteger factorial(int n) {
+        checkNotNegative(n);
+        if (n < 2) {
+            return BigInteger.ONE;
+        }
+        final BigInteger odd = oddFactorial(n);
+        return odd.shiftLeft(n - Integer.bitCount(n));
+    }
+
+    /**
+     * @return product of all numbers of the same parity as <var>n</var> which are less or equal to <var>n</var>
+     */
+    @Nonnull
+    public static BigInteger doubleFactorial(int n) {
+        checkNotNegative(n);
+        if (n < 2) {
+            return BigInteger.ONE;
+        }
+        if (n % 2 == 0) {
+            // (2k)!! = 2^k * k!
+            final int k = n / 2;
+            return factorial(k).shiftLeft(k);
+        }
+        return oddProduct(1, n);
+    }
+
+    /**
+     * @return product of all numbers from <var>from</var> to <var>to</var> (both included), 1 if the range is empty
+     */
+    @Nonnull
+    public static BigInteger product(int from, int to) {
+        if (from > to) {
+            return BigInteger.ONE;
+        }
+        if (from <= 0) {
+            throw new ArithmeticException("Only products of positive numbers are supported!");
+        }
+        final int count = to - from + 1;
+        if (count <= LEAF_SIZE) {
+            ParserUtils.checkInterruption();
+            return leafProduct(from, to, 1);
+        }
+        final int middle = from + count / 2 - 1;
+        return product(from, middle).multiply(product(middle + 1, to));
+    }
+
+    private static void checkNotNegative(int n) {
+        if (n < 0) {
+            throw new ArithmeticException("Cannot take factorial from negative integer!");
+        }
+    }
+
+    /**
+     * @return odd part of n!
+     */
+    @Nonnull
+    private static BigInteger oddFactorial(int n) {
+        BigInteger result = BigInteger.ONE;
+        BigInteger product = BigInteger.ONE;
+        for (int shift = 31 - Integer.numberOfLeadingZeros(n); shift >= 0; shift--) {
+            final int from = (n >> (shift + 1)) + 1;
+            final int to = n >> shift;
+            // odd numbers from the range (n >> (shift + 1), n >> shift] are included (shift + 1) times
+            if (from <= to) {
+                product = product.multiply(oddProduct(from % 2 == 0 ? from + 1 : from, to % 2 == 0 ? to - 1 : to));
+            }
+            result = result.multiply(product);
+        }
+        return result;
+    }
+
+    /**
+     * @return product of odd numbers from <var>from</var> to <var>to</var> (both are odd and included)
+     */
+    @Nonnull
+    private static BigInteger oddProduct(int from, int to) {
+        if (from > to) {
+            return BigInteger.ONE;
+        }
+        final int count = (to - from) / 2 + 1;
+        if (count <= LEAF_SIZE) {
+            ParserUtils.checkInterruption();
+            return leafProduct(from, to, 2);
+        }
+        // middle must be odd
+        final int middle = from + 2 * (count / 2) - 2;
+        return oddProduct(from, middle).multiply(oddProduct(middle + 2, to));
+    }
+
+    @Nonnull
+    private static BigInteger leafProduct(int from, int to, int step) {
+        BigInteger result = BigInteger.ONE;
+        long product = 1;
+        for (long i = from; i <= to; i += step) {
+            if (product > Long.MAX_VALUE / i) {
+                result = result.multiply(BigInteger.valueOf(product));
+                product = 1;
+            }
+            product *= i;
+        }
+        return result.multiply(BigInteger.valueOf(product));
+    }
+}
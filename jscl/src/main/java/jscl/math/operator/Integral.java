@@ -4,7 +4,13 @@ import jscl.AngleUnit;
 import jscl.JsclMathEngine;
 import jscl.math.Generic;
 import jscl.math.NotIntegrableException;
+import jscl.math.NumericWrapper;
 import jscl.math.Variable;
+import jscl.math.compiler.DoubleCompiler;
+import jscl.math.compiler.DoubleExpression;
+import jscl.math.numeric.GaussKronrod;
+import jscl.math.numeric.Numeric;
+import jscl.math.numeric.Real;
 import jscl.mathml.MathML;
 import jscl.text.msg.JsclMessage;
 import jscl.text.msg.Messages;
@@ -43,6 +49,34 @@ public class Integral extends Operator {
         return expressionValue();
     }
 
+    @Override
+    public Generic numeric() {
+        final Variable variable = parameters[1].variableValue();
+        try {
+            final Generic a = parameters[0].antiDerivative(variable);
+            return a.substitute(variable, parameters[3]).subtract(a.substitute(variable, parameters[2])).numeric();
+        } catch (NotIntegrableException e) {
+        }
+
+        // no antiderivative => integrate numerically
+        final DoubleExpression function = DoubleCompiler.compile(parameters[0], variable);
+        final GaussKronrod.Result result = GaussKronrod.integrate(function, realValue(parameters[2]), realValue(parameters[3]));
+        final MessageType messageType = result.accurate ? MessageType.info : MessageType.warning;
+        JsclMathEngine.getInstance().getMessageRegistry().addMessage(new JsclMessage(Messages.msg_26, messageType, String.valueOf(result.error)));
+        return new NumericWrapper(Real.valueOf(result.value));
+    }
+
+    private static double realValue(@Nonnull Generic bound) {
+        final Generic numeric = bound.numeric();
+        if (numeric instanceof NumericWrapper) {
+            final Numeric content = ((NumericWrapper) numeric).content();
+            if (content instanceof Real) {
+                return content.doubleValue();
+            }
+        }
+        throw new ArithmeticException("Bound of integration is not a real number: " + bound);
+    }
+
     @Nonnull
     @Override
     protected String formatUndefinedParameter(int i) {
@@ -1,12 +1,19 @@
 package jscl.math.operator;
 
+import jscl.math.Expression;
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
 import jscl.math.NotIntegerException;
+import jscl.math.NumericWrapper;
 import jscl.math.Variable;
+import jscl.math.compiler.DoubleExpression;
+import jscl.math.numeric.Real;
 import jscl.mathml.MathML;
+import jscl.text.ParserUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigInteger;
 
 public class Product extends Operator {
 
@@ -30,16 +37,143 @@ public class Product extends Operator {
         try {
             int n1 = parameters[2].integerValue().intValue();
             int n2 = parameters[3].integerValue().intValue();
-            Generic a = JsclInteger.valueOf(1);
-            for (int i = n1; i <= n2; i++) {
-                a = a.multiply(parameters[0].substitute(variable, JsclInteger.valueOf(i)));
+            final Generic a = expand(variable, n1, n2);
+            if (a != null) {
+                return a;
             }
-            return a;
         } catch (NotIntegerException e) {
         }
         return expressionValue();
     }
 
+    @Override
+    public Generic numeric() {
+        final Variable variable = parameters[1].variableValue();
+        final int n1;
+        final int n2;
+        try {
+            n1 = parameters[2].integerValue().intValue();
+            n2 = parameters[3].integerValue().intValue();
+        } catch (NotIntegerException e) {
+            return super.numeric();
+        }
+
+        final Generic a = expand(variable, n1, n2);
+        if (a != null) {
+            return a.numeric();
+        }
+
+        final DoubleExpression factor = Series.compile(parameters[0], variable);
+        if (factor != null) {
+            final double product = product(factor, n1, n2);
+            if (!Double.isNaN(product)) {
+                return new NumericWrapper(Real.valueOf(product));
+            }
+        }
+
+        // factor can't be evaluated in doubles (e.g. it is complex) => multiply numeric values of the factors
+        Generic product = JsclInteger.valueOf(1).numeric();
+        for (long i = n1; i <= n2; i++) {
+            ParserUtils.checkInterruption();
+            product = product.multiply(parameters[0].substitute(variable, JsclInteger.valueOf(i)).numeric());
+        }
+        return product;
+    }
+
+    /**
+     * @return closed form of the product or the product of all its factors if the range is not too long, null otherwise
+     */
+    @Nullable
+    private Generic expand(@Nonnull Variable variable, int n1, int n2) {
+        final long count = Series.count(n1, n2);
+        if (count > Series.MIN_CLOSED_FORM) {
+            final Generic a = closedForm(parameters[0], variable, n1, n2);
+            if (a != null) {
+                return a;
+            }
+        }
+        if (count > Series.MAX_EXPANSION) {
+            return null;
+        }
+
+        Generic a = JsclInteger.valueOf(1);
+        for (int i = n1; i <= n2; i++) {
+            a = a.multiply(parameters[0].substitute(variable, JsclInteger.valueOf(i)));
+            if (a instanceof Expression && ((Expression) a).size() > Series.MAX_TERMS) {
+                // expanded product grows too fast
+                return null;
+            }
+        }
+        return a;
+    }
+
+    @Nullable
+    private static Generic closedForm(@Nonnull Generic factor, @Nonnull Variable variable, int n1, int n2) {
+        final long count = Series.count(n1, n2);
+        final int degree = Series.degree(factor, variable);
+        if (degree == 0) {
+            // c^n
+            if (factor instanceof JsclInteger && ((JsclInteger) factor).content().bitLength() * count > Series.MAX_BITS) {
+                return null;
+            }
+            return Series.power(factor, count);
+        } else if (degree == 1) {
+            // (a * i + b) = a * (i + k) if b = a * k
+            try {
+                final JsclInteger b = factor.substitute(variable, JsclInteger.valueOf(0)).integerValue();
+                final JsclInteger a = factor.substitute(variable, JsclInteger.valueOf(1)).integerValue().subtract(b);
+                final BigInteger[] k = b.content().divideAndRemainder(a.content());
+                if (k[1].signum() != 0 || k[0].bitLength() > 30) {
+                    return null;
+                }
+                final Generic product = shiftedFactorial(n1 + k[0].longValue(), n2 + k[0].longValue());
+                if (product == null || a.content().bitLength() * count > Series.MAX_BITS) {
+                    return null;
+                }
+                return Series.power(a, count).multiply(product);
+            } catch (NotIntegerException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return from * (from + 1) * ... * to
+     */
+    @Nullable
+    private static Generic shiftedFactorial(long from, long to) {
+        if (from <= 0 && to >= 0) {
+            return JsclInteger.valueOf(0);
+        }
+        if (to < 0) {
+            // (-1)^n * |to| * ... * |from|
+            final Generic product = shiftedFactorial(-to, -from);
+            return product == null || (to - from) % 2 == 1 ? product : product.negate();
+        }
+        // bit length of the product is at most n * log2(to)
+        if (to > Integer.MAX_VALUE || (to - from + 1) * (64 - Long.numberOfLeadingZeros(to)) > Series.MAX_BITS) {
+            return null;
+        }
+        return new JsclInteger(Factorials.product((int) from, (int) to));
+    }
+
+    /**
+     * Multiplies the factors in doubles
+     */
+    private static double product(@Nonnull DoubleExpression factor, int from, int to) {
+        final double[] arguments = new double[1];
+        double product = 1d;
+        for (long i = from; i <= to; i++) {
+            if ((i - from) % Series.CHUNK_SIZE == 0) {
+                ParserUtils.checkInterruption();
+            }
+            arguments[0] = i;
+            product *= factor.evaluate(arguments);
+        }
+        return product;
+    }
+
     @Nonnull
     @Override
     protected String formatUndefinedParameter(int i) {
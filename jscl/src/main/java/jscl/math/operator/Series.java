@@ -0,0 +1,187 @@
+package jscl.math.operator;
+
+import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import jscl.math.NotIntegerException;
+import jscl.math.NotProductException;
+import jscl.math.NotVariableException;
+import jscl.math.Variable;
+import jscl.math.compiler.DoubleCompiler;
+import jscl.math.compiler.DoubleExpression;
+import jscl.math.compiler.NotCompilableException;
+import jscl.math.function.Exp;
+import jscl.math.function.Inverse;
+import jscl.math.function.Pow;
+import jscl.math.polynomial.Polynomial;
+import jscl.text.ParserUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+
+/**
+ * Common routines of {@link Sum} and {@link Product}
+ */
+final class Series {
+
+    // ranges longer than this are not expanded term by term, numeric evaluation is used instead
+    static final int MAX_EXPANSION = 1000;
+    // products expanded into more terms than this are not expanded
+    static final int MAX_TERMS = 1000;
+    // ranges not longer than this are always expanded term by term
+    static final int MIN_CLOSED_FORM = 16;
+    // closed forms producing integers bigger than this are not computed
+    static final long MAX_BITS = 1 << 22;
+    // interruption is checked once per this number of iterations of numeric evaluation
+    static final int CHUNK_SIZE = 4096;
+
+    private Series() {
+        throw new AssertionError();
+    }
+
+    static long count(int from, int to) {
+        return Math.max(0L, (long) to - from + 1);
+    }
+
+    @Nullable
+    static DoubleExpression compile(@Nonnull Generic expression, @Nonnull Variable variable) {
+        try {
+            return DoubleCompiler.compile(expression, variable);
+        } catch (NotCompilableException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the power by repeated squaring
+     */
+    @Nonnull
+    static Generic power(@Nonnull Generic value, long exponent) {
+        assert exponent >= 0;
+        Generic result = JsclInteger.valueOf(1);
+        Generic square = value;
+        for (long e = exponent; e > 0; e >>= 1) {
+            ParserUtils.checkInterruption();
+            if ((e & 1) != 0) {
+                result = result.multiply(square);
+            }
+            if (e > 1) {
+                square = square.multiply(square);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return degree of <var>expression</var> as a polynomial of <var>variable</var> or -1 if it is not a polynomial
+     */
+    static int degree(@Nonnull Generic expression, @Nonnull Variable variable) {
+        if (!expression.isPolynomial(variable)) {
+            return -1;
+        }
+        return Polynomial.factory(variable).valueOf(expression).degree();
+    }
+
+    /**
+     * Sum of the polynomial over the range is computed from its forward differences (Newton's form of Faulhaber's
+     * formula): ∑ p(from + t), t = 0..n-1 = ∑ Δ^j p(from) * C(n, j + 1), j = 0..degree
+     */
+    @Nonnull
+    static Generic polynomialSum(@Nonnull Generic polynomial, int degree, @Nonnull Variable variable, int from, long count) {
+        final Generic[] differences = new Generic[degree + 1];
+        for (int t = 0; t <= degree; t++) {
+            differences[t] = polynomial.substitute(variable, JsclInteger.valueOf((long) from + t));
+        }
+
+        Generic result = JsclInteger.valueOf(0);
+        BigInteger binomial = BigInteger.ONE;
+        final BigInteger n = BigInteger.valueOf(count);
+        for (int j = 0; j <= degree; j++) {
+            // C(n, j + 1) = C(n, j) * (n - j) / (j + 1)
+            binomial = binomial.multiply(n.subtract(BigInteger.valueOf(j))).divide(BigInteger.valueOf(j + 1));
+            if (binomial.signum() == 0) {
+                break;
+            }
+            result = result.add(differences[0].multiply(new JsclInteger(binomial)));
+            for (int t = 0; t < degree - j; t++) {
+                differences[t] = differences[t + 1].subtract(differences[t]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return q if <var>term</var> is c * q^i where c and q don't depend on <var>variable</var> (i), null otherwise
+     */
+    @Nullable
+    static Generic geometricRatio(@Nonnull Generic term, @Nonnull Variable variable) {
+        final Generic[] factors;
+        try {
+            factors = term.productValue();
+        } catch (NotProductException e) {
+            return null;
+        }
+
+        Generic ratio = null;
+        for (Generic factor : factors) {
+            if (factor.isConstant(variable)) {
+                continue;
+            }
+            if (ratio != null) {
+                // only one exponential factor is supported
+                return null;
+            }
+            ratio = exponentRatio(factor, variable);
+            if (ratio == null) {
+                return null;
+            }
+        }
+        return ratio;
+    }
+
+    @Nullable
+    private static Generic exponentRatio(@Nonnull Generic factor, @Nonnull Variable variable) {
+        final Variable v;
+        try {
+            v = factor.variableValue();
+        } catch (NotVariableException e) {
+            return null;
+        }
+        if (v instanceof Pow) {
+            final Generic base = ((Pow) v).getParameters()[0];
+            final Integer step = linearStep(((Pow) v).getParameters()[1], variable);
+            if (step == null || !base.isConstant(variable)) {
+                return null;
+            }
+            final Generic ratio = power(base, Math.abs(step));
+            return step >= 0 ? ratio : new Inverse(ratio).expressionValue();
+        } else if (v instanceof Exp) {
+            final Integer step = linearStep(((Exp) v).getParameters()[0], variable);
+            if (step == null) {
+                return null;
+            }
+            return new Exp(JsclInteger.valueOf(step)).expressionValue();
+        }
+        return null;
+    }
+
+    /**
+     * @return a if <var>exponent</var> is a * i + b where a is a non-zero integer and b doesn't depend on
+     * <var>variable</var> (i), null otherwise
+     */
+    @Nullable
+    private static Integer linearStep(@Nonnull Generic exponent, @Nonnull Variable variable) {
+        if (degree(exponent, variable) != 1) {
+            return null;
+        }
+        try {
+            final JsclInteger step = exponent.derivative(variable).integerValue();
+            if (step.signum() == 0 || step.content().bitLength() > 30) {
+                return null;
+            }
+            return step.intValue();
+        } catch (NotIntegerException e) {
+            return null;
+        }
+    }
+}
@@ -53,6 +53,18 @@ public class Solve extends Operator {
         return expressionValue();
     }
 
+    @Override
+    public Generic numeric() {
+        final Variable variable = parameters[1].variableValue();
+
+        int subscript = parameters[2].integerValue().intValue();
+        if (parameters[0].isPolynomial(variable)) {
+            return new Root((UnivariatePolynomial) Polynomial.factory(variable).valueOf(parameters[0]), subscript).numeric();
+        }
+
+        return super.numeric();
+    }
+
     // todo serso: think
     /*public String toString() {
              StringBuilder result = new StringBuilder();
@@ -3,10 +3,17 @@ package jscl.math.operator;
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
 import jscl.math.NotIntegerException;
+import jscl.math.NotVariableException;
+import jscl.math.NumericWrapper;
 import jscl.math.Variable;
+import jscl.math.compiler.DoubleExpression;
+import jscl.math.function.Fraction;
+import jscl.math.numeric.Real;
 import jscl.mathml.MathML;
+import jscl.text.ParserUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class Sum extends Operator {
 
@@ -48,18 +55,179 @@ public class Sum extends Operator {
             int from = parameters[2].integerValue().intValue();
             int to = parameters[3].integerValue().intValue();
 
-            Generic result = JsclInteger.ZERO;
-            for (int i = from; i <= to; i++) {
-                result = result.add(parameters[0].substitute(variable, JsclInteger.valueOf(i)));
+            final Generic result = expand(variable, from, to);
+            if (result != null) {
+                return result;
             }
-            return result;
-
         } catch (NotIntegerException e) {
             // ok
         }
         return expressionValue();
     }
 
+    @Override
+    public Generic numeric() {
+        final Variable variable = parameters[1].variableValue();
+        final int from;
+        final int to;
+        try {
+            from = parameters[2].integerValue().intValue();
+            to = parameters[3].integerValue().intValue();
+        } catch (NotIntegerException e) {
+            return super.numeric();
+        }
+
+        final Generic result = expand(variable, from, to);
+        if (result != null) {
+            return result.numeric();
+        }
+
+        final DoubleExpression summand = Series.compile(parameters[0], variable);
+        if (summand != null) {
+            final double sum = sum(summand, from, to);
+            if (!Double.isNaN(sum)) {
+                return new NumericWrapper(Real.valueOf(sum));
+            }
+        }
+
+        // summand can't be evaluated in doubles (e.g. it is complex) => sum numeric values of the terms
+        Generic sum = JsclInteger.valueOf(0).numeric();
+        for (long i = from; i <= to; i++) {
+            ParserUtils.checkInterruption();
+            sum = sum.add(parameters[0].substitute(variable, JsclInteger.valueOf(i)).numeric());
+        }
+        return sum;
+    }
+
+    /**
+     * @return closed form of the sum or the sum of all its terms if the range is not too long, null otherwise
+     */
+    @Nullable
+    private Generic expand(@Nonnull Variable variable, int from, int to) {
+        final long count = Series.count(from, to);
+        if (count > Series.MIN_CLOSED_FORM) {
+            final Generic result = closedForm(parameters[0], variable, from, count);
+            if (result != null) {
+                return result;
+            }
+        }
+        if (count > Series.MAX_EXPANSION) {
+            return null;
+        }
+
+        Generic result = JsclInteger.ZERO;
+        for (int i = from; i <= to; i++) {
+            result = result.add(parameters[0].substitute(variable, JsclInteger.valueOf(i)));
+        }
+        return result;
+    }
+
+    @Nullable
+    private static Generic closedForm(@Nonnull Generic summand, @Nonnull Variable variable, int from, long count) {
+        final int degree = Series.degree(summand, variable);
+        if (degree >= 0) {
+            return Series.polynomialSum(summand, degree, variable, from, count);
+        }
+
+        final Generic[] terms = summand.sumValue();
+        if (terms.length > 1) {
+            Generic result = JsclInteger.valueOf(0);
+            for (Generic term : terms) {
+                final Generic sum = closedForm(term, variable, from, count);
+                if (sum == null) {
+                    return null;
+                }
+                result = result.add(sum);
+            }
+            return result;
+        }
+
+        final Generic ratio = Series.geometricRatio(summand, variable);
+        if (ratio != null) {
+            return geometricSum(summand.substitute(variable, JsclInteger.valueOf(from)), ratio, count);
+        }
+
+        // f(i) / c
+        try {
+            final Variable v = summand.variableValue();
+            if (v instanceof Fraction) {
+                final Generic[] fraction = ((Fraction) v).getParameters();
+                if (fraction[1].isConstant(variable)) {
+                    final Generic numerator = closedForm(fraction[0], variable, from, count);
+                    if (numerator != null) {
+                        return new Fraction(numerator, fraction[1]).expressionValue();
+                    }
+                }
+            }
+        } catch (NotVariableException e) {
+            // ok
+        }
+        return null;
+    }
+
+    /**
+     * @return a + a * q + ... + a * q^(n-1) = a * (q^n - 1) / (q - 1)
+     */
+    @Nullable
+    private static Generic geometricSum(@Nonnull Generic first, @Nonnull Generic ratio, long count) {
+        if (ratio instanceof JsclInteger) {
+            final JsclInteger q = (JsclInteger) ratio;
+            if (q.signum() == 0 || q.content().bitLength() * count > Series.MAX_BITS) {
+                return null;
+            }
+            if (q.compareTo(JsclInteger.valueOf(1)) == 0) {
+                return first.multiply(JsclInteger.valueOf(count));
+            }
+            final Generic powered = Series.power(q, count).subtract(JsclInteger.valueOf(1));
+            return first.multiply(powered.divide(q.subtract(JsclInteger.valueOf(1))));
+        }
+
+        // ratio must be a number not equal to 1, otherwise the formula doesn't apply
+        try {
+            final Generic numeric = ratio.numeric();
+            if (numeric.subtract(JsclInteger.valueOf(1).numeric()).signum() == 0) {
+                return null;
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        final Generic powered = Series.power(ratio, count).subtract(JsclInteger.valueOf(1));
+        return first.multiply(new Fraction(powered, ratio.subtract(JsclInteger.valueOf(1))).expressionValue());
+    }
+
+    /**
+     * Kahan-Babuska (Neumaier) compensated summation
+     *
+     * @return sum of the terms or NaN if some term can't be evaluated in doubles
+     */
+    private static double sum(@Nonnull DoubleExpression summand, int from, int to) {
+        final double[] arguments = new double[1];
+        double sum = 0d;
+        double compensation = 0d;
+        for (long i = from; i <= to; i++) {
+            if ((i - from) % Series.CHUNK_SIZE == 0) {
+                ParserUtils.checkInterruption();
+            }
+            arguments[0] = i;
+            final double value = summand.evaluate(arguments);
+            if (Double.isNaN(value)) {
+                return value;
+            }
+            final double t = sum + value;
+            if (Double.isInfinite(t)) {
+                // overflow: compensation would be Inf - Inf = NaN
+                return t;
+            }
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+        return sum + compensation;
+    }
+
     public void toMathML(MathML element, Object data) {
         int exponent = data instanceof Integer ? (Integer) data : 1;
         if (exponent == 1) bodyToMathML(element);
@@ -13,6 +13,7 @@ import jscl.math.operator.Integral;
 import jscl.math.operator.Modulo;
 import jscl.math.operator.Operator;
 import jscl.math.operator.Product;
+import jscl.math.operator.Solve;
 import jscl.math.operator.Sum;
 
 /**
@@ -63,5 +64,6 @@ public class OperatorsRegistry extends AbstractMathRegistry<Operator> {
         add(new Modulo(null, null));
         add(new Integral(null, null, null, null));
         add(new IndefiniteIntegral(null, null));
+        add(new Solve(null, null, null));
     }
 }
@@ -1,8 +1,16 @@
 package jscl.math.operator.stat;
 
 import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import jscl.math.JsclVector;
+import jscl.math.NumericWrapper;
+import jscl.math.numeric.Real;
 import jscl.math.operator.Operator;
 
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Comparator;
+
 /**
  * User: serso
  * Date: 1/15/12
@@ -17,9 +25,62 @@ public abstract class AbstractStatFunction extends Operator {
     @Override
     public final Generic numeric() {
         for (int i = 0; i < parameters.length; i++) {
-            parameters[i] = parameters[i].expand();
+            // elements of vectors are evaluated one by one by the functions
+            if (!(parameters[i] instanceof JsclVector)) {
+                parameters[i] = parameters[i].expand();
+            }
         }
 
         return selfNumeric();
     }
+
+    /**
+     * Exact mean used for elements which are not real numbers of double precision
+     */
+    @Nonnull
+    static Generic mean(@Nonnull Generic[] elements) {
+        Generic result = elements[0].numeric();
+        for (int i = 1; i < elements.length; i++) {
+            result = result.add(elements[i].numeric());
+        }
+        return result.divide(JsclInteger.valueOf(elements.length).numeric());
+    }
+
+    /**
+     * Exact sum of squared deviations from the mean
+     */
+    @Nonnull
+    static Generic squaredDeviations(@Nonnull Generic[] elements) {
+        final Generic mean = mean(elements);
+
+        Generic result = elements[0].numeric().subtract(mean).pow(2);
+        for (int i = 1; i < elements.length; i++) {
+            result = result.add(elements[i].numeric().subtract(mean).pow(2));
+        }
+        return result;
+    }
+
+    /**
+     * Exact quantile, see {@link Statistics#quantile(double[], double)}
+     */
+    @Nonnull
+    static Generic quantile(@Nonnull Generic[] elements, double p) {
+        final Generic[] sorted = new Generic[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            sorted[i] = elements[i].numeric();
+        }
+        Arrays.sort(sorted, new Comparator<Generic>() {
+            @Override
+            public int compare(Generic l, Generic r) {
+                return l.subtract(r).signum();
+            }
+        });
+
+        final double h = (sorted.length - 1) * p;
+        final int k = (int) Math.floor(h);
+        if (h == k) {
+            return sorted[k];
+        }
+        return sorted[k].add(sorted[k + 1].subtract(sorted[k]).multiply(new NumericWrapper(Real.valueOf(h - k))));
+    }
 }
@@ -1,6 +1,7 @@
 package jscl.math.operator.stat;
 
 import jscl.math.*;
+import jscl.math.numeric.Real;
 import jscl.math.operator.Operator;
 
 import javax.annotation.Nonnull;
@@ -49,11 +50,11 @@ public class Mean extends AbstractStatFunction {
             } else if (elements.length == 1) {
                 return elements[0];
             } else {
-                Generic result = elements[0].numeric();
-                for (int i = 1; i < elements.length; i++) {
-                    result = result.add(elements[i].numeric());
+                final double[] values = Statistics.toDoubles(elements);
+                if (values != null) {
+                    return new NumericWrapper(Real.valueOf(Statistics.of(values).mean));
                 }
-                return result.divide(JsclInteger.valueOf(elements.length).numeric());
+                return mean(elements);
             }
         } else {
             return expressionValue();
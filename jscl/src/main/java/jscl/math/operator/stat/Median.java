@@ -0,0 +1,64 @@
+package jscl.math.operator.stat;
+
+import jscl.math.*;
+import jscl.math.numeric.Real;
+import jscl.math.operator.Operator;
+
+import javax.annotation.Nonnull;
+
+public class Median extends AbstractStatFunction {
+
+    public static final String NAME = "median";
+
+    public Median(JsclVector vector) {
+        this(new Generic[]{vector});
+    }
+
+    private Median(@Nonnull Generic[] parameters) {
+        super(NAME, parameters);
+    }
+
+    @Nonnull
+    @Override
+    public Operator newInstance(@Nonnull Generic[] parameters) {
+        return new Median(parameters);
+    }
+
+    @Override
+    public int getMinParameters() {
+        return 1;
+    }
+
+    @Override
+    public Generic selfExpand() {
+        return expressionValue();
+    }
+
+    @Override
+    public Generic selfNumeric() {
+        if (parameters[0] instanceof JsclVector) {
+            final JsclVector vector = (JsclVector) parameters[0];
+            final Generic[] elements = vector.elements();
+
+            if (elements.length == 0) {
+                return new NumericWrapper(JsclInteger.ZERO);
+            } else if (elements.length == 1) {
+                return elements[0];
+            } else {
+                final double[] values = Statistics.toDoubles(elements);
+                if (values != null) {
+                    return new NumericWrapper(Real.valueOf(Statistics.quantile(values, 0.5)));
+                }
+                return quantile(elements, 0.5);
+            }
+        } else {
+            return expressionValue();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Variable newInstance() {
+        return new Median((JsclVector) null);
+    }
+}
@@ -1,6 +1,7 @@
 package jscl.math.operator.stat;
 
 import jscl.math.*;
+import jscl.math.numeric.Real;
 import jscl.math.operator.Operator;
 
 import javax.annotation.Nonnull;
@@ -49,11 +50,16 @@ public class Min extends AbstractStatFunction {
             } else if (elements.length == 1) {
                 return elements[0];
             } else {
+                final double[] values = Statistics.toDoubles(elements);
+                if (values != null) {
+                    return new NumericWrapper(Real.valueOf(Statistics.of(values).min));
+                }
+
                 Generic result = elements[0].numeric();
 
                 for (int i = 1; i < elements.length; i++) {
                     final Generic candidate = elements[i].numeric();
-                    if (result.subtract(candidate).signum() < 0) {
+                    if (candidate.subtract(result).signum() < 0) {
                         result = candidate;
                     }
                 }
@@ -0,0 +1,72 @@
+package jscl.math.operator.stat;
+
+import jscl.math.*;
+import jscl.math.numeric.Real;
+import jscl.math.operator.Operator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sample quantile: quantile(v, 0.25) is the first quartile, quantile(v, 0.5) is the median
+ */
+public class Quantile extends AbstractStatFunction {
+
+    public static final String NAME = "quantile";
+
+    public Quantile(JsclVector vector, Generic p) {
+        this(new Generic[]{vector, p});
+    }
+
+    private Quantile(@Nonnull Generic[] parameters) {
+        super(NAME, parameters);
+    }
+
+    @Nonnull
+    @Override
+    public Operator newInstance(@Nonnull Generic[] parameters) {
+        return new Quantile(parameters);
+    }
+
+    @Override
+    public int getMinParameters() {
+        return 2;
+    }
+
+    @Override
+    public Generic selfExpand() {
+        return expressionValue();
+    }
+
+    @Override
+    public Generic selfNumeric() {
+        if (parameters[0] instanceof JsclVector) {
+            final JsclVector vector = (JsclVector) parameters[0];
+            final Generic[] elements = vector.elements();
+
+            final double p = parameters[1].numeric().doubleValue();
+            if (!(p >= 0 && p <= 1)) {
+                throw new ArithmeticException("Probability must be in [0, 1]: " + p);
+            }
+
+            if (elements.length == 0) {
+                return new NumericWrapper(JsclInteger.ZERO);
+            } else if (elements.length == 1) {
+                return elements[0];
+            } else {
+                final double[] values = Statistics.toDoubles(elements);
+                if (values != null) {
+                    return new NumericWrapper(Real.valueOf(Statistics.quantile(values, p)));
+                }
+                return quantile(elements, p);
+            }
+        } else {
+            return expressionValue();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Variable newInstance() {
+        return new Quantile(null, null);
+    }
+}
@@ -2,6 +2,7 @@ package jscl.math.operator.stat;
 
 import jscl.math.*;
 import jscl.math.function.Sqrt;
+import jscl.math.numeric.Real;
 import jscl.math.operator.Operator;
 
 import javax.annotation.Nonnull;
@@ -50,13 +51,11 @@ public class StandardDeviation extends AbstractStatFunction {
             } else if (elements.length == 1) {
                 return new NumericWrapper(JsclInteger.ZERO);
             } else {
-                final Generic mean = new Mean(vector).numeric();
-
-                Generic result = new NumericWrapper(JsclInteger.ZERO);
-                for (int i = 0; i < elements.length; i++) {
-                    result = result.add(elements[i].numeric().subtract(mean).pow(2));
+                final double[] values = Statistics.toDoubles(elements);
+                if (values != null) {
+                    return new NumericWrapper(Real.valueOf(Math.sqrt(Statistics.of(values).sampleVariance())));
                 }
-                return new Sqrt(result.divide(JsclInteger.valueOf(elements.length).numeric().subtract(JsclInteger.ONE.negate().numeric()))).numeric();
+                return new Sqrt(squaredDeviations(elements).divide(JsclInteger.valueOf(elements.length - 1).numeric())).numeric();
             }
         } else {
             return expressionValue();
@@ -0,0 +1,272 @@
+package jscl.math.operator.stat;
+
+import jscl.JsclMathEngine;
+import jscl.math.Generic;
+import jscl.math.NumericWrapper;
+import jscl.math.numeric.Numeric;
+import jscl.math.numeric.Real;
+import jscl.text.ParserUtils;
+import jscl.util.Workers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Statistics of vectors of real numbers. Elements are unboxed into a double array once, count, mean, variance,
+ * minimum and maximum are then computed block by block, results of the blocks are combined by the formulas of Chan,
+ * Golub and LeVeque (like in Welford's algorithm but with a block instead of a single value). Big arrays are split into
+ * chunks which are processed in parallel and combined the same way. Order statistics are found by selection in linear
+ * expected time.
+ */
+public final class Statistics {
+
+    // smaller arrays are processed only on the calling thread
+    static final int MIN_PARALLEL_SIZE = 1 << 16;
+    // values are processed in blocks (of 32 KB) which are combined like the results of the threads
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    final int count;
+    final double mean;
+    // sum of squared deviations from the mean
+    final double m2;
+    final double min;
+    final double max;
+
+    private Statistics(int count, double mean, double m2, double min, double max) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * @return numeric values of the elements or null if some of them is not a real number (e.g. complex number or
+     * number of arbitrary precision), such vectors are processed by exact arithmetic of {@link Generic}
+     */
+    @Nullable
+    static double[] toDoubles(@Nonnull Generic[] elements) {
+        final double[] result = new double[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            if ((i & (BLOCK_SIZE - 1)) == 0) {
+                ParserUtils.checkInterruption();
+            }
+            final Generic element = elements[i] instanceof NumericWrapper ? elements[i] : elements[i].numeric();
+            if (!(element instanceof NumericWrapper)) {
+                return null;
+            }
+            final Numeric content = ((NumericWrapper) element).content();
+            if (!(content instanceof Real)) {
+                return null;
+            }
+            result[i] = content.doubleValue();
+        }
+        return result;
+    }
+
+    @Nonnull
+    static Statistics of(@Nonnull final double[] values) {
+        final int threads = values.length < MIN_PARALLEL_SIZE ? 1 : Math.min(JsclMathEngine.getInstance().getThreads(), Runtime.getRuntime().availableProcessors());
+        if (threads == 1) {
+            return of(values, 0, values.length);
+        }
+
+        final int chunk = (values.length + threads - 1) / threads;
+        final List<Future<Statistics>> futures = new ArrayList<Future<Statistics>>();
+        try {
+            for (int i = 1; i < threads; i++) {
+                final int from = i * chunk;
+                final int to = Math.min(values.length, from + chunk);
+                futures.add(Workers.executor().submit(new Callable<Statistics>() {
+                    @Override
+                    public Statistics call() {
+                        return of(values, from, to);
+                    }
+                }));
+            }
+            Statistics result = of(values, 0, chunk);
+            for (Future<Statistics> future : futures) {
+                try {
+                    result = combine(result, future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ParserUtils.checkInterruption();
+                }
+            }
+            return result;
+        } finally {
+            // no-op if all the chunks are processed
+            Workers.cancel(futures);
+        }
+    }
+
+    @Nonnull
+    private static Statistics of(@Nonnull double[] values, int from, int to) {
+        Statistics result = new Statistics(0, 0d, 0d, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        for (int block = from; block < to; block += BLOCK_SIZE) {
+            ParserUtils.checkInterruption();
+            result = combine(result, ofBlock(values, block, Math.min(to, block + BLOCK_SIZE)));
+        }
+        return result;
+    }
+
+    /**
+     * Two passes over a block which stays in cache: unlike Welford's update there is no division per element and
+     * loops can be vectorized
+     */
+    @Nonnull
+    private static Statistics ofBlock(@Nonnull double[] values, int from, int to) {
+        double sum = 0d;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            final double x = values[i];
+            sum += x;
+            if (x < min) {
+                min = x;
+            }
+            if (x > max) {
+                max = x;
+            }
+        }
+        final int count = to - from;
+        final double mean = sum / count;
+
+        double m2 = 0d;
+        for (int i = from; i < to; i++) {
+            final double delta = values[i] - mean;
+            m2 += delta * delta;
+        }
+        return new Statistics(count, mean, m2, min, max);
+    }
+
+    @Nonnull
+    private static Statistics combine(@Nonnull Statistics l, @Nonnull Statistics r) {
+        if (l.count == 0) {
+            return r;
+        } else if (r.count == 0) {
+            return l;
+        }
+        final int count = l.count + r.count;
+        final double delta = r.mean - l.mean;
+        final double mean = l.mean + delta * r.count / count;
+        final double m2 = l.m2 + r.m2 + delta * delta * ((double) l.count * r.count / count);
+        return new Statistics(count, mean, m2, Math.min(l.min, r.min), Math.max(l.max, r.max));
+    }
+
+    /**
+     * @return variance of the population
+     */
+    double variance() {
+        return m2 / count;
+    }
+
+    /**
+     * @return unbiased estimate of the variance from the sample
+     */
+    double sampleVariance() {
+        return count > 1 ? m2 / (count - 1) : 0d;
+    }
+
+    /**
+     * Quantile interpolated linearly between the closest order statistics (the 7th definition of Hyndman and Fan, the
+     * default one in R and in spreadsheets). Values are reordered.
+     *
+     * @param values values, not empty
+     * @param p      probability, 0 &lt;= p &lt;= 1
+     * @return p-quantile of the values
+     */
+    static double quantile(@Nonnull double[] values, double p) {
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                return Double.NaN;
+            }
+        }
+
+        final double h = (values.length - 1) * p;
+        final int k = (int) Math.floor(h);
+        final double lower = select(values, k);
+        if (h == k) {
+            return lower;
+        }
+        // values after the k-th one are not smaller than it => the next order statistic is their minimum
+        double upper = Double.POSITIVE_INFINITY;
+        for (int i = k + 1; i < values.length; i++) {
+            upper = Math.min(upper, values[i]);
+        }
+        return lower + (h - k) * (upper - lower);
+    }
+
+    /**
+     * Floyd-Rivest selection: pivot is chosen by recursive selection from a sample such that the k-th value is most
+     * probably just next to it, expected number of comparisons is n + min(k, n - k) + o(n)
+     *
+     * @return k-th smallest value, values before it are not greater and values after it are not smaller than it
+     */
+    static double select(@Nonnull double[] values, int k) {
+        select(values, 0, values.length - 1, k);
+        return values[k];
+    }
+
+    private static void select(@Nonnull double[] values, int left, int right, int k) {
+        while (right > left) {
+            ParserUtils.checkInterruption();
+
+            if (right - left > 600) {
+                final int n = right - left + 1;
+                final int i = k - left + 1;
+                final double z = Math.log(n);
+                final double s = 0.5 * Math.exp(2 * z / 3);
+                final double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2);
+                final int sampleLeft = Math.max(left, (int) (k - i * s / n + sd));
+                final int sampleRight = Math.min(right, (int) (k + (n - i) * s / n + sd));
+                select(values, sampleLeft, sampleRight, k);
+            }
+
+            final double pivot = values[k];
+            int i = left;
+            int j = right;
+            swap(values, left, k);
+            if (values[right] > pivot) {
+                swap(values, right, left);
+            }
+            while (i < j) {
+                swap(values, i, j);
+                i++;
+                j--;
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+            }
+            if (values[left] == pivot) {
+                swap(values, left, j);
+            } else {
+                j++;
+                swap(values, j, right);
+            }
+            // values[left..j - 1] <= pivot == values[j] <= values[j + 1..right]
+            if (j <= k) {
+                left = j + 1;
+            }
+            if (k <= j) {
+                right = j - 1;
+            }
+        }
+    }
+
+    private static void swap(@Nonnull double[] values, int i, int j) {
+        final double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -4,6 +4,7 @@ import jscl.math.Expression;
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
 import jscl.math.Literal;
+import jscl.util.ProductHeap;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
@@ -150,14 +151,44 @@ final class ArrayPolynomial extends Polynomial {
 
     @Nonnull
     public Polynomial multiply(@Nonnull Polynomial that) {
-        Polynomial p = valueOf(JsclInteger.valueOf(0));
-        for (int i = 0; i < size; i++) {
-            Term t = content[i];
-            p = p.multiplyAndSubtract(t.monomial(), t.coef().negate(), that);
+        if (defined) throw new UnsupportedOperationException();
+        ArrayPolynomial q = (ArrayPolynomial) that;
+        if (size == 0 || q.size == 0) return newinstance(0);
+        // sparse multiplication, see ProductHeap: rows are the terms of the smaller factor
+        ArrayPolynomial r = size <= q.size ? this : q;
+        ArrayPolynomial c = r == this ? q : this;
+        ProductHeap<Monomial> heap = new ProductHeap<Monomial>(r.size, ordering);
+        for (int i = 0; i < r.size; i++) heap.add(i, c.size - 1, r.content[i].monomial().multiply(c.content[c.size - 1].monomial()));
+        Term t[] = new Term[r.size + c.size];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            Monomial m1 = heap.key();
+            Generic a1 = coefficient(JsclInteger.valueOf(0));
+            do {
+                int i = heap.row();
+                int j = heap.column();
+                a1 = a1.add(r.content[i].coef().multiply(c.content[j].coef()));
+                if (j > 0) heap.replace(j - 1, r.content[i].monomial().multiply(c.content[j - 1].monomial()));
+                else heap.remove();
+            } while (!heap.isEmpty() && ordering.compare(heap.key(), m1) == 0);
+            if (a1.signum() != 0) {
+                if (n == t.length) t = Arrays.copyOf(t, 2 * n);
+                t[n++] = new Term(m1, a1);
+            }
         }
+        ArrayPolynomial p = newinstance(n);
+        for (int i = 0; i < n; i++) p.content[n - 1 - i] = t[i];
+        p.degree = degree(p);
+        p.sugar = q.sugar + maxDegree();
         return p;
     }
 
+    int maxDegree() {
+        int d = 0;
+        for (int i = 0; i < size; i++) d = Math.max(d, content[i].monomial().degree());
+        return d;
+    }
+
     public Polynomial multiply(Generic generic) {
         if (generic.signum() == 0) return valueOf(JsclInteger.valueOf(0));
         if (generic.compareTo(JsclInteger.valueOf(1)) == 0) return this;
@@ -4,6 +4,7 @@ import jscl.math.Expression;
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
 import jscl.math.Literal;
+import jscl.util.ProductHeap;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
@@ -193,11 +194,53 @@ class ArrayPolynomialGeneric extends Polynomial {
 
     @Nonnull
     public Polynomial multiply(@Nonnull Polynomial that) {
-        Polynomial p = newinstance(0);
-        for (int i = 0; i < size; i++) p = p.multiplyAndSubtract(monomial[i], getCoef(i).negate(), that);
+        if (defined) throw new UnsupportedOperationException();
+        ArrayPolynomialGeneric q = (ArrayPolynomialGeneric) that;
+        if (size == 0 || q.size == 0) return newinstance(0);
+        // sparse multiplication, see ProductHeap: rows are the terms of the smaller factor
+        ArrayPolynomialGeneric r = size <= q.size ? this : q;
+        ArrayPolynomialGeneric c = r == this ? q : this;
+        ProductHeap<Monomial> heap = new ProductHeap<Monomial>(r.size, ordering);
+        for (int i = 0; i < r.size; i++) heap.add(i, c.size - 1, r.monomial[i].multiply(c.monomial[c.size - 1]));
+        Monomial m[] = new Monomial[r.size + c.size];
+        Generic a[] = new Generic[m.length];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            Monomial m1 = heap.key();
+            Generic a1 = coefficient(JsclInteger.valueOf(0));
+            do {
+                int i = heap.row();
+                int j = heap.column();
+                a1 = a1.add(r.getCoef(i).multiply(c.getCoef(j)));
+                if (j > 0) heap.replace(j - 1, r.monomial[i].multiply(c.monomial[j - 1]));
+                else heap.remove();
+            } while (!heap.isEmpty() && ordering.compare(heap.key(), m1) == 0);
+            if (a1.signum() != 0) {
+                if (n == m.length) {
+                    m = Arrays.copyOf(m, 2 * n);
+                    a = Arrays.copyOf(a, 2 * n);
+                }
+                m[n] = m1;
+                a[n] = a1;
+                n++;
+            }
+        }
+        ArrayPolynomialGeneric p = newinstance(n);
+        for (int i = 0; i < n; i++) {
+            p.monomial[n - 1 - i] = m[i];
+            p.setCoef(n - 1 - i, a[i]);
+        }
+        p.degree = degree(p);
+        p.sugar = q.sugar + maxDegree();
         return p;
     }
 
+    int maxDegree() {
+        int d = 0;
+        for (int i = 0; i < size; i++) d = Math.max(d, monomial[i].degree());
+        return d;
+    }
+
     public Polynomial multiply(Generic generic) {
         if (generic.signum() == 0) return valueOf(JsclInteger.valueOf(0));
         if (generic.compareTo(JsclInteger.valueOf(1)) == 0) return this;
@@ -2,9 +2,11 @@ package jscl.math.polynomial;
 
 import jscl.math.Generic;
 import jscl.math.JsclInteger;
+import jscl.util.ProductHeap;
 
 import javax.annotation.Nonnull;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 class ArrayPolynomialInteger extends ArrayPolynomialGeneric {
     BigInteger coef[];
@@ -163,6 +165,48 @@ class ArrayPolynomialInteger extends ArrayPolynomialGeneric {
         return p;
     }
 
+    @Nonnull
+    public Polynomial multiply(@Nonnull Polynomial that) {
+        if (defined) throw new UnsupportedOperationException();
+        ArrayPolynomialInteger q = (ArrayPolynomialInteger) that;
+        if (size == 0 || q.size == 0) return newinstance(0);
+        ArrayPolynomialInteger r = size <= q.size ? this : q;
+        ArrayPolynomialInteger c = r == this ? q : this;
+        ProductHeap<Monomial> heap = new ProductHeap<Monomial>(r.size, ordering);
+        for (int i = 0; i < r.size; i++) heap.add(i, c.size - 1, r.monomial[i].multiply(c.monomial[c.size - 1]));
+        Monomial m[] = new Monomial[r.size + c.size];
+        BigInteger a[] = new BigInteger[m.length];
+        int n = 0;
+        while (!heap.isEmpty()) {
+            Monomial m1 = heap.key();
+            BigInteger a1 = BigInteger.ZERO;
+            do {
+                int i = heap.row();
+                int j = heap.column();
+                a1 = a1.add(r.coef[i].multiply(c.coef[j]));
+                if (j > 0) heap.replace(j - 1, r.monomial[i].multiply(c.monomial[j - 1]));
+                else heap.remove();
+            } while (!heap.isEmpty() && ordering.compare(heap.key(), m1) == 0);
+            if (a1.signum() != 0) {
+                if (n == m.length) {
+                    m = Arrays.copyOf(m, 2 * n);
+                    a = Arrays.copyOf(a, 2 * n);
+                }
+                m[n] = m1;
+                a[n] = a1;
+                n++;
+            }
+        }
+        ArrayPolynomialInteger p = (ArrayPolynomialInteger) newinstance(n);
+        for (int i = 0; i < n; i++) {
+            p.monomial[n - 1 - i] = m[i];
+            p.coef[n - 1 - i] = a[i];
+        }
+        p.degree = degree(p);
+        p.sugar = q.sugar + maxDegree();
+        return p;
+    }
+
     public Polynomial multiply(Generic generic) {
         if (generic.signum() == 0) return valueOf(JsclInteger.valueOf(0));
         BigInteger g = generic.integerValue().content();
@@ -0,0 +1,322 @@
+package jscl.math.polynomial;
+
+import jscl.JsclMathEngine;
+import jscl.math.Primes;
+import jscl.text.ParserUtils;
+import jscl.util.Workers;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Greatest common divisor of univariate polynomials with integer coefficients by the modular algorithm of Brown and
+ * Collins: gcd is computed modulo several primes (below 2^31, so products of residues fit into long), images are
+ * combined by the Chinese remainder theorem and the reconstruction is accepted as soon as it stops changing and divides
+ * both polynomials. Unlike the subresultant remainder sequence, sizes of intermediate coefficients do not depend on the
+ * degree of the polynomials.
+ */
+public final class ModularGcd {
+
+    // images of polynomials of smaller degree are computed only on the calling thread
+    static final int MIN_PARALLEL_DEGREE = 64;
+    // primes to try after the Landau-Mignotte bound has been exceeded before falling back to the remainder sequence
+    private static final int EXTRA_PRIMES = 8;
+
+    @Nonnull
+    private static final List<Integer> primes = new ArrayList<Integer>();
+
+    private ModularGcd() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param a coefficients of primitive polynomial, a[i] is the coefficient of x^i, leading coefficient is not zero
+     * @param b coefficients of primitive polynomial
+     * @return coefficients of primitive gcd with positive leading coefficient or null if it was not found (in which
+     * case the remainder sequence should be used)
+     */
+    @Nullable
+    static BigInteger[] gcd(@Nonnull BigInteger[] a, @Nonnull BigInteger[] b) {
+        if (a.length < b.length) {
+            final BigInteger[] c = a;
+            a = b;
+            b = c;
+        }
+        if (b.length == 1) {
+            return new BigInteger[]{BigInteger.ONE};
+        }
+
+        // gcd of leading coefficients is a multiple of the leading coefficient of the gcd => image of gcd * lc / lc(gcd)
+        final BigInteger lc = a[a.length - 1].gcd(b[b.length - 1]);
+        // coefficients of lc / lc(gcd) * gcd are bounded by lc * 2^d * |b| (Landau-Mignotte)
+        final BigInteger bound = lc.shiftLeft(b.length - 1).multiply(norm(a).min(norm(b))).shiftLeft(1);
+
+        final int threads = a.length - 1 < MIN_PARALLEL_DEGREE ? 1 : JsclMathEngine.getInstance().getThreads();
+        BigInteger[] result = null;
+        BigInteger modulo = BigInteger.ONE;
+        boolean tested = false;
+        int extraPrimes = 0;
+        int index = 0;
+        while (true) {
+            final int[][] images = images(a, b, lc, index, threads);
+            index += threads;
+
+            for (int i = 0; i < images.length; i++) {
+                final int[] image = images[i];
+                if (image == null) {
+                    // prime divides one of leading coefficients
+                    continue;
+                }
+                if (image.length == 1) {
+                    return new BigInteger[]{BigInteger.ONE};
+                }
+                final BigInteger prime = BigInteger.valueOf(prime(index - threads + i));
+                boolean changed = true;
+                if (result == null || image.length < result.length) {
+                    // all previous primes were unlucky
+                    result = new BigInteger[image.length];
+                    for (int j = 0; j < image.length; j++) {
+                        result[j] = BigInteger.valueOf(image[j]);
+                    }
+                    modulo = prime;
+                    tested = false;
+                    extraPrimes = 0;
+                } else if (image.length == result.length) {
+                    changed = combine(result, modulo, image, prime.intValue());
+                    modulo = modulo.multiply(prime);
+                } else {
+                    // unlucky prime
+                    continue;
+                }
+
+                final boolean bounded = modulo.compareTo(bound) > 0;
+                if (!changed || (bounded && !tested)) {
+                    tested |= bounded;
+                    final BigInteger[] candidate = primitivePart(symmetric(result, modulo));
+                    if (divides(candidate, a) && divides(candidate, b)) {
+                        return candidate;
+                    }
+                }
+                if (bounded && ++extraPrimes > EXTRA_PRIMES) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    private static int[][] images(@Nonnull final BigInteger[] a, @Nonnull final BigInteger[] b, @Nonnull final BigInteger lc,
+                                  int from, int count) {
+        final int[][] result = new int[count][];
+        final List<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+        try {
+            for (int i = 1; i < count; i++) {
+                final int prime = prime(from + i);
+                futures.add(Workers.executor().submit(new Callable<int[]>() {
+                    @Override
+                    public int[] call() {
+                        return image(a, b, lc, prime);
+                    }
+                }));
+            }
+            result[0] = image(a, b, lc, prime(from));
+            for (int i = 1; i < count; i++) {
+                try {
+                    result[i] = futures.get(i - 1).get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ParserUtils.checkInterruption();
+                }
+            }
+            return result;
+        } finally {
+            // no-op if all the images are computed
+            Workers.cancel(futures);
+        }
+    }
+
+    /**
+     * @return lc * monic gcd of a and b modulo prime or null if prime divides one of leading coefficients
+     */
+    @Nullable
+    static int[] image(@Nonnull BigInteger[] a, @Nonnull BigInteger[] b, @Nonnull BigInteger lc, int prime) {
+        ParserUtils.checkInterruption();
+        final int[] p = reduce(a, prime);
+        final int[] q = reduce(b, prime);
+        if (p[p.length - 1] == 0 || q[q.length - 1] == 0) {
+            return null;
+        }
+        final int[] g = gcd(p, q, prime);
+        final long c = lc.mod(BigInteger.valueOf(prime)).longValue();
+        final long inverse = inverse(g[g.length - 1], prime);
+        for (int i = 0; i < g.length; i++) {
+            g[i] = (int) (g[i] * inverse % prime * c % prime);
+        }
+        return g;
+    }
+
+    /**
+     * Euclidean algorithm in Z/pZ[x], arrays are overwritten
+     *
+     * @return gcd (not normalized)
+     */
+    @Nonnull
+    private static int[] gcd(@Nonnull int[] p, @Nonnull int[] q, int prime) {
+        int dp = p.length - 1;
+        int dq = q.length - 1;
+        while (dq >= 0) {
+            // p = p mod q
+            final long inverse = inverse(q[dq], prime);
+            for (int i = dp; i >= dq; i--) {
+                if (p[i] != 0) {
+                    final long f = prime - p[i] * inverse % prime;
+                    final int shift = i - dq;
+                    for (int j = 0; j < dq; j++) {
+                        p[shift + j] = (int) ((p[shift + j] + f * q[j]) % prime);
+                    }
+                    p[i] = 0;
+                }
+            }
+            dp = dq - 1;
+            while (dp >= 0 && p[dp] == 0) {
+                dp--;
+            }
+
+            final int[] r = p;
+            p = q;
+            q = r;
+            final int d = dp;
+            dp = dq;
+            dq = d;
+        }
+        final int[] result = new int[dp + 1];
+        System.arraycopy(p, 0, result, 0, dp + 1);
+        return result;
+    }
+
+    /**
+     * Adds image modulo prime to the residues modulo m (residues are in [0, m))
+     *
+     * @return true if some residue was changed
+     */
+    private static boolean combine(@Nonnull BigInteger[] residues, @Nonnull BigInteger m, @Nonnull int[] image, int prime) {
+        final long inverse = inverse(m.mod(BigInteger.valueOf(prime)).intValue(), prime);
+        boolean changed = false;
+        for (int i = 0; i < residues.length; i++) {
+            final long r = residues[i].mod(BigInteger.valueOf(prime)).longValue();
+            final long t = (image[i] - r + prime) % prime * inverse % prime;
+            if (t != 0) {
+                residues[i] = residues[i].add(m.multiply(BigInteger.valueOf(t)));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Nonnull
+    private static BigInteger[] symmetric(@Nonnull BigInteger[] residues, @Nonnull BigInteger m) {
+        final BigInteger half = m.shiftRight(1);
+        final BigInteger[] result = new BigInteger[residues.length];
+        for (int i = 0; i < residues.length; i++) {
+            result[i] = residues[i].compareTo(half) > 0 ? residues[i].subtract(m) : residues[i];
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static BigInteger[] primitivePart(@Nonnull BigInteger[] p) {
+        BigInteger content = BigInteger.ZERO;
+        for (BigInteger c : p) {
+            content = content.gcd(c);
+        }
+        if (p[p.length - 1].signum() < 0) {
+            content = content.negate();
+        }
+        final BigInteger[] result = new BigInteger[p.length];
+        for (int i = 0; i < p.length; i++) {
+            result[i] = p[i].divide(content);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if d divides p over the integers
+     */
+    static boolean divides(@Nonnull BigInteger[] d, @Nonnull BigInteger[] p) {
+        final BigInteger[] r = p.clone();
+        final int dd = d.length - 1;
+        final BigInteger lc = d[dd];
+        for (int i = r.length - 1; i >= dd; i--) {
+            ParserUtils.checkInterruption();
+            if (r[i].signum() != 0) {
+                final BigInteger[] qr = r[i].divideAndRemainder(lc);
+                if (qr[1].signum() != 0) {
+                    return false;
+                }
+                final int shift = i - dd;
+                for (int j = 0; j < dd; j++) {
+                    r[shift + j] = r[shift + j].subtract(qr[0].multiply(d[j]));
+                }
+            }
+        }
+        for (int i = 0; i < dd; i++) {
+            if (r[i].signum() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    private static int[] reduce(@Nonnull BigInteger[] p, int prime) {
+        final BigInteger m = BigInteger.valueOf(prime);
+        final int[] result = new int[p.length];
+        for (int i = 0; i < p.length; i++) {
+            if (p[i].bitLength() < 64) {
+                final long r = p[i].longValue() % prime;
+                result[i] = (int) (r < 0 ? r + prime : r);
+            } else {
+                result[i] = p[i].mod(m).intValue();
+            }
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static BigInteger norm(@Nonnull BigInteger[] p) {
+        BigInteger result = BigInteger.ZERO;
+        for (BigInteger c : p) {
+            result = result.add(c.multiply(c));
+        }
+        // upper bound of the square root
+        return BigInteger.ONE.shiftLeft(result.bitLength() / 2 + 1);
+    }
+
+    private static long inverse(long a, int prime) {
+        return BigInteger.valueOf(a).modInverse(BigInteger.valueOf(prime)).longValue();
+    }
+
+    /**
+     * @return n-th prime below 2^31 (in decreasing order)
+     */
+    static int prime(int n) {
+        synchronized (primes) {
+            int candidate = primes.isEmpty() ? Integer.MAX_VALUE : primes.get(primes.size() - 1) - 2;
+            while (primes.size() <= n) {
+                if (Primes.isPrime(BigInteger.valueOf(candidate))) {
+                    primes.add(candidate);
+                }
+                candidate -= 2;
+            }
+            return primes.get(n);
+        }
+    }
+}
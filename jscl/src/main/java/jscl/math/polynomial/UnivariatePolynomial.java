@@ -5,6 +5,7 @@ import jscl.math.function.Inverse;
 import jscl.util.ArrayUtils;
 
 import javax.annotation.Nonnull;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -159,6 +160,48 @@ public class UnivariatePolynomial extends Polynomial {
         UnivariatePolynomial q = (UnivariatePolynomial) polynomial;
         if (p.signum() == 0) return q;
         else if (q.signum() == 0) return p;
+        Polynomial a1[] = p.gcdAndNormalize();
+        Polynomial a2[] = q.gcdAndNormalize();
+        Generic gcd1 = a1[0].genericValue();
+        Generic gcd2 = a2[0].genericValue();
+        p = (UnivariatePolynomial) a1[1];
+        q = (UnivariatePolynomial) a2[1];
+        UnivariatePolynomial r = p.modularGcd(q);
+        if (r == null) r = p.subresultantGcd(q);
+        return r.multiply(gcd1.gcd(gcd2));
+    }
+
+    /**
+     * @return gcd of primitive polynomials with integer coefficients (see {@link ModularGcd}) or null if some of
+     * coefficients is not an integer or the modular algorithm failed
+     */
+    UnivariatePolynomial modularGcd(UnivariatePolynomial polynomial) {
+        BigInteger a[] = integerCoefficients();
+        BigInteger b[] = polynomial.integerCoefficients();
+        if (a == null || b == null) return null;
+        BigInteger c[] = ModularGcd.gcd(a, b);
+        if (c == null) return null;
+        UnivariatePolynomial p = newinstance();
+        for (int i = c.length - 1; i >= 0; i--) p.put(i, new JsclInteger(c[i]));
+        return (UnivariatePolynomial) p.normalize();
+    }
+
+    private BigInteger[] integerCoefficients() {
+        BigInteger a[] = new BigInteger[degree + 1];
+        for (int i = degree; i >= 0; i--) {
+            Generic c = get(i);
+            if (c instanceof JsclInteger) a[i] = ((JsclInteger) c).content();
+            else return null;
+        }
+        return a;
+    }
+
+    /**
+     * @return gcd of primitive polynomials computed by the subresultant remainder sequence
+     */
+    UnivariatePolynomial subresultantGcd(UnivariatePolynomial polynomial) {
+        UnivariatePolynomial p = this;
+        UnivariatePolynomial q = polynomial;
         if (p.degree < q.degree) {
             UnivariatePolynomial r = p;
             p = q;
@@ -167,12 +210,6 @@ public class UnivariatePolynomial extends Polynomial {
         int d = p.degree - q.degree;
         Generic phi = JsclInteger.valueOf(-1);
         Generic beta = JsclInteger.valueOf(-1).pow(d + 1);
-        Polynomial a1[] = p.gcdAndNormalize();
-        Polynomial a2[] = q.gcdAndNormalize();
-        Generic gcd1 = a1[0].genericValue();
-        Generic gcd2 = a2[0].genericValue();
-        p = (UnivariatePolynomial) a1[1];
-        q = (UnivariatePolynomial) a2[1];
         while (q.degree > 0) {
             UnivariatePolynomial r = (UnivariatePolynomial) p.remainderUpToCoefficient(q).divide(beta);
             if (d > 1) phi = q.get(q.degree).negate().pow(d).divide(phi.pow(d - 1));
@@ -188,7 +225,7 @@ public class UnivariatePolynomial extends Polynomial {
             p = newinstance();
             p.put(0, JsclInteger.valueOf(1));
         }
-        return p.multiply(gcd1.gcd(gcd2));
+        return p;
     }
 
     public Generic gcd() {
@@ -11,7 +11,6 @@ import javax.annotation.Nullable;
 import jscl.NumeralBase;
 import jscl.math.Generic;
 import jscl.math.NumericWrapper;
-import jscl.math.numeric.Real;
 import jscl.text.msg.Messages;
 
 public class DoubleParser implements Parser<NumericWrapper> {
@@ -28,7 +27,7 @@ public class DoubleParser implements Parser<NumericWrapper> {
     @Nonnull
     public NumericWrapper parse(@Nonnull Parameters p, Generic previousSumElement) throws ParseException {
         final Parser<Double> multiTryParser = new MultiTryParser<Double>(new ArrayList<Parser<? extends Double>>(parsers));
-        return new NumericWrapper(Real.valueOf(multiTryParser.parse(p, previousSumElement)));
+        return new NumericWrapper(NumericWrapper.newReal(multiTryParser.parse(p, previousSumElement)));
     }
 }
 
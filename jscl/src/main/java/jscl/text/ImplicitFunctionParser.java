@@ -24,7 +24,7 @@ public class ImplicitFunctionParser implements Parser<Function> {
         Generic a[];
 
         final String name = ParserUtils.parseWithRollback(CompoundIdentifier.parser, pos0, previousSumElement, p);
-        if (FunctionsRegistry.getInstance().getNames().contains(name) || OperatorsRegistry.getInstance().getNames().contains(name)) {
+        if (FunctionsRegistry.getInstance().contains(name) || OperatorsRegistry.getInstance().contains(name)) {
             p.position.setValue(pos0);
             throw p.exceptionsPool.obtain(p.position.intValue(), p.expression, Messages.msg_6, Collections.singletonList(name));
         }
@@ -16,7 +16,7 @@ public class OperatorParser implements Parser<Operator> {
     }
 
     static boolean valid(@Nullable String name) {
-        return name != null && OperatorsRegistry.getInstance().getNames().contains(name);
+        return name != null && OperatorsRegistry.getInstance().contains(name);
     }
 
     @Nonnull
@@ -24,7 +24,7 @@ class UsualFunctionParser implements Parser<Function> {
     }
 
     static boolean valid(@Nullable String name) {
-        return name != null && FunctionsRegistry.getInstance().getNames().contains(name);
+        return name != null && FunctionsRegistry.getInstance().contains(name);
     }
 
     public Function parse(@Nonnull Parameters p, Generic previousSumElement) throws ParseException {
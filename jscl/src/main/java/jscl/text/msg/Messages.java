@@ -111,7 +111,11 @@ public final class Messages {
      * Differentiation in not RAD mode can lead to unexpected results!
      */
     public static final String msg_25 = "msg_25";
-    static final int COUNT = 26;
+    /**
+     * Integral has been computed numerically with estimated error {0}
+     */
+    public static final String msg_26 = "msg_26";
+    static final int COUNT = 27;
 
     // not intended for instantiation
     private Messages() {
@@ -0,0 +1,132 @@
+package jscl.util;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Max-heap for the sparse multiplication of polynomials (Johnson's algorithm). Both factors are sorted and the
+ * monomial ordering is compatible with the multiplication, so the products of the i-th term of the first factor (the
+ * i-th "row") with the terms of the second factor ("columns") are generated in descending order if columns are
+ * traversed from the end. The heap keeps only the current product of each row: its top is the biggest product not
+ * consumed yet and equal products are popped one after another, i.e. the terms of the result are produced sorted and
+ * already combined, without intermediate polynomials.
+ *
+ * @param <K> type of the products (monomials) kept in the heap
+ */
+public final class ProductHeap<K> {
+
+    @Nonnull
+    private final Comparator<? super K> comparator;
+    @Nonnull
+    private final int[] rows;
+    @Nonnull
+    private final int[] columns;
+    // keys of the products, positions after size are null
+    @Nonnull
+    private final List<K> keys;
+    private int size;
+
+    public ProductHeap(int capacity, @Nonnull Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.rows = new int[capacity];
+        this.columns = new int[capacity];
+        this.keys = new ArrayList<K>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.keys.add(null);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int row, int column, @Nonnull K key) {
+        int i = size++;
+        // sift up
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (comparator.compare(key, keys.get(parent)) <= 0) {
+                break;
+            }
+            set(i, parent);
+            i = parent;
+        }
+        rows[i] = row;
+        columns[i] = column;
+        keys.set(i, key);
+    }
+
+    /**
+     * @return biggest product in the heap
+     */
+    @Nonnull
+    public K key() {
+        return keys.get(0);
+    }
+
+    /**
+     * @return row of the biggest product in the heap
+     */
+    public int row() {
+        return rows[0];
+    }
+
+    /**
+     * @return column of the biggest product in the heap
+     */
+    public int column() {
+        return columns[0];
+    }
+
+    /**
+     * Replaces the biggest product with the next product of the same row
+     *
+     * @param column column of the next product
+     * @param key    next product, must not be bigger than the replaced product
+     */
+    public void replace(int column, @Nonnull K key) {
+        siftDown(0, rows[0], column, key);
+    }
+
+    /**
+     * Removes the biggest product, should be called if its row has no more products
+     */
+    public void remove() {
+        final int last = --size;
+        final K key = keys.set(last, null);
+        if (last > 0) {
+            siftDown(0, rows[last], columns[last], key);
+        }
+    }
+
+    private void siftDown(int i, int row, int column, @Nonnull K key) {
+        final int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            final int right = child + 1;
+            if (right < size && comparator.compare(keys.get(right), keys.get(child)) > 0) {
+                child = right;
+            }
+            if (comparator.compare(key, keys.get(child)) >= 0) {
+                break;
+            }
+            set(i, child);
+            i = child;
+        }
+        rows[i] = row;
+        columns[i] = column;
+        keys.set(i, key);
+    }
+
+    private void set(int to, int from) {
+        rows[to] = rows[from];
+        columns[to] = columns[from];
+        keys.set(to, keys.get(from));
+    }
+}
@@ -0,0 +1,53 @@
+package jscl.util;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads shared by the parallel algorithms (factorization, gcd, statistics). The pool is created on the first use,
+ * its threads are daemons and die after a minute without work, so nothing is kept alive if no parallel computation
+ * runs. The pool is not bounded: every caller limits the number of its tasks itself and a caller never waits for the
+ * tasks of another one. Tasks which are not needed anymore must be cancelled by the caller, see
+ * {@link #cancel(List)}.
+ */
+public final class Workers {
+
+    private Workers() {
+        throw new AssertionError();
+    }
+
+    @Nonnull
+    public static ExecutorService executor() {
+        return Holder.EXECUTOR;
+    }
+
+    /**
+     * Cancels (and interrupts) the tasks which are still running, e.g. if the result is already known or the calling
+     * thread has been interrupted
+     */
+    public static void cancel(@Nonnull List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static final class Holder {
+        @Nonnull
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Nonnull
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(@Nonnull Runnable r) {
+                final Thread thread = new Thread(r, "Jscl worker #" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
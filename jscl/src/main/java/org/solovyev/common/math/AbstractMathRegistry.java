@@ -26,8 +26,11 @@ import org.solovyev.common.collections.SortedList;
 import org.solovyev.common.text.Strings;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -48,11 +51,12 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
     @Nonnull
     protected final SortedList<T> entities = SortedList.newInstance(new ArrayList<T>(30), MATH_ENTITY_COMPARATOR);
     @GuardedBy("this")
-    @Nullable
-    private List<String> entityNames;
-    @GuardedBy("this")
     @Nonnull
     protected final SortedList<T> systemEntities = SortedList.newInstance(new ArrayList<T>(30), MATH_ENTITY_COMPARATOR);
+    // immutable view of the registry which is republished after every modification: readers don't need to acquire
+    // the lock
+    @Nonnull
+    private volatile Snapshot<T> snapshot = Snapshot.empty();
     private volatile boolean initialized;
 
     protected AbstractMathRegistry() {
@@ -99,15 +103,13 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
 
     @Nonnull
     public List<T> getEntities() {
-        synchronized (this) {
-            return java.util.Collections.unmodifiableList(new ArrayList<T>(entities));
-        }
+        return snapshot.entities;
     }
 
     @Nonnull
     public List<T> getSystemEntities() {
         synchronized (this) {
-            return java.util.Collections.unmodifiableList(new ArrayList<T>(systemEntities));
+            return Collections.unmodifiableList(new ArrayList<T>(systemEntities));
         }
     }
 
@@ -123,7 +125,7 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
 
             if (!contains(entity.getName(), this.entities)) {
                 addEntity(entity, this.entities);
-                this.entityNames = null;
+                publish();
             }
         }
     }
@@ -140,7 +142,7 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
             final T existingEntity = entity.isIdDefined() ? getById(entity.getId()) : get(entity.getName());
             if (existingEntity == null) {
                 addEntity(entity, entities);
-                this.entityNames = null;
+                publish();
                 if (entity.isSystem()) {
                     systemEntities.add(entity);
                 }
@@ -148,8 +150,8 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
             } else {
                 existingEntity.copy(entity);
                 this.entities.sort();
-                this.entityNames = null;
                 this.systemEntities.sort();
+                publish();
                 return existingEntity;
             }
         }
@@ -160,34 +162,25 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
             if (!entity.isSystem()) {
                 final T removed = removeByName(entities, entity.getName());
                 if (removed != null) {
-                    this.entityNames = null;
+                    publish();
                 }
             }
         }
     }
 
+    private void publish() {
+        assert Thread.holdsLock(this);
+        snapshot = new Snapshot<>(entities);
+    }
+
     @Nonnull
     public List<String> getNames() {
-        synchronized (this) {
-            if (entityNames != null) {
-                return entityNames;
-            }
-            entityNames = new ArrayList<>(entities.size());
-            for (T entity : entities) {
-                final String name = entity.getName();
-                if (!Strings.isEmpty(name)) {
-                    entityNames.add(name);
-                }
-            }
-            return entityNames;
-        }
+        return snapshot.names;
     }
 
     @Nullable
     public T get(@Nonnull final String name) {
-        synchronized (this) {
-            return get(name, entities);
-        }
+        return snapshot.byName.get(name);
     }
 
     @Nullable
@@ -202,26 +195,63 @@ public abstract class AbstractMathRegistry<T extends MathEntity> implements Math
     }
 
     public T getById(@Nonnull final Integer id) {
-        synchronized (this) {
-            for (T entity : entities) {
-                if (areEqual(entity.getId(), id)) {
-                    return entity;
-                }
-            }
-            return null;
-        }
+        return snapshot.byId.get(id);
     }
 
     public boolean contains(@Nonnull final String name) {
-        synchronized (this) {
-            return contains(name, this.entities);
-        }
+        return snapshot.byName.containsKey(name);
     }
 
     private boolean contains(final String name, @Nonnull List<T> entities) {
         return get(name, entities) != null;
     }
 
+    /**
+     * Immutable state of the registry: entities in the order of {@link MathEntityComparator} and their indices by name
+     * and by id. Note that the first entity wins if several entities have the same name (same as in linear search)
+     */
+    private static final class Snapshot<T extends MathEntity> {
+
+        @Nonnull
+        private static final Snapshot<MathEntity> EMPTY = new Snapshot<>(Collections.<MathEntity>emptyList());
+
+        @Nonnull
+        final List<T> entities;
+        @Nonnull
+        final List<String> names;
+        @Nonnull
+        final Map<String, T> byName;
+        @Nonnull
+        final Map<Integer, T> byId;
+
+        Snapshot(@Nonnull List<T> entities) {
+            final List<String> names = new ArrayList<>(entities.size());
+            this.byName = new HashMap<>(2 * entities.size());
+            this.byId = new HashMap<>(2 * entities.size());
+            for (int i = 0; i < entities.size(); i++) {
+                final T entity = entities.get(i);
+                final String name = entity.getName();
+                if (!Strings.isEmpty(name)) {
+                    names.add(name);
+                }
+                if (!byName.containsKey(name)) {
+                    byName.put(name, entity);
+                }
+                if (entity.isIdDefined() && !byId.containsKey(entity.getId())) {
+                    byId.put(entity.getId(), entity);
+                }
+            }
+            this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+            this.names = Collections.unmodifiableList(names);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nonnull
+        static <T extends MathEntity> Snapshot<T> empty() {
+            return (Snapshot<T>) EMPTY;
+        }
+    }
+
     static class MathEntityComparator<T extends MathEntity> implements Comparator<T> {
 
         MathEntityComparator() {
@@ -4,9 +4,18 @@ import org.junit.Before;
 import org.junit.Test;
 import org.solovyev.common.NumberFormatter;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import midpcalc.Real;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * User: serso
@@ -209,4 +218,55 @@ public class JsclMathEngineTest {
         assertEquals("111.11123E3", me.format(111111.23d));
         assertEquals("111.1112E3", me.format(111111.2d));
     }
+
+    @Test
+    public void testThreadSettingsShouldNotAffectOtherThreads() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        final MathSettings global = me.getSettings();
+        final MathSettings rad = global.withAngleUnits(AngleUnit.rad).withPrecision(3);
+        final MathSettings deg = global.withAngleUnits(AngleUnit.deg).withPrecision(5);
+        final MathSettings hex = global.withNumeralBase(NumeralBase.hex);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(evaluate(me, "sin(30)", rad)));
+                results.add(executor.submit(evaluate(me, "sin(30)", deg)));
+                results.add(executor.submit(evaluate(me, "FF+1", hex)));
+            }
+            for (int i = 0; i < results.size(); i += 3) {
+                assertEquals("-0.988", results.get(i).get());
+                assertEquals("0.5", results.get(i + 1).get());
+                assertEquals("100", results.get(i + 2).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertSame(global, me.getSettings());
+    }
+
+    @Test
+    public void testShouldRestorePreviousThreadSettings() throws Exception {
+        final MathSettings global = me.getSettings();
+        final MathSettings previous = me.setThreadSettings(global.withAngleUnits(AngleUnit.rad));
+        assertNull(previous);
+        assertEquals(AngleUnit.rad, me.getAngleUnits());
+
+        me.setAngleUnits(AngleUnit.grad);
+        // thread settings take precedence
+        assertEquals(AngleUnit.rad, me.getAngleUnits());
+
+        me.setThreadSettings(previous);
+        assertEquals(AngleUnit.grad, me.getAngleUnits());
+    }
+
+    private static Callable<String> evaluate(final JsclMathEngine me, final String expression, final MathSettings settings) {
+        return new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return me.evaluate(expression, settings);
+            }
+        };
+    }
 }
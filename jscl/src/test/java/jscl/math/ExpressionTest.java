@@ -1,5 +1,6 @@
 package jscl.math;
 
+import org.junit.Ignore;
 import org.junit.Test;
 import org.solovyev.common.NumberFormatter;
 
@@ -837,4 +838,119 @@ public class ExpressionTest {
             me.setPrecision(NumberFormatter.MAX_PRECISION);
         }
     }
+
+    @Test
+    public void testMultiplication() throws Exception {
+        assertEquals("x^2+2*x*y+y^2", Expression.valueOf("(x+y)^2").expand().toString());
+        assertEquals("-1+x^3", Expression.valueOf("(x-1)*(x^2+x+1)").expand().toString());
+        assertEquals("0", Expression.valueOf("(x-y)*(x+y)-x^2+y^2").expand().toString());
+
+        final Generic p = Expression.valueOf("3*x^2*y-2*x*y^2+5*z-7*x+4*y*z-1").expand();
+        final Generic q = Expression.valueOf("x^3+2*x*y^2*z-y+9*z^2-x*z").expand();
+        final Generic r = Expression.valueOf("x-y+2*z-3").expand();
+        assertEquals(p.multiply(q), q.multiply(p));
+        assertEquals(p.multiply(q).multiply(r), p.multiply(q.multiply(r)));
+        assertEquals(p.multiply(q.add(r)), p.multiply(q).add(p.multiply(r)));
+        assertEquals(JsclInteger.valueOf(0), p.multiply(q).subtract(q.multiply(p)));
+    }
+
+    @Test
+    public void testExpand() throws Exception {
+        for (int power = 5; power <= 15; power += 5) {
+            final Generic result = Expression.valueOf("(x+y+z+1)^" + power).expand();
+            // number of monomials of degree <= power in 3 variables
+            assertEquals((power + 1) * (power + 2) * (power + 3) / 6, ((Expression) result).size());
+        }
+
+        final Expression p = (Expression) Expression.valueOf("(x+y+z+1)^6").expand();
+        final Expression q = (Expression) Expression.valueOf("(x-y+2*z-1)^6").expand();
+        assertEquals(Expression.valueOf("((x+y+z+1)*(x-y+2*z-1))^6").expand(), p.multiply(q));
+        assertEquals(multiplyByTerms(p, q), p.multiply(q));
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkMultiplication() throws Exception {
+        final Expression p = (Expression) Expression.valueOf("(x+y+z+1)^12").expand();
+        final Expression q = (Expression) Expression.valueOf("(x-y+2*z-1)^12").expand();
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            p.multiply(q);
+            multiplyByTerms(p, q);
+        }
+
+        long startTime = System.nanoTime();
+        final Expression product = p.multiply(q);
+        final long heapTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        final Expression expected = multiplyByTerms(p, q);
+        final long termsTime = System.nanoTime() - startTime;
+
+        assertEquals(expected, product);
+        assertTrue("Product of " + p.size() + " and " + q.size() + " terms, heap: " + heapTime / 1000 + " us, term by term: "
+                + termsTime / 1000 + " us", heapTime < termsTime);
+    }
+
+    /**
+     * Multiplication by merging the product of each term of <var>p</var> into the result
+     */
+    @Nonnull
+    private static Expression multiplyByTerms(@Nonnull Expression p, @Nonnull Expression q) {
+        Expression result = new Expression(0);
+        for (int i = 0; i < p.size(); i++) {
+            result = result.multiplyAndAdd(p.literal(i), p.coef(i), q);
+        }
+        return result;
+    }
+
+    @Test
+    public void testPow() throws Exception {
+        assertEquals("x^3+3*x^2*y+3*x*y^2+y^3", Expression.valueOf("(x+y)^3").expand().toString());
+        assertEquals("-8*x^3*y^6", Expression.valueOf("(-2*x*y^2)^3").expand().toString());
+        assertEquals("1", Expression.valueOf("(x-y)^0").expand().toString());
+        assertEquals("0", Expression.valueOf("(x-y)^7-(y-x)^7*(-1)").expand().toString());
+
+        // number of monomials of degree <= 25 in 2 variables
+        assertEquals(26 * 27 / 2, ((Expression) Expression.valueOf("(x+y+1)^25").expand()).size());
+
+        // multinomial expansion must agree with repeated multiplication
+        for (String base : new String[]{"x+y+1", "2*x-3*y+z", "x^2-x*y+y^3-5", "1+x+x^2+x^3", "sin(x)+cos(x)", "x-x^2"}) {
+            final Generic b = Expression.valueOf(base).expand();
+            Generic expected = JsclInteger.valueOf(1);
+            for (int n = 1; n <= 12; n++) {
+                expected = expected.multiply(b);
+                assertEquals(base + "^" + n, expected, b.pow(n));
+            }
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkPow() throws Exception {
+        final Generic base = Expression.valueOf("x+y+1").expand();
+        // warm up
+        base.pow(50);
+
+        final StringBuilder report = new StringBuilder();
+        long powTime = 0;
+        long multiplicationTime = 0;
+        for (int power = 25; power <= 200; power *= 2) {
+            long startTime = System.nanoTime();
+            final Generic result = base.pow(power);
+            powTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            Generic product = base;
+            for (int i = 1; i < power; i++) {
+                product = product.multiply(base);
+            }
+            multiplicationTime = System.nanoTime() - startTime;
+
+            assertEquals(product, result);
+            report.append("(x+y+1)^").append(power).append(": ").append(powTime / 1000).append(" us, repeated multiplication: ")
+                    .append(multiplicationTime / 1000).append(" us\n");
+        }
+        assertTrue(report.toString(), powTime < multiplicationTime);
+    }
 }
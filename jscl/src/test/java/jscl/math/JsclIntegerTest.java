@@ -0,0 +1,117 @@
+package jscl.math;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JsclIntegerTest {
+
+    private static final long[] VALUES = {0, 1, -1, 2, -2, 3, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, 3037000499L, -3037000499L, 3037000500L, -3037000500L,
+            Long.MAX_VALUE / 2, Long.MIN_VALUE / 2, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, Long.MAX_VALUE,
+            Long.MIN_VALUE};
+
+    @Test
+    public void testArithmeticShouldMatchBigIntegers() throws Exception {
+        final Random random = new Random(0);
+        final long[] values = new long[VALUES.length + 50];
+        System.arraycopy(VALUES, 0, values, 0, VALUES.length);
+        for (int i = VALUES.length; i < values.length; i++) {
+            values[i] = random.nextLong() >> random.nextInt(64);
+        }
+        for (long a : values) {
+            final JsclInteger ja = JsclInteger.valueOf(a);
+            final BigInteger ba = BigInteger.valueOf(a);
+            assertEquals(ba.negate(), ja.negate().content());
+            assertEquals(ba.signum(), ja.signum());
+            for (long b : values) {
+                final JsclInteger jb = JsclInteger.valueOf(b);
+                final BigInteger bb = BigInteger.valueOf(b);
+                final String message = a + ", " + b;
+                assertEquals(message, ba.add(bb), ja.add(jb).content());
+                assertEquals(message, ba.subtract(bb), ja.subtract(jb).content());
+                assertEquals(message, ba.multiply(bb), ja.multiply(jb).content());
+                assertEquals(message, ba.gcd(bb), ja.gcd(jb).content());
+                assertEquals(message, ba.compareTo(bb), ja.compareTo(jb));
+                if (b != 0) {
+                    final Generic[] qr = ja.divideAndRemainder((Generic) jb);
+                    final BigInteger[] expected = ba.divideAndRemainder(bb);
+                    assertEquals(message, expected[0], ((JsclInteger) qr[0]).content());
+                    assertEquals(message, expected[1], ((JsclInteger) qr[1]).content());
+                    assertEquals(message, ba.remainder(bb), ja.remainder(jb).content());
+                }
+                if (b > 0) {
+                    assertEquals(message, ba.mod(bb), ja.mod(jb).content());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testShouldReuseSmallValues() throws Exception {
+        assertSame(JsclInteger.ZERO, JsclInteger.valueOf(0));
+        assertSame(JsclInteger.ONE, JsclInteger.valueOf(1));
+        assertSame(JsclInteger.valueOf(-1), JsclInteger.valueOf(2).subtract(JsclInteger.valueOf(3)));
+        assertSame(JsclInteger.valueOf(100), JsclInteger.valueOf("100"));
+        assertEquals(JsclInteger.valueOf(Long.MAX_VALUE), new JsclInteger(BigInteger.valueOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testExpressionArithmetic() throws Exception {
+        final Generic x = Expression.valueOf("x");
+        final Generic y = Expression.valueOf("y");
+        final Generic p = Expression.valueOf("3*x^2-2*x*y+5*y^2-7*x+4*y-1");
+        final Generic q = Expression.valueOf("x^3+2*x*y^2-y+9");
+        final Generic expected = Expression.valueOf("(3*x^2-2*x*y+5*y^2-7*x+4*y-1)*(x^3+2*x*y^2-y+9)" +
+                "+(3*x^2-2*x*y+5*y^2-7*x+4*y-1)*x-(x^3+2*x*y^2-y+9)*y+2").expand();
+        assertEquals(expected, run(p, q, x, y, 3));
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkExpressionArithmetic() throws Exception {
+        final Generic x = Expression.valueOf("x");
+        final Generic y = Expression.valueOf("y");
+        final Generic p = Expression.valueOf("3*x^2-2*x*y+5*y^2-7*x+4*y-1");
+        final Generic q = Expression.valueOf("x^3+2*x*y^2-y+9");
+
+        // warm up
+        run(p, q, x, y, 200);
+
+        final ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        final long allocatedBefore = allocatedBytes(mxBean);
+        final int count = 2000;
+        final long startTime = System.nanoTime();
+        final Generic result = run(p, q, x, y, count);
+        final long time = System.nanoTime() - startTime;
+        final long allocated = allocatedBytes(mxBean) - allocatedBefore;
+
+        assertTrue("Expression add/multiply: " + (time / count / 1000) + " us per iteration" +
+                (allocated >= 0 ? ", " + (allocated / count) + " bytes allocated per iteration" : ""), result.signum() != 0);
+    }
+
+    private static Generic run(Generic p, Generic q, Generic x, Generic y, int count) {
+        Generic result = JsclInteger.valueOf(0);
+        for (int i = 0; i < count; i++) {
+            // typical polynomial arithmetic of the calculator: small coefficients
+            final Generic product = p.multiply(q);
+            result = product.add(p.multiply(x)).subtract(q.multiply(y)).add(JsclInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    private static long allocatedBytes(ThreadMXBean mxBean) {
+        if (mxBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mxBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
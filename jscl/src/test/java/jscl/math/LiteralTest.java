@@ -1,8 +1,13 @@
 package jscl.math;
 
+import jscl.math.function.Constant;
 import jscl.math.numeric.Real;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
 /**
  * User: serso
  * Date: 12/23/11
@@ -35,4 +40,29 @@ public class LiteralTest {
         System.out.println(e2.literalScm());
 
     }
+
+    @Test
+    public void testConstantLiteralsShouldBeInterned() throws Exception {
+        final Expression e1 = Expression.valueOf("x^2*y+3*x");
+        final Expression e2 = Expression.valueOf("3*x+y*x^2");
+        assertEquals(e1, e2);
+        for (int i = 0; i < e1.size(); i++) {
+            assertSame(e1.literal(i).getVariable(0), e2.literal(i).getVariable(0));
+        }
+        assertSame(e1.literal(0), e2.literal(0));
+        assertSame(Literal.valueOf(new Constant("x"), 2), Literal.valueOf(new Constant("x"), 2));
+        assertSame(Literal.newInstance(), Literal.valueOf(new Constant("x"), 0));
+
+        final Literal product = Literal.valueOf(new Constant("x")).multiply(Literal.valueOf(new Constant("y")));
+        final Literal expected = e1.literal(1);
+        assertNotSame(expected, product.multiply(Literal.valueOf(new Constant("x"))));
+        assertEquals(expected, product.multiply(Literal.valueOf(new Constant("x"))));
+        assertEquals(expected.hashCode(), product.multiply(Literal.valueOf(new Constant("x"))).hashCode());
+
+        // registered constants might change and are not interned
+        final Constant registered = new Constant("z");
+        registered.setId(1);
+        assertNotSame(registered, Literal.valueOf(new Constant("z")).getVariable(0));
+        assertSame(registered, Literal.valueOf(registered).getVariable(0));
+    }
 }
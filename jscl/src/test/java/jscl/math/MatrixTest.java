@@ -0,0 +1,229 @@
+package jscl.math;
+
+import jscl.math.numeric.Numeric;
+import jscl.math.numeric.Real;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class MatrixTest {
+
+    @Test
+    public void testDeterminant() throws Exception {
+        final Matrix m = integerMatrix(new int[][]{
+                {0, 2, 1, 4, 1},
+                {3, 0, 5, 1, 2},
+                {2, 7, 0, 3, 0},
+                {1, 1, 2, 0, 6},
+                {0, 3, 1, 1, 1}});
+        Assert.assertEquals(m.cofactorDeterminant(), m.determinant());
+        Assert.assertEquals(JsclInteger.valueOf(0), integerMatrix(new int[][]{
+                {1, 2, 3, 4, 5},
+                {2, 4, 6, 8, 10},
+                {0, 1, 0, 1, 0},
+                {5, 0, 3, 1, 2},
+                {1, 1, 1, 1, 1}}).determinant());
+
+        final Random random = new Random(42);
+        for (int n = Matrix.ELIMINATION_THRESHOLD; n < 8; n++) {
+            final Matrix r = randomMatrix(random, n);
+            Assert.assertEquals(r.cofactorDeterminant(), r.determinant());
+        }
+    }
+
+    @Test
+    public void testSymbolicDeterminant() throws Exception {
+        final Generic x = Expression.valueOf("x");
+        final Generic y = Expression.valueOf("y");
+        final Generic o = JsclInteger.valueOf(0);
+        final Generic l = JsclInteger.valueOf(1);
+
+        Matrix m = new Matrix(new Generic[][]{
+                {x, l, o, o, o},
+                {l, x, l, o, o},
+                {o, l, x, l, o},
+                {o, o, l, x, l},
+                {o, o, o, l, x}});
+        Assert.assertEquals(m.cofactorDeterminant(), m.determinant());
+        Assert.assertEquals("3*x-4*x^3+x^5", m.determinant().toString());
+
+        m = new Matrix(new Generic[][]{
+                {x, y, o, o, o},
+                {x, y, o, o, o},
+                {o, l, x, l, o},
+                {o, o, l, x, l},
+                {y, o, o, l, x}});
+        Assert.assertEquals("0", m.determinant().toString());
+    }
+
+    @Test
+    public void testInverse() throws Exception {
+        final Matrix m = integerMatrix(new int[][]{
+                {0, 2, 1, 4, 1},
+                {3, 0, 5, 1, 2},
+                {2, 7, 0, 3, 0},
+                {1, 1, 2, 0, 6},
+                {0, 3, 1, 1, 1}});
+        Assert.assertEquals(Matrix.identity(5), ((Matrix) m.inverse()).multiply(m).simplify());
+        Assert.assertEquals(Matrix.identity(5), m.multiply(m.inverse()).simplify());
+
+        final Random random = new Random(42);
+        for (int n = Matrix.ELIMINATION_THRESHOLD; n < 7; n++) {
+            final Matrix r = randomMatrix(random, n);
+            if (r.determinant().signum() != 0) {
+                Assert.assertEquals(Matrix.identity(n), r.multiply(r.inverse()).simplify());
+                Assert.assertEquals(r.cofactorInverse().simplify(), r.inverse().simplify());
+            }
+        }
+    }
+
+    @Test
+    public void testNumericDeterminant() throws Exception {
+        final Matrix m = numericMatrix(new double[][]{
+                {0.5, 2, 1, 4, 1},
+                {3, 0, 5, 1.25, 2},
+                {2, 7, 0, 3, 0},
+                {1, 1, 2, 0, 6},
+                {0, 3, 1, 1, 1}});
+        final double expected = ((NumericWrapper) m.cofactorDeterminant()).content().doubleValue();
+        final double actual = ((NumericWrapper) m.determinant()).content().doubleValue();
+        Assert.assertEquals(expected, actual, 1e-10);
+
+        final Matrix product = (Matrix) m.multiply(m.inverse());
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                Assert.assertEquals(i == j ? 1d : 0d, ((NumericWrapper) product.elements[i][j]).content().doubleValue(), 1e-10);
+            }
+        }
+    }
+
+    @Test
+    public void testCofactorVsElimination() throws Exception {
+        final Random random = new Random(42);
+        for (int n = 2; n < 9; n++) {
+            final Matrix m = randomMatrix(random, n);
+            Assert.assertEquals(m.cofactorDeterminant(), m.bareissDeterminant());
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkCofactorVsElimination() throws Exception {
+        final Random random = new Random(42);
+        final Matrix matrices[] = new Matrix[10];
+        for (int n = 2; n < matrices.length; n++) {
+            matrices[n] = randomMatrix(random, n);
+        }
+
+        // warm up
+        for (int n = 2; n < matrices.length - 1; n++) {
+            matrices[n].cofactorDeterminant();
+            matrices[n].bareissDeterminant();
+        }
+
+        final int repetitions = 5;
+        final StringBuilder report = new StringBuilder();
+        long cofactorTime = 0;
+        long eliminationTime = 0;
+        for (int n = 2; n < matrices.length; n++) {
+            final Matrix m = matrices[n];
+
+            long startTime = System.nanoTime();
+            for (int i = 0; i < repetitions; i++) {
+                m.cofactorDeterminant();
+            }
+            cofactorTime = (System.nanoTime() - startTime) / repetitions;
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < repetitions; i++) {
+                m.bareissDeterminant();
+            }
+            eliminationTime = (System.nanoTime() - startTime) / repetitions;
+
+            report.append("Determinant ").append(n).append("x").append(n).append(", cofactor: ").append(cofactorTime / 1000)
+                    .append(" us, elimination: ").append(eliminationTime / 1000).append(" us\n");
+        }
+        Assert.assertTrue(report.toString(), eliminationTime < cofactorTime);
+    }
+
+    @Test
+    public void testPow() throws Exception {
+        final Random random = new Random(42);
+        final Matrix m = randomMatrix(random, 4);
+        Generic expected = m;
+        for (int n = 2; n <= 17; n++) {
+            expected = expected.multiply(m);
+            Assert.assertEquals(expected, m.pow(n));
+        }
+        // [[1, 1], [1, 0]]^n = [[F(n + 1), F(n)], [F(n), F(n - 1)]]
+        final Matrix fibonacci = (Matrix) integerMatrix(new int[][]{{1, 1}, {1, 0}}).pow(90);
+        Assert.assertEquals(JsclInteger.valueOf(2880067194370816120L), fibonacci.elements[0][1]);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkPow() throws Exception {
+        final Random random = new Random(42);
+        final jscl.math.numeric.Matrix numeric = numericMatrix(random, 50);
+
+        // warm up
+        numeric.pow(64);
+
+        long startTime = System.nanoTime();
+        numeric.pow(64);
+        final long squaringTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        jscl.math.numeric.Matrix product = numeric;
+        for (int i = 1; i < 64; i++) {
+            product = product.multiply(numeric);
+        }
+        final long multiplicationTime = System.nanoTime() - startTime;
+
+        Assert.assertTrue("Numeric matrix 50x50 ^ 64, squaring: " + squaringTime / 1000 + " us, repeated multiplication: "
+                + multiplicationTime / 1000 + " us", squaringTime < multiplicationTime);
+    }
+
+    private static jscl.math.numeric.Matrix numericMatrix(Random random, int n) {
+        final Numeric elements[][] = new Numeric[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                // spectral radius about 1
+                elements[i][j] = Real.valueOf(random.nextDouble() / n * 2);
+            }
+        }
+        return new jscl.math.numeric.Matrix(elements);
+    }
+
+    private static Matrix randomMatrix(Random random, int n) {
+        final int elements[][] = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                elements[i][j] = random.nextInt(21) - 10;
+            }
+        }
+        return integerMatrix(elements);
+    }
+
+    private static Matrix integerMatrix(int elements[][]) {
+        final Generic result[][] = new Generic[elements.length][elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            for (int j = 0; j < elements.length; j++) {
+                result[i][j] = JsclInteger.valueOf(elements[i][j]);
+            }
+        }
+        return new Matrix(result);
+    }
+
+    private static Matrix numericMatrix(double elements[][]) {
+        final Generic result[][] = new Generic[elements.length][elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            for (int j = 0; j < elements.length; j++) {
+                result[i][j] = new NumericWrapper((Numeric) Real.valueOf(elements[i][j]));
+            }
+        }
+        return new Matrix(result);
+    }
+}
@@ -0,0 +1,156 @@
+package jscl.math;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimesTest {
+
+    @Test
+    public void testIsPrime() throws Exception {
+        for (int i = 0; i < 100000; i++) {
+            final BigInteger n = BigInteger.valueOf(i);
+            assertEquals(String.valueOf(i), n.isProbablePrime(50), Primes.isPrime(n));
+        }
+        // Carmichael numbers and strong pseudoprimes to several bases
+        assertFalse(Primes.isPrime(BigInteger.valueOf(561)));
+        assertFalse(Primes.isPrime(BigInteger.valueOf(3215031751L)));
+        assertFalse(Primes.isPrime(new BigInteger("3825123056546413051")));
+        assertFalse(Primes.isPrime(new BigInteger("318665857834031151167461")));
+        assertTrue(Primes.isPrime(new BigInteger("170141183460469231731687303715884105727")));
+    }
+
+    @Test
+    public void testFactorize() throws Exception {
+        assertTrue(Primes.factorize(BigInteger.ONE).isEmpty());
+        assertFactors("2^3*3^2*5", 360);
+        assertFactors("71*839*1471*6857", 600851475143L);
+        assertFactors("3^39", 4052555153018976267L);
+        assertFactors("65537^2", 65537L * 65537L);
+        assertFactors("2147483629*2147483647", 2147483647L * 2147483629L);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            BigInteger n = BigInteger.ONE;
+            for (int j = 0; j < 4; j++) {
+                n = n.multiply(BigInteger.probablePrime(8 + random.nextInt(30), random));
+            }
+            assertEquals(n, multiply(Primes.factorize(n)));
+        }
+    }
+
+    @Test
+    public void testFactorizeBigSemiprime() throws Exception {
+        final BigInteger p = new BigInteger("1000000007");
+        final BigInteger q = new BigInteger("10000000019");
+        final SortedMap<BigInteger, Integer> factors = Primes.factorize(p.multiply(q));
+        assertEquals(2, factors.size());
+        assertEquals(Integer.valueOf(1), factors.get(p));
+        assertEquals(Integer.valueOf(1), factors.get(q));
+    }
+
+    @Test
+    public void testPhi() throws Exception {
+        assertEquals(BigInteger.ONE, Primes.phi(BigInteger.ONE));
+        assertEquals(BigInteger.valueOf(96), Primes.phi(BigInteger.valueOf(360)));
+        assertEquals(BigInteger.valueOf(96), Primes.phi(BigInteger.valueOf(97)));
+        assertEquals("96", JsclInteger.valueOf(360).phi().toString());
+    }
+
+    @Test
+    public void testFactorizeSemiprimes() throws Exception {
+        final Random random = new Random(1);
+        for (int digits = 10; digits <= 24; digits += 2) {
+            final BigInteger p = prime(digits / 2, random);
+            final BigInteger q = prime(digits - digits / 2, random);
+            final SortedMap<BigInteger, Integer> factors = Primes.factorize(p.multiply(q));
+            assertEquals(p.multiply(q), multiply(factors));
+            assertTrue(factors.containsKey(p));
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkFactorization() throws Exception {
+        final Random random = new Random(1);
+        final StringBuilder report = new StringBuilder();
+        long trialDivisionTime = 0;
+        long factorizationTime = 0;
+        for (int digits = 10; digits <= 40; digits += 5) {
+            // the hardest case for given size: two factors of similar size, except for 40 digits (where ECM would take
+            // minutes) for which the smaller factor has 15 digits
+            final int smallDigits = digits == 40 ? 15 : digits / 2;
+            final BigInteger p = prime(smallDigits, random);
+            final BigInteger q = prime(digits - smallDigits, random);
+            final BigInteger n = p.multiply(q);
+
+            long startTime = System.currentTimeMillis();
+            final SortedMap<BigInteger, Integer> factors = Primes.factorize(n);
+            final long time = System.currentTimeMillis() - startTime;
+            assertEquals(n, multiply(factors));
+            assertTrue(factors.containsKey(p));
+            report.append("Factorization of ").append(n).append(" (").append(n.toString().length()).append(" digits): ")
+                    .append(time).append(" ms");
+
+            if (digits <= 15) {
+                factorizationTime = time;
+                startTime = System.currentTimeMillis();
+                assertEquals(p.longValue(), smallestFactor(n.longValue()));
+                trialDivisionTime = System.currentTimeMillis() - startTime;
+                report.append(", trial division: ").append(trialDivisionTime).append(" ms");
+            }
+            report.append('\n');
+        }
+        assertTrue(report.toString(), factorizationTime < trialDivisionTime);
+    }
+
+    // the way numbers were factorized before
+    private static long smallestFactor(long n) {
+        for (long d = 2; d * d <= n; d++) {
+            if (n % d == 0) {
+                return d;
+            }
+        }
+        return n;
+    }
+
+    private static BigInteger prime(int digits, Random random) {
+        final BigInteger min = BigInteger.TEN.pow(digits - 1);
+        BigInteger n;
+        do {
+            n = new BigInteger(min.bitLength() + 4, random).mod(min.multiply(BigInteger.valueOf(9))).add(min);
+        } while (!n.isProbablePrime(50));
+        return n;
+    }
+
+    private static BigInteger multiply(Map<BigInteger, Integer> factors) {
+        BigInteger result = BigInteger.ONE;
+        for (Map.Entry<BigInteger, Integer> factor : factors.entrySet()) {
+            assertTrue(factor.getKey().isProbablePrime(50));
+            result = result.multiply(factor.getKey().pow(factor.getValue()));
+        }
+        return result;
+    }
+
+    private static void assertFactors(String expected, long n) {
+        final StringBuilder actual = new StringBuilder();
+        for (Map.Entry<BigInteger, Integer> factor : Primes.factorize(BigInteger.valueOf(n)).entrySet()) {
+            if (actual.length() > 0) {
+                actual.append('*');
+            }
+            actual.append(factor.getKey());
+            if (factor.getValue() > 1) {
+                actual.append('^').append(factor.getValue());
+            }
+        }
+        assertEquals(expected, actual.toString());
+    }
+}
@@ -1,9 +1,22 @@
 package jscl.math;
 
 import jscl.JsclMathEngine;
+import jscl.math.function.Constant;
 import jscl.util.ExpressionGenerator;
+import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nonnull;
+
 /**
  * User: serso
  * Date: 12/14/11
@@ -12,6 +25,7 @@ import org.junit.Test;
 public class RandomExpressionTest {
 
     public static final int MAX = 1000;
+    private static final Pattern NUMBER = Pattern.compile("[0-9.]+(E-?[0-9]+)?");
 
     @Test
     public void testRandomExpressions() throws Exception {
@@ -26,4 +40,96 @@ public class RandomExpressionTest {
             i++;
         }
     }
+
+    @Test
+    public void testRandomSymbolicExpressions() throws Exception {
+        final Variable x = new Constant("x");
+        for (String expression : generateSymbolic(100)) {
+            final Generic expanded = Expression.valueOf(expression).expand();
+            Assert.assertEquals(expression, expanded, expanded.expand());
+            expanded.derivative(x);
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkEvaluation() throws Exception {
+        final List<String> expressions = generate(new ExpressionGenerator(20, new Random(0)), MAX);
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        final StringBuilder report = new StringBuilder();
+        int evaluated = 0;
+        for (int i = 0; i < 3; i++) {
+            final ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+            final long allocatedBefore = allocatedBytes(mxBean);
+            final long startTime = System.currentTimeMillis();
+            for (String expression : expressions) {
+                me.evaluate(expression);
+                evaluated++;
+            }
+            final long time = System.currentTimeMillis() - startTime;
+            final long allocated = allocatedBytes(mxBean) - allocatedBefore;
+            report.append("Evaluation of ").append(MAX).append(" random expressions: ").append(time).append(" ms")
+                    .append(allocatedBefore >= 0 ? ", " + (allocated >> 20) + " MB allocated" : "").append('\n');
+        }
+        Assert.assertEquals(report.toString(), 3 * MAX, evaluated);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkSymbolic() throws Exception {
+        final List<String> expressions = generateSymbolic(MAX);
+        final Variable x = new Constant("x");
+        final StringBuilder report = new StringBuilder();
+        int derived = 0;
+        for (int i = 0; i < 3; i++) {
+            final ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+            final long allocatedBefore = allocatedBytes(mxBean);
+            final long startTime = System.currentTimeMillis();
+            for (String expression : expressions) {
+                final Generic generic = Expression.valueOf(expression);
+                generic.expand();
+                generic.derivative(x);
+                derived++;
+            }
+            final long time = System.currentTimeMillis() - startTime;
+            final long allocated = allocatedBytes(mxBean) - allocatedBefore;
+            report.append("Expansion and derivation of ").append(MAX).append(" random expressions: ").append(time).append(" ms")
+                    .append(allocatedBefore >= 0 ? ", " + (allocated >> 20) + " MB allocated" : "").append('\n');
+        }
+        Assert.assertEquals(report.toString(), 3 * MAX, derived);
+    }
+
+    // same expressions as numeric ones but with variables instead of numbers
+    @Nonnull
+    private static List<String> generateSymbolic(int count) {
+        final List<String> expressions = new ArrayList<String>(count);
+        final String[] variables = {"x", "y", "z", "t"};
+        final Random random = new Random(1);
+        for (String expression : generate(new ExpressionGenerator(10, new Random(0)), count)) {
+            final Matcher matcher = NUMBER.matcher(expression);
+            final StringBuffer result = new StringBuffer();
+            while (matcher.find()) {
+                matcher.appendReplacement(result, variables[random.nextInt(variables.length)]);
+            }
+            matcher.appendTail(result);
+            expressions.add(result.toString());
+        }
+        return expressions;
+    }
+
+    @Nonnull
+    private static List<String> generate(@Nonnull ExpressionGenerator eg, int count) {
+        final List<String> expressions = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            expressions.add(eg.generate());
+        }
+        return expressions;
+    }
+
+    private static long allocatedBytes(ThreadMXBean mxBean) {
+        if (mxBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) mxBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,246 @@
+package jscl.math.compiler;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.NumericWrapper;
+import jscl.math.Variable;
+import jscl.math.function.Constant;
+import jscl.math.function.CustomFunction;
+import jscl.math.function.ExtendedConstant;
+import jscl.math.numeric.Real;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+
+public class DoubleCompilerTest {
+
+    @Test
+    public void testShouldEvaluateSameAsNumeric() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        final AngleUnit angleUnits = me.getAngleUnits();
+        try {
+            for (AngleUnit angleUnit : AngleUnit.values()) {
+                me.setAngleUnits(angleUnit);
+                assertSameAsNumeric("x^2+3*x-1/x");
+                assertSameAsNumeric("sin(x)*cos(2*x)+tan(x/3)-cot(x+1)");
+                assertSameAsNumeric("asin(x/10)+acos(x/10)+atan(x)+acot(x)");
+                assertSameAsNumeric("sinh(x/3)+cosh(x/3)-tanh(x)+coth(x)");
+                assertSameAsNumeric("asinh(x)+acosh(x)+atanh(x/10)+acoth(x)");
+                assertSameAsNumeric("ln(x)+lg(x)+√(x)+cubic(x)+exp(x/4)");
+                assertSameAsNumeric("abs(x)*sgn(x)+x^0.5+2^x+x^x");
+                assertSameAsNumeric("π*x+e^x-3.5*x^3/7");
+                assertSameAsNumeric("deg(x)+rad(x, 30, 15)");
+                assertSameAsNumeric("sin(x)^2+cos(x)*x^3-ln(x^2+1)/(x+10)+√(abs(x))");
+            }
+        } finally {
+            me.setAngleUnits(angleUnits);
+        }
+    }
+
+    @Test
+    public void testShouldCompileCustomFunction() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        me.getFunctionsRegistry().addOrUpdate(new CustomFunction.Builder("cf1", asList("a"), "a^2+1").create());
+
+        final CustomFunction function = new CustomFunction.Builder("", asList("x", "y"), "cf1(x)*y-sin(y)").create();
+        final DoubleExpression compiled = DoubleCompiler.compile(function);
+        final double[] arguments = new double[2];
+        for (int i = -10; i <= 10; i++) {
+            arguments[0] = i / 3.;
+            arguments[1] = i / 7.;
+            function.setParameters(new Generic[]{Expression.valueOf(arguments[0]), Expression.valueOf(arguments[1])});
+            Assert.assertEquals(doubleValue(function.numeric()), compiled.evaluate(arguments), 1e-12);
+        }
+    }
+
+    @Test
+    public void testShouldNotCompile() throws Exception {
+        assertNotCompilable("x+i");
+        assertNotCompilable("x+√(-1)");
+        assertNotCompilable("∂(x^2, x)");
+        assertNotCompilable("∫ab(t*x, t, 0, x)");
+    }
+
+    @Test
+    public void testShouldCompileSeries() throws Exception {
+        assertSameAsNumeric("Σ(x^n/(n+1), n, 0, 20)");
+        assertSameAsNumeric("∏(1+x/n, n, 1, 10)");
+        assertSameAsNumeric("Σ(sin(n*x)/n, n, 1, 10)*∏(x^2+m, m, 1, 3)");
+        assertSameAsNumeric("Σ(∏(x^2+m, m, 1, n), n, 1, 5)");
+        assertSameAsNumeric("Σ(1/n^2, n, 1, 100)*x+∫ab(sin(t)/t, t, 1, 2)");
+
+        // bounds depend on the parameter
+        final DoubleExpression compiled = compile("Σ(n, n, 1, x)");
+        Assert.assertEquals(55d, compiled.evaluate(new double[]{10}), 0d);
+        Assert.assertEquals(0d, compiled.evaluate(new double[]{0}), 0d);
+        Assert.assertTrue(Double.isNaN(compiled.evaluate(new double[]{0.5})));
+
+        // overflow
+        Assert.assertEquals(Double.POSITIVE_INFINITY, compile("Σ(x^n, n, 1, 10000)").evaluate(new double[]{2}), 0d);
+    }
+
+    @Test
+    public void testShouldCacheCompiledExpressions() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        final DoubleExpression compiled = compile("sin(x)+x^2");
+        Assert.assertSame(compiled, compile("sin(x)+x^2"));
+        Assert.assertNotSame(compiled, compile("sin(x)+x^3"));
+        final Variable x = Expression.valueOf("x").variableValue();
+        final Variable y = Expression.valueOf("y").variableValue();
+        Assert.assertNotSame(compiled, DoubleCompiler.compile(Expression.valueOf("sin(x)+x^2"), x, y));
+
+        final AngleUnit angleUnits = me.getAngleUnits();
+        try {
+            me.setAngleUnits(angleUnits == AngleUnit.rad ? AngleUnit.deg : AngleUnit.rad);
+            Assert.assertNotSame(compiled, compile("sin(x)+x^2"));
+        } finally {
+            me.setAngleUnits(angleUnits);
+        }
+        Assert.assertSame(compiled, compile("sin(x)+x^2"));
+
+        // functions with the same name and parameters but different bodies
+        final DoubleExpression f = DoubleCompiler.compile(new CustomFunction.Builder("", asList("u"), "u^2").create());
+        final DoubleExpression g = DoubleCompiler.compile(new CustomFunction.Builder("", asList("u"), "u^3").create());
+        Assert.assertEquals(9d, f.evaluate(new double[]{3}), 0d);
+        Assert.assertEquals(27d, g.evaluate(new double[]{3}), 0d);
+        Assert.assertSame(f, DoubleCompiler.compile(new CustomFunction.Builder("", asList("u"), "u^2").create()));
+
+        // changes of unrelated entities don't matter
+        me.getFunctionsRegistry().addOrUpdate(new CustomFunction.Builder("cf2", asList("a"), "a+1").create());
+        Assert.assertSame(compiled, compile("sin(x)+x^2"));
+
+        // values of constants are captured
+        me.getConstantsRegistry().addOrUpdate(new ExtendedConstant.Builder(new Constant("kc"), 2d).create());
+        try {
+            final DoubleExpression withConstant = compile("kc*x");
+            Assert.assertEquals(6d, withConstant.evaluate(new double[]{3}), 0d);
+            Assert.assertSame(withConstant, compile("kc*x"));
+            me.getConstantsRegistry().addOrUpdate(new ExtendedConstant.Builder(new Constant("kc"), 3d).create());
+            Assert.assertNotSame(withConstant, compile("kc*x"));
+            Assert.assertEquals(9d, compile("kc*x").evaluate(new double[]{3}), 0d);
+            Assert.assertSame(compiled, compile("sin(x)+x^2"));
+        } finally {
+            me.getConstantsRegistry().addOrUpdate(new ExtendedConstant.Builder(new Constant("kc"), (String) null).create());
+        }
+    }
+
+    @Test
+    public void testShouldReturnNanIfResultIsComplex() throws Exception {
+        final DoubleExpression compiled = compile("√(x)+ln(x)");
+        Assert.assertTrue(Double.isNaN(compiled.evaluate(new double[]{-1})));
+        Assert.assertEquals(1d, compiled.evaluate(new double[]{1}), 0d);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkCompiledVsNumeric() throws Exception {
+        final CustomFunction function = new CustomFunction.Builder("", Collections.singletonList("x"), "sin(x)^2+cos(x)*x^3-ln(x^2+1)/(x+10)+√(abs(x))").create();
+        final int samples = 2000;
+
+        final Generic[] parameters = new Generic[1];
+        double expected = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            parameters[0] = Expression.valueOf(i / 100.);
+            function.setParameters(parameters);
+            expected += doubleValue(function.numeric());
+        }
+        final long numericTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        final DoubleExpression compiled = DoubleCompiler.compile(function);
+        final double[] arguments = new double[1];
+        double actual = 0;
+        for (int i = 0; i < samples; i++) {
+            arguments[0] = i / 100.;
+            actual += compiled.evaluate(arguments);
+        }
+        final long compiledTime = System.nanoTime() - startTime;
+
+        Assert.assertEquals(expected, actual, Math.abs(expected) * 1e-12);
+        Assert.assertTrue("Samples: " + samples + ", numeric: " + numericTime / 1000000 + " ms, compiled (including compilation): "
+                + compiledTime / 1000000 + " ms", compiledTime < numericTime);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkCompiledSeriesVsNumeric() throws Exception {
+        final Generic series = Expression.valueOf("Σ(cos(n*t)/n^2, n, 1, 100)");
+        final Variable t = Expression.valueOf("t").variableValue();
+        final int samples = 200;
+
+        double expected = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            expected += doubleValue(series.substitute(t, Expression.valueOf(i / 100.)).numeric());
+        }
+        final long numericTime = (System.nanoTime() - startTime) / samples;
+
+        startTime = System.nanoTime();
+        final DoubleExpression compiled = DoubleCompiler.compile(series, t);
+        final long compilationTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        DoubleCompiler.compile(series, t);
+        final long cachedTime = System.nanoTime() - startTime;
+
+        final double[] arguments = new double[1];
+        double actual = 0;
+        startTime = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            arguments[0] = i / 100.;
+            actual += compiled.evaluate(arguments);
+        }
+        final long compiledTime = (System.nanoTime() - startTime) / samples;
+
+        Assert.assertEquals(expected, actual, Math.abs(expected) * 1e-12);
+        Assert.assertTrue("Series per sample: numeric: " + numericTime / 1000 + " us, compiled: " + compiledTime / 1000
+                + " us, compilation: " + compilationTime / 1000 + " us, cached compilation: " + cachedTime / 1000 + " us",
+                compiledTime < numericTime && cachedTime < compilationTime);
+    }
+
+    private static void assertSameAsNumeric(String expression) throws Exception {
+        final Expression x = Expression.valueOf("x");
+        final Generic generic = Expression.valueOf(expression);
+        final DoubleExpression compiled = compile(expression);
+        final double[] arguments = new double[1];
+        for (int i = -25; i <= 25; i++) {
+            arguments[0] = i / 5.;
+            final Generic numeric = generic.substitute(x.variableValue(), Expression.valueOf(arguments[0])).numeric();
+            final double actual = compiled.evaluate(arguments);
+            if (isReal(numeric)) {
+                final double expected = doubleValue(numeric);
+                Assert.assertEquals(expression + " for x = " + arguments[0], expected, actual, Math.abs(expected) * 1e-14);
+            } else {
+                Assert.assertTrue(expression + " for x = " + arguments[0], Double.isNaN(actual));
+            }
+        }
+    }
+
+    private static void assertNotCompilable(String expression) throws Exception {
+        try {
+            compile(expression);
+            Assert.fail();
+        } catch (NotCompilableException e) {
+            // ok
+        }
+    }
+
+    private static DoubleExpression compile(String expression) throws Exception {
+        return DoubleCompiler.compile(Expression.valueOf(expression), Expression.valueOf("x").variableValue());
+    }
+
+    private static boolean isReal(Generic numeric) {
+        return !(numeric instanceof NumericWrapper) || ((NumericWrapper) numeric).content() instanceof Real;
+    }
+
+    private static double doubleValue(Generic numeric) {
+        return numeric instanceof NumericWrapper ? ((NumericWrapper) numeric).content().doubleValue() : numeric.doubleValue();
+    }
+}
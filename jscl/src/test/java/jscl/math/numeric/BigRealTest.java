@@ -0,0 +1,116 @@
+package jscl.math.numeric;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class BigRealTest {
+
+    private static final String SQRT2 = "1.414213562373095048801688724209698078569671875376948073176679737990732478462107038850387534327641573";
+    private static final String E = "2.718281828459045235360287471352662497757247093699959574966967627724076630353547594571382178525166427";
+    private static final String LN2 = "0.6931471805599453094172321214581765680755001343602552541206800094933936219696947156058633269964186875";
+    private static final String LN3 = "1.098612288668109691395245236922525704647490557822749451734694333637494293218608966873615754813732089";
+    private static final String LN10 = "2.302585092994045684017991454684364207601101488628772976033327900967572609677352480235997205089598298";
+    private static final String PI = "3.141592653589793238462643383279502884197169399375105820974944592307816406286208998628034825342117068";
+
+    private JsclMathEngine me;
+
+    @Before
+    public void setUp() throws Exception {
+        me = JsclMathEngine.getInstance();
+        me.setAngleUnits(AngleUnit.rad);
+        me.setDigits(100);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        me.setDigits(0);
+        me.setAngleUnits(JsclMathEngine.DEFAULT_ANGLE_UNITS);
+    }
+
+    @Test
+    public void testConstants() throws Exception {
+        assertDigits(SQRT2, me.evaluate("√(2)"));
+        assertDigits(SQRT2, me.evaluate("2^0.5"));
+        assertDigits(E, me.evaluate("e"));
+        assertDigits(E, me.evaluate("exp(1)"));
+        assertDigits(LN2, me.evaluate("ln(2)"));
+        assertDigits(LN3, me.evaluate("ln(3)"));
+        assertDigits(LN10, me.evaluate("ln(10)"));
+        assertDigits(PI, me.evaluate("π"));
+        assertDigits(PI, me.evaluate("4*atan(1)"));
+        assertDigits(PI, me.evaluate("2*asin(1)"));
+        assertDigits(new BigDecimal(SQRT2).add(new BigDecimal(LN3)).toString(), me.evaluate("√(2)+ln(3)"));
+    }
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertEquals("0.3333333333", me.evaluate("1/3").substring(0, 12));
+        assertEquals(102, me.evaluate("1/3").length());
+        assertEquals("1", me.evaluate("1/3*3"));
+        assertEquals("12345678901234567890", me.evaluate("12345678901234567890/1"));
+        assertEquals("0.5", me.evaluate("sin(π/6)"));
+        assertEquals("1", me.evaluate("cos(0)"));
+    }
+
+    @Test
+    public void testDegrees() throws Exception {
+        me.setAngleUnits(AngleUnit.deg);
+        assertEquals("0.5", me.evaluate("sin(30)"));
+        assertEquals("0.5", me.evaluate("cos(60)"));
+        assertEquals("30", me.evaluate("asin(0.5)"));
+        assertEquals("45", me.evaluate("atan(1)"));
+    }
+
+    @Test
+    public void testOutOfDomain() throws Exception {
+        // falls back to double precision complex numbers
+        assertEquals("1.414213562373095*i", me.evaluate("√(-2)"));
+        assertEquals("∞", me.evaluate("1/0"));
+    }
+
+    @Test
+    public void testDoublePrecisionUnchanged() throws Exception {
+        me.setDigits(0);
+        assertEquals("1.414213562373095", me.evaluate("√(2)"));
+        assertEquals("0.333333333333333", me.evaluate("1/3"));
+        assertEquals("6.283185307179586", me.evaluate("2*π"));
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkEvaluation() throws Exception {
+        final String[] expressions = {"√(2)+ln(3)", "sin(1)*cos(2)", "e^π-π", "atan(0.5)+2^0.3"};
+
+        // warm up
+        evaluate(expressions, 20);
+
+        final int count = 200;
+        final long startTime = System.nanoTime();
+        evaluate(expressions, count);
+        final long time = (System.nanoTime() - startTime) / count / expressions.length;
+
+        assertTrue("100 digits: " + (time / 1000) + " us per evaluation", time < 50L * 1000 * 1000);
+    }
+
+    private void evaluate(String[] expressions, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            for (String expression : expressions) {
+                me.evaluate(expression);
+            }
+        }
+    }
+
+    private static void assertDigits(String expected, String actual) {
+        final BigDecimal error = new BigDecimal(expected).subtract(new BigDecimal(actual)).abs();
+        assertTrue(actual, error.compareTo(BigDecimal.ONE.movePointLeft(97)) < 0);
+    }
+}
@@ -0,0 +1,85 @@
+package jscl.math.numeric;
+
+import jscl.AngleUnit;
+import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.compiler.DoubleCompiler;
+import jscl.math.compiler.DoubleExpression;
+import jscl.text.msg.Messages;
+import org.junit.Test;
+import org.solovyev.common.msg.ListMessageRegistry;
+import org.solovyev.common.msg.Message;
+import org.solovyev.common.msg.MessageRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GaussKronrodTest {
+
+    @Test
+    public void testShouldIntegrate() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        try {
+            me.setAngleUnits(AngleUnit.rad);
+            assertIntegral(0.746824132812427, "exp(-x^2)", 0, 1);
+            assertIntegral(Math.sqrt(Math.PI), "exp(-x^2)", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+            assertIntegral(Math.sqrt(Math.PI) / 2, "exp(-x^2)", Double.NEGATIVE_INFINITY, 0);
+            assertIntegral(0.946083070367183, "sin(x)/x", 0, 1);
+            assertIntegral(-0.946083070367183, "sin(x)/x", 1, 0);
+            assertIntegral(1, "1/x^2", 1, Double.POSITIVE_INFINITY);
+            assertIntegral(2, "1/√(x)", 0, 1);
+            assertIntegral(0, "sin(x)", -Math.PI, Math.PI);
+            assertIntegral(0, "x", 5, 5);
+        } finally {
+            me.setAngleUnits(JsclMathEngine.DEFAULT_ANGLE_UNITS);
+        }
+    }
+
+    @Test
+    public void testShouldFailIfFunctionIsUndefined() throws Exception {
+        try {
+            GaussKronrod.integrate(compile("ln(x)"), -1, 1);
+            fail();
+        } catch (ArithmeticException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testIntegralShouldFallBackToNumericIntegration() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        final MessageRegistry messageRegistry = me.getMessageRegistry();
+        try {
+            me.setAngleUnits(AngleUnit.rad);
+            final ListMessageRegistry messages = new ListMessageRegistry();
+            me.setMessageRegistry(messages);
+
+            assertEquals("0.746824132812427", Expression.valueOf("∫ab(exp(-x^2), x, 0, 1)").expand().numeric().toString());
+            assertEquals("1.772453850905516", Expression.valueOf("∫ab(exp(-x^2), x, -∞, ∞)").expand().numeric().toString());
+            assertEquals("0.946083070367183", Expression.valueOf("∫ab(sin(x)/x, x, 0, 1)").numeric().toString());
+            // symbolic integration is still preferred
+            assertEquals("50", Expression.valueOf("∫ab(x, x, 0, 10)").numeric().toString());
+
+            boolean found = false;
+            while (messages.hasMessage()) {
+                final Message message = messages.getMessage();
+                found |= Messages.msg_26.equals(message.getMessageCode());
+            }
+            assertTrue(found);
+        } finally {
+            me.setMessageRegistry(messageRegistry);
+            me.setAngleUnits(JsclMathEngine.DEFAULT_ANGLE_UNITS);
+        }
+    }
+
+    private static void assertIntegral(double expected, String function, double a, double b) throws Exception {
+        final GaussKronrod.Result result = GaussKronrod.integrate(compile(function), a, b);
+        assertEquals(function, expected, result.value, 1e-12);
+        assertTrue(function + ", error: " + result.error, result.error <= 1e-10);
+    }
+
+    private static DoubleExpression compile(String function) throws Exception {
+        return DoubleCompiler.compile(Expression.valueOf(function), Expression.valueOf("x").variableValue());
+    }
+}
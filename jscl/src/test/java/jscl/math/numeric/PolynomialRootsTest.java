@@ -0,0 +1,165 @@
+package jscl.math.numeric;
+
+import jscl.JsclMathEngine;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class PolynomialRootsTest {
+
+    @Test
+    public void testOrder() throws Exception {
+        // x^2 - 2
+        assertRoots(new double[][]{{Math.sqrt(2), -Math.sqrt(2)}, {0, 0}}, new double[]{-2, 0, 1}, 1e-15);
+        // x^2 + 1
+        assertRoots(new double[][]{{0, 0}, {1, -1}}, new double[]{1, 0, 1}, 0);
+        // x^3
+        assertRoots(new double[][]{{0, 0, 0}, {0, 0, 0}}, new double[]{0, 0, 0, 1}, 0);
+        // (x - 1)(x - 2)...(x - 10)
+        final double[] roots = new double[10];
+        double[] coefficients = {1};
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = roots.length - i;
+            coefficients = multiply(coefficients, i + 1);
+        }
+        assertRoots(new double[][]{roots, new double[roots.length]}, coefficients, 1e-9);
+    }
+
+    @Test
+    public void testComplexCoefficients() throws Exception {
+        // (x - i)(x - 2) = x^2 - (2 + i) x + 2i
+        final double[][] roots = PolynomialRoots.solve(new double[]{0, -2, 1}, new double[]{2, -1, 0});
+        assertEquals(2d, roots[0][0], 1e-15);
+        assertEquals(0d, roots[1][0], 1e-15);
+        assertEquals(0d, roots[0][1], 1e-15);
+        assertEquals(1d, roots[1][1], 1e-15);
+    }
+
+    @Test
+    public void testQuintic() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        assertEquals("1.167303978261419", me.evaluate("solve(y^5-y-1, y)"));
+        assertEquals("0.181232444469875+1.083954101317711*i", me.evaluate("solve(y^5-y-1, y, 1)"));
+        assertEquals("0.181232444469875-1.083954101317711*i", me.evaluate("solve(y^5-y-1, y, 2)"));
+        assertEquals("-0.764884433600585+0.352471546031726*i", me.evaluate("solve(y^5-y-1, y, 3)"));
+        assertEquals("-0.764884433600585-0.352471546031726*i", me.evaluate("solve(y^5-y-1, y, 4)"));
+        assertEquals("1.414213562373095", me.evaluate("solve(y^2-2, y)"));
+        assertEquals("-1.414213562373095", me.evaluate("solve(y^2-2, y, 1)"));
+        assertEquals("6", me.evaluate("solve(y^5-7776, y)"));
+        try {
+            me.evaluate("solve(y^5-y-1, y, 5)");
+            assertTrue(false);
+        } catch (ArithmeticException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        final double[] re = {-1, -1, 0, 0, 0, 1};
+        final double[] im = new double[re.length];
+        assertSame(PolynomialRoots.roots(re, im), PolynomialRoots.roots(re.clone(), im.clone()));
+    }
+
+    @Test
+    public void testRandomPolynomials() throws Exception {
+        final Random random = new Random(42);
+        for (int degree = 1; degree <= 100; degree++) {
+            final double[] re = randomCoefficients(random, degree);
+            final double[] im = new double[re.length];
+            final double[][] roots = PolynomialRoots.solve(re, im);
+            assertEquals(degree, roots[0].length);
+            for (int i = 0; i < degree; i++) {
+                assertTrue(degree + ": " + roots[0][i] + "+" + roots[1][i] + "*i", residual(re, roots[0][i], roots[1][i]) < 1e-12);
+            }
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkSolve() throws Exception {
+        final Random random = new Random(42);
+        final StringBuilder report = new StringBuilder();
+        long time = 0;
+        for (int degree : new int[]{5, 20, 100}) {
+            final double[][] coefficients = new double[20][];
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = randomCoefficients(random, degree);
+            }
+            final double[] im = new double[degree + 1];
+
+            // warm up
+            solve(coefficients, im, 5);
+
+            final int count = degree == 100 ? 5 : 50;
+            final long startTime = System.nanoTime();
+            solve(coefficients, im, count);
+            time = (System.nanoTime() - startTime) / count / coefficients.length;
+            report.append("Degree ").append(degree).append(": ").append(time / 1000).append(" us per polynomial\n");
+        }
+        // the last one is of degree 100
+        assertTrue(report.toString(), time < 100L * 1000 * 1000);
+    }
+
+    private static void solve(double[][] coefficients, double[] im, int count) {
+        for (int i = 0; i < count; i++) {
+            for (double[] re : coefficients) {
+                PolynomialRoots.solve(re, im);
+            }
+        }
+    }
+
+    private static double[] randomCoefficients(Random random, int degree) {
+        final double[] result = new double[degree + 1];
+        for (int k = 0; k <= degree; k++) {
+            result[k] = random.nextGaussian();
+        }
+        return result;
+    }
+
+    private static double[] multiply(double[] coefficients, double root) {
+        // (x - root) * p(x)
+        final double[] result = new double[coefficients.length + 1];
+        for (int k = 0; k < coefficients.length; k++) {
+            result[k + 1] += coefficients[k];
+            result[k] -= root * coefficients[k];
+        }
+        return result;
+    }
+
+    // |p(z)| / sum(|a[k]| |z|^k)
+    private static double residual(double[] re, double x, double y) {
+        final double modulus = Math.hypot(x, y);
+        final boolean reversed = modulus > 1;
+        if (reversed) {
+            final double m = x * x + y * y;
+            x = x / m;
+            y = -y / m;
+        }
+        double pr = 0;
+        double pi = 0;
+        double s = 0;
+        for (int i = 0; i < re.length; i++) {
+            final double a = re[reversed ? i : re.length - 1 - i];
+            final double tr = pr * x - pi * y + a;
+            pi = pr * y + pi * x;
+            pr = tr;
+            s = s * Math.hypot(x, y) + Math.abs(a);
+        }
+        return Math.hypot(pr, pi) / s;
+    }
+
+    private static void assertRoots(double[][] expected, double[] coefficients, double delta) {
+        final double[][] actual = PolynomialRoots.solve(coefficients, new double[coefficients.length]);
+        assertEquals(expected[0].length, actual[0].length);
+        for (int i = 0; i < expected[0].length; i++) {
+            assertEquals(expected[0][i], actual[0][i], delta);
+            assertEquals(expected[1][i], actual[1][i], delta);
+        }
+    }
+}
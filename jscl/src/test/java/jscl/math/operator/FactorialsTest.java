@@ -0,0 +1,70 @@
+package jscl.math.operator;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FactorialsTest {
+
+    @Test
+    public void testShouldBeSameAsNaiveProduct() throws Exception {
+        for (int n = 0; n < 500; n++) {
+            assertEquals("n=" + n, naiveProduct(n, 1), Factorials.factorial(n));
+            assertEquals("n=" + n, naiveProduct(n, 2), Factorials.doubleFactorial(n));
+        }
+        assertEquals(naiveProduct(12345, 1), Factorials.factorial(12345));
+        assertEquals(naiveProduct(12345, 2), Factorials.doubleFactorial(12345));
+        assertEquals(naiveProduct(12346, 2), Factorials.doubleFactorial(12346));
+    }
+
+    @Test
+    public void testShouldNotAcceptNegativeNumbers() throws Exception {
+        try {
+            Factorials.factorial(-1);
+            fail();
+        } catch (ArithmeticException e) {
+            // ok
+        }
+        try {
+            Factorials.doubleFactorial(-1);
+            fail();
+        } catch (ArithmeticException e) {
+            // ok
+        }
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkSplittingVsNaive() throws Exception {
+        final StringBuilder report = new StringBuilder();
+        long naiveTime = 0;
+        long splittingTime = 0;
+        for (int n : new int[]{1000, 10000, 100000}) {
+            long startTime = System.currentTimeMillis();
+            final BigInteger expected = naiveProduct(n, 1);
+            naiveTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final BigInteger actual = Factorials.factorial(n);
+            splittingTime = System.currentTimeMillis() - startTime;
+
+            assertEquals(expected, actual);
+            report.append("n=").append(n).append(", naive: ").append(naiveTime).append(" ms, binary splitting: ")
+                    .append(splittingTime).append(" ms\n");
+        }
+        assertTrue(report.toString(), splittingTime < naiveTime);
+    }
+
+    private static BigInteger naiveProduct(int n, int step) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = n; i > 1; i -= step) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+}
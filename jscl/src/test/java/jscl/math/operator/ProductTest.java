@@ -0,0 +1,95 @@
+package jscl.math.operator;
+
+import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import jscl.math.Variable;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProductTest {
+
+    @Test
+    public void testShouldUseClosedForms() throws Exception {
+        assertEquals(Factorials.factorial(10000), Expression.valueOf("∏(n, n, 1, 10000)").expand().integerValue().content());
+        assertEquals(Factorials.doubleFactorial(4000), Expression.valueOf("∏(2*n, n, 1, 2000)").expand().integerValue().content());
+        assertEquals("0", Expression.valueOf("∏(n+5, n, -100, 100)").expand().toString());
+
+        // closed forms must agree with the term by term multiplication
+        for (String factor : new String[]{"n", "n+3", "2*n-4", "-3*n+6", "n-50", "7", "x"}) {
+            assertEquals(factor, naiveProduct(factor, -30, -10), Expression.valueOf("∏(" + factor + ", n, -30, -10)").expand().simplify());
+            assertEquals(factor, naiveProduct(factor, 1, 40), Expression.valueOf("∏(" + factor + ", n, 1, 40)").expand().simplify());
+        }
+    }
+
+    @Test
+    public void testShouldMultiplyNumerically() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        assertEquals("∞", me.evaluate("∏(n, n, 1, 1000000)"));
+        // Wallis product
+        assertEquals("1.570795934096074", me.evaluate("∏(4*n^2/(4*n^2-1), n, 1, 1000000)"));
+    }
+
+    @Test
+    public void testShouldBeSameAsNaiveNumeric() throws Exception {
+        final Generic factor = Expression.valueOf("1+1/n^2");
+        final Variable n = Expression.valueOf("n").variableValue();
+        Generic expected = JsclInteger.valueOf(1).numeric();
+        for (int i = 1; i <= 1000; i++) {
+            expected = expected.multiply(factor.substitute(n, JsclInteger.valueOf(i)).numeric());
+        }
+        assertEquals(expected.doubleValue(), Expression.valueOf("∏(1+1/n^2, n, 1, 1000)").numeric().doubleValue(), 1e-12);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkClosedFormAndCompiledVsNaive() throws Exception {
+        final StringBuilder report = new StringBuilder();
+        long naiveTime = 0;
+        long closedFormTime = 0;
+        long naiveNumericTime = 0;
+        long compiledTime = 0;
+        for (int to : new int[]{1000, 10000, 100000}) {
+            long startTime = System.currentTimeMillis();
+            final Generic expected = naiveProduct("n+1", 1, to);
+            naiveTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final Generic actual = Expression.valueOf("∏(n+1, n, 1, " + to + ")").expand();
+            closedFormTime = System.currentTimeMillis() - startTime;
+            assertEquals(expected, actual);
+
+            startTime = System.currentTimeMillis();
+            final Generic factor = Expression.valueOf("1+1/n^2");
+            final Variable n = Expression.valueOf("n").variableValue();
+            Generic naiveNumeric = JsclInteger.valueOf(1).numeric();
+            for (int i = 1; i <= to; i++) {
+                naiveNumeric = naiveNumeric.multiply(factor.substitute(n, JsclInteger.valueOf(i)).numeric());
+            }
+            naiveNumericTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final Generic compiled = Expression.valueOf("∏(1+1/n^2, n, 1, " + to + ")").numeric();
+            compiledTime = System.currentTimeMillis() - startTime;
+            assertEquals(naiveNumeric.doubleValue(), compiled.doubleValue(), 1e-12);
+
+            report.append("n=").append(to).append(", naive: ").append(naiveTime).append(" ms, closed form: ").append(closedFormTime)
+                    .append(" ms, naive numeric: ").append(naiveNumericTime).append(" ms, compiled: ").append(compiledTime).append(" ms\n");
+        }
+        assertTrue(report.toString(), closedFormTime < naiveTime && compiledTime < naiveNumericTime);
+    }
+
+    private static Generic naiveProduct(String factor, int from, int to) throws Exception {
+        final Generic expression = Expression.valueOf(factor).expand();
+        final Variable n = Expression.valueOf("n").variableValue();
+        Generic result = JsclInteger.valueOf(1);
+        for (int i = from; i <= to; i++) {
+            result = result.multiply(expression.substitute(n, JsclInteger.valueOf(i)));
+        }
+        return result.simplify();
+    }
+}
@@ -1,11 +1,19 @@
 package jscl.math.operator;
 
 import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import jscl.math.Variable;
 import jscl.math.function.Constant;
 import jscl.math.function.ExtendedConstant;
+import org.junit.Ignore;
 import org.junit.Test;
 
+import java.math.BigInteger;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class SumTest {
 
@@ -19,4 +27,93 @@ public class SumTest {
         assertEquals("51.73529646243829", me.evaluate("Σ((1+x/i)^i, i, 1, 10)"));
         assertEquals("686.0048440525586", me.evaluate("Σ((1+x/i)^i, i, 1, 100)"));
     }
+
+    @Test
+    public void testShouldUseClosedForms() throws Exception {
+        assertEquals("333333833333500000", Expression.valueOf("Σ(n^2, n, 1, 1000000)").expand().toString());
+        assertEquals("500000500000", Expression.valueOf("Σ(n, n, 1, 1000000)").expand().toString());
+        assertEquals("0", Expression.valueOf("Σ(n^3, n, -1000, 1000)").expand().toString());
+        assertEquals(BigInteger.valueOf(2).pow(1001).subtract(BigInteger.valueOf(2)), Expression.valueOf("Σ(2^n, n, 1, 1000)").expand().integerValue().content());
+
+        // closed forms must agree with the term by term summation
+        for (String summand : new String[]{"n^2", "3*n^3-2*n+7", "n^4/2", "2^n", "3*2^(2*n+1)", "n+2^n", "(1/2)^n"}) {
+            assertEquals(summand, naiveSum(summand, -3, 40), Expression.valueOf("Σ(" + summand + ", n, -3, 40)").expand().simplify());
+        }
+    }
+
+    @Test
+    public void testShouldSumNumerically() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        assertEquals("14.39272672286572", me.evaluate("Σ(1/n, n, 1, 1000000)"));
+        assertEquals("1.644933066848727", me.evaluate("Σ(1/n^2, n, 1, 1000000)"));
+        assertEquals("1", me.evaluate("Σ((1/2)^n, n, 1, 100000)"));
+        assertEquals("0.75", me.evaluate("Σ((1/2)^n, n, 1, 2)"));
+        assertEquals("1", me.evaluate("Σ(2^(-n), n, 1, 100000)"));
+    }
+
+    @Test(timeout = 10000)
+    public void testShouldOverflowNumerically() throws Exception {
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        assertEquals("∞", me.evaluate("Σ(2^i, i, 1, 10000000)"));
+        assertEquals("-∞", me.evaluate("Σ(-2^i, i, 1, 10000000)"));
+    }
+
+    @Test
+    public void testShouldBeSameAsNaiveNumeric() throws Exception {
+        final Generic summand = Expression.valueOf("1/n");
+        final Variable n = Expression.valueOf("n").variableValue();
+        Generic expected = JsclInteger.valueOf(0).numeric();
+        for (int i = 1; i <= 1000; i++) {
+            expected = expected.add(summand.substitute(n, JsclInteger.valueOf(i)).numeric());
+        }
+        assertEquals(expected.doubleValue(), Expression.valueOf("Σ(1/n, n, 1, 1000)").numeric().doubleValue(), 1e-12);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkClosedFormAndCompiledVsNaive() throws Exception {
+        final StringBuilder report = new StringBuilder();
+        long naiveTime = 0;
+        long closedFormTime = 0;
+        long naiveNumericTime = 0;
+        long compiledTime = 0;
+        for (int to : new int[]{1000, 10000, 100000}) {
+            long startTime = System.currentTimeMillis();
+            final Generic expected = naiveSum("n^2", 1, to);
+            naiveTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final Generic actual = Expression.valueOf("Σ(n^2, n, 1, " + to + ")").expand();
+            closedFormTime = System.currentTimeMillis() - startTime;
+            assertEquals(expected, actual);
+
+            startTime = System.currentTimeMillis();
+            final Generic summand = Expression.valueOf("1/n");
+            final Variable n = Expression.valueOf("n").variableValue();
+            Generic naiveNumeric = JsclInteger.valueOf(0).numeric();
+            for (int i = 1; i <= to; i++) {
+                naiveNumeric = naiveNumeric.add(summand.substitute(n, JsclInteger.valueOf(i)).numeric());
+            }
+            naiveNumericTime = System.currentTimeMillis() - startTime;
+
+            startTime = System.currentTimeMillis();
+            final Generic compiled = Expression.valueOf("Σ(1/n, n, 1, " + to + ")").numeric();
+            compiledTime = System.currentTimeMillis() - startTime;
+            assertEquals(naiveNumeric.doubleValue(), compiled.doubleValue(), 1e-12);
+
+            report.append("n=").append(to).append(", naive: ").append(naiveTime).append(" ms, closed form: ").append(closedFormTime)
+                    .append(" ms, naive numeric: ").append(naiveNumericTime).append(" ms, compiled: ").append(compiledTime).append(" ms\n");
+        }
+        assertTrue(report.toString(), closedFormTime < naiveTime && compiledTime < naiveNumericTime);
+    }
+
+    private static Generic naiveSum(String summand, int from, int to) throws Exception {
+        final Generic expression = Expression.valueOf(summand).expand();
+        final Variable n = Expression.valueOf("n").variableValue();
+        Generic result = JsclInteger.valueOf(0);
+        for (int i = from; i <= to; i++) {
+            result = result.add(expression.substitute(n, JsclInteger.valueOf(i)));
+        }
+        return result.simplify();
+    }
 }
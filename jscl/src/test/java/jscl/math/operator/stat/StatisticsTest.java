@@ -0,0 +1,237 @@
+package jscl.math.operator.stat;
+
+import jscl.JsclMathEngine;
+import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import jscl.math.JsclVector;
+import jscl.math.NumericWrapper;
+import jscl.math.numeric.Complex;
+import jscl.math.numeric.Real;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatisticsTest {
+
+    @Test
+    public void testFunctions() throws Exception {
+        final JsclVector vector = vector(4, 1, 9, 3, 8);
+        assertEquals(5d, new Mean(vector).numeric().doubleValue(), 1e-15);
+        assertEquals(1d, new Min(vector).numeric().doubleValue(), 0);
+        assertEquals(9d, new Max(vector).numeric().doubleValue(), 0);
+        assertEquals(4d, new Median(vector).numeric().doubleValue(), 0);
+        assertEquals(1d, new Quantile(vector, JsclInteger.valueOf(0)).numeric().doubleValue(), 0);
+        assertEquals(3d, new Quantile(vector, new NumericWrapper(Real.valueOf(0.25))).numeric().doubleValue(), 0);
+        assertEquals(8.5d, new Quantile(vector, new NumericWrapper(Real.valueOf(0.875))).numeric().doubleValue(), 1e-15);
+        // squared deviations: 1 + 16 + 16 + 4 + 9 = 46
+        assertEquals(Math.sqrt(46d / 5), new MeanSquareDeviation(vector).numeric().doubleValue(), 1e-15);
+        assertEquals(Math.sqrt(46d / 4), new StandardDeviation(vector).numeric().doubleValue(), 1e-15);
+
+        assertEquals(5.5d, new Median(vector(4, 1, 9, 3, 8, 7)).numeric().doubleValue(), 0);
+
+        try {
+            new Quantile(vector, new NumericWrapper(Real.valueOf(1.5))).numeric();
+            assertTrue(false);
+        } catch (ArithmeticException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testExactPath() throws Exception {
+        final Generic[] elements = {complex(1, 1), complex(4, -1), complex(7, 3)};
+        assertNull(Statistics.toDoubles(elements));
+
+        final JsclVector vector = new JsclVector(elements);
+        assertEquals("4+i", new Mean(vector).numeric().toString());
+        assertEquals("1+i", new Min(vector).numeric().toString());
+        assertEquals("7+3*i", new Max(vector).numeric().toString());
+        assertEquals("4-i", new Median(vector).numeric().toString());
+
+        final JsclMathEngine me = JsclMathEngine.getInstance();
+        me.setDigits(30);
+        try {
+            final JsclVector big = vector(1, 5, 6);
+            assertNull(Statistics.toDoubles(big.elements()));
+            assertEquals("4", new Mean(big).numeric().toString());
+            assertEquals("1", new Min(big).numeric().toString());
+            assertEquals("6", new Max(big).numeric().toString());
+            assertEquals("5", new Median(big).numeric().toString());
+            // squared deviations: 9 + 1 + 4 = 14
+            assertTrue(new StandardDeviation(big).numeric().toString().startsWith("2.6457513110645905905016157536"));
+        } finally {
+            me.setDigits(0);
+        }
+    }
+
+    @Test
+    public void testAgainstNaive() throws Exception {
+        final Random random = new Random(42);
+        for (int n : new int[]{1, 2, 3, 10, 1000, 100001}) {
+            final double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = 1e6 + random.nextGaussian();
+            }
+
+            final Statistics statistics = Statistics.of(values);
+            double sum = 0;
+            for (double value : values) {
+                sum += value;
+            }
+            final double mean = sum / n;
+            double m2 = 0;
+            for (double value : values) {
+                m2 += (value - mean) * (value - mean);
+            }
+
+            final double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(n, statistics.count);
+            // naive summation loses up to n ulps
+            assertEquals(mean, statistics.mean, 1e-6);
+            assertEquals(m2 / n, statistics.variance(), 1e-6);
+            assertEquals(sorted[0], statistics.min, 0);
+            assertEquals(sorted[n - 1], statistics.max, 0);
+            for (int k = 0; k < n; k += 1 + n / 20) {
+                assertEquals(sorted[k], Statistics.select(values.clone(), k), 0);
+            }
+            for (double p : new double[]{0, 0.1, 0.25, 0.5, 0.9, 1}) {
+                final double h = (n - 1) * p;
+                final int k = (int) Math.floor(h);
+                final double expected = k + 1 < n ? sorted[k] + (h - k) * (sorted[k + 1] - sorted[k]) : sorted[k];
+                assertEquals(expected, Statistics.quantile(values.clone(), p), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicates() throws Exception {
+        final double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3;
+        }
+        assertEquals(0d, Statistics.select(values.clone(), 333), 0);
+        assertEquals(1d, Statistics.select(values.clone(), 334), 0);
+        assertEquals(1d, Statistics.quantile(values.clone(), 0.5), 0);
+        assertTrue(Double.isNaN(Statistics.quantile(new double[]{1, Double.NaN, 3}, 0.5)));
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final double[] values = randomValues(new Random(42), 1000000);
+        final Statistics expected = Statistics.of(values);
+        JsclMathEngine.getInstance().setThreads(4);
+        try {
+            final Statistics actual = Statistics.of(values);
+            assertEquals(expected.count, actual.count);
+            assertEquals(expected.mean, actual.mean, 1e-12);
+            assertEquals(expected.variance(), actual.variance(), 1e-12);
+            assertEquals(expected.min, actual.min, 0);
+            assertEquals(expected.max, actual.max, 0);
+        } finally {
+            JsclMathEngine.getInstance().setThreads(1);
+        }
+    }
+
+    @Test
+    public void testStandardDeviationOfVector() throws Exception {
+        final int n = 10000;
+        final double[] values = randomValues(new Random(42), n);
+        final Generic[] elements = new Generic[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = new NumericWrapper(Real.valueOf(values[i]));
+        }
+        final double expected = Math.sqrt(AbstractStatFunction.squaredDeviations(elements).doubleValue() / (n - 1));
+        assertEquals(expected, new StandardDeviation(new JsclVector(elements)).numeric().doubleValue(), 1e-12);
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkStatistics() throws Exception {
+        final Random random = new Random(42);
+        final StringBuilder report = new StringBuilder();
+        long kernelTime = 0;
+        long exactTime = 0;
+        for (int n : new int[]{100000, 1000000}) {
+            final double[] values = randomValues(random, n);
+            final Generic[] elements = new Generic[n];
+            for (int i = 0; i < n; i++) {
+                elements[i] = new NumericWrapper(Real.valueOf(values[i]));
+            }
+            final JsclVector vector = new JsclVector(elements);
+
+            // warm up
+            for (int i = 0; i < 3; i++) {
+                new StandardDeviation(vector).numeric();
+                new Median(vector).numeric();
+                AbstractStatFunction.squaredDeviations(elements);
+            }
+
+            final int count = 5;
+            long startTime = System.nanoTime();
+            double actual = 0;
+            for (int i = 0; i < count; i++) {
+                actual = new StandardDeviation(vector).numeric().doubleValue();
+            }
+            kernelTime = (System.nanoTime() - startTime) / count;
+
+            startTime = System.nanoTime();
+            double expected = 0;
+            for (int i = 0; i < count; i++) {
+                expected = Math.sqrt(AbstractStatFunction.squaredDeviations(elements).doubleValue() / (n - 1));
+            }
+            exactTime = (System.nanoTime() - startTime) / count;
+            assertEquals(expected, actual, 1e-12);
+
+            startTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                new Median(vector).numeric();
+            }
+            final long medianTime = (System.nanoTime() - startTime) / count;
+
+            JsclMathEngine.getInstance().setThreads(Runtime.getRuntime().availableProcessors());
+            try {
+                new StandardDeviation(vector).numeric();
+                startTime = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    new StandardDeviation(vector).numeric();
+                }
+            } finally {
+                JsclMathEngine.getInstance().setThreads(1);
+            }
+            final long parallelTime = (System.nanoTime() - startTime) / count;
+
+            report.append(n).append(" elements: st_dev ").append(kernelTime / 1000).append(" us (").append(parallelTime / 1000)
+                    .append(" us in parallel, ").append(exactTime / 1000).append(" us by Generic arithmetic), median ")
+                    .append(medianTime / 1000).append(" us\n");
+        }
+        assertTrue(report.toString(), kernelTime < exactTime);
+    }
+
+    private static double[] randomValues(Random random, int n) {
+        final double[] result = new double[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = random.nextGaussian();
+        }
+        return result;
+    }
+
+    private static JsclVector vector(int... values) {
+        final Generic[] elements = new Generic[values.length];
+        for (int i = 0; i < values.length; i++) {
+            elements[i] = JsclInteger.valueOf(values[i]);
+        }
+        return new JsclVector(elements);
+    }
+
+    private static Generic complex(double real, double imaginary) {
+        return new NumericWrapper(Complex.valueOf(real, imaginary));
+    }
+}
@@ -0,0 +1,147 @@
+package jscl.math.polynomial;
+
+import jscl.JsclMathEngine;
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.JsclInteger;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModularGcdTest {
+
+    @Test
+    public void testGcd() throws Exception {
+        assertEquals(Expression.valueOf("t+1").expand(), gcd("t^2-1", "t^2+2*t+1"));
+        assertEquals(Expression.valueOf("6*t+6").expand(), gcd("6*t^2-6", "12*t^2+24*t+12"));
+        assertEquals(Expression.valueOf("3-2*t^2").expand(), gcd("-(2*t^2-3)*(t+5)", "(2*t^2-3)^2*(7*t-1)"));
+        assertEquals(JsclInteger.valueOf(1), gcd("t^3+t+1", "t^2+3"));
+        assertEquals(JsclInteger.valueOf(3), gcd("3*t^3+3*t+3", "6*t^2+18"));
+        assertEquals(Expression.valueOf("t^5-t+1").expand(), gcd("t^5-t+1", "t^5-t+1"));
+    }
+
+    @Test
+    public void testAgainstRemainderSequence() throws Exception {
+        final Random random = new Random(42);
+        final Polynomial factory = factory();
+        for (int i = 0; i < 50; i++) {
+            final UnivariatePolynomial g = random(factory, random, random.nextInt(6), 100);
+            final UnivariatePolynomial p = (UnivariatePolynomial) g.multiply(random(factory, random, 1 + random.nextInt(8), 100)).normalize();
+            final UnivariatePolynomial q = (UnivariatePolynomial) g.multiply(random(factory, random, 1 + random.nextInt(8), 100)).normalize();
+            final UnivariatePolynomial expected = p.subresultantGcd(q);
+            final UnivariatePolynomial actual = p.modularGcd(q);
+            assertNotNull(actual);
+            assertEquals(expected.genericValue(), actual.genericValue());
+        }
+    }
+
+    @Test
+    public void testBigCoefficients() throws Exception {
+        // coefficients of the gcd need several primes
+        final BigInteger big = BigInteger.TEN.pow(40);
+        final BigInteger[] g = {big.add(BigInteger.ONE), big.negate(), BigInteger.valueOf(3).multiply(big).add(BigInteger.valueOf(7))};
+        final BigInteger[] a = multiply(g, new BigInteger[]{BigInteger.valueOf(-5), BigInteger.ONE, BigInteger.valueOf(2)});
+        final BigInteger[] b = multiply(g, new BigInteger[]{BigInteger.valueOf(11), BigInteger.ZERO, BigInteger.ONE});
+        final BigInteger[] actual = ModularGcd.gcd(a, b);
+        assertNotNull(actual);
+        assertEquals(g.length, actual.length);
+        for (int i = 0; i < g.length; i++) {
+            assertEquals(g[i], actual[i]);
+        }
+        assertTrue(ModularGcd.divides(g, a));
+        assertFalse(ModularGcd.divides(g, new BigInteger[]{BigInteger.ONE, BigInteger.ONE, BigInteger.ONE}));
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final Random random = new Random(42);
+        final Polynomial factory = factory();
+        final UnivariatePolynomial g = random(factory, random, 50, 1 << 20);
+        final UnivariatePolynomial p = (UnivariatePolynomial) g.multiply(random(factory, random, 50, 1 << 20)).normalize();
+        final UnivariatePolynomial q = (UnivariatePolynomial) g.multiply(random(factory, random, 50, 1 << 20)).normalize();
+        final UnivariatePolynomial expected = p.modularGcd(q);
+        JsclMathEngine.getInstance().setThreads(4);
+        try {
+            assertEquals(expected.genericValue(), p.modularGcd(q).genericValue());
+        } finally {
+            JsclMathEngine.getInstance().setThreads(1);
+        }
+        assertEquals(g.normalize().genericValue(), expected.genericValue());
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkModularVsSubresultant() throws Exception {
+        final Random random = new Random(42);
+        final Polynomial factory = factory();
+        final StringBuilder report = new StringBuilder();
+        long modularTime = 0;
+        long subresultantTime = 0;
+        for (int degree : new int[]{50, 200}) {
+            final UnivariatePolynomial g = random(factory, random, degree / 2, 100);
+            final UnivariatePolynomial p = (UnivariatePolynomial) g.multiply(random(factory, random, degree / 2, 100));
+            final UnivariatePolynomial q = (UnivariatePolynomial) g.multiply(random(factory, random, degree / 2, 100));
+
+            // warm up
+            for (int i = 0; i < 5; i++) {
+                p.gcd(q);
+            }
+
+            final int count = 10;
+            long startTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                p.gcd(q);
+            }
+            modularTime = (System.nanoTime() - startTime) / count;
+
+            final UnivariatePolynomial pp = (UnivariatePolynomial) p.normalize();
+            final UnivariatePolynomial qq = (UnivariatePolynomial) q.normalize();
+            startTime = System.nanoTime();
+            final UnivariatePolynomial expected = pp.subresultantGcd(qq);
+            subresultantTime = System.nanoTime() - startTime;
+
+            assertEquals(expected.genericValue(), p.gcd(q).normalize().genericValue());
+            report.append("Degree ").append(degree).append(": ").append(modularTime / 1000).append(" us (")
+                    .append(subresultantTime / 1000).append(" us by subresultant remainder sequence)\n");
+        }
+        assertTrue(report.toString(), modularTime < subresultantTime);
+    }
+
+    private static Polynomial factory() throws Exception {
+        return Polynomial.factory(Expression.valueOf("t").variableValue());
+    }
+
+    private static Generic gcd(String a, String b) throws Exception {
+        return Expression.valueOf(a).expand().gcd(Expression.valueOf(b).expand());
+    }
+
+    private static UnivariatePolynomial random(Polynomial factory, Random random, int degree, int maxCoefficient) {
+        final Generic[] coefficients = new Generic[degree + 1];
+        for (int i = 0; i <= degree; i++) {
+            coefficients[i] = JsclInteger.valueOf(random.nextInt(2 * maxCoefficient + 1) - maxCoefficient);
+        }
+        if (coefficients[degree].signum() == 0) {
+            coefficients[degree] = JsclInteger.valueOf(1);
+        }
+        return ((UnivariatePolynomial) factory).valueof(coefficients);
+    }
+
+    private static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+        final BigInteger[] result = new BigInteger[a.length + b.length - 1];
+        Arrays.fill(result, BigInteger.ZERO);
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] = result[i + j].add(a[i].multiply(b[j]));
+            }
+        }
+        return result;
+    }
+}
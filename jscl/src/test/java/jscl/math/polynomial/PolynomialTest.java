@@ -0,0 +1,45 @@
+package jscl.math.polynomial;
+
+import jscl.math.Expression;
+import jscl.math.Generic;
+import jscl.math.Variable;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PolynomialTest {
+
+    @Test
+    public void testMultiplication() throws Exception {
+        final Generic p = Expression.valueOf("3*x^2*y-2*x*y^2+5*z-7*x+4*y*z-1").expand();
+        final Generic q = Expression.valueOf("x^3+2*x*y^2*z-y+9*z^2-x*z").expand();
+        final Generic expected = p.multiply(q);
+        final Variable[] variables = Expression.variables(new Generic[]{p, q});
+
+        final Ordering[] orderings = {Monomial.lexicographic, Monomial.totalDegreeLexicographic, Monomial.degreeReverseLexicographic};
+        final int[] dataStructures = {Basis.ARRAY_DECLINED, Basis.ARRAY, Basis.TREE, Basis.LIST};
+        for (Ordering ordering : orderings) {
+            for (int dataStructure : dataStructures) {
+                for (int modulo : new int[]{-1, 0}) {
+                    final Polynomial factory = Polynomial.factory(variables, ordering, modulo, dataStructure);
+                    final Polynomial product = factory.valueOf(p).multiply(factory.valueOf(q));
+                    assertEquals(expected, product.genericValue());
+                    assertEquals(factory.valueOf(q).multiply(factory.valueOf(p)), product);
+                    assertEquals(0, factory.valueOf(p).multiply(factory.valueOf(q).negate()).add(product).signum());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testModularMultiplication() throws Exception {
+        final Generic p = Expression.valueOf("3*x^2*y-2*x*y^2+5*y-7*x+4*y-1").expand();
+        final Generic q = Expression.valueOf("x^3+2*x*y^2-y+9*x^2-x").expand();
+        final Variable[] variables = Expression.variables(new Generic[]{p, q});
+
+        final Polynomial integers = Polynomial.factory(variables, Monomial.lexicographic, 0, Basis.ARRAY_DECLINED);
+        final Polynomial modular = Polynomial.factory(variables, Monomial.lexicographic, 7, Basis.ARRAY_DECLINED);
+        final Polynomial product = integers.valueOf(p).multiply(integers.valueOf(q));
+        assertEquals(modular.valueOf(product.genericValue()), modular.valueOf(p).multiply(modular.valueOf(q)));
+    }
+}
@@ -80,6 +80,7 @@ public class JsclMessageTest {
             case 17:
             case 20:
             case 21:
+            case 26:
                 return Arrays.asList("param0");
         }
         return Collections.emptyList();
@@ -0,0 +1,206 @@
+package org.solovyev.common.math;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class AbstractMathRegistryTest {
+
+    @Test
+    public void testShouldFindEntities() throws Exception {
+        final TestRegistry registry = new TestRegistry(0);
+        final TestEntity sin = new TestEntity("sin", true);
+        final TestEntity cos = new TestEntity("cos", false);
+        registry.add(sin);
+        registry.add(cos);
+
+        Assert.assertSame(sin, registry.get("sin"));
+        Assert.assertSame(cos, registry.getById(cos.getId()));
+        Assert.assertTrue(registry.contains("cos"));
+        Assert.assertFalse(registry.contains("tan"));
+        Assert.assertNull(registry.get("tan"));
+
+        final List<String> names = registry.getNames();
+        Assert.assertSame(names, registry.getNames());
+
+        final TestEntity tan = new TestEntity("tan", false);
+        tan.setId(cos.getId());
+        Assert.assertSame(cos, registry.addOrUpdate(tan));
+        Assert.assertNotSame(names, registry.getNames());
+        Assert.assertSame(cos, registry.get("tan"));
+        Assert.assertNull(registry.get("cos"));
+        Assert.assertSame(cos, registry.getById(cos.getId()));
+
+        registry.remove(cos);
+        Assert.assertNull(registry.get("tan"));
+        Assert.assertNull(registry.getById(cos.getId()));
+
+        // system entities can't be removed
+        registry.remove(sin);
+        Assert.assertSame(sin, registry.get("sin"));
+    }
+
+    @Test
+    public void testShouldFindEntitiesConcurrently() throws Exception {
+        final TestRegistry registry = new TestRegistry(100);
+        registry.init();
+        final AtomicInteger misses = new AtomicInteger();
+        read(registry, 4, 100, false, misses);
+        Assert.assertEquals(0, misses.get());
+    }
+
+    @Ignore("Benchmark")
+    @Test
+    public void benchmarkGet() throws Exception {
+        final AtomicInteger misses = new AtomicInteger();
+        final StringBuilder report = new StringBuilder();
+        long linearTime = 0;
+        long hashTime = 0;
+        for (int size : new int[]{10, 100, 1000}) {
+            for (int threads : new int[]{1, 4}) {
+                final TestRegistry registry = new TestRegistry(size);
+                registry.init();
+                // warm up
+                read(registry, 1, size, true, misses);
+                read(registry, 1, size, false, misses);
+                linearTime = read(registry, threads, size, true, misses);
+                hashTime = read(registry, threads, size, false, misses);
+                report.append("Entities: ").append(size).append(", threads: ").append(threads)
+                        .append(", synchronized linear search: ").append(linearTime).append(" ms, get: ").append(hashTime).append(" ms\n");
+            }
+        }
+        Assert.assertEquals(0, misses.get());
+        Assert.assertTrue(report.toString(), hashTime < linearTime);
+    }
+
+    private static long read(@Nonnull final TestRegistry registry, int threads, final int size, final boolean linear,
+                             @Nonnull final AtomicInteger misses) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 100000; j++) {
+                            final String name = TestRegistry.name(j % size);
+                            final TestEntity entity = linear ? find(registry, name) : registry.get(name);
+                            if (entity == null || !entity.getName().equals(name)) {
+                                misses.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finish.countDown();
+                    }
+                }
+            });
+        }
+        final long startTime = System.currentTimeMillis();
+        start.countDown();
+        finish.await();
+        final long time = System.currentTimeMillis() - startTime;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        return time;
+    }
+
+    // lookup as it was done before the registry had indexes
+    @Nullable
+    private static TestEntity find(@Nonnull TestRegistry registry, @Nonnull String name) {
+        synchronized (registry) {
+            final List<TestEntity> entities = registry.getEntities();
+            for (int i = 0; i < entities.size(); i++) {
+                final TestEntity entity = entities.get(i);
+                if (entity.getName().equals(name)) {
+                    return entity;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class TestRegistry extends AbstractMathRegistry<TestEntity> {
+
+        private final int size;
+
+        private TestRegistry(int size) {
+            this.size = size;
+        }
+
+        @Nonnull
+        static String name(int i) {
+            return "f" + i;
+        }
+
+        @Override
+        protected void onInit() {
+            final List<TestEntity> entities = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entities.add(new TestEntity(name(i), true));
+            }
+            for (TestEntity entity : entities) {
+                add(entity);
+            }
+        }
+    }
+
+    private static final class TestEntity implements MathEntity {
+
+        @Nonnull
+        private String name;
+        private final boolean system;
+        private Integer id;
+
+        private TestEntity(@Nonnull String name, boolean system) {
+            this.name = name;
+            this.system = system;
+        }
+
+        @Nonnull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isSystem() {
+            return system;
+        }
+
+        @Nonnull
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(@Nonnull Integer id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean isIdDefined() {
+            return id != null;
+        }
+
+        @Override
+        public void copy(@Nonnull MathEntity that) {
+            this.name = that.getName();
+        }
+    }
+}
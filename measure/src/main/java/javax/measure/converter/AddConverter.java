@@ -56,6 +56,15 @@ public final class AddConverter extends UnitConverter {
         return amount + _offset;
     }
 
+    @Override
+    public void convert(double[] src, double[] dst) {
+        checkLength(src, dst);
+        final double offset = _offset;
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = src[i] + offset;
+        }
+    }
+
     @Override
     public boolean isLinear() {
         return false;
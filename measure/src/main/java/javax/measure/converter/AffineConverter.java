@@ -0,0 +1,112 @@
+/*
+ * JScience - Java(TM) Tools and Libraries for the Advancement of Sciences.
+ * Copyright (C) 2006 - JScience (http://jscience.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package javax.measure.converter;
+
+/**
+ * <p> This class represents a converter multiplying numeric values by a
+ *     constant scale factor and then adding a constant offset
+ *     (<code>y = scale * x + offset</code>). Such converters result from
+ *     the {@link UnitConverter#flatten flattening} of a chain of
+ *     {@link MultiplyConverter}, {@link RationalConverter} and
+ *     {@link AddConverter}.</p>
+ *
+ * <p> Instances of this class are immutable.</p>
+ */
+public final class AffineConverter extends UnitConverter {
+
+    /**
+     * Holds the scale factor.
+     */
+    private final double _scale;
+
+    /**
+     * Holds the offset (added after scaling).
+     */
+    private final double _offset;
+
+    /**
+     * Creates a converter with the specified scale factor and offset.
+     *
+     * @param  scale the scale factor.
+     * @param  offset the offset added after scaling.
+     * @throws IllegalArgumentException if the converter is the identity.
+     */
+    public AffineConverter(double scale, double offset) {
+        if ((scale == 1.0) && (offset == 0.0))
+            throw new IllegalArgumentException("Identity converter not allowed");
+        _scale = scale;
+        _offset = offset;
+    }
+
+    /**
+     * Returns the scale factor.
+     *
+     * @return the scale factor.
+     */
+    public double getScale() {
+        return _scale;
+    }
+
+    /**
+     * Returns the offset (added after scaling).
+     *
+     * @return the offset.
+     */
+    public double getOffset() {
+        return _offset;
+    }
+
+    @Override
+    public UnitConverter inverse() {
+        return valueOf(1.0 / _scale, -_offset / _scale);
+    }
+
+    @Override
+    public double convert(double amount) {
+        return _scale * amount + _offset;
+    }
+
+    @Override
+    public void convert(double[] src, double[] dst) {
+        checkLength(src, dst);
+        final double scale = _scale;
+        final double offset = _offset;
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = scale * src[i] + offset;
+        }
+    }
+
+    @Override
+    public boolean isLinear() {
+        return _offset == 0.0;
+    }
+
+    @Override
+    public UnitConverter concatenate(UnitConverter converter) {
+        final double[] scaleOffset = {1.0, 0.0};
+        if (!compose(converter, scaleOffset))
+            return super.concatenate(converter);
+        final double scale = scaleOffset[0] * _scale;
+        final double offset = scaleOffset[1] * _scale + _offset;
+        return ((float) scale == 1.0f) && ((float) offset == 0.0f) ? UnitConverter.IDENTITY
+                : new AffineConverter(scale, offset);
+    }
+
+    @Override
+    public UnitConverter flatten() {
+        return this;
+    }
+
+    static UnitConverter valueOf(double scale, double offset) {
+        return (scale == 1.0) && (offset == 0.0) ? UnitConverter.IDENTITY
+                : new AffineConverter(scale, offset);
+    }
+
+    private static final long serialVersionUID = 1L;
+}
@@ -56,6 +56,15 @@ public final class MultiplyConverter extends UnitConverter {
         return _factor * amount;
     }
 
+    @Override
+    public void convert(double[] src, double[] dst) {
+        checkLength(src, dst);
+        final double factor = _factor;
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = factor * src[i];
+        }
+    }
+
     @Override
     public boolean isLinear() {
         return true;
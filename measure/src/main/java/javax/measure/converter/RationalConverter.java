@@ -77,6 +77,16 @@ public final class RationalConverter extends UnitConverter {
         return amount * _dividend / _divisor;
     }
 
+    @Override
+    public void convert(double[] src, double[] dst) {
+        checkLength(src, dst);
+        final double dividend = _dividend;
+        final double divisor = _divisor;
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = src[i] * dividend / divisor;
+        }
+    }
+
     @Override
     public boolean isLinear() {
         return true;
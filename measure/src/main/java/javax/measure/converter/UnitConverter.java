@@ -56,6 +56,31 @@ public abstract class UnitConverter implements Serializable {
      */
     public abstract double convert(double x) throws ConversionException;
 
+    /**
+     * Converts an array of double values. Sub-classes should override this
+     * method if the conversion can be done faster than by converting the
+     * values one by one.
+     *
+     * @param  src the numeric values to convert.
+     * @param  dst the array holding the converted values on return
+     *         (can be the same array as <code>src</code>).
+     * @throws IllegalArgumentException if <code>dst</code> is shorter than
+     *         <code>src</code>.
+     * @throws ConversionException if an error occurs during conversion.
+     */
+    public void convert(double[] src, double[] dst) throws ConversionException {
+        checkLength(src, dst);
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = convert(src[i]);
+        }
+    }
+
+    static void checkLength(double[] src, double[] dst) {
+        if (dst.length < src.length)
+            throw new IllegalArgumentException("Destination array is too short: "
+                    + dst.length + " < " + src.length);
+    }
+
     /**
      * Indicates if this converter is linear. A converter is linear if
      * <code>convert(u + v) == convert(u) + convert(v)</code> and
@@ -111,6 +136,61 @@ public abstract class UnitConverter implements Serializable {
         return (converter == IDENTITY) ? this : new Compound(converter, this);
     }
 
+    /**
+     * Returns a converter equivalent to this converter but cheaper to
+     * evaluate. A chain of scale and offset converters is replaced by a
+     * single {@link AffineConverter}; other converters are returned
+     * unchanged.
+     *
+     * @return the flattened converter.
+     */
+    public UnitConverter flatten() {
+        final double[] scaleOffset = {1.0, 0.0};
+        if (compose(this, scaleOffset))
+            return AffineConverter.valueOf(scaleOffset[0], scaleOffset[1]);
+        return this;
+    }
+
+    /**
+     * Composes the specified converter with the transformation
+     * <code>y = scaleOffset[0] * x + scaleOffset[1]</code>.
+     *
+     * @param  converter the converter applied after the transformation.
+     * @param  scaleOffset the scale and the offset of the transformation,
+     *         updated on return.
+     * @return <code>true</code> if the composition is a scale and offset
+     *         transformation; <code>false</code> otherwise (in which case
+     *         <code>scaleOffset</code> is undefined).
+     */
+    static boolean compose(UnitConverter converter, double[] scaleOffset) {
+        if (converter == IDENTITY) {
+            return true;
+        } else if (converter instanceof MultiplyConverter) {
+            final double factor = ((MultiplyConverter) converter).getFactor();
+            scaleOffset[0] *= factor;
+            scaleOffset[1] *= factor;
+            return true;
+        } else if (converter instanceof RationalConverter) {
+            final RationalConverter rational = (RationalConverter) converter;
+            final double factor = (double) rational.getDividend() / rational.getDivisor();
+            scaleOffset[0] *= factor;
+            scaleOffset[1] *= factor;
+            return true;
+        } else if (converter instanceof AddConverter) {
+            scaleOffset[1] += ((AddConverter) converter).getOffset();
+            return true;
+        } else if (converter instanceof AffineConverter) {
+            final AffineConverter that = (AffineConverter) converter;
+            scaleOffset[0] *= that.getScale();
+            scaleOffset[1] = scaleOffset[1] * that.getScale() + that.getOffset();
+            return true;
+        } else if (converter instanceof Compound) {
+            final Compound that = (Compound) converter;
+            return compose(that._first, scaleOffset) && compose(that._second, scaleOffset);
+        }
+        return false;
+    }
+
     /**
      * This inner class represents the identity converter (singleton).
      */
@@ -131,6 +211,14 @@ public abstract class UnitConverter implements Serializable {
             return true;
         }
 
+        @Override
+        public void convert(double[] src, double[] dst) {
+            checkLength(src, dst);
+            if (src != dst) {
+                System.arraycopy(src, 0, dst, 0, src.length);
+            }
+        }
+
         @Override
         public UnitConverter concatenate(UnitConverter converter) {
             return converter;
@@ -182,6 +270,17 @@ public abstract class UnitConverter implements Serializable {
             return _first.isLinear() && _second.isLinear();
         }
 
+        @Override
+        public UnitConverter flatten() {
+            final UnitConverter flat = super.flatten();
+            if (flat != this)
+                return flat;
+            final UnitConverter first = _first.flatten();
+            final UnitConverter second = _second.flatten();
+            return (first == _first) && (second == _second) ? this
+                    : new Compound(first, second);
+        }
+
         private static final long serialVersionUID = 1L;
 
     }
@@ -173,6 +173,7 @@ public final class Dimension implements Serializable {
      */
     public static void setModel(Model model) {
         Dimension.CurrentModel = model;
+        Unit.clearConverters();
     }
 
     /**
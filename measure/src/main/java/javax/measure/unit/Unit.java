@@ -12,9 +12,11 @@ import java.io.Serializable;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.measure.MeasureFormat;
 import javax.measure.converter.AddConverter;
+import javax.measure.converter.AffineConverter;
 import javax.measure.converter.ConversionException;
 import javax.measure.converter.MultiplyConverter;
 import javax.measure.converter.RationalConverter;
@@ -64,6 +66,18 @@ public abstract class Unit<Q extends Quantity> implements Serializable {
      */
     static final HashMap<String, Unit<?>> SYMBOL_TO_UNIT = new HashMap<String, Unit<?>>();
 
+    /**
+     * Holds the maximum number of converters kept in the cache.
+     */
+    private static final int MAX_CACHED_CONVERTERS = 1024;
+
+    /**
+     * Holds the converters already computed (only {@link AffineConverter}
+     * as it is known to be immutable).
+     */
+    private static final ConcurrentHashMap<ConverterKey, UnitConverter> CONVERTERS
+            = new ConcurrentHashMap<ConverterKey, UnitConverter>();
+
     /**
      * Default constructor.
      */
@@ -211,6 +225,30 @@ public abstract class Unit<Q extends Quantity> implements Serializable {
      */
     public final UnitConverter getConverterTo(Unit<?> that)
             throws ConversionException {
+        final ConverterKey key = new ConverterKey(this, that);
+        UnitConverter converter = CONVERTERS.get(key);
+        if (converter != null)
+            return converter;
+        converter = computeConverterTo(that).flatten();
+        if (!(converter instanceof AffineConverter))
+            return converter; // Might be mutable (e.g. currency converter).
+        if (CONVERTERS.size() >= MAX_CACHED_CONVERTERS) {
+            CONVERTERS.clear();
+        }
+        CONVERTERS.put(key, converter);
+        return converter;
+    }
+
+    /**
+     * Removes all the cached converters (e.g. when the dimensional model
+     * changes).
+     */
+    static void clearConverters() {
+        CONVERTERS.clear();
+    }
+
+    private UnitConverter computeConverterTo(Unit<?> that)
+            throws ConversionException {
         if (this.equals(that))
             return UnitConverter.IDENTITY;
         Unit<?> thisSystemUnit = this.getStandardUnit();
@@ -498,4 +536,36 @@ public abstract class Unit<Q extends Quantity> implements Serializable {
     public final String toString() {
         return UnitFormat.getInstance().format(this);
     }
-}
\ No newline at end of file
+
+    /**
+     * This inner class represents the key of the converters cache.
+     */
+    private static final class ConverterKey {
+
+        private final Unit<?> _from;
+
+        private final Unit<?> _to;
+
+        private final int _hashCode;
+
+        private ConverterKey(Unit<?> from, Unit<?> to) {
+            _from = from;
+            _to = to;
+            _hashCode = 31 * from.hashCode() + to.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            if (this == that) return true;
+            if (!(that instanceof ConverterKey)) return false;
+            ConverterKey key = (ConverterKey) that;
+            return _hashCode == key._hashCode && _from.equals(key._from)
+                    && _to.equals(key._to);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hashCode;
+        }
+    }
+}